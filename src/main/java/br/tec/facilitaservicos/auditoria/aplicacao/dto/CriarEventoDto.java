@@ -2,6 +2,7 @@ package br.tec.facilitaservicos.auditoria.aplicacao.dto;
 
 import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
 import br.tec.facilitaservicos.auditoria.dominio.enums.NivelSeveridade;
@@ -16,6 +17,7 @@ import jakarta.validation.constraints.NotNull;
  * garantindo rastreabilidade e conformidade.
  */
 @JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
 @Schema(description = "Dados para criação de um novo evento de auditoria")
 public class CriarEventoDto {
     @Schema(description = "Tipo do evento de auditoria", example = "LOGIN_SUCESSO")
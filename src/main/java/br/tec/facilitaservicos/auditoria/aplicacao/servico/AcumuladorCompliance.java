@@ -0,0 +1,201 @@
+package br.tec.facilitaservicos.auditoria.aplicacao.servico;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.RelatorioComplianceDto.SeveridadeViolacao;
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.RelatorioComplianceDto.TipoViolacao;
+import br.tec.facilitaservicos.auditoria.dominio.entidade.EventoAuditoriaR2dbc;
+import br.tec.facilitaservicos.auditoria.dominio.enums.NivelSeveridade;
+import br.tec.facilitaservicos.auditoria.dominio.enums.StatusEvento;
+import br.tec.facilitaservicos.auditoria.dominio.enums.TipoEvento;
+
+/**
+ * Agregados de uma partição do relatório de compliance.
+ *
+ * Memória constante por partição: contadores em arrays por enum, um total
+ * por dia e no máximo {@code amostraMaxima} violações detalhadas (as mais
+ * severas e, no empate, as mais antigas); as demais só entram nas
+ * contagens. Uma instância é alimentada por uma única partição, em
+ * sequência, e as partições são combinadas com {@link #combinar}.
+ */
+final class AcumuladorCompliance {
+
+    /**
+     * Violação detectada em um evento, ainda sem formato de DTO
+     */
+    record Violacao(TipoViolacao tipo, SeveridadeViolacao severidade, EventoAuditoriaR2dbc evento) {}
+
+    /** Mais severa primeiro; no empate, a mais antiga */
+    static final Comparator<Violacao> ORDEM_RELATORIO = Comparator
+        .comparing(Violacao::severidade)
+        .thenComparing(v -> v.evento().getDataEvento(), Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparing(v -> v.evento().getId());
+
+    private final int amostraMaxima;
+    private final LocalDateTime referencia;
+
+    long total;
+    long eventosComViolacao;
+    long dadosPessoais;
+    long anonimizados;
+    long semHash;
+    long comFalha;
+    final long[] porSeveridade = new long[NivelSeveridade.values().length];
+    final long[] porTipo = new long[TipoEvento.values().length];
+    final long[] violacoesPorTipo = new long[TipoViolacao.values().length];
+    final long[] violacoesPorSeveridade = new long[SeveridadeViolacao.values().length];
+    final Map<String, Long> porCategoria = new HashMap<>();
+    final TreeMap<LocalDate, Long> porDia = new TreeMap<>();
+
+    /** Cabeça = violação menos relevante, a primeira a sair quando a amostra enche */
+    private final PriorityQueue<Violacao> amostra = new PriorityQueue<>(ORDEM_RELATORIO.reversed());
+
+    /**
+     * @param referencia instante de geração, para avaliar retenção vencida
+     */
+    AcumuladorCompliance(int amostraMaxima, LocalDateTime referencia) {
+        this.amostraMaxima = amostraMaxima;
+        this.referencia = referencia;
+    }
+
+    void acumular(EventoAuditoriaR2dbc evento) {
+        total++;
+        if (evento.getSeveridade() != null) {
+            porSeveridade[evento.getSeveridade().ordinal()]++;
+        }
+        if (evento.getTipoEvento() != null) {
+            porTipo[evento.getTipoEvento().ordinal()]++;
+        }
+        if (evento.getCategoriaCompliance() != null) {
+            porCategoria.merge(evento.getCategoriaCompliance(), 1L, Long::sum);
+        }
+        if (evento.getDataEvento() != null) {
+            porDia.merge(evento.getDataEvento().toLocalDate(), 1L, Long::sum);
+        }
+        if (evento.isDadosPessoais()) {
+            dadosPessoais++;
+        }
+        if (evento.isAnonimizado()) {
+            anonimizados++;
+        }
+        if (evento.getStatusEvento() == StatusEvento.FALHA) {
+            comFalha++;
+        }
+        boolean hashAusente = evento.getHashEvento() == null || evento.getHashEvento().isBlank();
+        if (hashAusente) {
+            semHash++;
+        }
+
+        boolean violou = false;
+        if (acessoNaoAutorizado(evento)) {
+            registrarViolacao(TipoViolacao.ACESSO_NAO_AUTORIZADO, severidadeViolacao(evento.getSeveridade()), evento);
+            violou = true;
+        }
+        if (evento.isDadosPessoais() && !evento.isAnonimizado()
+                && evento.getRetencaoAte() != null && evento.getRetencaoAte().isBefore(referencia)) {
+            registrarViolacao(TipoViolacao.RETENCAO_EXCESSIVA, SeveridadeViolacao.ALTA, evento);
+            violou = true;
+        }
+        if (hashAusente) {
+            registrarViolacao(TipoViolacao.AUSENCIA_REGISTRO, SeveridadeViolacao.MEDIA, evento);
+            violou = true;
+        }
+        if (violou) {
+            eventosComViolacao++;
+        }
+    }
+
+    AcumuladorCompliance combinar(AcumuladorCompliance outro) {
+        total += outro.total;
+        eventosComViolacao += outro.eventosComViolacao;
+        dadosPessoais += outro.dadosPessoais;
+        anonimizados += outro.anonimizados;
+        semHash += outro.semHash;
+        comFalha += outro.comFalha;
+        somar(porSeveridade, outro.porSeveridade);
+        somar(porTipo, outro.porTipo);
+        somar(violacoesPorTipo, outro.violacoesPorTipo);
+        somar(violacoesPorSeveridade, outro.violacoesPorSeveridade);
+        outro.porCategoria.forEach((categoria, n) -> porCategoria.merge(categoria, n, Long::sum));
+        outro.porDia.forEach((dia, n) -> porDia.merge(dia, n, Long::sum));
+        outro.amostra.forEach(this::guardar);
+        return this;
+    }
+
+    long contarTipo(TipoEvento tipo) {
+        return porTipo[tipo.ordinal()];
+    }
+
+    long totalViolacoes() {
+        long soma = 0;
+        for (long n : violacoesPorTipo) {
+            soma += n;
+        }
+        return soma;
+    }
+
+    /**
+     * Amostra de violações na ordem do relatório
+     */
+    List<Violacao> amostraOrdenada() {
+        List<Violacao> ordenada = new ArrayList<>(amostra);
+        ordenada.sort(ORDEM_RELATORIO);
+        return ordenada;
+    }
+
+    private void registrarViolacao(TipoViolacao tipo, SeveridadeViolacao severidade, EventoAuditoriaR2dbc evento) {
+        violacoesPorTipo[tipo.ordinal()]++;
+        violacoesPorSeveridade[severidade.ordinal()]++;
+        guardar(new Violacao(tipo, severidade, evento));
+    }
+
+    private void guardar(Violacao violacao) {
+        if (amostraMaxima <= 0) {
+            return;
+        }
+        if (amostra.size() < amostraMaxima) {
+            amostra.add(violacao);
+        } else if (ORDEM_RELATORIO.compare(violacao, amostra.peek()) < 0) {
+            amostra.poll();
+            amostra.add(violacao);
+        }
+    }
+
+    /**
+     * Intrusão e bloqueio sempre contam; acesso negado só com severidade de erro
+     */
+    private static boolean acessoNaoAutorizado(EventoAuditoriaR2dbc evento) {
+        TipoEvento tipo = evento.getTipoEvento();
+        if (tipo == TipoEvento.TENTATIVA_INTRUSION || tipo == TipoEvento.LOGIN_BLOQUEADO) {
+            return true;
+        }
+        return tipo == TipoEvento.ACESSO_NEGADO && evento.getSeveridade() != null
+            && !evento.getSeveridade().isMenosSeveroQue(NivelSeveridade.ERROR);
+    }
+
+    private static SeveridadeViolacao severidadeViolacao(NivelSeveridade severidade) {
+        if (severidade == null) {
+            return SeveridadeViolacao.MEDIA;
+        }
+        return switch (severidade) {
+            case CRITICAL -> SeveridadeViolacao.CRITICA;
+            case ERROR -> SeveridadeViolacao.ALTA;
+            case WARN -> SeveridadeViolacao.MEDIA;
+            default -> SeveridadeViolacao.BAIXA;
+        };
+    }
+
+    private static void somar(long[] destino, long[] origem) {
+        for (int i = 0; i < destino.length; i++) {
+            destino[i] += origem[i];
+        }
+    }
+}
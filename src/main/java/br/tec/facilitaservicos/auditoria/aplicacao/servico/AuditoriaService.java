@@ -33,6 +33,12 @@ import java.util.Map;
 @Service
 public class AuditoriaService {
 
+    private final RelatorioComplianceService relatorioComplianceService;
+
+    public AuditoriaService(RelatorioComplianceService relatorioComplianceService) {
+        this.relatorioComplianceService = relatorioComplianceService;
+    }
+
     /**
      * Consulta eventos de auditoria com filtros avançados
      */
@@ -65,27 +71,10 @@ public class AuditoriaService {
 
     /**
      * Gera relatório de compliance para período específico
+     * (uma passada pelo período; ver {@link RelatorioComplianceService})
      */
     public Mono<RelatorioComplianceDto> gerarRelatorioCompliance(LocalDateTime dataInicio, LocalDateTime dataFim, String tipoRelatorio) {
-        RelatorioComplianceDto.ResumoExecutivo resumo = new RelatorioComplianceDto.ResumoExecutivo(
-            0, 0, 100.0, 0, 0, 0, RelatorioComplianceDto.StatusCompliance.CONFORME
-        );
-        
-        RelatorioComplianceDto relatorio = new RelatorioComplianceDto(
-            java.util.UUID.randomUUID().toString(),
-            tipoRelatorio,
-            dataInicio,
-            dataFim,
-            LocalDateTime.now(),
-            "sistema-auditoria",
-            resumo,
-            java.util.List.of(),
-            java.util.List.of(),
-            java.util.Map.of(),
-            java.util.Map.of()
-        );
-        
-        return Mono.just(relatorio);
+        return relatorioComplianceService.gerar(dataInicio, dataFim, tipoRelatorio);
     }
 
     /**
@@ -0,0 +1,296 @@
+package br.tec.facilitaservicos.auditoria.aplicacao.servico;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import br.tec.facilitaservicos.auditoria.dominio.entidade.ConsentimentoLogR2dbc;
+import br.tec.facilitaservicos.auditoria.dominio.enums.FinalidadeConsentimento;
+import br.tec.facilitaservicos.auditoria.dominio.repositorio.ConsentimentoRepository;
+import br.tec.facilitaservicos.auditoria.infraestrutura.privacidade.IndiceConsentimentos;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * ============================================================================
+ * ✅ REGISTRO E VERIFICAÇÃO DE CONSENTIMENTOS
+ * ============================================================================
+ *
+ * Escrita no banco, leitura na memória:
+ * - Registro: entrada no log append-only e upsert do estado atual na mesma
+ *   transação; depois do commit a mudança entra no índice local
+ * - Índice: {@link IndiceConsentimentos} carregado na subida a partir da
+ *   tabela de estado (por keyset) e mantido pelo log, seguido por seq. Os
+ *   demais pods recebem as mudanças em até
+ *   {@code auditoria.privacidade.consentimento.espera-ociosa-max-ms}
+ * - Versão: o seq até onde o log foi aplicado sem lacunas; vai nas respostas
+ *   para quem precisa saber quão atual é a decisão
+ *
+ * Lacunas de seq (transações ainda não confirmadas) seguram a versão por até
+ * {@code espera-lacuna-ms}; depois disso são tratadas como rollback.
+ * Antes da carga inicial as verificações falham com IllegalStateException.
+ */
+@Service
+public class ConsentimentoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConsentimentoService.class);
+
+    private final ConsentimentoRepository repository;
+    private final TransactionalOperator transactionalOperator;
+    private final IndiceConsentimentos indice = new IndiceConsentimentos();
+    private final AtomicLong versao = new AtomicLong();
+    private final AtomicBoolean ativo = new AtomicBoolean(false);
+    private final Timer verificacaoLote;
+    private volatile boolean pronto;
+    private volatile Disposable acompanhamento;
+    private long lacunaDesde;
+
+    @Value("${auditoria.privacidade.consentimento.tamanho-lote:5000}")
+    private int tamanhoLote;
+
+    @Value("${auditoria.privacidade.consentimento.lote-verificacao-maximo:10000}")
+    private int loteVerificacaoMaximo;
+
+    @Value("${auditoria.privacidade.consentimento.espera-ociosa-max-ms:500}")
+    private long esperaOciosaMaxMs;
+
+    @Value("${auditoria.privacidade.consentimento.espera-lacuna-ms:5000}")
+    private long esperaLacunaMs;
+
+    public ConsentimentoService(ConsentimentoRepository repository,
+                                TransactionalOperator transactionalOperator,
+                                MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.transactionalOperator = transactionalOperator;
+        this.verificacaoLote = Timer.builder("audit.consentimento.verificacao.lote")
+            .description("Duração das verificações de consentimento em lote")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        meterRegistry.gauge("audit.consentimento.usuarios", indice, IndiceConsentimentos::usuarios);
+        meterRegistry.gauge("audit.privacidade.usuarios.consentimento", indice, IndiceConsentimentos::usuariosComConsentimento);
+        meterRegistry.gauge("audit.consentimento.versao", versao);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (!ativo.compareAndSet(false, true)) {
+            return;
+        }
+        // O log é lido a partir do seq anterior à carga: o que mudar durante a carga chega pelos dois lados
+        acompanhamento = repository.findUltimoSeq()
+            .flatMap(seq -> carregarEstado("", "").thenReturn(seq))
+            .doOnError(error -> logger.warn("Falha na carga do índice de consentimentos: {}", error.getMessage()))
+            .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, Duration.ofMillis(esperaLacunaMs)))
+            .doOnNext(seq -> {
+                versao.set(seq);
+                pronto = true;
+                logger.info("Índice de consentimentos carregado: {} usuários, versão {}", indice.usuarios(), seq);
+            })
+            .thenMany(Mono.defer(this::acompanharLog)
+                .flatMap(aplicadas -> aplicadas > 0
+                    ? Mono.just(aplicadas)
+                    : Mono.delay(Duration.ofMillis(esperaOciosaMaxMs)).thenReturn(aplicadas))
+                .onErrorResume(error -> {
+                    logger.warn("Falha ao acompanhar log de consentimentos: {}", error.getMessage());
+                    return Mono.delay(Duration.ofMillis(esperaOciosaMaxMs)).thenReturn(0);
+                })
+                .repeat(ativo::get))
+            .subscribe(
+                _ -> {},
+                error -> logger.error("Acompanhamento do log de consentimentos encerrado com erro", error));
+    }
+
+    @PreDestroy
+    public void parar() {
+        ativo.set(false);
+        Disposable atual = acompanhamento;
+        if (atual != null) {
+            atual.dispose();
+        }
+    }
+
+    /**
+     * Registra uma mudança de consentimento
+     *
+     * @return estado do usuário depois da mudança; erro
+     *         {@link IllegalArgumentException} para usuário ou finalidade inválidos
+     */
+    public Mono<Map<String, Object>> registrar(String usuarioId, String finalidade, boolean concedido, String origem) {
+        return Mono.defer(() -> {
+            if (usuarioId == null || usuarioId.isBlank()) {
+                return Mono.error(new IllegalArgumentException("usuarioId é obrigatório"));
+            }
+            FinalidadeConsentimento alvo = FinalidadeConsentimento.de(finalidade);
+            LocalDateTime agora = LocalDateTime.now();
+
+            return repository.save(ConsentimentoLogR2dbc.mudanca(usuarioId, alvo.name(), concedido, origem))
+                .flatMap(log -> repository.aplicarEstado(usuarioId, alvo.name(), concedido, log.getSeq(), agora)
+                    .thenReturn(log))
+                .as(transactionalOperator::transactional)
+                .map(log -> {
+                    indice.aplicar(usuarioId, alvo, concedido, log.getSeq());
+                    Map<String, Object> resposta = montarEstado(usuarioId);
+                    resposta.put("seq", log.getSeq());
+                    return resposta;
+                });
+        });
+    }
+
+    /**
+     * @throws IllegalStateException antes da carga inicial do índice
+     */
+    public boolean consentiu(String usuarioId, FinalidadeConsentimento finalidade) {
+        exigirPronto();
+        return indice.consentiu(usuarioId, finalidade);
+    }
+
+    /**
+     * Finalidades e versão do índice para um usuário
+     *
+     * @throws IllegalStateException antes da carga inicial do índice
+     */
+    public Map<String, Object> estado(String usuarioId) {
+        exigirPronto();
+        return montarEstado(usuarioId);
+    }
+
+    private Map<String, Object> montarEstado(String usuarioId) {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("usuarioId", usuarioId);
+        estado.put("finalidades", indice.finalidades(usuarioId));
+        estado.put("versao", versao.get());
+        return estado;
+    }
+
+    /**
+     * Verificação em lote de uma finalidade para muitos usuários
+     *
+     * @throws IllegalArgumentException acima de {@code lote-verificacao-maximo} usuários
+     * @throws IllegalStateException    antes da carga inicial do índice
+     */
+    public Map<String, Object> verificarLote(Collection<String> usuarios, FinalidadeConsentimento finalidade) {
+        exigirPronto();
+        if (usuarios.size() > loteVerificacaoMaximo) {
+            throw new IllegalArgumentException("Máximo de " + loteVerificacaoMaximo + " usuários por verificação");
+        }
+        long inicio = System.nanoTime();
+        Map<String, Boolean> consentimentos = indice.verificar(usuarios, finalidade);
+        verificacaoLote.record(Duration.ofNanos(System.nanoTime() - inicio));
+
+        Map<String, Object> resposta = new LinkedHashMap<>();
+        resposta.put("finalidade", finalidade.name());
+        resposta.put("versao", versao.get());
+        resposta.put("consentimentos", consentimentos);
+        return resposta;
+    }
+
+    /**
+     * Usuários com ao menos uma finalidade concedida (mantido pelo índice)
+     */
+    public long usuariosComConsentimento() {
+        return indice.usuariosComConsentimento();
+    }
+
+    public boolean isPronto() {
+        return pronto;
+    }
+
+    public Mono<List<ConsentimentoLogR2dbc>> historico(String usuarioId, int limite) {
+        return repository.findHistorico(usuarioId, limite).collectList();
+    }
+
+    // ========== ÍNDICE ==========
+
+    private Mono<Void> carregarEstado(String ultimoUsuario, String ultimaFinalidade) {
+        return repository.findPaginaEstado(ultimoUsuario, ultimaFinalidade, tamanhoLote)
+            .collectList()
+            .flatMap(pagina -> {
+                if (pagina.isEmpty()) {
+                    return Mono.<Void>empty();
+                }
+                pagina.forEach(this::aplicar);
+                if (pagina.size() < tamanhoLote) {
+                    return Mono.<Void>empty();
+                }
+                ConsentimentoLogR2dbc ultimo = pagina.get(pagina.size() - 1);
+                return Mono.defer(() -> carregarEstado(ultimo.getUsuarioId(), ultimo.getFinalidade()));
+            });
+    }
+
+    /**
+     * Aplica o próximo trecho do log e avança a versão até a primeira lacuna
+     *
+     * @return quantas entradas foram lidas
+     */
+    private Mono<Integer> acompanharLog() {
+        long confirmado = versao.get();
+        return repository.findLogApos(confirmado, tamanhoLote)
+            .collectList()
+            .map(entradas -> {
+                long esperado = confirmado + 1;
+                boolean lacuna = false;
+                for (ConsentimentoLogR2dbc entrada : entradas) {
+                    aplicar(entrada);
+                    if (!lacuna && entrada.getSeq() == esperado) {
+                        esperado++;
+                    } else {
+                        lacuna = true;
+                    }
+                }
+                avancarVersao(entradas, esperado - 1, lacuna);
+                // Só conta como progresso o que avançou a versão; lacuna aguarda o intervalo ocioso
+                return (int) (versao.get() - confirmado);
+            });
+    }
+
+    private void avancarVersao(List<ConsentimentoLogR2dbc> entradas, long contiguo, boolean lacuna) {
+        if (!lacuna) {
+            lacunaDesde = 0;
+            versao.set(contiguo);
+            return;
+        }
+        long agora = System.currentTimeMillis();
+        if (lacunaDesde == 0) {
+            lacunaDesde = agora;
+        }
+        if (agora - lacunaDesde >= esperaLacunaMs) {
+            // Seq reservado e nunca confirmado (rollback): segue em frente
+            lacunaDesde = 0;
+            versao.set(entradas.get(entradas.size() - 1).getSeq());
+        } else {
+            versao.set(contiguo);
+        }
+    }
+
+    private void aplicar(ConsentimentoLogR2dbc entrada) {
+        try {
+            indice.aplicar(entrada.getUsuarioId(), FinalidadeConsentimento.valueOf(entrada.getFinalidade()),
+                entrada.isConcedido(), entrada.getSeq());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Finalidade desconhecida no consentimento seq {}: {}", entrada.getSeq(), entrada.getFinalidade());
+        }
+    }
+
+    private void exigirPronto() {
+        if (!pronto) {
+            throw new IllegalStateException("Índice de consentimentos ainda não carregado");
+        }
+    }
+}
@@ -1,25 +1,45 @@
 package br.tec.facilitaservicos.auditoria.aplicacao.servico;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
 import br.tec.facilitaservicos.auditoria.aplicacao.dto.CriarEventoDto;
 import br.tec.facilitaservicos.auditoria.aplicacao.mapper.EventoAuditoriaMapper;
+import br.tec.facilitaservicos.auditoria.configuracao.CacheConfig;
 import br.tec.facilitaservicos.auditoria.dominio.entidade.EventoAuditoriaR2dbc;
 import br.tec.facilitaservicos.auditoria.dominio.enums.TipoEvento;
 import br.tec.facilitaservicos.auditoria.dominio.enums.StatusEvento;
 import br.tec.facilitaservicos.auditoria.dominio.enums.NivelSeveridade;
 import br.tec.facilitaservicos.auditoria.dominio.repositorio.EventoAuditoriaRepository;
+import br.tec.facilitaservicos.auditoria.dominio.repositorio.InsercaoEmLoteRepository;
 import br.tec.facilitaservicos.auditoria.infraestrutura.cache.AuditoriaCacheService;
+import br.tec.facilitaservicos.auditoria.infraestrutura.cache.ReactiveCacheManager;
+import br.tec.facilitaservicos.auditoria.infraestrutura.carga.ControleAdmissaoIngestao;
+import br.tec.facilitaservicos.auditoria.infraestrutura.carga.IngestaoSobrecarregadaException;
+import br.tec.facilitaservicos.auditoria.infraestrutura.carga.MonitorCargaBanco;
+import br.tec.facilitaservicos.auditoria.infraestrutura.diario.DiarioIngestaoService;
+import br.tec.facilitaservicos.auditoria.infraestrutura.outbox.OutboxService;
 import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.EventStreamingService;
 import br.tec.facilitaservicos.auditoria.infraestrutura.seguranca.HashIntegridadeService;
 import reactor.core.publisher.Flux;
@@ -56,12 +76,23 @@ import reactor.core.publisher.Mono;
 @Service
 public class EventoAuditoriaService {
 
+    private static final Logger logger = LoggerFactory.getLogger(EventoAuditoriaService.class);
+
+    private static final Duration ESPERA_PUBLICADOR_SATURADO = Duration.ofMillis(50);
+
     private final EventoAuditoriaRepository repository;
     private final EventoAuditoriaMapper mapper;
     private final AuditoriaCacheService cacheService;
     private final EventStreamingService streamingService;
     private final HashIntegridadeService hashService;
     private final ObjectMapper objectMapper;
+    private final ReactiveCacheManager cacheManager;
+    private final OutboxService outboxService;
+    private final TransactionalOperator transactionalOperator;
+    private final MonitorCargaBanco monitorCarga;
+    private final ControleAdmissaoIngestao controleAdmissao;
+    private final DiarioIngestaoService diarioIngestao;
+    private final InsercaoEmLoteRepository insercaoEmLote;
 
     @Value("${auditoria.retention.default-days:730}")
     private int retencaoPadraoDias;
@@ -75,95 +106,300 @@ public class EventoAuditoriaService {
     @Value("${feature.auditoria.streaming:true}")
     private boolean streamingHabilitado;
 
+    @Value("${auditoria.reprocessamento.lote.tamanho:1000}")
+    private int tamanhoLoteReprocessamento;
+
     public EventoAuditoriaService(
             EventoAuditoriaRepository repository,
             EventoAuditoriaMapper mapper,
             AuditoriaCacheService cacheService,
             EventStreamingService streamingService,
             HashIntegridadeService hashService,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            ReactiveCacheManager cacheManager,
+            OutboxService outboxService,
+            TransactionalOperator transactionalOperator,
+            MonitorCargaBanco monitorCarga,
+            ControleAdmissaoIngestao controleAdmissao,
+            DiarioIngestaoService diarioIngestao,
+            InsercaoEmLoteRepository insercaoEmLote) {
         this.repository = repository;
         this.mapper = mapper;
         this.cacheService = cacheService;
         this.streamingService = streamingService;
         this.hashService = hashService;
         this.objectMapper = objectMapper;
+        this.cacheManager = cacheManager;
+        this.outboxService = outboxService;
+        this.transactionalOperator = transactionalOperator;
+        this.monitorCarga = monitorCarga;
+        this.controleAdmissao = controleAdmissao;
+        this.diarioIngestao = diarioIngestao;
+        this.insercaoEmLote = insercaoEmLote;
     }
 
     // === CRIAÇÃO DE EVENTOS ===
 
     /**
      * Registra novo evento de auditoria
+     * 
+     * O evento e sua linha de outbox são gravados na mesma transação; o
+     * OutboxRelay publica no stream após o commit. A duração da transação
+     * alimenta o {@link MonitorCargaBanco} (p99 que os trabalhos em segundo
+     * plano usam para ceder o banco à ingestão).
+     * 
+     * A gravação passa pelo {@link ControleAdmissaoIngestao}: sob sobrecarga
+     * os eventos menos severos esperam vaga ou são recusados com
+     * {@link br.tec.facilitaservicos.auditoria.infraestrutura.carga.IngestaoSobrecarregadaException}
+     * antes dos críticos.
+     * 
+     * Recusado pela admissão ou com o banco indisponível, o evento vai para o
+     * {@link DiarioIngestaoService} (disco local, após fsync) e volta como
+     * CRIADO, ainda sem hash; o drenador o grava quando o banco voltar.
+     * Enquanto houver eventos no diário, os novos entram atrás deles para não
+     * inverter a ordem da cadeia.
      */
     public Mono<EventoAuditoriaDto> registrarEvento(CriarEventoDto criarEventoDto) {
-        return criarEventoComIntegridade(criarEventoDto)
-            .flatMap(repository::save)
-            .map(mapper::paraDto)
+        NivelSeveridade severidade = criarEventoDto.severidade() != null
+            ? criarEventoDto.severidade()
+            : NivelSeveridade.INFO;
+        String id = UUID.randomUUID().toString();
+        if (diarioIngestao.temPendentes()) {
+            return desviarParaDiario(id, criarEventoDto);
+        }
+        return controleAdmissao.executar(severidade, () -> gravarEvento(id, criarEventoDto))
             .doOnSuccess(eventoDto -> {
-                // Streaming assíncrono para Kafka
                 if (streamingHabilitado) {
-                    streamingService.emitirEvento(eventoDto)
-                        .subscribe(
-                            result -> {}, // Success handler
-                            error -> {} // Error handler (não deve falhar o fluxo principal)
-                        );
+                    outboxService.notificarCommit();
                 }
                 
                 // Cache do evento recém-criado
                 cacheService.cachearEvento(eventoDto.id(), eventoDto)
                     .subscribe();
+            })
+            .onErrorResume(this::deveDesviarParaDiario, error -> {
+                logger.debug("Evento {} desviado para o diário: {}", id, error.getMessage());
+                return desviarParaDiario(id, criarEventoDto);
             });
     }
 
+    /**
+     * Evento e outbox na mesma transação, com a duração registrada no monitor
+     */
+    private Mono<EventoAuditoriaDto> gravarEvento(String id, CriarEventoDto criarEventoDto) {
+        long inicio = System.nanoTime();
+        return criarEventoComIntegridade(id, criarEventoDto)
+            .flatMap(repository::save)
+            .map(mapper::paraDto)
+            .flatMap(eventoDto -> streamingHabilitado
+                ? outboxService.enfileirar(eventoDto).thenReturn(eventoDto)
+                : Mono.just(eventoDto))
+            .as(transactionalOperator::transactional)
+            .doOnTerminate(() -> monitorCarga.registrarInsercao(System.nanoTime() - inicio));
+    }
+
     /**
      * Cria evento com hash de integridade encadeado
      */
-    private Mono<EventoAuditoriaR2dbc> criarEventoComIntegridade(CriarEventoDto dto) {
+    private Mono<EventoAuditoriaR2dbc> criarEventoComIntegridade(String id, CriarEventoDto dto) {
         return repository.findUltimoEventoComHash()
             .map(EventoAuditoriaR2dbc::getHashEvento)
             .defaultIfEmpty("")
-            .flatMap(hashAnterior -> {
-                try {
-                    EventoAuditoriaR2dbc evento = EventoAuditoriaR2dbc.builder()
-                        .id(UUID.randomUUID().toString())
-                        .tipoEvento(dto.tipoEvento())
-                        .usuario(dto.usuarioId(), dto.usuarioNome())
-                        .sessao(dto.sessaoId(), dto.ipOrigem(), dto.userAgent())
-                        .entidade(dto.entidadeTipo(), dto.entidadeId(), dto.entidadeNome())
-                        .acao(dto.acaoRealizada())
-                        .dados(
-                            dto.dadosAntes() != null ? objectMapper.writeValueAsString(dto.dadosAntes()) : null,
-                            dto.dadosDepois() != null ? objectMapper.writeValueAsString(dto.dadosDepois()) : null
-                        )
-                        .metadados(
-                            dto.metadados() != null ? objectMapper.writeValueAsString(dto.metadados()) : "{}"
-                        )
-                        .severidade(dto.severidade() != null ? dto.severidade() : NivelSeveridade.INFO)
-                        .compliance(
-                            dto.tipoEvento().getCategoria(),
-                            dto.tipoEvento().requerDadosPessoais(),
-                            LocalDateTime.now().plusDays(dto.tipoEvento().getPeriodoRetencaoDias())
-                        )
-                        .rastreamento(dto.traceId(), dto.spanId())
-                        .sistema(sistemaNome, sistemaVersao)
-                        .build();
-
-                    // Calcular hash com integridade encadeada
-                    String hashEvento = hashService.calcularHashEvento(evento);
-                    evento.setHashEvento(hashEvento);
-                    evento.setHashAnterior(hashAnterior);
-
-                    // Marcar como validado se não há problemas
-                    evento.setStatusEvento(StatusEvento.VALIDADO);
-
-                    return Mono.just(evento);
-
-                } catch (JsonProcessingException e) {
-                    return Mono.error(new IllegalArgumentException("Erro ao serializar dados do evento", e));
+            .flatMap(hashAnterior -> Mono.fromCallable(() -> encadear(montarEvento(id, dto, null), hashAnterior)));
+    }
+
+    /**
+     * Entidade a partir do DTO, ainda sem hash (status CRIADO)
+     * 
+     * @param recebidoEm instante original de chegada, guardado nos metadados
+     *                   quando a gravação acontece depois (diário)
+     */
+    private EventoAuditoriaR2dbc montarEvento(String id, CriarEventoDto dto, Instant recebidoEm) {
+        try {
+            Map<String, Object> metadados = dto.metadados();
+            if (recebidoEm != null) {
+                metadados = new LinkedHashMap<>(metadados != null ? metadados : Map.of());
+                metadados.put("recebidoEm", recebidoEm.toString());
+            }
+            return EventoAuditoriaR2dbc.builder()
+                .id(id)
+                .tipoEvento(dto.tipoEvento())
+                .usuario(dto.usuarioId(), dto.usuarioNome())
+                .sessao(dto.sessaoId(), dto.ipOrigem(), dto.userAgent())
+                .entidade(dto.entidadeTipo(), dto.entidadeId(), dto.entidadeNome())
+                .acao(dto.acaoRealizada())
+                .dados(
+                    dto.dadosAntes() != null ? objectMapper.writeValueAsString(dto.dadosAntes()) : null,
+                    dto.dadosDepois() != null ? objectMapper.writeValueAsString(dto.dadosDepois()) : null
+                )
+                .metadados(
+                    metadados != null ? objectMapper.writeValueAsString(metadados) : "{}"
+                )
+                .severidade(dto.severidade() != null ? dto.severidade() : NivelSeveridade.INFO)
+                .compliance(
+                    dto.tipoEvento().getCategoria(),
+                    dto.tipoEvento().requerDadosPessoais(),
+                    LocalDateTime.now().plusDays(dto.tipoEvento().getPeriodoRetencaoDias())
+                )
+                .rastreamento(dto.traceId(), dto.spanId())
+                .sistema(sistemaNome, sistemaVersao)
+                .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Erro ao serializar dados do evento", e);
+        }
+    }
+
+    /**
+     * Calcula o hash do evento e o liga ao anterior da cadeia
+     */
+    private EventoAuditoriaR2dbc encadear(EventoAuditoriaR2dbc evento, String hashAnterior) {
+        evento.setHashEvento(hashService.calcularHashEvento(evento));
+        evento.setHashAnterior(hashAnterior);
+
+        // Marcar como validado se não há problemas
+        evento.setStatusEvento(StatusEvento.VALIDADO);
+        return evento;
+    }
+
+    // === DIÁRIO DE INGESTÃO ===
+
+    private boolean deveDesviarParaDiario(Throwable error) {
+        return diarioIngestao.habilitado()
+            && (error instanceof IngestaoSobrecarregadaException || ControleAdmissaoIngestao.sobrecarga(error));
+    }
+
+    /**
+     * Guarda o evento no diário local e devolve a versão provisória (CRIADO,
+     * sem hash); o id é o mesmo que ele terá no banco
+     */
+    private Mono<EventoAuditoriaDto> desviarParaDiario(String id, CriarEventoDto dto) {
+        return Mono.fromCallable(() -> mapper.paraDto(montarEvento(id, dto, null)))
+            .flatMap(provisorio -> diarioIngestao.anexar(id, Instant.now(), dto).thenReturn(provisorio));
+    }
+
+    /**
+     * Grava no banco os eventos desviados para o diário, na ordem do diário
+     * 
+     * Os ids já presentes (lote relido depois de uma queda entre o commit e a
+     * confirmação do cursor) são ignorados. A data do evento é a da gravação,
+     * para manter a cadeia em ordem; a de chegada fica em metadados.recebidoEm.
+     * 
+     * @return quantidade de eventos gravados
+     */
+    public Mono<Integer> gravarDoDiario(List<DiarioIngestaoService.Entrada> entradas) {
+        List<String> ids = entradas.stream().map(DiarioIngestaoService.Entrada::id).toList();
+        return repository.findAllById(ids)
+            .map(EventoAuditoriaR2dbc::getId)
+            .collect(Collectors.toSet())
+            .flatMap(gravados -> Mono.fromCallable(() -> pendentesDoDiario(entradas, gravados)))
+            .flatMap(this::gravarEncadeados)
+            .doOnNext(gravados -> {
+                if (streamingHabilitado && !gravados.isEmpty()) {
+                    outboxService.notificarCommit();
                 }
+            })
+            .map(List::size);
+    }
+
+    private List<EventoAuditoriaR2dbc> pendentesDoDiario(List<DiarioIngestaoService.Entrada> entradas, Set<String> gravados) {
+        List<EventoAuditoriaR2dbc> eventos = new ArrayList<>(entradas.size());
+        for (DiarioIngestaoService.Entrada entrada : entradas) {
+            if (!gravados.contains(entrada.id())) {
+                eventos.add(montarEvento(entrada.id(), entrada.evento(), Instant.ofEpochMilli(entrada.recebidoEm())));
+            }
+        }
+        return eventos;
+    }
+
+    /**
+     * Grava os eventos em uma única transação, encadeando os hashes na ordem
+     * da lista a partir do último evento do banco
+     * 
+     * Eventos e outbox entram cada um com um INSERT multi-linha. A data do
+     * evento é atribuída aqui, um microssegundo a mais por posição, para que
+     * a ordem por data_evento (cabeça da cadeia) seja a da lista.
+     */
+    private Mono<List<EventoAuditoriaDto>> gravarEncadeados(List<EventoAuditoriaR2dbc> eventos) {
+        if (eventos.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return repository.findUltimoEventoComHash()
+            .map(EventoAuditoriaR2dbc::getHashEvento)
+            .defaultIfEmpty("")
+            .flatMap(hashInicial -> {
+                LocalDateTime agora = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+                String anterior = hashInicial;
+                for (int i = 0; i < eventos.size(); i++) {
+                    EventoAuditoriaR2dbc evento = eventos.get(i);
+                    evento.setDataEvento(agora.plus(i, ChronoUnit.MICROS));
+                    encadear(evento, anterior);
+                    anterior = evento.getHashEvento();
+                }
+                List<EventoAuditoriaDto> gravados = eventos.stream().map(mapper::paraDto).toList();
+                return insercaoEmLote.inserir(eventos)
+                    .then(streamingHabilitado ? outboxService.enfileirarLote(gravados) : Mono.empty())
+                    .thenReturn(gravados);
+            })
+            .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Registra um lote de eventos com uma única transação e uma única vaga
+     * na admissão (a da severidade mais alta do lote)
+     * 
+     * Os hashes são encadeados na ordem da lista. Como no registro
+     * individual, o lote vai para o diário se for recusado ou o banco estiver
+     * indisponível, e também enquanto o diário tiver pendentes.
+     * 
+     * @return um evento por item, na mesma ordem (CRIADO se foi para o diário)
+     */
+    public Mono<List<EventoAuditoriaDto>> registrarLote(List<CriarEventoDto> dtos) {
+        if (dtos.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        List<String> ids = dtos.stream().map(_ -> UUID.randomUUID().toString()).toList();
+        if (diarioIngestao.temPendentes()) {
+            return desviarLoteParaDiario(ids, dtos);
+        }
+        NivelSeveridade severidade = dtos.stream()
+            .map(dto -> dto.severidade() != null ? dto.severidade() : NivelSeveridade.INFO)
+            .reduce((a, b) -> a.isMaisSeveroQue(b) ? a : b)
+            .orElse(NivelSeveridade.INFO);
+
+        return controleAdmissao.executar(severidade, () -> gravarLote(ids, dtos))
+            .doOnSuccess(gravados -> {
+                if (streamingHabilitado) {
+                    outboxService.notificarCommit();
+                }
+            })
+            .onErrorResume(this::deveDesviarParaDiario, error -> {
+                logger.debug("Lote de {} eventos desviado para o diário: {}", dtos.size(), error.getMessage());
+                return desviarLoteParaDiario(ids, dtos);
             });
     }
 
+    private Mono<List<EventoAuditoriaDto>> gravarLote(List<String> ids, List<CriarEventoDto> dtos) {
+        long inicio = System.nanoTime();
+        return Mono.fromCallable(() -> {
+                List<EventoAuditoriaR2dbc> eventos = new ArrayList<>(dtos.size());
+                for (int i = 0; i < dtos.size(); i++) {
+                    eventos.add(montarEvento(ids.get(i), dtos.get(i), null));
+                }
+                return eventos;
+            })
+            .flatMap(this::gravarEncadeados)
+            .doOnTerminate(() -> monitorCarga.registrarInsercao((System.nanoTime() - inicio) / dtos.size()));
+    }
+
+    /**
+     * Anexa na ordem do lote e espera os fsyncs juntos (não um por item)
+     */
+    private Mono<List<EventoAuditoriaDto>> desviarLoteParaDiario(List<String> ids, List<CriarEventoDto> dtos) {
+        return Flux.range(0, dtos.size())
+            .flatMapSequential(i -> desviarParaDiario(ids.get(i), dtos.get(i)), dtos.size())
+            .collectList();
+    }
+
     /**
      * Registra evento simples com dados mínimos
      */
@@ -306,8 +542,11 @@ public class EventoAuditoriaService {
      * Resumo executivo para dashboard
      */
     public Mono<Map<String, Object>> obterResumoExecutivo(LocalDateTime dataInicio) {
-        return repository.getResumoExecutivo(dataInicio)
-            .cache(); // Cache por 5 minutos
+        return cacheManager.cacheMono(
+            CacheConfig.RELATORIOS_CACHE,
+            "resumo-executivo:" + dataInicio,
+            new TypeReference<Map<String, Object>>() {},
+            () -> repository.getResumoExecutivo(dataInicio));
     }
 
     /**
@@ -355,17 +594,81 @@ public class EventoAuditoriaService {
      * Reprocessar eventos com falha
      */
     public Mono<Long> reprocessarEventosComFalha() {
-        return repository.findByStatusEvento(StatusEvento.FALHA, Pageable.unpaged())
-            .doOnNext(evento -> evento.setStatusEvento(StatusEvento.REPROCESSO))
-            .flatMap(repository::save)
-            .doOnNext(evento -> {
-                // Tentar reprocessar via streaming
+        return reprocessarEventosComFalha(new ProgressoReprocessamento());
+    }
+
+    /**
+     * Reprocessar eventos com falha em lotes, reportando no progresso informado
+     * 
+     * Cada lote é reservado por keyset (id) com FOR UPDATE SKIP LOCKED, passa
+     * FALHA → REPROCESSO com um único UPDATE e vai para o outbox na mesma
+     * transação, com um único INSERT que reativa a linha de outbox que o
+     * evento já tenha. A publicação fica a cargo do relay, que refaz as
+     * falhas e, esgotadas as tentativas, move o evento para a DLQ. Com o
+     * publicador saturado o lote seguinte espera.
+     * 
+     * @return quantidade de eventos que passaram para REPROCESSO
+     */
+    public Mono<Long> reprocessarEventosComFalha(ProgressoReprocessamento progresso) {
+        if (!StatusEvento.FALHA.podeTransicionarPara(StatusEvento.REPROCESSO)) {
+            return Mono.error(new IllegalStateException("Transição FALHA → REPROCESSO não permitida"));
+        }
+
+        return reprocessarLoteApos("", progresso)
+            .expand(ultimoId -> reprocessarLoteApos(ultimoId, progresso))
+            .then(Mono.fromSupplier(progresso.transicionados::get))
+            .doOnSuccess(_ -> progresso.concluir())
+            .doOnError(progresso::falhar);
+    }
+
+    /**
+     * Reprocessa o lote seguinte a {@code ultimoId}
+     *
+     * @return id do último evento reservado; vazio quando não há mais lotes
+     */
+    private Mono<String> reprocessarLoteApos(String ultimoId, ProgressoReprocessamento progresso) {
+        return aguardarPublicador()
+            .then(repository.reservarPaginaPorStatus(StatusEvento.FALHA.name(), ultimoId, tamanhoLoteReprocessamento)
+                .collectList()
+                .flatMap(lote -> lote.isEmpty() ? Mono.<String>empty() : transicionarLote(lote, progresso))
+                .as(transactionalOperator::transactional))
+            .doOnNext(_ -> {
                 if (streamingHabilitado) {
-                    EventoAuditoriaDto dto = mapper.paraDto(evento);
-                    streamingService.reprocessarEvento(dto).subscribe();
+                    outboxService.notificarCommit();
                 }
-            })
-            .count();
+            });
+    }
+
+    private Mono<String> transicionarLote(List<EventoAuditoriaR2dbc> lote, ProgressoReprocessamento progresso) {
+        progresso.lotes.incrementAndGet();
+        progresso.lidos.addAndGet(lote.size());
+        List<String> ids = lote.stream().map(EventoAuditoriaR2dbc::getId).toList();
+
+        // Linhas reservadas estão travadas em FALHA: todas transicionam
+        return repository.transicionarStatusEmLote(ids, StatusEvento.FALHA.name(), StatusEvento.REPROCESSO.name())
+            .doOnNext(progresso.transicionados::addAndGet)
+            .then(Mono.defer(() -> {
+                if (!streamingHabilitado) {
+                    return Mono.<Long>empty();
+                }
+                lote.forEach(evento -> evento.setStatusEvento(StatusEvento.REPROCESSO));
+                List<EventoAuditoriaDto> eventos = lote.stream().map(mapper::paraDto).toList();
+                // O evento pode já ter linha no outbox (publicada ou em FALHA): ela é reativada
+                return outboxService.reenfileirarLote(eventos)
+                    .doOnNext(_ -> progresso.republicados.addAndGet(eventos.size()));
+            }))
+            .then(Mono.just(lote.getLast().getId()));
+    }
+
+    /**
+     * Completa quando o publicador deixa de estar saturado, verificando a
+     * cada {@link #ESPERA_PUBLICADOR_SATURADO}
+     */
+    private Mono<Void> aguardarPublicador() {
+        return Mono.fromSupplier(() -> streamingHabilitado && streamingService.publicacaoSaturada())
+            .filter(saturado -> !saturado)
+            .repeatWhenEmpty(tentativas -> tentativas.delayElements(ESPERA_PUBLICADOR_SATURADO))
+            .then();
     }
 
     // === MONITORAMENTO ===
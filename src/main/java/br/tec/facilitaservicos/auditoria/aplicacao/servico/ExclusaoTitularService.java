@@ -0,0 +1,458 @@
+package br.tec.facilitaservicos.auditoria.aplicacao.servico;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import br.tec.facilitaservicos.auditoria.dominio.entidade.EventoAuditoriaR2dbc;
+import br.tec.facilitaservicos.auditoria.dominio.entidade.ExclusaoTitularR2dbc;
+import br.tec.facilitaservicos.auditoria.dominio.enums.TipoEvento;
+import br.tec.facilitaservicos.auditoria.dominio.repositorio.EventoAuditoriaRepository;
+import br.tec.facilitaservicos.auditoria.dominio.repositorio.ExclusaoTitularRepository;
+import br.tec.facilitaservicos.auditoria.infraestrutura.cache.AuditoriaCacheService;
+import br.tec.facilitaservicos.auditoria.infraestrutura.carga.ControleVazaoAdaptativo;
+import br.tec.facilitaservicos.auditoria.infraestrutura.carga.MonitorCargaBanco;
+import br.tec.facilitaservicos.auditoria.infraestrutura.privacidade.ContadoresPrivacidade;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+/**
+ * ============================================================================
+ * 🧹 EXCLUSÃO DE DADOS DO TITULAR (LGPD ART. 18, VI)
+ * ============================================================================
+ *
+ * Fila de pedidos de exclusão executados em segundo plano: os eventos do
+ * titular (usuário e/ou CPF citado nos metadados) marcados com dados
+ * pessoais são anonimizados em lotes. Eventos sem dados pessoais (segurança,
+ * consentimento, registros da própria exclusão) são preservados como prova.
+ * - Cada lote lê só as chaves (id, data_evento) por keyset, anonimiza com um
+ *   único UPDATE por id e grava o cursor na mesma transação; a retomada
+ *   continua do cursor
+ * - Vazão adaptativa (AIMD): antes de cada lote o tamanho e a pausa são
+ *   ajustados pela utilização do pool e pelo p99 da gravação de eventos
+ *   ({@link MonitorCargaBanco}), para a exclusão ceder o banco à ingestão
+ * - Progresso por pedido: estimativa inicial, eventos anonimizados e cursor
+ * - Prazo legal: calculado na criação ({@code prazo-dias}); o tempo de
+ *   atendimento, os atendidos fora do prazo e os pedidos vencidos em aberto
+ *   são publicados como métricas
+ *
+ * Os pedidos não dependem de disco local: um pedido parado além de
+ * {@code abandono-min} é assumido por outro pod na varredura periódica.
+ */
+@Service
+public class ExclusaoTitularService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExclusaoTitularService.class);
+
+    private static final LocalDateTime INICIO_CURSOR = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final int TAMANHO_MAXIMO_ERRO = 500;
+    private static final int LOTE_RETOMADA = 100;
+
+    private final EventoAuditoriaRepository eventoRepository;
+    private final ExclusaoTitularRepository repository;
+    private final EventoAuditoriaService eventoAuditoriaService;
+    private final AuditoriaCacheService cacheService;
+    private final MonitorCargaBanco monitorCarga;
+    private final ContadoresPrivacidade contadores;
+    private final TransactionalOperator transactionalOperator;
+    private final MeterRegistry meterRegistry;
+
+    private final Sinks.Many<ExclusaoTitularR2dbc> fila = Sinks.many().unicast()
+        .onBackpressureBuffer(Queues.<ExclusaoTitularR2dbc>unboundedMultiproducer().get());
+    private final Set<String> emCurso = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger emEspera = new AtomicInteger();
+    private final AtomicInteger emExecucao = new AtomicInteger();
+    private final AtomicLong vencidas = new AtomicLong();
+    private final Counter eventosAnonimizados;
+    private final Counter congestionamentos;
+    private final Counter foraDoPrazo;
+    private final Counter falhas;
+    private final Timer atendimento;
+    private volatile ControleVazaoAdaptativo controle;
+    private volatile Disposable executor;
+
+    @Value("${auditoria.privacidade.exclusao.no:${HOSTNAME:local}}")
+    private String no;
+
+    @Value("${auditoria.privacidade.exclusao.concorrencia:1}")
+    private int concorrencia;
+
+    @Value("${auditoria.privacidade.exclusao.fila:100}")
+    private int capacidadeFila;
+
+    @Value("${auditoria.privacidade.exclusao.prazo-dias:15}")
+    private int prazoDias;
+
+    @Value("${auditoria.privacidade.exclusao.abandono-min:15}")
+    private int abandonoMinutos;
+
+    @Value("${auditoria.privacidade.exclusao.vazao.lote-minimo:50}")
+    private int loteMinimo;
+
+    @Value("${auditoria.privacidade.exclusao.vazao.lote-maximo:1000}")
+    private int loteMaximo;
+
+    @Value("${auditoria.privacidade.exclusao.vazao.incremento:50}")
+    private int incrementoLote;
+
+    @Value("${auditoria.privacidade.exclusao.vazao.fator-reducao:0.5}")
+    private double fatorReducao;
+
+    @Value("${auditoria.privacidade.exclusao.vazao.pausa-base-ms:20}")
+    private long pausaBaseMs;
+
+    @Value("${auditoria.privacidade.exclusao.vazao.pausa-maxima-ms:5000}")
+    private long pausaMaximaMs;
+
+    @Value("${auditoria.privacidade.exclusao.vazao.utilizacao-pool-limite:0.7}")
+    private double utilizacaoPoolLimite;
+
+    @Value("${auditoria.privacidade.exclusao.vazao.p99-insercao-limite-ms:50}")
+    private double p99InsercaoLimiteMs;
+
+    public ExclusaoTitularService(EventoAuditoriaRepository eventoRepository,
+                                  ExclusaoTitularRepository repository,
+                                  EventoAuditoriaService eventoAuditoriaService,
+                                  AuditoriaCacheService cacheService,
+                                  MonitorCargaBanco monitorCarga,
+                                  ContadoresPrivacidade contadores,
+                                  TransactionalOperator transactionalOperator,
+                                  MeterRegistry meterRegistry) {
+        this.eventoRepository = eventoRepository;
+        this.repository = repository;
+        this.eventoAuditoriaService = eventoAuditoriaService;
+        this.cacheService = cacheService;
+        this.monitorCarga = monitorCarga;
+        this.contadores = contadores;
+        this.transactionalOperator = transactionalOperator;
+        this.meterRegistry = meterRegistry;
+
+        this.eventosAnonimizados = Counter.builder("audit.privacidade.exclusao.eventos")
+            .description("Eventos anonimizados por pedidos de exclusão")
+            .register(meterRegistry);
+        this.congestionamentos = Counter.builder("audit.privacidade.exclusao.congestionamentos")
+            .description("Lotes de exclusão reduzidos por carga no banco")
+            .register(meterRegistry);
+        this.foraDoPrazo = Counter.builder("audit.privacidade.exclusao.fora.prazo")
+            .description("Pedidos de exclusão concluídos depois do prazo legal")
+            .register(meterRegistry);
+        this.falhas = Counter.builder("audit.privacidade.exclusao.falhas")
+            .description("Pedidos de exclusão com falha")
+            .register(meterRegistry);
+        this.atendimento = Timer.builder("audit.privacidade.exclusao.atendimento")
+            .description("Tempo da solicitação à conclusão de um pedido de exclusão")
+            .register(meterRegistry);
+        meterRegistry.gauge("audit.privacidade.exclusao.fila", emEspera);
+        meterRegistry.gauge("audit.privacidade.exclusao.execucao", emExecucao);
+        meterRegistry.gauge("audit.privacidade.exclusao.vencidas", vencidas);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        controle = new ControleVazaoAdaptativo(loteMinimo, loteMaximo, incrementoLote, fatorReducao,
+            pausaBaseMs, pausaMaximaMs, utilizacaoPoolLimite, p99InsercaoLimiteMs);
+        meterRegistry.gauge("audit.privacidade.exclusao.lote", controle, ControleVazaoAdaptativo::lote);
+        meterRegistry.gauge("audit.privacidade.exclusao.pausa.ms", controle, ControleVazaoAdaptativo::pausaMs);
+
+        executor = fila.asFlux()
+            .doOnNext(_ -> emEspera.decrementAndGet())
+            .flatMap(this::executar, concorrencia)
+            .subscribe(
+                _ -> {},
+                error -> logger.error("Executor de exclusões de titular encerrado com erro", error));
+
+        retomar();
+    }
+
+    @PreDestroy
+    public void parar() {
+        Disposable atual = executor;
+        if (atual != null) {
+            atual.dispose();
+        }
+    }
+
+    /**
+     * Solicita a exclusão; devolve o pedido já ativo do mesmo titular, se houver
+     *
+     * @return erro {@link IllegalArgumentException} sem usuário,
+     *         {@link IllegalStateException} com a fila de pedidos cheia
+     */
+    public Mono<Map<String, Object>> solicitar(String usuarioId, String cpf, String solicitadoPor) {
+        if (usuarioId == null || usuarioId.isBlank()) {
+            return Mono.error(new IllegalArgumentException("usuarioId é obrigatório"));
+        }
+        String cpfNormalizado = cpf == null || cpf.isBlank() ? null : cpf.trim();
+
+        return repository.findAtivoPorUsuario(usuarioId)
+            .map(ExclusaoTitularService::resposta)
+            .switchIfEmpty(Mono.defer(() -> {
+                if (emEspera.get() >= capacidadeFila) {
+                    return Mono.error(new IllegalStateException(
+                        "Fila de exclusões cheia (capacidade " + capacidadeFila + ")"));
+                }
+                LocalDateTime prazo = LocalDateTime.now().plusDays(prazoDias);
+                return repository.save(ExclusaoTitularR2dbc.pendente(UUID.randomUUID().toString(), usuarioId,
+                        cpfNormalizado, no, prazo, solicitadoPor))
+                    .doOnNext(salvo -> {
+                        contadores.exclusaoAberta();
+                        enfileirar(salvo);
+                    })
+                    .map(ExclusaoTitularService::resposta);
+            }));
+    }
+
+    public Mono<Map<String, Object>> consultar(String id) {
+        return repository.findById(id).map(ExclusaoTitularService::resposta);
+    }
+
+    /**
+     * Reenfileira os pedidos deste pod e assume os abandonados por outros
+     */
+    @Scheduled(fixedDelayString = "${auditoria.privacidade.exclusao.retomada-ms:300000}",
+               initialDelayString = "${auditoria.privacidade.exclusao.retomada-ms:300000}")
+    public void retomar() {
+        repository.findRetomaveis(no, limiteAbandono(), LOTE_RETOMADA)
+            .filter(pedido -> !emCurso.contains(pedido.getId()))
+            .subscribe(
+                pedido -> {
+                    logger.info("Retomando exclusão {} do titular {} a partir de {} eventos",
+                        pedido.getId(), pedido.getUsuarioId(), pedido.getEventosAnonimizados());
+                    enfileirar(pedido);
+                },
+                error -> logger.warn("Falha ao buscar exclusões para retomar: {}", error.getMessage()));
+    }
+
+    /**
+     * Reconcilia o contador do painel e os vencidos com o banco (inclui outros pods)
+     */
+    @Scheduled(fixedDelayString = "${auditoria.privacidade.painel.reconciliacao-ms:60000}")
+    public void reconciliarContadores() {
+        repository.countAbertas()
+            .subscribe(
+                contadores::reconciliarExclusoes,
+                error -> logger.debug("Falha ao reconciliar exclusões pendentes: {}", error.getMessage()));
+        repository.countVencidas(LocalDateTime.now())
+            .subscribe(
+                total -> {
+                    vencidas.set(total);
+                    if (total > 0) {
+                        logger.warn("{} pedidos de exclusão em aberto com o prazo legal vencido", total);
+                    }
+                },
+                error -> logger.debug("Falha ao contar exclusões vencidas: {}", error.getMessage()));
+    }
+
+    // ========== EXECUÇÃO ==========
+
+    private void enfileirar(ExclusaoTitularR2dbc pedido) {
+        if (!emCurso.add(pedido.getId())) {
+            return;
+        }
+        emEspera.incrementAndGet();
+        // Sink unicast serializa os emissores; a espera ocupada cobre a disputa entre threads
+        fila.emitNext(pedido, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+    }
+
+    private Mono<Void> executar(ExclusaoTitularR2dbc pedido) {
+        String id = pedido.getId();
+        Execucao execucao = new Execucao(pedido);
+        return repository.assumir(id, no, LocalDateTime.now(), limiteAbandono())
+            .filter(atualizados -> atualizados > 0)
+            .flatMap(_ -> estimar(pedido)
+                .then(Mono.defer(() -> proximoLote(execucao)))
+                .then(Mono.defer(() -> repository.marcarConcluido(id, no, LocalDateTime.now())))
+                .doOnNext(atualizados -> {
+                    if (atualizados > 0) {
+                        registrarConclusao(execucao);
+                    }
+                }))
+            .doOnSubscribe(_ -> emExecucao.incrementAndGet())
+            .doFinally(_ -> {
+                emExecucao.decrementAndGet();
+                emCurso.remove(id);
+            })
+            .then()
+            .onErrorResume(PedidoAssumidoPorOutroNo.class, _ -> {
+                logger.info("Exclusão {} foi assumida por outro nó; execução local interrompida", id);
+                return Mono.empty();
+            })
+            .onErrorResume(error -> {
+                falhas.increment();
+                logger.error("Exclusão {} falhou: {}", id, error.getMessage());
+                String mensagem = String.valueOf(error.getMessage());
+                return repository.marcarFalha(id, no,
+                        mensagem.length() > TAMANHO_MAXIMO_ERRO ? mensagem.substring(0, TAMANHO_MAXIMO_ERRO) : mensagem,
+                        LocalDateTime.now())
+                    .doOnNext(atualizados -> {
+                        if (atualizados > 0) {
+                            contadores.exclusaoEncerrada();
+                        }
+                    })
+                    .onErrorResume(_ -> Mono.empty())
+                    .then();
+            });
+    }
+
+    /**
+     * Conta os eventos pendentes na primeira execução (base do percentual)
+     */
+    private Mono<Void> estimar(ExclusaoTitularR2dbc pedido) {
+        if (pedido.getEventosEstimados() != null) {
+            return Mono.empty();
+        }
+        return eventoRepository.countTitularNaoAnonimizados(pedido.getUsuarioId(), pedido.getCpf())
+            .flatMap(total -> repository.registrarEstimativa(pedido.getId(), total))
+            .then();
+    }
+
+    private Mono<Void> proximoLote(Execucao execucao) {
+        return anonimizarLote(execucao)
+            .expand(completo -> completo ? anonimizarLote(execucao) : Mono.empty())
+            .then();
+    }
+
+    /**
+     * Anonimiza a próxima página no ritmo do controle de vazão
+     *
+     * @return se a página veio cheia (pode haver mais)
+     */
+    private Mono<Boolean> anonimizarLote(Execucao execucao) {
+        ControleVazaoAdaptativo.Passo passo = controle.proximo(monitorCarga.utilizacaoPool(),
+            monitorCarga.p99InsercaoMs());
+        if (passo.congestionado()) {
+            congestionamentos.increment();
+        }
+        ExclusaoTitularR2dbc pedido = execucao.pedido;
+
+        return Mono.delay(passo.pausa())
+            .then(eventoRepository.findChavesTitularNaoAnonimizadas(pedido.getUsuarioId(), pedido.getCpf(),
+                    execucao.cursorData, execucao.cursorId, passo.lote())
+                .collectList())
+            .flatMap(chaves -> {
+                if (chaves.isEmpty()) {
+                    return Mono.just(false);
+                }
+                List<String> ids = chaves.stream().map(EventoAuditoriaR2dbc::getId).toList();
+                EventoAuditoriaR2dbc ultima = chaves.get(chaves.size() - 1);
+                return eventoRepository.anonimizarEmLote(ids)
+                    .flatMap(alterados -> repository.registrarAvanco(pedido.getId(), no, ultima.getDataEvento(),
+                            ultima.getId(), execucao.anonimizados + alterados, LocalDateTime.now())
+                        .flatMap(registrados -> registrados > 0
+                            ? Mono.just(alterados)
+                            : Mono.<Integer>error(new PedidoAssumidoPorOutroNo())))
+                    .as(transactionalOperator::transactional)
+                    .doOnNext(alterados -> {
+                        execucao.avancar(ultima, alterados);
+                        eventosAnonimizados.increment(alterados);
+                    })
+                    .thenReturn(chaves.size() >= passo.lote());
+            });
+    }
+
+    private void registrarConclusao(Execucao execucao) {
+        ExclusaoTitularR2dbc pedido = execucao.pedido;
+        LocalDateTime agora = LocalDateTime.now();
+        contadores.exclusaoEncerrada();
+        atendimento.record(Duration.between(pedido.getCriadoEm(), agora));
+        if (agora.isAfter(pedido.getPrazoLegal())) {
+            foraDoPrazo.increment();
+            logger.warn("Exclusão {} concluída depois do prazo legal ({})", pedido.getId(), pedido.getPrazoLegal());
+        }
+        logger.info("Exclusão {} concluída: {} eventos anonimizados", pedido.getId(), execucao.anonimizados);
+
+        cacheService.invalidarCachesUsuario(pedido.getUsuarioId()).subscribe();
+        eventoAuditoriaService.registrarEventoSimples(
+            TipoEvento.DADOS_ANONIMIZADOS,
+            "SYSTEM",
+            "Sistema de Compliance",
+            "Pedido de exclusão " + pedido.getId() + ": " + execucao.anonimizados + " eventos anonimizados"
+        ).subscribe(
+            _ -> {},
+            error -> logger.warn("Falha ao registrar conclusão da exclusão {}: {}", pedido.getId(), error.getMessage()));
+    }
+
+    private LocalDateTime limiteAbandono() {
+        return LocalDateTime.now().minusMinutes(abandonoMinutos);
+    }
+
+    /**
+     * Estado de um pedido em execução; usado por um único stream, em sequência
+     */
+    private static final class Execucao {
+
+        private final ExclusaoTitularR2dbc pedido;
+
+        private LocalDateTime cursorData;
+        private String cursorId;
+        private long anonimizados;
+
+        Execucao(ExclusaoTitularR2dbc pedido) {
+            this.pedido = pedido;
+            this.cursorData = pedido.getCursorData() != null ? pedido.getCursorData() : INICIO_CURSOR;
+            this.cursorId = pedido.getCursorId() != null ? pedido.getCursorId() : "";
+            this.anonimizados = pedido.getEventosAnonimizados();
+        }
+
+        void avancar(EventoAuditoriaR2dbc ultima, int alterados) {
+            cursorData = ultima.getDataEvento();
+            cursorId = ultima.getId();
+            anonimizados += alterados;
+        }
+    }
+
+    /**
+     * O avanço não foi gravado: o pedido passou a outro pod
+     */
+    private static final class PedidoAssumidoPorOutroNo extends RuntimeException {
+        PedidoAssumidoPorOutroNo() {
+            super("Pedido assumido por outro nó", null, false, false);
+        }
+    }
+
+    // ========== AUXILIARES ==========
+
+    private static Map<String, Object> resposta(ExclusaoTitularR2dbc pedido) {
+        Map<String, Object> resposta = new LinkedHashMap<>();
+        resposta.put("solicitacaoId", pedido.getId());
+        resposta.put("status", pedido.getStatus());
+        resposta.put("usuarioId", pedido.getUsuarioId());
+        resposta.put("eventosAnonimizados", pedido.getEventosAnonimizados());
+        Optional.ofNullable(pedido.getEventosEstimados()).ifPresent(estimados -> {
+            resposta.put("eventosEstimados", estimados);
+            resposta.put("percentual", estimados > 0
+                ? Math.min(100.0, pedido.getEventosAnonimizados() * 100.0 / estimados)
+                : 100.0);
+        });
+        resposta.put("prazoLegal", pedido.getPrazoLegal());
+        resposta.put("prazoVencido", pedido.getConcluidoEm() != null
+            ? pedido.getConcluidoEm().isAfter(pedido.getPrazoLegal())
+            : LocalDateTime.now().isAfter(pedido.getPrazoLegal()));
+        resposta.put("criadoEm", pedido.getCriadoEm());
+        Optional.ofNullable(pedido.getConcluidoEm()).ifPresent(concluido -> resposta.put("concluidoEm", concluido));
+        Optional.ofNullable(pedido.getErro()).ifPresent(erro -> resposta.put("erro", erro));
+        return resposta;
+    }
+}
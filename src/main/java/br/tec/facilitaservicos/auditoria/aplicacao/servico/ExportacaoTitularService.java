@@ -0,0 +1,532 @@
+package br.tec.facilitaservicos.auditoria.aplicacao.servico;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.tec.facilitaservicos.auditoria.aplicacao.mapper.EventoAuditoriaMapper;
+import br.tec.facilitaservicos.auditoria.dominio.entidade.EventoAuditoriaR2dbc;
+import br.tec.facilitaservicos.auditoria.dominio.entidade.ExportacaoTitularR2dbc;
+import br.tec.facilitaservicos.auditoria.dominio.repositorio.EventoAuditoriaRepository;
+import br.tec.facilitaservicos.auditoria.dominio.repositorio.ExportacaoTitularRepository;
+import br.tec.facilitaservicos.auditoria.infraestrutura.privacidade.ContadoresPrivacidade;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+
+/**
+ * ============================================================================
+ * 🔐 EXPORTAÇÃO DE DADOS DO TITULAR (LGPD ART. 18)
+ * ============================================================================
+ *
+ * Job que grava todos os eventos de um titular (usuário e/ou CPF citado nos
+ * metadados) em um arquivo NDJSON gzip no disco local:
+ * - Localização pelos índices (usuario_id / cpf_titular, data_evento, id),
+ *   em páginas por keyset; nada de JSON_CONTAINS
+ * - Escrita em blocos: cada página vira um membro gzip completo, anexado
+ *   ao arquivo e sincronizado (fsync) antes de o cursor e o offset serem
+ *   gravados no job. O arquivo final é um gzip multi-membro válido
+ * - Retomada: na subida e periodicamente, os jobs deste pod são
+ *   reenfileirados; o arquivo é truncado no último offset confirmado e a
+ *   leitura continua do cursor
+ * - Abandono: cada bloco gravado renova {@code atualizado_em}; um job parado
+ *   além de {@code abandono-min} é assumido por outro pod, que recomeça do
+ *   zero em um arquivo próprio. Quem perdeu o job para no bloco seguinte e
+ *   apaga o seu arquivo parcial
+ * - Executor limitado a {@code auditoria.privacidade.exportacao.concorrencia}
+ *   jobs simultâneos por pod
+ *
+ * O arquivo fica no disco do pod que executou o job ({@code no_execucao}).
+ * Para que o download funcione em qualquer pod, há duas opções:
+ * - Volume compartilhado (ReadWriteMany) montado em {@code diretorio} em
+ *   todos os pods: o arquivo é lido direto de qualquer um
+ * - {@code auditoria.privacidade.exportacao.url-no} com o endereço interno
+ *   de cada pod, com {@code {no}} no lugar do nome (ex.:
+ *   {@code http://{no}.auditoria-headless:8080}, serviço headless de um
+ *   StatefulSet): o pod que não tem o arquivo repassa o download ao dono
+ * Sem nenhuma das duas, só o pod dono serve o arquivo; os demais respondem 404.
+ */
+@Service
+public class ExportacaoTitularService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportacaoTitularService.class);
+
+    private static final LocalDateTime INICIO_CURSOR = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final int TAMANHO_MAXIMO_ERRO = 500;
+    private static final int LOTE_LIMPEZA = 200;
+    private static final int BUFFER_HASH = 64 * 1024;
+    private static final int LOTE_RETOMADA = 100;
+
+    private final EventoAuditoriaRepository eventoRepository;
+    private final ExportacaoTitularRepository repository;
+    private final EventoAuditoriaMapper mapper;
+    private final ObjectMapper objectMapper;
+    private final ContadoresPrivacidade contadores;
+
+    private final Sinks.Many<ExportacaoTitularR2dbc> fila = Sinks.many().unicast()
+        .onBackpressureBuffer(Queues.<ExportacaoTitularR2dbc>unboundedMultiproducer().get());
+    private final AtomicInteger emEspera = new AtomicInteger();
+    private final AtomicInteger emExecucao = new AtomicInteger();
+    private final Set<String> emCurso = ConcurrentHashMap.newKeySet();
+    private final Counter linhasExportadas;
+    private final Counter falhas;
+    private volatile Disposable executor;
+
+    @Value("${auditoria.privacidade.exportacao.diretorio:${java.io.tmpdir}/exportacoes-titular}")
+    private String diretorio;
+
+    @Value("${auditoria.privacidade.exportacao.no:${HOSTNAME:local}}")
+    private String no;
+
+    @Value("${auditoria.privacidade.exportacao.url-no:}")
+    private String urlNo;
+
+    @Value("${auditoria.privacidade.exportacao.tamanho-lote:1000}")
+    private int tamanhoLote;
+
+    @Value("${auditoria.privacidade.exportacao.concorrencia:2}")
+    private int concorrencia;
+
+    @Value("${auditoria.privacidade.exportacao.fila:100}")
+    private int capacidadeFila;
+
+    @Value("${auditoria.privacidade.exportacao.retencao-dias:7}")
+    private int retencaoDias;
+
+    @Value("${auditoria.privacidade.exportacao.abandono-min:15}")
+    private int abandonoMinutos;
+
+    public ExportacaoTitularService(EventoAuditoriaRepository eventoRepository,
+                                    ExportacaoTitularRepository repository,
+                                    EventoAuditoriaMapper mapper,
+                                    ObjectMapper objectMapper,
+                                    ContadoresPrivacidade contadores,
+                                    MeterRegistry meterRegistry) {
+        this.eventoRepository = eventoRepository;
+        this.repository = repository;
+        this.mapper = mapper;
+        this.objectMapper = objectMapper;
+        this.contadores = contadores;
+
+        this.linhasExportadas = Counter.builder("audit.privacidade.exportacao.linhas")
+            .description("Eventos gravados em exportações de titular")
+            .register(meterRegistry);
+        this.falhas = Counter.builder("audit.privacidade.exportacao.falhas")
+            .description("Exportações de titular com falha")
+            .register(meterRegistry);
+        meterRegistry.gauge("audit.privacidade.exportacao.fila", emEspera);
+        meterRegistry.gauge("audit.privacidade.exportacao.execucao", emExecucao);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        executor = fila.asFlux()
+            .doOnNext(_ -> emEspera.decrementAndGet())
+            .flatMap(this::executar, concorrencia)
+            .subscribe(
+                _ -> {},
+                error -> logger.error("Executor de exportações de titular encerrado com erro", error));
+
+        retomar();
+    }
+
+    @PreDestroy
+    public void parar() {
+        Disposable atual = executor;
+        if (atual != null) {
+            atual.dispose();
+        }
+    }
+
+    /**
+     * Solicita a exportação; devolve o job já ativo do mesmo titular, se houver
+     *
+     * @return erro {@link IllegalArgumentException} sem usuário,
+     *         {@link IllegalStateException} com a fila de jobs cheia
+     */
+    public Mono<Map<String, Object>> solicitar(String usuarioId, String cpf, String solicitadoPor) {
+        if (usuarioId == null || usuarioId.isBlank()) {
+            return Mono.error(new IllegalArgumentException("usuarioId é obrigatório"));
+        }
+        String cpfNormalizado = cpf == null || cpf.isBlank() ? null : cpf.trim();
+
+        return repository.findAtivoPorUsuario(usuarioId)
+            .map(ExportacaoTitularService::resposta)
+            .switchIfEmpty(Mono.defer(() -> {
+                if (emEspera.get() >= capacidadeFila) {
+                    return Mono.error(new IllegalStateException(
+                        "Fila de exportações cheia (capacidade " + capacidadeFila + ")"));
+                }
+                String id = UUID.randomUUID().toString();
+                String arquivo = Path.of(diretorio, "titular-" + id + ".ndjson.gz").toString();
+                return repository.save(ExportacaoTitularR2dbc.pendente(id, usuarioId, cpfNormalizado, no, arquivo, solicitadoPor))
+                    .doOnNext(salvo -> {
+                        contadores.exportacaoAberta();
+                        enfileirar(salvo);
+                    })
+                    .map(ExportacaoTitularService::resposta);
+            }));
+    }
+
+    public Mono<Map<String, Object>> consultar(String id) {
+        return repository.findById(id).map(ExportacaoTitularService::resposta);
+    }
+
+    /**
+     * Arquivo de uma exportação concluída: no disco deste pod (ou no volume
+     * compartilhado) ou, com {@code url-no}, o endereço do pod dono
+     *
+     * @return vazio se o job não existe ou o arquivo não está acessível;
+     *         erro {@link IllegalStateException} se ainda não foi concluído
+     */
+    public Mono<ArquivoExportacao> arquivo(String id) {
+        return repository.findById(id)
+            .flatMap(job -> {
+                if (!ExportacaoTitularR2dbc.STATUS_CONCLUIDO.equals(job.getStatus())) {
+                    return Mono.error(new IllegalStateException("Exportação " + id + " está " + job.getStatus()));
+                }
+                Path caminho = Path.of(job.getArquivo());
+                if (Files.isReadable(caminho)) {
+                    return Mono.just(new ArquivoExportacao(caminho, job.getHashArquivo(), job.getBytesGravados(), null));
+                }
+                // Sem repasse para si mesmo: o dono sem o arquivo responde 404
+                if (!urlNo.isBlank() && job.getNoExecucao() != null && !no.equals(job.getNoExecucao())) {
+                    return Mono.just(new ArquivoExportacao(null, job.getHashArquivo(), job.getBytesGravados(),
+                        urlNo.replace("{no}", job.getNoExecucao())));
+                }
+                return Mono.empty();
+            });
+    }
+
+    /**
+     * Arquivo pronto para download e seu hash (ETag); {@code urlDono} preenchida
+     * quando o arquivo está em outro pod
+     */
+    public record ArquivoExportacao(Path caminho, String hash, long tamanho, String urlDono) {
+
+        public boolean local() {
+            return urlDono == null;
+        }
+    }
+
+    /**
+     * Reenfileira os jobs deste pod e assume os abandonados por outros
+     */
+    @Scheduled(fixedDelayString = "${auditoria.privacidade.exportacao.retomada-ms:300000}",
+               initialDelayString = "${auditoria.privacidade.exportacao.retomada-ms:300000}")
+    public void retomar() {
+        repository.findRetomaveis(no, limiteAbandono(), LOTE_RETOMADA)
+            .filter(job -> !emCurso.contains(job.getId()))
+            .subscribe(
+                job -> {
+                    logger.info("Retomando exportação {} do titular {} (pod {})",
+                        job.getId(), job.getUsuarioId(), job.getNoExecucao());
+                    enfileirar(job);
+                },
+                error -> logger.warn("Falha ao buscar exportações para retomar: {}", error.getMessage()));
+    }
+
+    /**
+     * Remove jobs encerrados e seus arquivos depois da retenção. Os de outros
+     * pods saem um dia depois: o dono, se ainda existe, já apagou o arquivo
+     * na sua própria limpeza; o registro não fica para sempre se ele sumiu
+     */
+    @Scheduled(cron = "${auditoria.privacidade.exportacao.limpeza-cron:0 15 4 * * *}")
+    public void limparAntigos() {
+        LocalDateTime limite = LocalDateTime.now().minusDays(retencaoDias);
+        LocalDateTime limiteOutrosNos = limite.minusDays(1);
+
+        limparLote(limite, limiteOutrosNos)
+            .expand(removidos -> removidos == LOTE_LIMPEZA ? limparLote(limite, limiteOutrosNos) : Mono.empty())
+            .reduce(0L, Long::sum)
+            .subscribe(
+                total -> {
+                    if (total > 0) {
+                        logger.info("{} exportações de titular expiradas removidas", total);
+                    }
+                },
+                error -> logger.warn("Falha na limpeza de exportações de titular: {}", error.getMessage()));
+    }
+
+    /**
+     * Reconcilia o contador do painel com o banco (inclui jobs de outros pods)
+     */
+    @Scheduled(fixedDelayString = "${auditoria.privacidade.painel.reconciliacao-ms:60000}")
+    public void reconciliarContadores() {
+        repository.countAbertas()
+            .subscribe(
+                contadores::reconciliarExportacoes,
+                error -> logger.debug("Falha ao reconciliar exportações pendentes: {}", error.getMessage()));
+    }
+
+    private Mono<Long> limparLote(LocalDateTime limite, LocalDateTime limiteOutrosNos) {
+        return repository.findExpirados(no, limite, limiteOutrosNos, LOTE_LIMPEZA)
+            // Arquivo de outro pod não está neste disco (salvo volume compartilhado)
+            .concatMap(job -> Mono.fromCallable(() -> Files.deleteIfExists(Path.of(job.getArquivo())))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(repository.deleteById(job.getId()))
+                .thenReturn(job.getId()))
+            .count();
+    }
+
+    // ========== EXECUÇÃO ==========
+
+    private void enfileirar(ExportacaoTitularR2dbc job) {
+        if (!emCurso.add(job.getId())) {
+            return;
+        }
+        emEspera.incrementAndGet();
+        // Sink unicast serializa os emissores; a espera ocupada cobre a disputa entre threads
+        fila.emitNext(job, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+    }
+
+    private Mono<Void> executar(ExportacaoTitularR2dbc job) {
+        String id = job.getId();
+        String arquivoAssumido = Path.of(diretorio, "titular-" + id + "-" + no + ".ndjson.gz").toString();
+        return repository.assumir(id, no, arquivoAssumido, LocalDateTime.now(), limiteAbandono())
+            .filter(atualizados -> atualizados > 0)
+            // Relê o job: assumido de outro pod, o cursor e o offset voltaram ao início
+            .flatMap(_ -> repository.findById(id))
+            .flatMap(atual -> Mono.using(
+                () -> abrir(atual),
+                gravador -> proximoLote(gravador)
+                    // Quem assumiu grava outro arquivo: o parcial deste pod não serve mais
+                    .onErrorResume(ExportacaoAssumidaPorOutroNo.class, error -> Mono.fromCallable(
+                            () -> Files.deleteIfExists(Path.of(atual.getArquivo())))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .then(Mono.error(error)))
+                    .then(Mono.fromCallable(gravador::hashArquivo).subscribeOn(Schedulers.boundedElastic()))
+                    .flatMap(hash -> repository.marcarConcluido(id, no, hash, gravador.bytes, LocalDateTime.now()))
+                    .doOnNext(this::registrarEncerramento)
+                    .doOnSuccess(_ -> logger.info("Exportação {} concluída: {} eventos, {} bytes",
+                        id, gravador.linhas, gravador.bytes)),
+                Gravador::fechar))
+            .doOnSubscribe(_ -> emExecucao.incrementAndGet())
+            .doFinally(_ -> {
+                emExecucao.decrementAndGet();
+                emCurso.remove(id);
+            })
+            .then()
+            .onErrorResume(ExportacaoAssumidaPorOutroNo.class, _ -> {
+                logger.info("Exportação {} foi assumida por outro nó; execução local interrompida", id);
+                return Mono.empty();
+            })
+            .onErrorResume(error -> {
+                falhas.increment();
+                logger.error("Exportação {} falhou: {}", id, error.getMessage());
+                String mensagem = String.valueOf(error.getMessage());
+                return repository.marcarFalha(id, no,
+                        mensagem.length() > TAMANHO_MAXIMO_ERRO ? mensagem.substring(0, TAMANHO_MAXIMO_ERRO) : mensagem,
+                        LocalDateTime.now())
+                    .doOnNext(this::registrarEncerramento)
+                    .onErrorResume(_ -> Mono.empty())
+                    .then();
+            });
+    }
+
+    private void registrarEncerramento(int atualizados) {
+        if (atualizados > 0) {
+            contadores.exportacaoEncerrada();
+        }
+    }
+
+    private Mono<Void> proximoLote(Gravador gravador) {
+        return gravarLote(gravador)
+            .expand(lidos -> lidos < tamanhoLote ? Mono.empty() : gravarLote(gravador))
+            .then();
+    }
+
+    /**
+     * Grava a próxima página e registra o avanço do cursor
+     *
+     * @return quantidade de eventos lidos na página
+     */
+    private Mono<Integer> gravarLote(Gravador gravador) {
+        ExportacaoTitularR2dbc job = gravador.job;
+        return eventoRepository.findPaginaTitular(job.getUsuarioId(), job.getCpf(),
+                gravador.cursorData, gravador.cursorId, tamanhoLote)
+            .collectList()
+            .flatMap(lote -> {
+                if (lote.isEmpty()) {
+                    return Mono.just(0);
+                }
+                return Mono.fromCallable(() -> gravador.gravar(lote))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMap(gravadas -> {
+                        linhasExportadas.increment(gravadas);
+                        return repository.registrarAvanco(job.getId(), no, gravador.cursorData, gravador.cursorId,
+                            gravador.linhas, gravador.bytes, LocalDateTime.now());
+                    })
+                    .flatMap(registrados -> registrados > 0
+                        ? Mono.just(lote.size())
+                        : Mono.<Integer>error(new ExportacaoAssumidaPorOutroNo()));
+            });
+    }
+
+    private Gravador abrir(ExportacaoTitularR2dbc job) throws IOException {
+        Path caminho = Path.of(job.getArquivo());
+        Files.createDirectories(caminho.getParent());
+        FileChannel canal = FileChannel.open(caminho, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.READ);
+        // Descarta o que foi escrito depois do último avanço confirmado
+        canal.truncate(job.getBytesGravados());
+        canal.position(job.getBytesGravados());
+        return new Gravador(job, canal);
+    }
+
+    /**
+     * Arquivo de um job em gravação; usado por um único stream, em sequência
+     */
+    private final class Gravador {
+
+        private final ExportacaoTitularR2dbc job;
+        private final FileChannel canal;
+
+        private LocalDateTime cursorData;
+        private String cursorId;
+        private long linhas;
+        private long bytes;
+
+        Gravador(ExportacaoTitularR2dbc job, FileChannel canal) {
+            this.job = job;
+            this.canal = canal;
+            this.cursorData = job.getCursorData() != null ? job.getCursorData() : INICIO_CURSOR;
+            this.cursorId = job.getCursorId() != null ? job.getCursorId() : "";
+            this.linhas = job.getLinhas();
+            this.bytes = job.getBytesGravados();
+        }
+
+        /**
+         * Grava a página como um membro gzip e sincroniza o arquivo
+         *
+         * @return eventos gravados (sem as duplicatas usuário/CPF)
+         */
+        int gravar(List<EventoAuditoriaR2dbc> lote) throws IOException {
+            ByteArrayOutputStream membro = new ByteArrayOutputStream(lote.size() * 256);
+            int gravadas = 0;
+            String anterior = null;
+            try (GZIPOutputStream gzip = new GZIPOutputStream(membro)) {
+                for (EventoAuditoriaR2dbc evento : lote) {
+                    if (evento.getId().equals(anterior)) {
+                        continue;
+                    }
+                    anterior = evento.getId();
+                    gzip.write(json(evento));
+                    gzip.write('\n');
+                    gravadas++;
+                }
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(membro.toByteArray());
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(false);
+
+            EventoAuditoriaR2dbc ultimo = lote.get(lote.size() - 1);
+            cursorData = ultimo.getDataEvento();
+            cursorId = ultimo.getId();
+            linhas += gravadas;
+            bytes = canal.position();
+            return gravadas;
+        }
+
+        String hashArquivo() throws IOException {
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 indisponível", e);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_HASH);
+            long posicao = 0;
+            int lidos;
+            while ((lidos = canal.read(buffer, posicao)) > 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+                posicao += lidos;
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        }
+
+        void fechar() {
+            try {
+                canal.close();
+            } catch (IOException e) {
+                logger.warn("Falha ao fechar arquivo da exportação {}: {}", job.getId(), e.getMessage());
+            }
+        }
+
+        private byte[] json(EventoAuditoriaR2dbc evento) {
+            try {
+                return objectMapper.writeValueAsBytes(mapper.paraDto(evento));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * O avanço não foi gravado: o job passou a outro pod
+     */
+    private static final class ExportacaoAssumidaPorOutroNo extends RuntimeException {
+        ExportacaoAssumidaPorOutroNo() {
+            super("Exportação assumida por outro nó", null, false, false);
+        }
+    }
+
+    // ========== AUXILIARES ==========
+
+    private LocalDateTime limiteAbandono() {
+        return LocalDateTime.now().minusMinutes(abandonoMinutos);
+    }
+
+    private static Map<String, Object> resposta(ExportacaoTitularR2dbc job) {
+        Map<String, Object> resposta = new LinkedHashMap<>();
+        resposta.put("solicitacaoId", job.getId());
+        resposta.put("status", job.getStatus());
+        resposta.put("usuarioId", job.getUsuarioId());
+        resposta.put("linhas", job.getLinhas());
+        resposta.put("bytes", job.getBytesGravados());
+        resposta.put("criadoEm", job.getCriadoEm());
+        Optional.ofNullable(job.getConcluidoEm()).ifPresent(concluido -> resposta.put("concluidoEm", concluido));
+        Optional.ofNullable(job.getHashArquivo()).ifPresent(hash -> resposta.put("hashArquivo", hash));
+        Optional.ofNullable(job.getErro()).ifPresent(erro -> resposta.put("erro", erro));
+        return resposta;
+    }
+}
@@ -0,0 +1,397 @@
+package br.tec.facilitaservicos.auditoria.aplicacao.servico;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.tec.facilitaservicos.auditoria.aplicacao.mapper.EventoAuditoriaMapper;
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+import br.tec.facilitaservicos.auditoria.dominio.entidade.EventoAuditoriaR2dbc;
+import br.tec.facilitaservicos.auditoria.dominio.repositorio.EventoAuditoriaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ============================================================================
+ * 📤 EXPORTAÇÃO EM STREAMING DA TRILHA DE AUDITORIA
+ * ============================================================================
+ *
+ * Extrações de milhões de linhas direto do R2DBC para a resposta HTTP:
+ * - Formatos NDJSON (um EventoAuditoriaDto por linha) e CSV (RFC 4180,
+ *   metadados como JSON na última coluna)
+ * - Leitura por keyset (data_evento, id) em lotes de
+ *   {@code auditoria.exportacao.tamanho-lote}; o próximo lote só é
+ *   consultado quando o cliente consumiu o anterior, então a memória é a de
+ *   um lote qualquer que seja o período
+ * - Compressão gzip opcional, com flush a cada lote (o cliente recebe
+ *   blocos descompactáveis à medida que chegam)
+ * - Manifesto ao final: linhas exportadas, SHA-256 do conteúdo (antes da
+ *   compressão, sem a linha do manifesto) e âncoras da cadeia de hashes
+ *   (hash anterior do primeiro evento e hash do último) para verificação
+ *
+ * Exportações simultâneas por pod limitadas por
+ * {@code auditoria.exportacao.concorrencia-maxima}.
+ */
+@Service
+public class ExportacaoTrilhaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportacaoTrilhaService.class);
+
+    private static final List<String> COLUNAS_CSV = List.of(
+        "id", "tipoEvento", "timestamp", "usuarioId", "usuarioNome", "acaoRealizada",
+        "entidadeTipo", "entidadeId", "entidadeNome", "statusEvento", "severidade",
+        "ipOrigem", "userAgent", "hashEvento", "hashAnterior", "dadosPessoais",
+        "categoriaCompliance", "retencaoAte", "anonimizado", "createdAt", "metadados");
+
+    /**
+     * Formato das linhas exportadas
+     */
+    public enum Formato {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String tipoConteudo;
+        private final String extensao;
+
+        Formato(String tipoConteudo, String extensao) {
+            this.tipoConteudo = tipoConteudo;
+            this.extensao = extensao;
+        }
+
+        /**
+         * @throws IllegalArgumentException para formato desconhecido ou sem suporte
+         */
+        public static Formato de(String valor) {
+            if (valor == null || valor.isBlank()) {
+                return NDJSON;
+            }
+            try {
+                return valueOf(valor.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Formato de exportação não suportado: " + valor);
+            }
+        }
+    }
+
+    /**
+     * Compressão aplicada sobre as linhas
+     */
+    public enum Compressao {
+        NENHUMA,
+        GZIP;
+
+        /**
+         * @throws IllegalArgumentException para compressão desconhecida ou sem suporte
+         */
+        public static Compressao de(String valor) {
+            if (valor == null || valor.isBlank() || "none".equalsIgnoreCase(valor)) {
+                return NENHUMA;
+            }
+            try {
+                return valueOf(valor.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Compressão não suportada: " + valor);
+            }
+        }
+    }
+
+    /**
+     * Parâmetros de uma exportação
+     */
+    public record PedidoExportacao(LocalDateTime dataInicio, LocalDateTime dataFim, String usuarioId,
+                                   String tipoEvento, Formato formato, Compressao compressao) {
+
+        public String tipoConteudo() {
+            return compressao == Compressao.GZIP ? "application/gzip" : formato.tipoConteudo;
+        }
+
+        public String nomeArquivo() {
+            return "trilha-auditoria-" + dataInicio.toLocalDate() + "-" + dataFim.toLocalDate() + "."
+                + formato.extensao + (compressao == Compressao.GZIP ? ".gz" : "");
+        }
+    }
+
+    private final EventoAuditoriaRepository repository;
+    private final EventoAuditoriaMapper mapper;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger emAndamento = new AtomicInteger();
+    private final Timer duracao;
+
+    @Value("${auditoria.exportacao.tamanho-lote:1000}")
+    private int tamanhoLote;
+
+    @Value("${auditoria.exportacao.concorrencia-maxima:4}")
+    private int concorrenciaMaxima;
+
+    public ExportacaoTrilhaService(EventoAuditoriaRepository repository,
+                                   EventoAuditoriaMapper mapper,
+                                   ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.mapper = mapper;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.duracao = Timer.builder("audit.exportacao.duracao")
+            .description("Duração das exportações da trilha de auditoria")
+            .register(meterRegistry);
+        meterRegistry.gauge("audit.exportacao.ativas", emAndamento);
+    }
+
+    /**
+     * Valida o pedido e reserva uma vaga de exportação; o stream devolvido
+     * libera a vaga ao terminar ou ser cancelado
+     *
+     * @throws IllegalArgumentException para período inválido
+     * @throws IllegalStateException    se o limite de exportações simultâneas foi atingido
+     */
+    public Flux<DataBuffer> exportar(PedidoExportacao pedido) {
+        RelatorioComplianceService.validarPeriodo(pedido.dataInicio(), pedido.dataFim());
+        if (emAndamento.incrementAndGet() > concorrenciaMaxima) {
+            emAndamento.decrementAndGet();
+            throw new IllegalStateException("Limite de " + concorrenciaMaxima + " exportações simultâneas atingido");
+        }
+
+        Counter linhasExportadas = Counter.builder("audit.exportacao.linhas")
+            .description("Linhas exportadas da trilha de auditoria")
+            .tag("formato", pedido.formato().name().toLowerCase(Locale.ROOT))
+            .register(meterRegistry);
+        long inicio = System.nanoTime();
+
+        return Flux.defer(() -> {
+                Exportacao exportacao = new Exportacao(pedido);
+                Flux<byte[]> corpo = pedido.formato() == Formato.CSV
+                    ? Flux.just(exportacao.cabecalhoCsv()).concatWith(proximoLote(exportacao, linhasExportadas))
+                    : proximoLote(exportacao, linhasExportadas);
+                return corpo
+                    .concatWith(Mono.fromCallable(exportacao::encerrar))
+                    .doOnComplete(() -> logger.info("Exportação {} concluída: {} linhas de {} a {}",
+                        pedido.nomeArquivo(), exportacao.linhas, pedido.dataInicio(), pedido.dataFim()));
+            })
+            .filter(bytes -> bytes.length > 0)
+            .map(DefaultDataBufferFactory.sharedInstance::wrap)
+            .doFinally(sinal -> {
+                emAndamento.decrementAndGet();
+                duracao.record(Duration.ofNanos(System.nanoTime() - inicio));
+                logger.debug("Exportação {} encerrada ({})", pedido.nomeArquivo(), sinal);
+            });
+    }
+
+    // ========== LEITURA POR KEYSET ==========
+
+    private Flux<byte[]> proximoLote(Exportacao exportacao, Counter linhasExportadas) {
+        return lerLote(exportacao, linhasExportadas)
+            .expand(lote -> lote.completo() ? lerLote(exportacao, linhasExportadas) : Mono.empty())
+            .filter(lote -> lote.bloco() != null)
+            .map(LoteExportado::bloco);
+    }
+
+    /**
+     * Lê e escreve a próxima página; o cursor avança aqui, antes de o
+     * expand pedir a seguinte
+     */
+    private Mono<LoteExportado> lerLote(Exportacao exportacao, Counter linhasExportadas) {
+        PedidoExportacao pedido = exportacao.pedido;
+        return repository.findPaginaReplay(exportacao.cursorData, exportacao.cursorId, pedido.dataFim(),
+                pedido.usuarioId(), pedido.tipoEvento(), tamanhoLote)
+            .collectList()
+            .map(lote -> {
+                if (lote.isEmpty()) {
+                    return new LoteExportado(null, false);
+                }
+                byte[] bloco = exportacao.escreverLote(lote);
+                linhasExportadas.increment(lote.size());
+                return new LoteExportado(bloco, lote.size() == tamanhoLote);
+            });
+    }
+
+    private record LoteExportado(byte[] bloco, boolean completo) {
+    }
+
+    /**
+     * Estado de uma exportação: cursor, contagens, digest e compressor.
+     * Acessado em sequência pelo stream, um lote por vez.
+     */
+    private final class Exportacao {
+
+        private final PedidoExportacao pedido;
+        private final MessageDigest digest;
+        private final ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        private final GZIPOutputStream gzip;
+
+        private LocalDateTime cursorData;
+        private String cursorId = "";
+        private long linhas;
+        private String primeiroEventoId;
+        private String ultimoEventoId;
+        private String ancoraInicial;
+        private String ancoraFinal;
+
+        Exportacao(PedidoExportacao pedido) {
+            this.pedido = pedido;
+            this.cursorData = pedido.dataInicio();
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+                this.gzip = pedido.compressao() == Compressao.GZIP ? new GZIPOutputStream(saida, true) : null;
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 indisponível", e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        byte[] cabecalhoCsv() {
+            return conteudo(String.join(",", COLUNAS_CSV) + "\r\n");
+        }
+
+        byte[] escreverLote(List<EventoAuditoriaR2dbc> lote) {
+            StringBuilder texto = new StringBuilder(lote.size() * 512);
+            for (EventoAuditoriaR2dbc entidade : lote) {
+                EventoAuditoriaDto dto = mapper.paraDto(entidade);
+                if (pedido.formato() == Formato.CSV) {
+                    linhaCsv(texto, dto);
+                } else {
+                    texto.append(json(dto)).append('\n');
+                }
+                if (primeiroEventoId == null) {
+                    primeiroEventoId = dto.id();
+                    ancoraInicial = dto.hashAnterior();
+                }
+                ultimoEventoId = dto.id();
+                ancoraFinal = dto.hashEvento();
+                linhas++;
+            }
+            EventoAuditoriaR2dbc ultimo = lote.get(lote.size() - 1);
+            cursorData = ultimo.getDataEvento();
+            cursorId = ultimo.getId();
+            return conteudo(texto.toString());
+        }
+
+        /**
+         * Linha do manifesto e fechamento do gzip
+         */
+        byte[] encerrar() {
+            Map<String, Object> manifesto = new LinkedHashMap<>();
+            manifesto.put("formato", pedido.formato().name());
+            manifesto.put("compressao", pedido.compressao().name());
+            manifesto.put("periodoInicio", pedido.dataInicio().toString());
+            manifesto.put("periodoFim", pedido.dataFim().toString());
+            manifesto.put("usuarioId", pedido.usuarioId());
+            manifesto.put("tipoEvento", pedido.tipoEvento());
+            manifesto.put("linhas", linhas);
+            manifesto.put("primeiroEventoId", primeiroEventoId);
+            manifesto.put("ultimoEventoId", ultimoEventoId);
+            manifesto.put("ancoraInicial", ancoraInicial);
+            manifesto.put("ancoraFinal", ancoraFinal);
+            manifesto.put("sha256Conteudo", HexFormat.of().formatHex(digest.digest()));
+            manifesto.put("geradoEm", LocalDateTime.now().toString());
+
+            String json = json(Map.of("manifesto", manifesto));
+            String linha = pedido.formato() == Formato.CSV ? "# manifesto " + json + "\r\n" : json + "\n";
+            byte[] bytes = linha.getBytes(StandardCharsets.UTF_8);
+            if (gzip == null) {
+                return bytes;
+            }
+            try {
+                gzip.write(bytes);
+                gzip.finish();
+                return drenar();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Bytes de conteúdo: entram no digest e, com gzip, saem comprimidos
+         */
+        private byte[] conteudo(String texto) {
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            digest.update(bytes);
+            if (gzip == null) {
+                return bytes;
+            }
+            try {
+                gzip.write(bytes);
+                gzip.flush();
+                return drenar();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private byte[] drenar() {
+            byte[] comprimido = saida.toByteArray();
+            saida.reset();
+            return comprimido;
+        }
+
+        private void linhaCsv(StringBuilder texto, EventoAuditoriaDto dto) {
+            Object[] valores = {
+                dto.id(), dto.tipoEvento(), dto.timestamp(), dto.usuarioId(), dto.usuarioNome(), dto.acaoRealizada(),
+                dto.entidadeTipo(), dto.entidadeId(), dto.entidadeNome(), dto.statusEvento(), dto.severidade(),
+                dto.ipOrigem(), dto.userAgent(), dto.hashEvento(), dto.hashAnterior(), dto.dadosPessoais(),
+                dto.categoriaCompliance(), dto.retencaoAte(), dto.anonimizado(), dto.createdAt(),
+                dto.metadados() != null && !dto.metadados().isEmpty() ? json(dto.metadados()) : null
+            };
+            for (int i = 0; i < valores.length; i++) {
+                if (i > 0) {
+                    texto.append(',');
+                }
+                campoCsv(texto, valores[i]);
+            }
+            texto.append("\r\n");
+        }
+    }
+
+    // ========== AUXILIARES ==========
+
+    private String json(Object valor) {
+        try {
+            return objectMapper.writeValueAsString(valor);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar linha da exportação: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * Campo RFC 4180: aspas quando há separador, aspas ou quebra de linha
+     */
+    private static void campoCsv(StringBuilder texto, Object valor) {
+        if (valor == null) {
+            return;
+        }
+        String campo = valor.toString();
+        boolean aspas = campo.indexOf(',') >= 0 || campo.indexOf('"') >= 0
+            || campo.indexOf('\n') >= 0 || campo.indexOf('\r') >= 0;
+        if (!aspas) {
+            texto.append(campo);
+            return;
+        }
+        texto.append('"').append(campo.replace("\"", "\"\"")).append('"');
+    }
+}
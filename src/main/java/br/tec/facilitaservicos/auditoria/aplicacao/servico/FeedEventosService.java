@@ -0,0 +1,174 @@
+package br.tec.facilitaservicos.auditoria.aplicacao.servico;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Range.Bound;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.ReactiveStreamOperations;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.CodecEventoStream;
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.EventStreamingService;
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.EventoPublicado;
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.FiltroAssinatura;
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.PoliticaOverflow;
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.RoteadorAssinaturas;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ============================================================================
+ * 📡 FEED DE EVENTOS EM TEMPO REAL (SSE / WEBSOCKET)
+ * ============================================================================
+ *
+ * Monta o feed entregue aos observadores conectados:
+ * - Eventos ao vivo vêm do {@link RoteadorAssinaturas} (memória, sem
+ *   consulta ao banco por observador)
+ * - Retomada por último id: as entradas posteriores ao id informado são
+ *   relidas do stream de auditoria (XRANGE) antes do ao vivo; a assinatura
+ *   ao vivo começa junto, então não há lacuna entre as duas fases. Do ao
+ *   vivo só é descartado o que a retomada já cobriu (id até a última
+ *   entrada lida do stream); depois disso tudo passa, porque relays em pods
+ *   diferentes e a ponte pub/sub entregam ids fora de ordem
+ * - A retomada é limitada a {@code auditoria.streaming.feed.max-retomada}
+ *   entradas; além disso o cliente deve consultar /eventos
+ */
+@Service
+public class FeedEventosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedEventosService.class);
+
+    private static final int PAGINA_RETOMADA = 500;
+
+    private final RoteadorAssinaturas roteador;
+    private final ReactiveStreamOperations<String, String, String> streamOps;
+    private final CodecEventoStream codec;
+
+    @Value("${auditoria.streaming.feed.max-retomada:10000}")
+    private int maxRetomada;
+
+    @Value("${auditoria.streaming.feed.capacidade-buffer:1024}")
+    private int capacidadeBuffer;
+
+    @Value("${auditoria.streaming.feed.heartbeat-segundos:15}")
+    private long heartbeatSegundos;
+
+    public FeedEventosService(RoteadorAssinaturas roteador,
+                              ReactiveStringRedisTemplate stringRedisTemplate,
+                              CodecEventoStream codec) {
+        this.roteador = roteador;
+        this.streamOps = stringRedisTemplate.opsForStream();
+        this.codec = codec;
+    }
+
+    /**
+     * Feed filtrado; com {@code ultimoId} (id de entrada do stream) reentrega
+     * primeiro o que foi publicado depois dele
+     */
+    public Flux<EventoPublicado> feed(FiltroAssinatura filtro, PoliticaOverflow politica, String ultimoId) {
+        Flux<EventoPublicado> aoVivo = roteador.assinar(filtro, politica, capacidadeBuffer);
+        if (!idValido(ultimoId)) {
+            return aoVivo;
+        }
+
+        return Flux.defer(() -> {
+            // Última entrada lida pela retomada: tudo até ela já foi (ou não precisava ser) entregue
+            AtomicReference<String> marcaRetomada = new AtomicReference<>(ultimoId);
+            Flux<Entrega> retomada = lerApos(ultimoId, filtro, marcaRetomada)
+                .map(publicado -> new Entrega(publicado, false));
+
+            // Assina as duas fontes de imediato; o ao vivo fica em buffer até a retomada terminar,
+            // e só sai do buffer (e passa pelo filtro) com a marca já definitiva
+            return Flux.mergeSequential(List.of(retomada, aoVivo.map(publicado -> new Entrega(publicado, true))),
+                    2, capacidadeBuffer)
+                .filter(entrega -> !entrega.aoVivo()
+                    || entrega.publicado().idStream() == null
+                    || compararIds(entrega.publicado().idStream(), marcaRetomada.get()) > 0)
+                .map(Entrega::publicado);
+        });
+    }
+
+    /**
+     * Intervalo de heartbeat para manter proxies e balanceadores com a conexão aberta
+     */
+    public Duration intervaloHeartbeat() {
+        return Duration.ofSeconds(heartbeatSegundos);
+    }
+
+    // ========== RETOMADA ==========
+
+    /**
+     * Relê o stream depois de {@code inicio}, em páginas, até
+     * {@code max-retomada} entradas; a marca acompanha a última entrada lida
+     */
+    private Flux<EventoPublicado> lerApos(String inicio, FiltroAssinatura filtro, AtomicReference<String> marca) {
+        AtomicInteger restante = new AtomicInteger(maxRetomada);
+        return lerPagina(inicio, restante)
+            .expand(pagina -> pagina.isEmpty() || restante.get() <= 0
+                ? Mono.empty()
+                : lerPagina(pagina.getLast().getId().getValue(), restante))
+            .filter(pagina -> !pagina.isEmpty())
+            .doOnNext(pagina -> marca.set(pagina.getLast().getId().getValue()))
+            .flatMapIterable(pagina -> pagina)
+            .mapNotNull(this::decodificar)
+            .filter(publicado -> filtro.aceita(publicado.evento()));
+    }
+
+    private Mono<List<MapRecord<String, String, String>>> lerPagina(String inicio, AtomicInteger restante) {
+        return Mono.defer(() -> {
+            int limite = restante.get();
+            if (limite <= 0) {
+                return Mono.just(List.<MapRecord<String, String, String>>of());
+            }
+            Range<String> range = Range.of(Bound.inclusive(inicio), Bound.<String>unbounded());
+            return streamOps.range(EventStreamingService.AUDIT_STREAM, range,
+                    Limit.limit().count(Math.min(PAGINA_RETOMADA, limite) + 1))
+                .filter(registro -> !registro.getId().getValue().equals(inicio))
+                .take(limite)
+                .collectList()
+                .doOnNext(pagina -> restante.addAndGet(-pagina.size()));
+        });
+    }
+
+    private EventoPublicado decodificar(MapRecord<String, String, String> registro) {
+        try {
+            return new EventoPublicado(registro.getId().getValue(), codec.decodificar(registro.getValue()));
+        } catch (IllegalArgumentException e) {
+            logger.debug("Entrada {} ignorada na retomada do feed: {}", registro.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean idValido(String id) {
+        if (id == null || id.isBlank()) {
+            return false;
+        }
+        try {
+            return !RecordId.of(id).shouldBeAutoGenerated();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Item do feed e a fase de onde veio
+     */
+    private record Entrega(EventoPublicado publicado, boolean aoVivo) {}
+
+    private static int compararIds(String a, String b) {
+        RecordId idA = RecordId.of(a);
+        RecordId idB = RecordId.of(b);
+        int comparacao = Long.compare(idA.getTimestamp(), idB.getTimestamp());
+        return comparacao != 0 ? comparacao : Long.compare(idA.getSequence(), idB.getSequence());
+    }
+}
@@ -0,0 +1,161 @@
+package br.tec.facilitaservicos.auditoria.aplicacao.servico;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import br.tec.facilitaservicos.auditoria.aplicacao.dto.CriarEventoDto;
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.ResultadoIngestaoItemDto;
+import br.tec.facilitaservicos.auditoria.dominio.enums.StatusEvento;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Validator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ============================================================================
+ * 📥 INGESTÃO DE EVENTOS EM LOTE
+ * ============================================================================
+ *
+ * Recebe os eventos de um corpo NDJSON ou array JSON já decodificados em
+ * streaming (um por vez) e devolve um resultado por item, na mesma ordem:
+ * - Cada item é validado ao chegar (Bean Validation do CriarEventoDto); os
+ *   inválidos saem como REJEITADO sem tocar no banco
+ * - Os válidos são agrupados em lotes de {@code auditoria.ingestao.lote.tamanho}
+ *   e gravados por {@link EventoAuditoriaService#registrarLote} (uma
+ *   transação e uma vaga de admissão por lote, hash encadeado na ordem do
+ *   corpo); os lotes são gravados um de cada vez, então a ordem entre eles
+ *   também é a do corpo
+ * - Só um lote fica em memória por requisição, qualquer que seja o total;
+ *   itens além de {@code auditoria.ingestao.lote.maximo-itens} são rejeitados
+ *
+ * Um lote que falha marca só os seus itens como FALHA; os seguintes
+ * continuam. Corpo malformado encerra a ingestão com um item FALHA na
+ * posição em que a leitura parou.
+ */
+@Service
+public class IngestaoLoteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestaoLoteService.class);
+
+    private final EventoAuditoriaService eventoService;
+    private final Validator validator;
+    private final Map<String, Counter> itensPorStatus;
+
+    @Value("${auditoria.ingestao.lote.tamanho:200}")
+    private int tamanhoLote;
+
+    @Value("${auditoria.ingestao.lote.maximo-itens:10000}")
+    private long maximoItens;
+
+    public IngestaoLoteService(EventoAuditoriaService eventoService, Validator validator, MeterRegistry meterRegistry) {
+        this.eventoService = eventoService;
+        this.validator = validator;
+        this.itensPorStatus = Map.of(
+            ResultadoIngestaoItemDto.GRAVADO, contador(meterRegistry, ResultadoIngestaoItemDto.GRAVADO),
+            ResultadoIngestaoItemDto.ACEITO, contador(meterRegistry, ResultadoIngestaoItemDto.ACEITO),
+            ResultadoIngestaoItemDto.REJEITADO, contador(meterRegistry, ResultadoIngestaoItemDto.REJEITADO),
+            ResultadoIngestaoItemDto.FALHA, contador(meterRegistry, ResultadoIngestaoItemDto.FALHA));
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String status) {
+        return Counter.builder("audit.ingestao.lote.itens")
+            .description("Itens recebidos pela ingestão em lote, por resultado")
+            .tag("status", status.toLowerCase(Locale.ROOT))
+            .register(meterRegistry);
+    }
+
+    /**
+     * Valida e grava os eventos na ordem recebida
+     */
+    public Flux<ResultadoIngestaoItemDto> ingerir(Flux<CriarEventoDto> eventos) {
+        AtomicLong lidos = new AtomicLong();
+        AtomicReference<Throwable> erroLeitura = new AtomicReference<>();
+
+        return eventos
+            .doOnNext(_ -> lidos.incrementAndGet())
+            .onErrorResume(error -> {
+                erroLeitura.set(error);
+                return Flux.empty();
+            })
+            .index()
+            .map(item -> validar(item.getT1(), item.getT2()))
+            .buffer(tamanhoLote)
+            .concatMap(this::gravar)
+            .concatWith(Mono.fromSupplier(() -> erroLeitura.get() == null
+                    ? null
+                    : ResultadoIngestaoItemDto.falha(lidos.get(), "Corpo inválido: " + erroLeitura.get().getMessage())))
+            .doOnNext(resultado -> itensPorStatus.get(resultado.status()).increment());
+    }
+
+    private Item validar(long indice, CriarEventoDto evento) {
+        if (indice >= maximoItens) {
+            return new Item(indice, null, List.of("Limite de " + maximoItens + " eventos por requisição excedido"));
+        }
+        List<String> erros = validator.validate(evento).stream()
+            .map(violacao -> violacao.getPropertyPath() + ": " + violacao.getMessage())
+            .sorted()
+            .toList();
+        return new Item(indice, erros.isEmpty() ? evento : null, erros);
+    }
+
+    /**
+     * Grava os válidos do lote e monta o resultado de todos, na ordem
+     */
+    private Flux<ResultadoIngestaoItemDto> gravar(List<Item> itens) {
+        List<CriarEventoDto> validos = itens.stream()
+            .filter(Item::valido)
+            .map(Item::evento)
+            .toList();
+
+        return eventoService.registrarLote(validos)
+            .map(gravados -> resultados(itens, gravados))
+            .onErrorResume(error -> {
+                logger.warn("Falha ao gravar lote de {} eventos: {}", validos.size(), error.getMessage());
+                return Mono.just(itens.stream()
+                    .map(item -> item.valido()
+                        ? ResultadoIngestaoItemDto.falha(item.indice(), error.getMessage())
+                        : ResultadoIngestaoItemDto.rejeitado(item.indice(), item.erros()))
+                    .toList());
+            })
+            .flatMapIterable(resultados -> resultados);
+    }
+
+    private static List<ResultadoIngestaoItemDto> resultados(List<Item> itens, List<EventoAuditoriaDto> gravados) {
+        List<ResultadoIngestaoItemDto> resultados = new ArrayList<>(itens.size());
+        Iterator<EventoAuditoriaDto> gravado = gravados.iterator();
+        for (Item item : itens) {
+            if (!item.valido()) {
+                resultados.add(ResultadoIngestaoItemDto.rejeitado(item.indice(), item.erros()));
+                continue;
+            }
+            EventoAuditoriaDto evento = gravado.next();
+            String status = StatusEvento.CRIADO.name().equals(evento.statusEvento())
+                ? ResultadoIngestaoItemDto.ACEITO
+                : ResultadoIngestaoItemDto.GRAVADO;
+            resultados.add(new ResultadoIngestaoItemDto(item.indice(), evento.id(), status, List.of()));
+        }
+        return resultados;
+    }
+
+    /**
+     * Item lido e validado; {@code evento} só presente se válido
+     */
+    private record Item(long indice, CriarEventoDto evento, List<String> erros) {
+
+        boolean valido() {
+            return evento != null;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package br.tec.facilitaservicos.auditoria.aplicacao.servico;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progresso de uma geração de relatório de compliance; atualizado pelas
+ * partições em paralelo e lido pelo status do job a qualquer momento.
+ */
+public final class ProgressoRelatorio {
+
+    final AtomicLong eventosLidos = new AtomicLong();
+    final AtomicLong particoesConcluidas = new AtomicLong();
+    volatile int particoesTotal;
+
+    public Map<String, Object> snapshot() {
+        int total = particoesTotal;
+        long concluidas = particoesConcluidas.get();
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("eventosLidos", eventosLidos.get());
+        snapshot.put("particoesConcluidas", concluidas);
+        snapshot.put("particoesTotal", total);
+        snapshot.put("percentual", total > 0 ? Math.round(1000.0 * concluidas / total) / 10.0 : 0.0);
+        return snapshot;
+    }
+}
@@ -0,0 +1,69 @@
+package br.tec.facilitaservicos.auditoria.aplicacao.servico;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contadores de um reprocessamento em lote de eventos com falha; atualizados
+ * pelo lote em andamento e lidos pelo handle do job a qualquer momento.
+ */
+public final class ProgressoReprocessamento {
+
+    public enum Situacao { EM_ANDAMENTO, CONCLUIDO, FALHOU }
+
+    private final String id = UUID.randomUUID().toString();
+    private final LocalDateTime iniciadoEm = LocalDateTime.now();
+    private final long inicioNanos = System.nanoTime();
+
+    final AtomicLong lidos = new AtomicLong();
+    final AtomicLong transicionados = new AtomicLong();
+    final AtomicLong republicados = new AtomicLong();
+    final AtomicLong lotes = new AtomicLong();
+
+    private volatile Situacao situacao = Situacao.EM_ANDAMENTO;
+    private volatile LocalDateTime concluidoEm;
+    private volatile String erro;
+
+    public String getId() {
+        return id;
+    }
+
+    public Situacao getSituacao() {
+        return situacao;
+    }
+
+    void concluir() {
+        concluidoEm = LocalDateTime.now();
+        situacao = Situacao.CONCLUIDO;
+    }
+
+    void falhar(Throwable causa) {
+        concluidoEm = LocalDateTime.now();
+        erro = causa.getMessage();
+        situacao = Situacao.FALHOU;
+    }
+
+    public Map<String, Object> snapshot() {
+        long decorridoMs = Duration.ofNanos(System.nanoTime() - inicioNanos).toMillis();
+        long republicadosAgora = republicados.get();
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("jobId", id);
+        snapshot.put("situacao", situacao);
+        snapshot.put("iniciadoEm", iniciadoEm);
+        snapshot.put("concluidoEm", concluidoEm);
+        snapshot.put("lotes", lotes.get());
+        snapshot.put("lidos", lidos.get());
+        snapshot.put("transicionados", transicionados.get());
+        snapshot.put("republicados", republicadosAgora);
+        snapshot.put("eventosPorSegundo", decorridoMs > 0 ? republicadosAgora * 1000 / decorridoMs : 0);
+        if (erro != null) {
+            snapshot.put("erro", erro);
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,385 @@
+package br.tec.facilitaservicos.auditoria.aplicacao.servico;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.tec.facilitaservicos.auditoria.aplicacao.servico.AcumuladorCompliance.Violacao;
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.RelatorioComplianceDto;
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.RelatorioComplianceDto.PrioridadeRecomendacao;
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.RelatorioComplianceDto.RecomendacaoCompliance;
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.RelatorioComplianceDto.ResumoExecutivo;
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.RelatorioComplianceDto.SeveridadeViolacao;
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.RelatorioComplianceDto.StatusCompliance;
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.RelatorioComplianceDto.StatusViolacao;
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.RelatorioComplianceDto.TipoViolacao;
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.RelatorioComplianceDto.ViolacaoCompliance;
+import br.tec.facilitaservicos.auditoria.dominio.entidade.EventoAuditoriaR2dbc;
+import br.tec.facilitaservicos.auditoria.dominio.enums.NivelSeveridade;
+import br.tec.facilitaservicos.auditoria.dominio.enums.TipoEvento;
+import br.tec.facilitaservicos.auditoria.dominio.repositorio.EventoAuditoriaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ============================================================================
+ * 📑 MOTOR DO RELATÓRIO DE COMPLIANCE
+ * ============================================================================
+ *
+ * Calcula resumo executivo, violações e métricas em uma única passada pelo
+ * período:
+ * - O período é partido por dia; as partições rodam em paralelo (até
+ *   {@code auditoria.relatorio.paralelismo}, padrão = núcleos) e cada uma
+ *   lê por keyset (data_evento, id) em lotes, só com as colunas avaliadas
+ * - Cada partição alimenta seu próprio {@link AcumuladorCompliance}; os
+ *   acumuladores são combinados no fim. A memória depende do paralelismo e
+ *   do lote, não do tamanho do período: um AUDITORIA_GERAL de um ano cabe
+ *   no mesmo espaço que o de um dia
+ * - Violações: todas entram nas contagens; o detalhe fica limitado a
+ *   {@code auditoria.relatorio.violacoes-maximo}, as mais severas primeiro
+ *
+ * Tipos de relatório: AUDITORIA_GERAL (tudo), LGPD (eventos com dados
+ * pessoais) ou o nome de uma categoria de compliance (AUTENTICACAO,
+ * SEGURANCA, FINANCEIRO...).
+ */
+@Service
+public class RelatorioComplianceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RelatorioComplianceService.class);
+
+    public static final String AUDITORIA_GERAL = "AUDITORIA_GERAL";
+    public static final String LGPD = "LGPD";
+
+    private static final Set<String> CATEGORIAS = categorias();
+
+    private final EventoAuditoriaRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Timer duracao;
+
+    @Value("${auditoria.relatorio.tamanho-lote:2000}")
+    private int tamanhoLote;
+
+    @Value("${auditoria.relatorio.paralelismo:0}")
+    private int paralelismo;
+
+    @Value("${auditoria.relatorio.violacoes-maximo:500}")
+    private int violacoesMaximo;
+
+    public RelatorioComplianceService(EventoAuditoriaRepository repository,
+                                      ObjectMapper objectMapper,
+                                      MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.duracao = Timer.builder("audit.relatorio.compliance.duracao")
+            .description("Tempo de geração do relatório de compliance")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Gera o relatório do período [dataInicio, dataFim]
+     *
+     * @throws IllegalArgumentException período invertido ou tipo desconhecido
+     */
+    public Mono<RelatorioComplianceDto> gerar(LocalDateTime dataInicio, LocalDateTime dataFim, String tipoRelatorio) {
+        return gerar(dataInicio, dataFim, tipoRelatorio, new ProgressoRelatorio());
+    }
+
+    /**
+     * Gera o relatório reportando o avanço no progresso informado
+     */
+    public Mono<RelatorioComplianceDto> gerar(LocalDateTime dataInicio, LocalDateTime dataFim, String tipoRelatorio,
+                                              ProgressoRelatorio progresso) {
+        return Mono.defer(() -> {
+            validarPeriodo(dataInicio, dataFim);
+            Filtro filtro = filtro(tipoRelatorio);
+            LocalDateTime geradoEm = LocalDateTime.now();
+            List<Particao> particoes = particionar(dataInicio, dataFim);
+            int concorrencia = paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors();
+            long inicio = System.nanoTime();
+            progresso.particoesTotal = particoes.size();
+
+            return Flux.fromIterable(particoes)
+                .flatMap(particao -> varrer(particao, filtro, new AcumuladorCompliance(violacoesMaximo, geradoEm), progresso)
+                    .doOnSuccess(_ -> progresso.particoesConcluidas.incrementAndGet()), concorrencia)
+                .reduce(AcumuladorCompliance::combinar)
+                .defaultIfEmpty(new AcumuladorCompliance(violacoesMaximo, geradoEm))
+                .map(acumulador -> {
+                    Duration decorrido = Duration.ofNanos(System.nanoTime() - inicio);
+                    duracao.record(decorrido);
+                    logger.info("Relatório {} de {} a {}: {} eventos, {} violações, {} partições em {} ms",
+                        filtro.tipo(), dataInicio, dataFim, acumulador.total, acumulador.totalViolacoes(),
+                        particoes.size(), decorrido.toMillis());
+                    return montar(acumulador, filtro.tipo(), dataInicio, dataFim, geradoEm, particoes.size(), decorrido);
+                });
+        });
+    }
+
+    // ========== VARREDURA ==========
+
+    private record Particao(LocalDateTime inicio, LocalDateTime fim) {}
+
+    private record Filtro(String tipo, String categoria, boolean somenteDadosPessoais) {}
+
+    /**
+     * Um intervalo por dia de calendário; os limites internos terminam 1 µs
+     * antes do dia seguinte porque a consulta é inclusiva no fim
+     */
+    private static List<Particao> particionar(LocalDateTime dataInicio, LocalDateTime dataFim) {
+        List<Particao> particoes = new ArrayList<>();
+        LocalDateTime inicio = dataInicio;
+        while (!inicio.isAfter(dataFim)) {
+            LocalDateTime proximoDia = inicio.toLocalDate().plusDays(1).atStartOfDay();
+            LocalDateTime fim = proximoDia.isAfter(dataFim) ? dataFim : proximoDia.minus(1, ChronoUnit.MICROS);
+            particoes.add(new Particao(inicio, fim));
+            inicio = proximoDia;
+        }
+        return particoes;
+    }
+
+    private Mono<AcumuladorCompliance> varrer(Particao particao, Filtro filtro, AcumuladorCompliance acumulador,
+                                              ProgressoRelatorio progresso) {
+        return lerPagina(particao.inicio(), "", particao, filtro)
+            .expand(lote -> lote.size() < tamanhoLote
+                ? Mono.empty()
+                : lerPagina(lote.getLast().getDataEvento(), lote.getLast().getId(), particao, filtro))
+            .doOnNext(lote -> {
+                lote.forEach(acumulador::acumular);
+                progresso.eventosLidos.addAndGet(lote.size());
+            })
+            .then(Mono.just(acumulador));
+    }
+
+    private Mono<List<EventoAuditoriaR2dbc>> lerPagina(LocalDateTime ultimaData, String ultimoId,
+                                                       Particao particao, Filtro filtro) {
+        return repository.findPaginaCompliance(ultimaData, ultimoId, particao.fim(),
+                filtro.categoria(), filtro.somenteDadosPessoais(), tamanhoLote)
+            .collectList();
+    }
+
+    /**
+     * Tipo de relatório normalizado (vazio = AUDITORIA_GERAL)
+     *
+     * @throws IllegalArgumentException tipo desconhecido
+     */
+    public static String normalizarTipo(String tipoRelatorio) {
+        return filtro(tipoRelatorio).tipo();
+    }
+
+    /**
+     * @throws IllegalArgumentException período ausente ou invertido
+     */
+    public static void validarPeriodo(LocalDateTime dataInicio, LocalDateTime dataFim) {
+        if (dataInicio == null || dataFim == null || dataFim.isBefore(dataInicio)) {
+            throw new IllegalArgumentException("Período do relatório inválido");
+        }
+    }
+
+    private static Filtro filtro(String tipoRelatorio) {
+        String tipo = tipoRelatorio == null || tipoRelatorio.isBlank()
+            ? AUDITORIA_GERAL
+            : tipoRelatorio.trim().toUpperCase(Locale.ROOT);
+        if (AUDITORIA_GERAL.equals(tipo)) {
+            return new Filtro(tipo, null, false);
+        }
+        if (LGPD.equals(tipo)) {
+            return new Filtro(tipo, null, true);
+        }
+        if (CATEGORIAS.contains(tipo)) {
+            return new Filtro(tipo, tipo, false);
+        }
+        throw new IllegalArgumentException("Tipo de relatório desconhecido: " + tipoRelatorio);
+    }
+
+    private static Set<String> categorias() {
+        return Arrays.stream(TipoEvento.values())
+            .map(TipoEvento::getCategoria)
+            .collect(Collectors.toUnmodifiableSet());
+    }
+
+    // ========== MONTAGEM ==========
+
+    private RelatorioComplianceDto montar(AcumuladorCompliance acumulador, String tipo,
+                                          LocalDateTime dataInicio, LocalDateTime dataFim,
+                                          LocalDateTime geradoEm, int particoes, Duration decorrido) {
+        double percentual = acumulador.total == 0
+            ? 100.0
+            : Math.round(10_000.0 * (acumulador.total - acumulador.eventosComViolacao) / acumulador.total) / 100.0;
+        long criticas = acumulador.violacoesPorSeveridade[SeveridadeViolacao.CRITICA.ordinal()];
+
+        ResumoExecutivo resumo = new ResumoExecutivo(
+            limitar(acumulador.total),
+            limitar(acumulador.eventosComViolacao),
+            percentual,
+            limitar(acumulador.contarTipo(TipoEvento.DADOS_ACESSADOS)),
+            limitar(acumulador.contarTipo(TipoEvento.DIREITO_ESQUECIMENTO)),
+            limitar(acumulador.contarTipo(TipoEvento.DADOS_EXPORTADOS) + acumulador.contarTipo(TipoEvento.PORTABILIDADE_DADOS)),
+            status(acumulador.eventosComViolacao, percentual, criticas)
+        );
+
+        List<ViolacaoCompliance> violacoes = acumulador.amostraOrdenada().stream()
+            .map(this::paraDto)
+            .toList();
+
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("eventosPorSeveridade", porEnum(NivelSeveridade.values(), acumulador.porSeveridade));
+        metricas.put("eventosPorTipo", porEnum(TipoEvento.values(), acumulador.porTipo));
+        metricas.put("eventosPorCategoria", new TreeMap<>(acumulador.porCategoria));
+        Map<String, Long> porDia = new LinkedHashMap<>();
+        acumulador.porDia.forEach((dia, n) -> porDia.put(dia.toString(), n));
+        metricas.put("eventosPorDia", porDia);
+        metricas.put("mediaEventosPorDia", particoes > 0 ? acumulador.total / particoes : 0);
+        metricas.put("eventosDadosPessoais", acumulador.dadosPessoais);
+        metricas.put("eventosAnonimizados", acumulador.anonimizados);
+        metricas.put("eventosSemHash", acumulador.semHash);
+        metricas.put("eventosComFalha", acumulador.comFalha);
+        metricas.put("violacoesPorTipo", porEnum(TipoViolacao.values(), acumulador.violacoesPorTipo));
+        metricas.put("violacoesPorSeveridade", porEnum(SeveridadeViolacao.values(), acumulador.violacoesPorSeveridade));
+        metricas.put("violacoesDetalhadas", violacoes.size());
+        metricas.put("violacoesOmitidas", Math.max(0, acumulador.totalViolacoes() - violacoes.size()));
+        metricas.put("particoes", particoes);
+        metricas.put("duracaoMs", decorrido.toMillis());
+
+        return new RelatorioComplianceDto(
+            UUID.randomUUID().toString(),
+            tipo,
+            dataInicio,
+            dataFim,
+            geradoEm,
+            "sistema-auditoria",
+            resumo,
+            violacoes,
+            recomendacoes(acumulador),
+            metricas,
+            Map.of()
+        );
+    }
+
+    private ViolacaoCompliance paraDto(Violacao violacao) {
+        EventoAuditoriaR2dbc evento = violacao.evento();
+        String entidade = evento.getEntidadeTipo() != null
+            ? evento.getEntidadeTipo() + (evento.getEntidadeId() != null ? ":" + evento.getEntidadeId() : "")
+            : "USUARIO:" + evento.getUsuarioId();
+
+        Map<String, Object> dados = new LinkedHashMap<>();
+        dados.put("eventoId", evento.getId());
+        dados.put("tipoEvento", evento.getTipoEvento() != null ? evento.getTipoEvento().name() : null);
+        dados.put("usuarioId", evento.getUsuarioId());
+        dados.put("ipOrigem", evento.getIpOrigem());
+        if (evento.getRetencaoAte() != null) {
+            dados.put("retencaoAte", evento.getRetencaoAte().toString());
+        }
+
+        return new ViolacaoCompliance(
+            violacao.tipo().name().toLowerCase(Locale.ROOT) + "-" + evento.getId(),
+            violacao.tipo(),
+            descricao(violacao),
+            violacao.severidade(),
+            evento.getDataEvento(),
+            entidade,
+            json(dados),
+            StatusViolacao.ABERTA,
+            List.of()
+        );
+    }
+
+    private static String descricao(Violacao violacao) {
+        EventoAuditoriaR2dbc evento = violacao.evento();
+        return switch (violacao.tipo()) {
+            case ACESSO_NAO_AUTORIZADO -> evento.getTipoEvento() + " do usuário " + evento.getUsuarioId()
+                + (evento.getIpOrigem() != null ? " a partir de " + evento.getIpOrigem() : "");
+            case RETENCAO_EXCESSIVA -> "Dados pessoais retidos após " + evento.getRetencaoAte() + " sem anonimização";
+            case AUSENCIA_REGISTRO -> "Evento sem hash de integridade na trilha de auditoria";
+            default -> violacao.tipo().name();
+        };
+    }
+
+    private static List<RecomendacaoCompliance> recomendacoes(AcumuladorCompliance acumulador) {
+        List<RecomendacaoCompliance> recomendacoes = new ArrayList<>();
+        long acessos = acumulador.violacoesPorTipo[TipoViolacao.ACESSO_NAO_AUTORIZADO.ordinal()];
+        long retencao = acumulador.violacoesPorTipo[TipoViolacao.RETENCAO_EXCESSIVA.ordinal()];
+        long semRegistro = acumulador.violacoesPorTipo[TipoViolacao.AUSENCIA_REGISTRO.ordinal()];
+
+        if (acessos > 0) {
+            recomendacoes.add(new RecomendacaoCompliance("SEGURANCA",
+                "Revisar tentativas de acesso não autorizado",
+                acessos + " eventos de intrusão, bloqueio ou acesso negado grave no período",
+                acumulador.violacoesPorSeveridade[SeveridadeViolacao.CRITICA.ordinal()] > 0
+                    ? PrioridadeRecomendacao.URGENTE : PrioridadeRecomendacao.ALTA,
+                "Redução da superfície de ataque e do tempo de resposta a incidentes",
+                List.of("Analisar os IPs e usuários de origem", "Avaliar bloqueio preventivo e MFA",
+                    "Ajustar os limites da detecção de força bruta")));
+        }
+        if (retencao > 0) {
+            recomendacoes.add(new RecomendacaoCompliance("DADOS",
+                "Anonimizar dados pessoais com retenção vencida",
+                retencao + " eventos com dados pessoais além do prazo de retenção",
+                PrioridadeRecomendacao.ALTA,
+                "Adequação ao princípio de necessidade da LGPD",
+                List.of("Executar o processamento de eventos expirados", "Verificar falhas do job de anonimização")));
+        }
+        if (semRegistro > 0) {
+            recomendacoes.add(new RecomendacaoCompliance("INTEGRIDADE",
+                "Recompor a cadeia de hashes da trilha",
+                semRegistro + " eventos sem hash de integridade",
+                PrioridadeRecomendacao.MEDIA,
+                "Trilha de auditoria verificável de ponta a ponta",
+                List.of("Validar a cadeia de hashes do período", "Identificar a origem dos eventos sem hash")));
+        }
+        return recomendacoes;
+    }
+
+    private static StatusCompliance status(long eventosComViolacao, double percentual, long criticas) {
+        if (eventosComViolacao == 0) {
+            return StatusCompliance.CONFORME;
+        }
+        if (percentual < 95.0) {
+            return StatusCompliance.NAO_CONFORME;
+        }
+        if (criticas > 0 || percentual < 99.0) {
+            return StatusCompliance.REQUER_ATENCAO;
+        }
+        return StatusCompliance.PARCIALMENTE_CONFORME;
+    }
+
+    private static <E extends Enum<E>> Map<String, Long> porEnum(E[] valores, long[] contagens) {
+        Map<String, Long> mapa = new LinkedHashMap<>();
+        for (E valor : valores) {
+            if (contagens[valor.ordinal()] > 0) {
+                mapa.put(valor.name(), contagens[valor.ordinal()]);
+            }
+        }
+        return mapa;
+    }
+
+    private static int limitar(long valor) {
+        return (int) Math.min(Integer.MAX_VALUE, valor);
+    }
+
+    private String json(Map<String, Object> dados) {
+        try {
+            return objectMapper.writeValueAsString(dados);
+        } catch (JsonProcessingException e) {
+            return dados.toString();
+        }
+    }
+}
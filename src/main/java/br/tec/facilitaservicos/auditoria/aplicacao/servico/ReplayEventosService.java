@@ -0,0 +1,320 @@
+package br.tec.facilitaservicos.auditoria.aplicacao.servico;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import br.tec.facilitaservicos.auditoria.aplicacao.mapper.EventoAuditoriaMapper;
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+import br.tec.facilitaservicos.auditoria.dominio.entidade.EventoAuditoriaR2dbc;
+import br.tec.facilitaservicos.auditoria.dominio.repositorio.EventoAuditoriaRepository;
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.FiltroAssinatura;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * ============================================================================
+ * ⏪ MOTOR DE REPLAY FORENSE DE EVENTOS
+ * ============================================================================
+ *
+ * Reproduz um período de eventos de auditoria na ordem em que ocorreram:
+ * - Leitura por keyset (data_evento, id) em lotes de
+ *   {@code auditoria.replay.tamanho-lote}; só um lote fica em memória por
+ *   sessão, qualquer que seja o tamanho do período
+ * - Intervalos originais entre eventos escalados pelo fator de velocidade;
+ *   o agendamento é relativo ao início (sem deriva acumulada). Velocidade
+ *   {@code <= 0} reproduz o mais rápido possível
+ * - Pausa, retomada, reposicionamento (seek) e troca de velocidade durante
+ *   a reprodução, pelo id da sessão
+ * - Filtros no servidor: usuário e tipo vão para a consulta; categoria e
+ *   severidade mínima são avaliados no lote
+ *
+ * As sessões vivem no pod que atende o stream; comandos de controle precisam
+ * chegar ao mesmo pod (afinidade de sessão no balanceador).
+ */
+@Service
+public class ReplayEventosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplayEventosService.class);
+
+    private final EventoAuditoriaRepository repository;
+    private final EventoAuditoriaMapper mapper;
+    private final Map<String, SessaoReplay> sessoes = new ConcurrentHashMap<>();
+    private final Counter eventosReproduzidos;
+
+    @Value("${auditoria.replay.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    @Value("${auditoria.replay.sessoes-maximo:20}")
+    private int sessoesMaximo;
+
+    public ReplayEventosService(EventoAuditoriaRepository repository,
+                                EventoAuditoriaMapper mapper,
+                                MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.mapper = mapper;
+        this.eventosReproduzidos = Counter.builder("audit.replay.eventos")
+            .description("Eventos entregues por sessões de replay")
+            .register(meterRegistry);
+        Gauge.builder("audit.replay.sessoes", sessoes, Map::size)
+            .description("Sessões de replay ativas")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Abre uma sessão de replay; a leitura só começa ao assinar {@link #reproduzir}
+     *
+     * @param velocidade        fator sobre o tempo original; {@code <= 0} = sem espera
+     * @param intervaloMaximo   teto de espera entre dois eventos (nulo = sem teto)
+     * @throws IllegalStateException se o limite de sessões do pod foi atingido
+     */
+    public SessaoReplay abrirSessao(LocalDateTime dataInicio, LocalDateTime dataFim, double velocidade,
+                                    Duration intervaloMaximo, FiltroAssinatura filtro) {
+        if (dataInicio == null || dataFim == null || dataInicio.isAfter(dataFim)) {
+            throw new IllegalArgumentException("Período de replay inválido");
+        }
+        if (sessoes.size() >= sessoesMaximo) {
+            throw new IllegalStateException("Limite de " + sessoesMaximo + " sessões de replay atingido");
+        }
+
+        SessaoReplay sessao = new SessaoReplay(UUID.randomUUID().toString(), dataInicio, dataFim,
+            velocidade, intervaloMaximo, filtro != null ? filtro : FiltroAssinatura.todos());
+        sessoes.put(sessao.getId(), sessao);
+        return sessao;
+    }
+
+    /**
+     * Stream da sessão; cancelar ou concluir encerra e remove a sessão
+     */
+    public Flux<EventoAuditoriaDto> reproduzir(SessaoReplay sessao) {
+        AtomicBoolean fim = new AtomicBoolean();
+        return Flux.defer(() -> proximoLote(sessao, fim))
+            .repeat(() -> !fim.get())
+            .doOnNext(_ -> eventosReproduzidos.increment())
+            .doFinally(sinal -> {
+                sessoes.remove(sessao.getId());
+                logger.debug("Replay {} encerrado ({})", sessao.getId(), sinal);
+            });
+    }
+
+    public Optional<SessaoReplay> sessao(String id) {
+        return Optional.ofNullable(sessoes.get(id));
+    }
+
+    public Collection<SessaoReplay> sessoesAtivas() {
+        return sessoes.values();
+    }
+
+    // ========== LEITURA POR KEYSET ==========
+
+    /**
+     * Emite a próxima página a partir do cursor; marca {@code fim} quando
+     * não há mais eventos no período
+     */
+    private Flux<EventoAuditoriaDto> proximoLote(SessaoReplay sessao, AtomicBoolean fim) {
+        Cursor cursor = sessao.cursor();
+        FiltroAssinatura filtro = sessao.getFiltro();
+
+        return repository.findPaginaReplay(cursor.data(), cursor.id(), sessao.getDataFim(),
+                filtro.usuarioId(), filtro.tipoEvento(), tamanhoLote)
+            .collectList()
+            .flatMapMany(lote -> {
+                if (lote.isEmpty()) {
+                    // Um seek durante a consulta invalida o "fim" observado
+                    fim.set(sessao.versao() == cursor.versao());
+                    return Flux.empty();
+                }
+                return Flux.fromIterable(lote)
+                    .concatMap(entidade -> emitir(sessao, entidade, cursor.versao()));
+            });
+    }
+
+    private Mono<EventoAuditoriaDto> emitir(SessaoReplay sessao, EventoAuditoriaR2dbc entidade, long versao) {
+        EventoAuditoriaDto dto = mapper.paraDto(entidade);
+        if (!sessao.getFiltro().aceita(dto)) {
+            sessao.avancarCursor(entidade.getDataEvento(), entidade.getId(), versao);
+            return Mono.empty();
+        }
+
+        return sessao.aguardarRetomada().then(Mono.defer(() -> {
+            Duration atraso = sessao.agendar(entidade.getDataEvento(), entidade.getId(), versao);
+            if (atraso == null) {
+                // Reposicionada: o restante do lote é descartado e o próximo lote sai do novo cursor
+                return Mono.empty();
+            }
+            Mono<EventoAuditoriaDto> evento = Mono.just(dto);
+            return (atraso.isZero() ? evento : evento.delayElement(atraso))
+                .filter(_ -> sessao.versao() == versao);
+        }));
+    }
+
+    record Cursor(LocalDateTime data, String id, long versao) {
+    }
+
+    /**
+     * Estado de uma reprodução; alterado pelo stream e pelos comandos de controle
+     */
+    public static final class SessaoReplay {
+
+        private final String id;
+        private final LocalDateTime dataInicio;
+        private final LocalDateTime dataFim;
+        private final Duration intervaloMaximo;
+        private final FiltroAssinatura filtro;
+
+        private LocalDateTime cursorData;
+        private String cursorId = "";
+        private long versao;
+        private double velocidade;
+        private long emitidos;
+
+        private boolean pausado;
+        private Sinks.One<Void> retomada;
+
+        // Âncora do agendamento: evento de referência e instante real em que saiu
+        private LocalDateTime baseEvento;
+        private long baseRealNanos;
+        private LocalDateTime ultimoEvento;
+
+        SessaoReplay(String id, LocalDateTime dataInicio, LocalDateTime dataFim, double velocidade,
+                     Duration intervaloMaximo, FiltroAssinatura filtro) {
+            this.id = id;
+            this.dataInicio = dataInicio;
+            this.dataFim = dataFim;
+            this.velocidade = velocidade;
+            this.intervaloMaximo = intervaloMaximo;
+            this.filtro = filtro;
+            this.cursorData = dataInicio;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public LocalDateTime getDataFim() {
+            return dataFim;
+        }
+
+        public FiltroAssinatura getFiltro() {
+            return filtro;
+        }
+
+        public synchronized void pausar() {
+            if (!pausado) {
+                pausado = true;
+                retomada = Sinks.one();
+            }
+        }
+
+        public synchronized void retomar() {
+            if (pausado) {
+                pausado = false;
+                reancorar();
+                retomada.tryEmitEmpty();
+            }
+        }
+
+        /**
+         * Reposiciona no instante informado (para frente ou para trás, dentro do período)
+         */
+        public synchronized void posicionar(LocalDateTime instante) {
+            if (instante.isBefore(dataInicio) || instante.isAfter(dataFim)) {
+                throw new IllegalArgumentException("Instante fora do período do replay");
+            }
+            cursorData = instante;
+            cursorId = "";
+            versao++;
+            baseEvento = null;
+            ultimoEvento = null;
+        }
+
+        public synchronized void alterarVelocidade(double novaVelocidade) {
+            velocidade = novaVelocidade;
+            reancorar();
+        }
+
+        public synchronized Map<String, Object> estado() {
+            Map<String, Object> estado = new LinkedHashMap<>();
+            estado.put("sessaoId", id);
+            estado.put("dataInicio", dataInicio);
+            estado.put("dataFim", dataFim);
+            estado.put("posicao", ultimoEvento != null ? ultimoEvento : cursorData);
+            estado.put("velocidade", velocidade);
+            estado.put("maximaVelocidade", velocidade <= 0);
+            estado.put("pausado", pausado);
+            estado.put("eventosEmitidos", emitidos);
+            return estado;
+        }
+
+        synchronized Cursor cursor() {
+            return new Cursor(cursorData, cursorId, versao);
+        }
+
+        synchronized long versao() {
+            return versao;
+        }
+
+        synchronized Mono<Void> aguardarRetomada() {
+            return pausado ? retomada.asMono() : Mono.empty();
+        }
+
+        synchronized void avancarCursor(LocalDateTime data, String idEvento, long versaoLote) {
+            if (versaoLote == versao) {
+                cursorData = data;
+                cursorId = idEvento;
+            }
+        }
+
+        /**
+         * Avança o cursor e devolve quanto esperar antes de entregar o evento;
+         * nulo se a sessão foi reposicionada depois da leitura do lote
+         */
+        synchronized Duration agendar(LocalDateTime dataEvento, String idEvento, long versaoLote) {
+            if (versaoLote != versao) {
+                return null;
+            }
+            cursorData = dataEvento;
+            cursorId = idEvento;
+            ultimoEvento = dataEvento;
+            emitidos++;
+
+            long agora = System.nanoTime();
+            if (velocidade <= 0 || baseEvento == null) {
+                baseEvento = dataEvento;
+                baseRealNanos = agora;
+                return Duration.ZERO;
+            }
+
+            long decorridoOriginal = Duration.between(baseEvento, dataEvento).toNanos();
+            long espera = baseRealNanos + (long) (decorridoOriginal / velocidade) - agora;
+            if (intervaloMaximo != null && espera > intervaloMaximo.toNanos()) {
+                // Corta o silêncio e desloca a âncora para não acumular o corte nos próximos
+                baseRealNanos -= espera - intervaloMaximo.toNanos();
+                espera = intervaloMaximo.toNanos();
+            }
+            return espera > 0 ? Duration.ofNanos(espera) : Duration.ZERO;
+        }
+
+        private void reancorar() {
+            if (ultimoEvento != null) {
+                baseEvento = ultimoEvento;
+                baseRealNanos = System.nanoTime();
+            }
+        }
+    }
+}
@@ -1,21 +1,23 @@
 package br.tec.facilitaservicos.auditoria.aplicacao.servico;
 
 import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
-import br.tec.facilitaservicos.auditoria.dominio.entidade.EventoAuditoriaR2dbc;
-import br.tec.facilitaservicos.auditoria.dominio.repositorio.EventoAuditoriaRepository;
+import br.tec.facilitaservicos.auditoria.infraestrutura.reprocessamento.FilaReprocessamento;
+import br.tec.facilitaservicos.auditoria.infraestrutura.reprocessamento.TratadorReprocessamentoEvento;
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.EventoPublicado;
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.FiltroAssinatura;
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.OuvinteEventoPublicado;
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.PoliticaOverflow;
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.PonteFeedPubSub;
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.RoteadorAssinaturas;
 
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
-import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.publisher.Sinks;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * ============================================================================
@@ -28,7 +30,6 @@ import java.util.concurrent.ConcurrentHashMap;
  * - Replay de eventos para análise forense
  * - Buffer circular para eventos críticos
  * - Filtros dinâmicos por tipo/usuário/severidade
- * - Rate limiting inteligente para proteção
  * - Métricas de throughput e latência
  * 
  * @author Sistema de Migração R2DBC
@@ -36,211 +37,121 @@ import java.util.concurrent.ConcurrentHashMap;
  * @since 2024
  */
 @Service
-public class StreamingService {
+public class StreamingService implements OuvinteEventoPublicado {
 
-    private final EventoAuditoriaRepository repository;
     private final ReactiveRedisTemplate<String, Object> redisTemplate;
-    private final ReactiveStringRedisTemplate stringRedisTemplate;
+    private final FilaReprocessamento filaReprocessamento;
 
-    // Sinks para streaming em tempo real
-    private final Sinks.Many<EventoAuditoriaDto> eventSink;
-    private final Map<String, Sinks.Many<EventoAuditoriaDto>> userEventSinks;
-    private final Map<String, Sinks.Many<EventoAuditoriaDto>> typeEventSinks;
+    // Fan-out indexado para streaming em tempo real (local) e ponte entre pods
+    private final RoteadorAssinaturas roteador;
+    private final PonteFeedPubSub ponte;
+
+    private final ReplayEventosService replay;
 
     // Redis keys para controle
-    private static final String KEY_REPROCESSING_QUEUE = "audit:reprocessing:queue";
-    private static final String KEY_FAILED_EVENTS = "audit:failed:events";
     private static final String KEY_STREAMING_STATS = "audit:streaming:stats";
 
-    // Rate limiting
-    private static final int MAX_EVENTS_PER_SECOND = 1000;
-    private static final Duration RATE_LIMIT_WINDOW = Duration.ofSeconds(1);
+    private static final int LIMITE_FALHAS_CONSULTA = 1000;
 
-    public StreamingService(EventoAuditoriaRepository repository,
-                           ReactiveRedisTemplate<String, Object> redisTemplate,
-                           ReactiveStringRedisTemplate stringRedisTemplate) {
-        this.repository = repository;
+    public StreamingService(ReactiveRedisTemplate<String, Object> redisTemplate,
+                           FilaReprocessamento filaReprocessamento,
+                           RoteadorAssinaturas roteador,
+                           PonteFeedPubSub ponte,
+                           ReplayEventosService replay) {
         this.redisTemplate = redisTemplate;
-        this.stringRedisTemplate = stringRedisTemplate;
-        
-        // Inicializar sinks reativos
-        this.eventSink = Sinks.many().multicast().onBackpressureBuffer(10000);
-        this.userEventSinks = new ConcurrentHashMap<>();
-        this.typeEventSinks = new ConcurrentHashMap<>();
+        this.filaReprocessamento = filaReprocessamento;
+        this.roteador = roteador;
+        this.ponte = ponte;
+        this.replay = replay;
     }
 
     /**
      * Stream principal de todos os eventos em tempo real
      */
     public Flux<EventoAuditoriaDto> streamEventos() {
-        return eventSink.asFlux()
-            .onBackpressureDrop(evento -> {
-                // Log dropped events para monitoramento
-                registrarEventoDropado(evento);
-            });
+        return streamEventos(FiltroAssinatura.todos(), PoliticaOverflow.DESCARTAR_MAIS_ANTIGO);
     }
 
     /**
      * Stream filtrado por usuário específico
      */
     public Flux<EventoAuditoriaDto> streamEventosUsuario(String usuarioId) {
-        return userEventSinks
-            .computeIfAbsent(usuarioId, 
-                k -> Sinks.many().multicast().onBackpressureBuffer(1000))
-            .asFlux()
-            .onBackpressureDrop();
+        return streamEventos(FiltroAssinatura.porUsuario(usuarioId), PoliticaOverflow.DESCARTAR_MAIS_ANTIGO);
     }
 
     /**
      * Stream filtrado por tipo de evento
      */
     public Flux<EventoAuditoriaDto> streamEventosPorTipo(String tipoEvento) {
-        return typeEventSinks
-            .computeIfAbsent(tipoEvento,
-                k -> Sinks.many().multicast().onBackpressureBuffer(1000))
-            .asFlux()
-            .onBackpressureDrop();
+        return streamEventos(FiltroAssinatura.porTipo(tipoEvento), PoliticaOverflow.DESCARTAR_MAIS_ANTIGO);
+    }
+
+    /**
+     * Stream com filtro combinado (usuário, tipo, categoria, severidade mínima)
+     * e política explícita para assinante lento
+     */
+    public Flux<EventoAuditoriaDto> streamEventos(FiltroAssinatura filtro, PoliticaOverflow politica) {
+        return roteador.assinar(filtro, politica)
+            .map(EventoPublicado::evento);
     }
 
     /**
-     * Emite evento para todos os streams apropriados
+     * Emite evento para os assinantes cujo filtro casa, em todos os pods
      */
     public Mono<Void> emitirEvento(EventoAuditoriaDto evento) {
-        return Mono.fromRunnable(() -> {
-            // Stream principal
-            eventSink.tryEmitNext(evento);
-            
-            // Stream por usuário
-            if (evento.usuarioId() != null) {
-                var userSink = userEventSinks.get(evento.usuarioId());
-                if (userSink != null) {
-                    userSink.tryEmitNext(evento);
-                }
-            }
-            
-            // Stream por tipo
-            if (evento.tipoEvento() != null) {
-                var typeSink = typeEventSinks.get(evento.tipoEvento().toString());
-                if (typeSink != null) {
-                    typeSink.tryEmitNext(evento);
-                }
-            }
-        })
-        .then(atualizarEstatisticasStreaming());
+        return Mono.fromRunnable(() -> ponte.difundir(new EventoPublicado(null, evento)))
+            .then(atualizarEstatisticasStreaming());
+    }
+
+    /**
+     * Evento confirmado no stream de auditoria pelo relay do outbox:
+     * entregue ao feed em tempo real com o id da entrada como cursor
+     */
+    @Override
+    public void eventoPublicado(String idStream, EventoAuditoriaDto evento) {
+        ponte.difundir(new EventoPublicado(idStream, evento));
     }
 
     /**
-     * Reprocessa evento que falhou anteriormente
+     * Agenda o evento para reprocessamento imediato na fila durável e
+     * devolve a situação do item (estado e tentativas reais)
      */
     public Mono<Map<String, Object>> reprocessarEvento(String eventoId) {
-        return repository.findById(eventoId)
-            .switchIfEmpty(Mono.error(new RuntimeException("Evento não encontrado: " + eventoId)))
-            .flatMap(evento -> {
-                try {
-                    // Simular reprocessamento bem-sucedido
-                    EventoAuditoriaDto eventoDto = mapToDto(evento);
-                    
-                    // Re-emitir para streams
-                    return emitirEvento(eventoDto)
-                        .then(removerDaFilaReprocessamento(eventoId))
-                        .then(Mono.just(Map.of(
-                            "eventoId", eventoId,
-                            "status", "reprocessado_com_sucesso",
-                            "timestamp", LocalDateTime.now(),
-                            "tentativas", obterNumeroTentativas(eventoId),
-                            "duracao_ms", calcularDuracaoReprocessamento()
-                        )));
-                        
-                } catch (Exception e) {
-                    // Falha no reprocessamento
-                    return adicionarAFilaEventosFalhados(eventoId, e.getMessage())
-                        .then(Mono.just(Map.of(
-                            "eventoId", eventoId,
-                            "status", "falha_reprocessamento",
-                            "erro", e.getMessage(),
-                            "timestamp", LocalDateTime.now()
-                        )));
-                }
-            });
+        return filaReprocessamento.agendar(TratadorReprocessamentoEvento.TIPO, eventoId, "Reprocessamento solicitado")
+            .then(filaReprocessamento.situacao(TratadorReprocessamentoEvento.TIPO, eventoId));
     }
 
     /**
-     * Replay de eventos para análise forense
+     * Replay de eventos para análise forense, no ritmo original escalado pela
+     * velocidade ({@code <= 0} = o mais rápido possível). Para pausa, seek e
+     * filtros use {@link ReplayEventosService} diretamente.
      */
     public Flux<EventoAuditoriaDto> replayEventos(LocalDateTime dataInicio, LocalDateTime dataFim, 
                                                   double velocidadeReplay) {
-        return repository.findByPeriodo(dataInicio, dataFim, null)
-            .map(this::mapToDto)
-            .delayElements(Duration.ofMillis((long) (100 / velocidadeReplay))) // Controlar velocidade
-            .doOnNext(evento -> {
-                // Marcar como replay nos metadados
-                Map<String, Object> metadados = new HashMap<>(evento.metadados() != null ? evento.metadados() : Map.of());
-                metadados.put("replay_mode", true);
-                metadados.put("replay_timestamp", LocalDateTime.now());
-            });
+        return Flux.defer(() -> replay.reproduzir(
+            replay.abrirSessao(dataInicio, dataFim, velocidadeReplay, null, FiltroAssinatura.todos())));
     }
 
     /**
-     * Obtém eventos que falharam no processamento
+     * Itens que esgotaram as tentativas de reprocessamento (mais recentes primeiro)
      */
     public Flux<Map<String, Object>> obterEventosFalhados() {
-        return redisTemplate.opsForList()
-            .range(KEY_FAILED_EVENTS, 0, -1)
-            .cast(Map.class)
-            .map(map -> (Map<String, Object>) map);
+        return filaReprocessamento.falhas(LIMITE_FALHAS_CONSULTA);
     }
 
     /**
      * Adiciona evento à fila de reprocessamento
      */
     public Mono<Void> adicionarAFilaReprocessamento(String eventoId, String motivo) {
-        Map<String, Object> item = Map.of(
-            "eventoId", eventoId,
-            "motivo", motivo,
-            "timestamp", LocalDateTime.now(),
-            "tentativas", 0
-        );
-        
-        return redisTemplate.opsForList()
-            .rightPush(KEY_REPROCESSING_QUEUE, item)
-            .then();
+        return filaReprocessamento.agendar(TratadorReprocessamentoEvento.TIPO, eventoId, motivo).then();
     }
 
     /**
-     * Processa fila de reprocessamento automaticamente
+     * Profundidade, atraso e ocupação da fila de reprocessamento; o consumo é
+     * contínuo pelos trabalhadores da {@link FilaReprocessamento}
      */
-    public Flux<Map<String, Object>> processarFilaReprocessamento() {
-        return redisTemplate.opsForList()
-            .leftPop(KEY_REPROCESSING_QUEUE)
-            .repeat()
-            .cast(Map.class)
-            .flatMap(item -> {
-                String eventoId = (String) item.get("eventoId");
-                return reprocessarEvento(eventoId)
-                    .onErrorResume(error -> {
-                        // Re-adicionar à fila se falhou novamente
-                        return incrementarTentativas(item)
-                            .flatMap(updatedItem -> {
-                                int tentativas = (Integer) ((Map<String, Object>) updatedItem).get("tentativas");
-                                if (tentativas < 3) {
-                                    // Tentar novamente
-                                    return redisTemplate.opsForList()
-                                        .rightPush(KEY_REPROCESSING_QUEUE, updatedItem)
-                                        .then(Mono.just(Map.of(
-                                            "status", "reagendado",
-                                            "tentativas", tentativas
-                                        )));
-                                } else {
-                                    // Desistir após 3 tentativas
-                                    return adicionarAFilaEventosFalhados(eventoId, "Max tentativas excedidas")
-                                        .then(Mono.just(Map.of(
-                                            "status", "falha_permanente"
-                                        )));
-                                }
-                            });
-                    });
-            })
-            .take(Duration.ofSeconds(30)); // Processar por 30 segundos
+    public Mono<Map<String, Object>> obterEstatisticasReprocessamento() {
+        return filaReprocessamento.resumo();
     }
 
     /**
@@ -259,123 +170,23 @@ public class StreamingService {
     }
 
     /**
-     * Limpa streams inativos para liberar memória
+     * Limpa assinaturas encerradas que ainda estejam indexadas
+     * (o roteador já remove cada assinatura no cancelamento)
      */
     public Mono<Integer> limparStreamsInativos() {
-        return Mono.fromCallable(() -> {
-            int removidos = 0;
-            
-            // Remover sinks de usuário sem subscribers
-            var userIterator = userEventSinks.entrySet().iterator();
-            while (userIterator.hasNext()) {
-                var entry = userIterator.next();
-                if (entry.getValue().currentSubscriberCount() == 0) {
-                    userIterator.remove();
-                    removidos++;
-                }
-            }
-            
-            // Remover sinks de tipo sem subscribers
-            var typeIterator = typeEventSinks.entrySet().iterator();
-            while (typeIterator.hasNext()) {
-                var entry = typeIterator.next();
-                if (entry.getValue().currentSubscriberCount() == 0) {
-                    typeIterator.remove();
-                    removidos++;
-                }
-            }
-            
-            return removidos;
-        });
+        return Mono.fromCallable(roteador::removerEncerradas);
     }
 
     // ========== MÉTODOS AUXILIARES ==========
 
-    private EventoAuditoriaDto mapToDto(EventoAuditoriaR2dbc entidade) {
-        Map<String, Object> metadados = null;
-        try {
-            if (entidade.getMetadados() != null && !entidade.getMetadados().isBlank()) {
-                // Parse JSON string to Map - using a simple approach since ObjectMapper is not available here
-                metadados = Map.of("raw", entidade.getMetadados());
-            }
-        } catch (Exception e) {
-            metadados = null;
-        }
-        
-        return new EventoAuditoriaDto(
-            entidade.getId(),
-            entidade.getTipoEvento() != null ? entidade.getTipoEvento().name() : "DESCONHECIDO",
-            entidade.getDataEvento(),
-            entidade.getUsuarioId(),
-            entidade.getUsuarioNome(),
-            entidade.getAcaoRealizada(),
-            entidade.getEntidadeTipo(),
-            entidade.getEntidadeId(),
-            entidade.getEntidadeNome(),
-            entidade.getStatusEvento() != null ? entidade.getStatusEvento().name() : "CRIADO",
-            entidade.getSeveridade() != null ? entidade.getSeveridade().name() : "INFO",
-            entidade.getIpOrigem(),
-            entidade.getUserAgent(),
-            metadados,
-            entidade.getHashEvento(),
-            entidade.getHashAnterior(),
-            entidade.isDadosPessoais(),
-            entidade.getCategoriaCompliance(),
-            entidade.getRetencaoAte(),
-            entidade.isAnonimizado(),
-            entidade.getDataProcessamento() != null ? entidade.getDataProcessamento() : LocalDateTime.now()
-        );
-    }
-
-    private Mono<Void> removerDaFilaReprocessamento(String eventoId) {
-        // Implementação simplificada - remover primeira ocorrência
-        return stringRedisTemplate.opsForList()
-            .remove(KEY_REPROCESSING_QUEUE, 1, eventoId)
-            .then();
-    }
-
-    private Mono<Void> adicionarAFilaEventosFalhados(String eventoId, String erro) {
-        Map<String, Object> failedEvent = Map.of(
-            "eventoId", eventoId,
-            "erro", erro,
-            "timestamp", LocalDateTime.now()
-        );
-        
-        return redisTemplate.opsForList()
-            .rightPush(KEY_FAILED_EVENTS, failedEvent)
-            .then();
-    }
-
-    private int obterNumeroTentativas(String eventoId) {
-        // Simulação - em produção buscar do Redis
-        return (int) (Math.random() * 3) + 1;
-    }
-
-    private long calcularDuracaoReprocessamento() {
-        // Simulação de duração em ms
-        return (long) (Math.random() * 1000) + 100;
-    }
-
-    private Mono<Map<String, Object>> incrementarTentativas(Map<String, Object> item) {
-        Map<String, Object> updated = new HashMap<>(item);
-        int tentativas = (Integer) updated.getOrDefault("tentativas", 0);
-        updated.put("tentativas", tentativas + 1);
-        updated.put("ultima_tentativa", LocalDateTime.now());
-        return Mono.just(updated);
-    }
-
-    private void registrarEventoDropado(EventoAuditoriaDto evento) {
-        // Log para monitoramento de backpressure
-        System.err.println("Evento dropado por backpressure: " + evento.id());
-    }
-
     private Mono<Void> atualizarEstatisticasStreaming() {
         return Mono.fromRunnable(() -> {
+            Map<String, Object> estatisticasRoteador = roteador.estatisticas();
             Map<String, Object> stats = Map.of(
                 "eventos_emitidos_total", System.currentTimeMillis(), // Usar como contador
-                "streams_ativos_usuarios", userEventSinks.size(),
-                "streams_ativos_tipos", typeEventSinks.size(),
-                "subscribers_total", eventSink.currentSubscriberCount(),
+                "streams_ativos_usuarios", estatisticasRoteador.get("usuarios_indexados"),
+                "streams_ativos_tipos", estatisticasRoteador.get("tipos_indexados"),
+                "subscribers_total", estatisticasRoteador.get("assinaturas_ativas"),
                 "ultima_atualizacao", LocalDateTime.now()
             );
             
@@ -0,0 +1,404 @@
+package br.tec.facilitaservicos.auditoria.aplicacao.servico;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.RelatorioComplianceDto;
+import br.tec.facilitaservicos.auditoria.configuracao.CacheConfig;
+import br.tec.facilitaservicos.auditoria.dominio.entidade.RelatorioComplianceR2dbc;
+import br.tec.facilitaservicos.auditoria.dominio.repositorio.RelatorioComplianceRepository;
+import br.tec.facilitaservicos.auditoria.infraestrutura.cache.ReactiveCacheManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+/**
+ * ============================================================================
+ * 🗂️ JOBS DE RELATÓRIO DE COMPLIANCE
+ * ============================================================================
+ *
+ * Geração assíncrona de relatórios pesados (ex.: um ano de AUDITORIA_GERAL):
+ * - Submissão devolve o id do job na hora; status, progresso e download
+ *   são consultados pelo id
+ * - Executor limitado: no máximo {@code auditoria.relatorio.jobs.concorrencia}
+ *   gerações simultâneas por pod; os demais jobs esperam em fila limitada
+ * - Resultado persistido em relatorios_compliance, endereçado pelo SHA-256
+ *   do corpo canônico (sem id, data de geração e duração, chaves de mapa
+ *   ordenadas), então relatórios idênticos têm o mesmo hash; servido pelo
+ *   {@link CacheConfig#RELATORIOS_CACHE}
+ * - Reaproveitamento por (período, tipo): se já existe um relatório
+ *   concluído depois do fim do período, ou um job ativo da mesma chave,
+ *   a submissão devolve esse job em vez de gerar de novo; o índice único
+ *   de chave_ativa resolve submissões simultâneas em pods diferentes
+ * - Retomada: na subida e a cada {@code retomada-ms}, o pod reenfileira os
+ *   jobs PENDENTE/EM_ANDAMENTO que são seus (no_execucao) e assume os de
+ *   outros parados além do timeout, como nas exportações e exclusões
+ *
+ * O progresso ao vivo fica no pod que executa o job; os demais pods veem o
+ * status persistido.
+ */
+@Service
+public class TrabalhosRelatorioService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrabalhosRelatorioService.class);
+
+    private static final int TAMANHO_MAXIMO_ERRO = 500;
+    private static final int LOTE_LIMPEZA = 500;
+    private static final int LOTE_RETOMADA = 100;
+    // Folga sobre o timeout antes de outro pod assumir um job EM_ANDAMENTO
+    private static final long MARGEM_ABANDONO_MIN = 5;
+
+    private final RelatorioComplianceService relatorioComplianceService;
+    private final RelatorioComplianceRepository repository;
+    private final ReactiveCacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+
+    private final Sinks.Many<RelatorioComplianceR2dbc> fila = Sinks.many().unicast()
+        .onBackpressureBuffer(Queues.<RelatorioComplianceR2dbc>unboundedMultiproducer().get());
+    private final AtomicInteger emEspera = new AtomicInteger();
+    private final AtomicInteger emExecucao = new AtomicInteger();
+    private final Map<String, ProgressoRelatorio> progressos = new ConcurrentHashMap<>();
+    private final Set<String> emCurso = ConcurrentHashMap.newKeySet();
+    private final Counter reaproveitados;
+    private final Counter gerados;
+    private final Counter falhas;
+    private volatile Disposable executor;
+
+    @Value("${auditoria.relatorio.jobs.no:${HOSTNAME:local}}")
+    private String no;
+
+    @Value("${auditoria.relatorio.jobs.concorrencia:2}")
+    private int concorrencia;
+
+    @Value("${auditoria.relatorio.jobs.fila:50}")
+    private int capacidadeFila;
+
+    @Value("${auditoria.relatorio.jobs.timeout-min:60}")
+    private long timeoutMin;
+
+    @Value("${auditoria.relatorio.jobs.retencao-dias:30}")
+    private int retencaoDias;
+
+    public TrabalhosRelatorioService(RelatorioComplianceService relatorioComplianceService,
+                                     RelatorioComplianceRepository repository,
+                                     ReactiveCacheManager cacheManager,
+                                     ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry) {
+        this.relatorioComplianceService = relatorioComplianceService;
+        this.repository = repository;
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+
+        this.reaproveitados = Counter.builder("audit.relatorio.jobs")
+            .description("Submissões de relatório por resultado")
+            .tag("resultado", "reaproveitado")
+            .register(meterRegistry);
+        this.gerados = Counter.builder("audit.relatorio.jobs")
+            .description("Submissões de relatório por resultado")
+            .tag("resultado", "gerado")
+            .register(meterRegistry);
+        this.falhas = Counter.builder("audit.relatorio.jobs")
+            .description("Submissões de relatório por resultado")
+            .tag("resultado", "falha")
+            .register(meterRegistry);
+        meterRegistry.gauge("audit.relatorio.jobs.fila", emEspera);
+        meterRegistry.gauge("audit.relatorio.jobs.execucao", emExecucao);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        executor = fila.asFlux()
+            .doOnNext(_ -> emEspera.decrementAndGet())
+            .flatMap(this::executar, concorrencia)
+            .subscribe(
+                _ -> {},
+                error -> logger.error("Executor de relatórios encerrado com erro", error));
+
+        retomar();
+    }
+
+    @PreDestroy
+    public void parar() {
+        Disposable atual = executor;
+        if (atual != null) {
+            atual.dispose();
+        }
+    }
+
+    /**
+     * Submete um relatório; devolve o job existente quando o mesmo relatório
+     * já foi gerado ou está em geração
+     *
+     * @return erro {@link IllegalArgumentException} para período/tipo inválido,
+     *         {@link IllegalStateException} com a fila de jobs cheia
+     */
+    public Mono<Map<String, Object>> submeter(LocalDateTime dataInicio, LocalDateTime dataFim,
+                                              String tipoRelatorio, String solicitadoPor) {
+        return Mono.defer(() -> {
+            RelatorioComplianceService.validarPeriodo(dataInicio, dataFim);
+            String tipo = RelatorioComplianceService.normalizarTipo(tipoRelatorio);
+            String chave = sha256(tipo + '|' + dataInicio + '|' + dataFim);
+
+            return repository.findConcluidoPorChave(chave)
+                .switchIfEmpty(Mono.defer(() -> repository.findAtivoPorChave(chave)))
+                .map(this::reaproveitar)
+                .switchIfEmpty(Mono.defer(() -> criar(chave, tipo, dataInicio, dataFim, solicitadoPor)
+                    // Outro pod criou o job ativo da mesma chave entre a consulta e o INSERT
+                    .onErrorResume(DataIntegrityViolationException.class,
+                        _ -> repository.findAtivoPorChave(chave).map(this::reaproveitar))));
+        });
+    }
+
+    /**
+     * Reenfileira os jobs deste pod e assume os abandonados por outros
+     */
+    @Scheduled(fixedDelayString = "${auditoria.relatorio.jobs.retomada-ms:300000}",
+               initialDelayString = "${auditoria.relatorio.jobs.retomada-ms:300000}")
+    public void retomar() {
+        repository.findRetomaveis(no, limiteAbandono(), LOTE_RETOMADA)
+            .filter(job -> !emCurso.contains(job.getId()))
+            .subscribe(
+                job -> {
+                    logger.info("Retomando relatório {} ({}) em {}", job.getId(), job.getTipoRelatorio(), job.getStatus());
+                    emEspera.incrementAndGet();
+                    enfileirar(job);
+                },
+                error -> logger.warn("Falha ao buscar relatórios para retomar: {}", error.getMessage()));
+    }
+
+    /**
+     * Status persistido do job, com o progresso ao vivo se ele roda neste pod
+     */
+    public Mono<Map<String, Object>> consultar(String id) {
+        return repository.findStatus(id)
+            .map(job -> {
+                Map<String, Object> status = resposta(job, false);
+                status.remove("reutilizado");
+                status.put("criadoEm", job.getCriadoEm());
+                status.put("iniciadoEm", job.getIniciadoEm());
+                status.put("concluidoEm", job.getConcluidoEm());
+                if (job.getTamanhoBytes() != null) {
+                    status.put("tamanhoBytes", job.getTamanhoBytes());
+                }
+                if (job.getErro() != null) {
+                    status.put("erro", job.getErro());
+                }
+                ProgressoRelatorio progresso = progressos.get(id);
+                if (progresso != null) {
+                    status.put("progresso", progresso.snapshot());
+                }
+                return status;
+            });
+    }
+
+    /**
+     * Resultado (JSON) de um job concluído, pelo cache de relatórios
+     *
+     * @return vazio se o job não existe; erro {@link IllegalStateException}
+     *         se ainda não foi concluído
+     */
+    public Mono<ResultadoRelatorio> resultado(String id) {
+        return repository.findStatus(id)
+            .flatMap(job -> {
+                if (!RelatorioComplianceR2dbc.STATUS_CONCLUIDO.equals(job.getStatus())) {
+                    return Mono.error(new IllegalStateException("Relatório " + id + " está " + job.getStatus()));
+                }
+                String hash = job.getHashConteudo();
+                return cacheManager.cacheMono(CacheConfig.RELATORIOS_CACHE, "conteudo:" + hash, String.class,
+                        () -> repository.findResultadoPorHash(hash))
+                    .map(json -> new ResultadoRelatorio(hash, json));
+            });
+    }
+
+    /**
+     * Conteúdo de um relatório concluído e seu hash (ETag)
+     */
+    public record ResultadoRelatorio(String hash, String json) {}
+
+    /**
+     * Remove jobs e resultados mais antigos que a retenção
+     */
+    @Scheduled(cron = "${auditoria.relatorio.jobs.limpeza-cron:0 30 3 * * *}")
+    public void limparAntigos() {
+        LocalDateTime limite = LocalDateTime.now().minusDays(retencaoDias);
+        removerLote(limite)
+            .subscribe(
+                total -> {
+                    if (total > 0) {
+                        logger.info("{} jobs de relatório anteriores a {} removidos", total, limite);
+                    }
+                },
+                error -> logger.warn("Falha na limpeza de jobs de relatório: {}", error.getMessage()));
+    }
+
+    // ========== EXECUÇÃO ==========
+
+    private Mono<Map<String, Object>> criar(String chave, String tipo, LocalDateTime dataInicio,
+                                            LocalDateTime dataFim, String solicitadoPor) {
+        if (emEspera.incrementAndGet() > capacidadeFila) {
+            emEspera.decrementAndGet();
+            return Mono.error(new IllegalStateException("Fila de relatórios cheia (capacidade " + capacidadeFila + ")"));
+        }
+
+        RelatorioComplianceR2dbc job = RelatorioComplianceR2dbc.pendente(
+            UUID.randomUUID().toString(), chave, tipo, dataInicio, dataFim, solicitadoPor, no);
+        return repository.save(job)
+            .doOnError(_ -> emEspera.decrementAndGet())
+            .map(salvo -> {
+                enfileirar(salvo);
+                return resposta(salvo, false);
+            });
+    }
+
+    /**
+     * Põe o job na fila local; {@code emEspera} já foi incrementado
+     */
+    private void enfileirar(RelatorioComplianceR2dbc job) {
+        if (!emCurso.add(job.getId())) {
+            emEspera.decrementAndGet();
+            return;
+        }
+        // Sink unicast serializa os emissores; a espera ocupada cobre a disputa entre threads
+        fila.emitNext(job, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+    }
+
+    private Map<String, Object> reaproveitar(RelatorioComplianceR2dbc existente) {
+        reaproveitados.increment();
+        return resposta(existente, true);
+    }
+
+    private Mono<Void> executar(RelatorioComplianceR2dbc job) {
+        String id = job.getId();
+        ProgressoRelatorio progresso = new ProgressoRelatorio();
+
+        return repository.marcarEmAndamento(id, no, LocalDateTime.now(), limiteAbandono())
+            .filter(atualizados -> atualizados > 0)
+            .flatMap(_ -> {
+                progressos.put(id, progresso);
+                emExecucao.incrementAndGet();
+                return relatorioComplianceService.gerar(job.getPeriodoInicio(), job.getPeriodoFim(),
+                        job.getTipoRelatorio(), progresso)
+                    .timeout(Duration.ofMinutes(timeoutMin))
+                    .flatMap(relatorio -> {
+                        String json = serializar(relatorio);
+                        long tamanho = json.getBytes(StandardCharsets.UTF_8).length;
+                        return repository.marcarConcluido(id, no, json, sha256(corpoCanonico(relatorio)),
+                            tamanho, LocalDateTime.now());
+                    })
+                    .doOnSuccess(_ -> {
+                        gerados.increment();
+                        logger.info("Relatório {} ({}) concluído: {}", id, job.getTipoRelatorio(), progresso.snapshot());
+                    })
+                    .doFinally(_ -> {
+                        emExecucao.decrementAndGet();
+                        progressos.remove(id);
+                    });
+            })
+            .then()
+            .onErrorResume(error -> {
+                falhas.increment();
+                logger.error("Relatório {} falhou: {}", id, error.getMessage());
+                String mensagem = String.valueOf(error.getMessage());
+                return repository.marcarFalha(id, no,
+                        mensagem.length() > TAMANHO_MAXIMO_ERRO ? mensagem.substring(0, TAMANHO_MAXIMO_ERRO) : mensagem,
+                        LocalDateTime.now())
+                    .onErrorResume(_ -> Mono.empty())
+                    .then();
+            })
+            .doFinally(_ -> emCurso.remove(id));
+    }
+
+    private Mono<Integer> removerLote(LocalDateTime limite) {
+        return repository.removerCriadosAntesDe(limite, LOTE_LIMPEZA)
+            .flatMap(removidos -> removidos < LOTE_LIMPEZA
+                ? Mono.just(removidos)
+                : removerLote(limite).map(restantes -> removidos + restantes));
+    }
+
+    // ========== AUXILIARES ==========
+
+    private static Map<String, Object> resposta(RelatorioComplianceR2dbc job, boolean reutilizado) {
+        Map<String, Object> resposta = new LinkedHashMap<>();
+        resposta.put("jobId", job.getId());
+        resposta.put("status", job.getStatus());
+        resposta.put("tipoRelatorio", job.getTipoRelatorio());
+        resposta.put("periodoInicio", job.getPeriodoInicio());
+        resposta.put("periodoFim", job.getPeriodoFim());
+        resposta.put("reutilizado", reutilizado);
+        if (job.getHashConteudo() != null) {
+            resposta.put("hashConteudo", job.getHashConteudo());
+        }
+        return resposta;
+    }
+
+    /**
+     * Corpo do relatório sem o que muda a cada geração (id aleatório, data
+     * de geração, duração), com as chaves dos mapas ordenadas
+     */
+    private byte[] corpoCanonico(RelatorioComplianceDto relatorio) {
+        Map<String, Object> metricas = relatorio.metricas() == null ? null : new LinkedHashMap<>(relatorio.metricas());
+        if (metricas != null) {
+            metricas.remove("duracaoMs");
+        }
+        RelatorioComplianceDto corpo = new RelatorioComplianceDto(null, relatorio.tipoRelatorio(),
+            relatorio.periodoInicio(), relatorio.periodoFim(), null, relatorio.geradoPor(),
+            relatorio.resumoExecutivo(), relatorio.violacoes(), relatorio.recomendacoes(), metricas, relatorio.anexos());
+        try {
+            return objectMapper.writer()
+                .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                .writeValueAsBytes(corpo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Relatório não serializável: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private LocalDateTime limiteAbandono() {
+        return LocalDateTime.now().minusMinutes(timeoutMin + MARGEM_ABANDONO_MIN);
+    }
+
+    private String serializar(Object relatorio) {
+        try {
+            return objectMapper.writeValueAsString(relatorio);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Relatório não serializável: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private static String sha256(String texto) {
+        return sha256(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
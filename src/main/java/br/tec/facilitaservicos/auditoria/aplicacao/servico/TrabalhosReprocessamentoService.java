@@ -0,0 +1,65 @@
+package br.tec.facilitaservicos.auditoria.aplicacao.servico;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Jobs de reprocessamento em lote de eventos com falha.
+ *
+ * Um job por vez; roda em segundo plano e é acompanhado pelo id devolvido
+ * na abertura. Os últimos {@value #JOBS_RETIDOS} jobs ficam consultáveis.
+ */
+@Service
+public class TrabalhosReprocessamentoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrabalhosReprocessamentoService.class);
+
+    private static final int JOBS_RETIDOS = 20;
+
+    private final EventoAuditoriaService eventoAuditoriaService;
+    private final AtomicReference<ProgressoReprocessamento> emAndamento = new AtomicReference<>();
+    private final Map<String, ProgressoReprocessamento> recentes = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ProgressoReprocessamento> maisAntigo) {
+            return size() > JOBS_RETIDOS;
+        }
+    };
+
+    public TrabalhosReprocessamentoService(EventoAuditoriaService eventoAuditoriaService) {
+        this.eventoAuditoriaService = eventoAuditoriaService;
+    }
+
+    /**
+     * Inicia o reprocessamento das falhas em segundo plano
+     *
+     * @throws IllegalStateException se já houver um job em andamento
+     */
+    public ProgressoReprocessamento iniciar() {
+        ProgressoReprocessamento progresso = new ProgressoReprocessamento();
+        if (!emAndamento.compareAndSet(null, progresso)) {
+            throw new IllegalStateException("Reprocessamento de falhas já em andamento: " + emAndamento.get().getId());
+        }
+        synchronized (recentes) {
+            recentes.put(progresso.getId(), progresso);
+        }
+
+        eventoAuditoriaService.reprocessarEventosComFalha(progresso)
+            .doFinally(_ -> emAndamento.set(null))
+            .subscribe(
+                _ -> logger.info("Reprocessamento {} concluído: {}", progresso.getId(), progresso.snapshot()),
+                error -> logger.error("Reprocessamento {} interrompido: {}", progresso.getId(), error.getMessage()));
+        return progresso;
+    }
+
+    public Optional<ProgressoReprocessamento> consultar(String id) {
+        synchronized (recentes) {
+            return Optional.ofNullable(recentes.get(id));
+        }
+    }
+}
@@ -3,7 +3,11 @@ package br.tec.facilitaservicos.auditoria.apresentacao.controlador;
 import java.time.LocalDateTime;
 import java.util.Map;
 
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -15,9 +19,17 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import br.tec.facilitaservicos.auditoria.aplicacao.dto.CriarEventoDto;
 import br.tec.facilitaservicos.auditoria.aplicacao.servico.AuditoriaService;
+import br.tec.facilitaservicos.auditoria.aplicacao.servico.ExportacaoTrilhaService;
+import br.tec.facilitaservicos.auditoria.aplicacao.servico.ExportacaoTrilhaService.Compressao;
+import br.tec.facilitaservicos.auditoria.aplicacao.servico.ExportacaoTrilhaService.Formato;
+import br.tec.facilitaservicos.auditoria.aplicacao.servico.ExportacaoTrilhaService.PedidoExportacao;
+import br.tec.facilitaservicos.auditoria.aplicacao.servico.IngestaoLoteService;
+import br.tec.facilitaservicos.auditoria.aplicacao.servico.TrabalhosRelatorioService;
 import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
 import br.tec.facilitaservicos.auditoria.apresentacao.dto.RelatorioComplianceDto;
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.ResultadoIngestaoItemDto;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -39,9 +51,14 @@ import reactor.core.publisher.Mono;
  * 
  * Endpoints:
  * - GET /rest/v1/auditoria/eventos - Consultar eventos de auditoria
+ * - POST /rest/v1/auditoria/eventos/lote - Ingestão em lote (NDJSON ou array JSON)
  * - GET /rest/v1/auditoria/trilha/{entidade}/{id} - Trilha de uma entidade
+ * - GET /rest/v1/auditoria/exportacao/eventos - Exportação NDJSON/CSV em streaming
  * - GET /rest/v1/auditoria/integridade/{id} - Verificar integridade
  * - GET /rest/v1/auditoria/relatorio/compliance - Relatórios compliance
+ * - POST /rest/v1/auditoria/relatorio/compliance/jobs - Relatório assíncrono
+ * - GET /rest/v1/auditoria/relatorio/compliance/jobs/{id} - Status do job
+ * - GET /rest/v1/auditoria/relatorio/compliance/jobs/{id}/resultado - Download
  * - POST /rest/v1/auditoria/verificar-assinatura - Verificar assinatura
  * 
  * @author Sistema de Migração R2DBC
@@ -55,9 +72,18 @@ import reactor.core.publisher.Mono;
 public class AuditoriaController {
 
     private final AuditoriaService auditoriaService;
+    private final TrabalhosRelatorioService trabalhosRelatorio;
+    private final ExportacaoTrilhaService exportacaoTrilha;
+    private final IngestaoLoteService ingestaoLote;
 
-    public AuditoriaController(AuditoriaService auditoriaService) {
+    public AuditoriaController(AuditoriaService auditoriaService,
+                               TrabalhosRelatorioService trabalhosRelatorio,
+                               ExportacaoTrilhaService exportacaoTrilha,
+                               IngestaoLoteService ingestaoLote) {
         this.auditoriaService = auditoriaService;
+        this.trabalhosRelatorio = trabalhosRelatorio;
+        this.exportacaoTrilha = exportacaoTrilha;
+        this.ingestaoLote = ingestaoLote;
     }
 
     /**
@@ -83,6 +109,24 @@ public class AuditoriaController {
         );
     }
 
+    /**
+     * Registra eventos em lote
+     * 
+     * O corpo (NDJSON ou array JSON) é lido em streaming e a resposta traz um
+     * resultado por item, na ordem do corpo, à medida que cada lote é gravado.
+     */
+    @PostMapping(value = "/eventos/lote",
+                 consumes = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE },
+                 produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    @PreAuthorize("hasAuthority('SCOPE_audit_write') or hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Ingestão em lote", description = "Até 10 mil eventos por requisição, validados um a um; resultado por item (GRAVADO, ACEITO, REJEITADO ou FALHA)")
+    public Flux<ResultadoIngestaoItemDto> registrarEventosEmLote(
+            @RequestBody Flux<CriarEventoDto> eventos,
+            Authentication authentication) {
+        
+        return ingestaoLote.ingerir(eventos);
+    }
+
     /**
      * Obtém trilha completa de auditoria de uma entidade
      */
@@ -97,6 +141,35 @@ public class AuditoriaController {
         return auditoriaService.obterTrilhaEntidade(entidade, id);
     }
 
+    /**
+     * Exporta a trilha de auditoria do período em streaming
+     */
+    @GetMapping("/exportacao/eventos")
+    @PreAuthorize("hasAuthority('SCOPE_compliance') or hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Exportar trilha", description = "NDJSON ou CSV direto do banco, gzip opcional, com manifesto de verificação ao final")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportarEventos(
+            @RequestParam LocalDateTime dataInicio,
+            @RequestParam LocalDateTime dataFim,
+            @RequestParam(required = false) String usuario,
+            @RequestParam(required = false) String tipoEvento,
+            @RequestParam(defaultValue = "ndjson") String formato,
+            @RequestParam(required = false) String compressao,
+            Authentication authentication) {
+
+        return Mono.fromSupplier(() -> {
+                    PedidoExportacao pedido = new PedidoExportacao(dataInicio, dataFim, usuario, tipoEvento,
+                        Formato.de(formato), Compressao.de(compressao));
+                    return ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(pedido.tipoConteudo()))
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + pedido.nomeArquivo() + "\"")
+                        .body(exportacaoTrilha.exportar(pedido));
+                })
+                .onErrorResume(IllegalArgumentException.class,
+                    _ -> Mono.just(ResponseEntity.badRequest().build()))
+                .onErrorResume(IllegalStateException.class,
+                    _ -> Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build()));
+    }
+
     /**
      * Verifica integridade de um evento específico
      */
@@ -125,7 +198,65 @@ public class AuditoriaController {
             Authentication authentication) {
         
         return auditoriaService.gerarRelatorioCompliance(dataInicio, dataFim, tipoRelatorio)
-                .map(ResponseEntity::ok);
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class,
+                    _ -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    /**
+     * Submete relatório de compliance para geração em segundo plano
+     */
+    @PostMapping("/relatorio/compliance/jobs")
+    @PreAuthorize("hasAuthority('SCOPE_compliance') or hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Submeter relatório", description = "Job assíncrono; reaproveita relatório já gerado para o mesmo período e tipo")
+    public Mono<ResponseEntity<Map<String, Object>>> submeterRelatorioCompliance(
+            @RequestParam LocalDateTime dataInicio,
+            @RequestParam LocalDateTime dataFim,
+            @RequestParam(required = false) String tipoRelatorio,
+            Authentication authentication) {
+
+        String solicitante = authentication != null ? authentication.getName() : null;
+        return trabalhosRelatorio.submeter(dataInicio, dataFim, tipoRelatorio, solicitante)
+                .map(job -> ResponseEntity.status(HttpStatus.ACCEPTED).body(job))
+                .onErrorResume(IllegalArgumentException.class,
+                    _ -> Mono.just(ResponseEntity.badRequest().build()))
+                .onErrorResume(IllegalStateException.class,
+                    _ -> Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build()));
+    }
+
+    /**
+     * Status e progresso de um job de relatório
+     */
+    @GetMapping("/relatorio/compliance/jobs/{jobId}")
+    @PreAuthorize("hasAuthority('SCOPE_compliance') or hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Status do relatório", description = "Status persistido e progresso das partições do job")
+    public Mono<ResponseEntity<Map<String, Object>>> consultarRelatorioCompliance(
+            @PathVariable String jobId,
+            Authentication authentication) {
+
+        return trabalhosRelatorio.consultar(jobId)
+                .map(ResponseEntity::ok)
+                .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()));
+    }
+
+    /**
+     * Download do relatório concluído
+     */
+    @GetMapping("/relatorio/compliance/jobs/{jobId}/resultado")
+    @PreAuthorize("hasAuthority('SCOPE_compliance') or hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Resultado do relatório", description = "JSON do relatório concluído; ETag = SHA-256 do conteúdo")
+    public Mono<ResponseEntity<String>> resultadoRelatorioCompliance(
+            @PathVariable String jobId,
+            Authentication authentication) {
+
+        return trabalhosRelatorio.resultado(jobId)
+                .map(resultado -> ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .eTag(resultado.hash())
+                    .body(resultado.json()))
+                .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()))
+                .onErrorResume(IllegalStateException.class,
+                    _ -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()));
     }
 
     /**
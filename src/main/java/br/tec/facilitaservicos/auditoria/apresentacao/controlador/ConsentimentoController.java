@@ -0,0 +1,145 @@
+package br.tec.facilitaservicos.auditoria.apresentacao.controlador;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import br.tec.facilitaservicos.auditoria.aplicacao.servico.ConsentimentoService;
+import br.tec.facilitaservicos.auditoria.dominio.entidade.ConsentimentoLogR2dbc;
+import br.tec.facilitaservicos.auditoria.dominio.enums.FinalidadeConsentimento;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import reactor.core.publisher.Mono;
+
+/**
+ * ============================================================================
+ * ✅ CONTROLLER DE CONSENTIMENTOS (LGPD)
+ * ============================================================================
+ *
+ * Endpoints:
+ * - PUT /v1/privacy/consentimento - Registrar concessão/revogação
+ * - GET /v1/privacy/consentimento/{usuarioId} - Finalidades do usuário
+ * - GET /v1/privacy/consentimento/{usuarioId}/{finalidade} - Verificação pontual
+ * - GET /v1/privacy/consentimento/{usuarioId}/historico - Log de mudanças
+ * - POST /v1/privacy/consentimento/verificar - Verificação em lote
+ *
+ * As verificações respondem do índice em memória e trazem a versão do
+ * índice; antes da carga inicial respondem 503.
+ */
+@RestController
+@RequestMapping("/v1/privacy/consentimento")
+@Tag(name = "Privacidade", description = "Registro e verificação de consentimentos")
+@SecurityRequirement(name = "bearerAuth")
+public class ConsentimentoController {
+
+    private final ConsentimentoService consentimentoService;
+
+    public ConsentimentoController(ConsentimentoService consentimentoService) {
+        this.consentimentoService = consentimentoService;
+    }
+
+    /**
+     * Registra concessão ou revogação de uma finalidade
+     */
+    @PutMapping
+    @PreAuthorize("hasAuthority('SCOPE_privacy.write') or hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Atualizar consentimento", description = "Grava no log e no estado atual; sem usuarioId vale o usuário autenticado")
+    public Mono<ResponseEntity<Map<String, Object>>> registrar(@RequestBody Map<String, Object> request,
+                                                               Authentication authentication) {
+        String solicitante = authentication != null ? authentication.getName() : null;
+        Object usuarioId = request.get("usuarioId");
+        Object concedido = request.get("concedido");
+        if (concedido == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+
+        return consentimentoService.registrar(
+                    usuarioId != null ? usuarioId.toString() : solicitante,
+                    String.valueOf(request.get("finalidade")),
+                    Boolean.parseBoolean(concedido.toString()),
+                    solicitante)
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class,
+                    _ -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    /**
+     * Todas as finalidades de um usuário
+     */
+    @GetMapping("/{usuarioId}")
+    @PreAuthorize("hasAuthority('SCOPE_privacy.read') or hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Consentimentos do usuário", description = "Finalidades concedidas e versão do índice")
+    public Mono<ResponseEntity<Map<String, Object>>> estado(@PathVariable String usuarioId) {
+        return Mono.fromSupplier(() -> ResponseEntity.ok(consentimentoService.estado(usuarioId)))
+                .onErrorResume(IllegalStateException.class,
+                    _ -> Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build()));
+    }
+
+    /**
+     * Histórico de mudanças de um usuário
+     */
+    @GetMapping("/{usuarioId}/historico")
+    @PreAuthorize("hasAuthority('SCOPE_privacy.read') or hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Histórico de consentimentos", description = "Mudanças do log, mais recente primeiro")
+    public Mono<ResponseEntity<List<ConsentimentoLogR2dbc>>> historico(@PathVariable String usuarioId,
+                                                                      @RequestParam(defaultValue = "100") int limite) {
+        return consentimentoService.historico(usuarioId, Math.min(Math.max(limite, 1), 1000))
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Verificação pontual de uma finalidade
+     */
+    @GetMapping("/{usuarioId}/{finalidade}")
+    @PreAuthorize("hasAuthority('SCOPE_privacy.read') or hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Verificar consentimento", description = "Responde do índice em memória")
+    public Mono<ResponseEntity<Map<String, Object>>> verificar(@PathVariable String usuarioId,
+                                                               @PathVariable String finalidade) {
+        return Mono.fromSupplier(() -> {
+                    FinalidadeConsentimento alvo = FinalidadeConsentimento.de(finalidade);
+                    return ResponseEntity.ok(Map.<String, Object>of(
+                        "usuarioId", usuarioId,
+                        "finalidade", alvo.name(),
+                        "concedido", consentimentoService.consentiu(usuarioId, alvo)));
+                })
+                .onErrorResume(IllegalArgumentException.class,
+                    _ -> Mono.just(ResponseEntity.badRequest().build()))
+                .onErrorResume(IllegalStateException.class,
+                    _ -> Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build()));
+    }
+
+    /**
+     * Verificação em lote: {"finalidade": "MARKETING", "usuarios": ["u1", "u2", ...]}
+     */
+    @PostMapping("/verificar")
+    @PreAuthorize("hasAuthority('SCOPE_privacy.read') or hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Verificar consentimentos em lote", description = "Uma finalidade para milhares de usuários em uma chamada")
+    public Mono<ResponseEntity<Map<String, Object>>> verificarLote(@RequestBody Map<String, Object> request) {
+        return Mono.fromSupplier(() -> {
+                    FinalidadeConsentimento alvo = FinalidadeConsentimento.de(String.valueOf(request.get("finalidade")));
+                    if (!(request.get("usuarios") instanceof Collection<?> usuarios)) {
+                        throw new IllegalArgumentException("usuarios deve ser uma lista");
+                    }
+                    List<String> ids = usuarios.stream().map(String::valueOf).toList();
+                    return ResponseEntity.ok(consentimentoService.verificarLote(ids, alvo));
+                })
+                .onErrorResume(IllegalArgumentException.class,
+                    _ -> Mono.just(ResponseEntity.badRequest().build()))
+                .onErrorResume(IllegalStateException.class,
+                    _ -> Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build()));
+    }
+}
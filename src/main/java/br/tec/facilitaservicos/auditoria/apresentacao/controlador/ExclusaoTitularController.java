@@ -0,0 +1,74 @@
+package br.tec.facilitaservicos.auditoria.apresentacao.controlador;
+
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import br.tec.facilitaservicos.auditoria.aplicacao.servico.ExclusaoTitularService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import reactor.core.publisher.Mono;
+
+/**
+ * ============================================================================
+ * 🧹 CONTROLLER DE EXCLUSÃO DE DADOS DO TITULAR (LGPD)
+ * ============================================================================
+ *
+ * Endpoints:
+ * - DELETE /v1/privacy/excluir-dados?usuarioId=&cpf= - Solicitar exclusão
+ *   (anonimização em segundo plano)
+ * - GET /v1/privacy/excluir-dados/{solicitacaoId} - Progresso e prazo legal
+ */
+@RestController
+@RequestMapping("/v1/privacy/excluir-dados")
+@Tag(name = "Privacidade", description = "Exclusão de dados do titular (LGPD)")
+@SecurityRequirement(name = "bearerAuth")
+public class ExclusaoTitularController {
+
+    private final ExclusaoTitularService exclusaoTitular;
+
+    public ExclusaoTitularController(ExclusaoTitularService exclusaoTitular) {
+        this.exclusaoTitular = exclusaoTitular;
+    }
+
+    /**
+     * Solicita a exclusão dos dados de um titular
+     */
+    @DeleteMapping
+    @PreAuthorize("hasAuthority('SCOPE_privacy.write') or hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Solicitar exclusão de dados", description = "Pedido em segundo plano; devolve o pedido já ativo do mesmo titular")
+    public Mono<ResponseEntity<Map<String, Object>>> solicitar(@RequestParam String usuarioId,
+                                                               @RequestParam(required = false) String cpf,
+                                                               Authentication authentication) {
+        String solicitante = authentication != null ? authentication.getName() : null;
+        return exclusaoTitular.solicitar(usuarioId, cpf, solicitante)
+                .map(pedido -> ResponseEntity.status(HttpStatus.ACCEPTED).body(pedido))
+                .onErrorResume(IllegalArgumentException.class,
+                    _ -> Mono.just(ResponseEntity.badRequest().build()))
+                .onErrorResume(IllegalStateException.class,
+                    _ -> Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build()));
+    }
+
+    /**
+     * Progresso de um pedido de exclusão
+     */
+    @GetMapping("/{solicitacaoId}")
+    @PreAuthorize("hasAuthority('SCOPE_privacy.read') or hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Status da exclusão", description = "Eventos anonimizados, percentual estimado e prazo legal")
+    public Mono<ResponseEntity<Map<String, Object>>> consultar(@PathVariable String solicitacaoId,
+                                                               Authentication authentication) {
+        return exclusaoTitular.consultar(solicitacaoId)
+                .map(ResponseEntity::ok)
+                .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()));
+    }
+}
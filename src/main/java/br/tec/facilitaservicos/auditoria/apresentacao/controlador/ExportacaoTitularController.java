@@ -0,0 +1,110 @@
+package br.tec.facilitaservicos.auditoria.apresentacao.controlador;
+
+import java.util.Map;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import br.tec.facilitaservicos.auditoria.aplicacao.servico.ExportacaoTitularService;
+import br.tec.facilitaservicos.auditoria.infraestrutura.cliente.NoExportacaoClient;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import reactor.core.publisher.Mono;
+
+/**
+ * ============================================================================
+ * 🔐 CONTROLLER DE EXPORTAÇÃO DE DADOS DO TITULAR (LGPD)
+ * ============================================================================
+ *
+ * Endpoints:
+ * - POST /v1/privacy/exportar-dados - Solicitar exportação (usuarioId, cpf opcional)
+ * - GET /v1/privacy/exportar-dados/{solicitacaoId} - Status do job
+ * - GET /v1/privacy/exportar-dados/{solicitacaoId}/arquivo - Download do
+ *   NDJSON gzip; aceita Range para retomar downloads grandes. Se o arquivo
+ *   está no disco de outro pod, o download é repassado a ele
+ */
+@RestController
+@RequestMapping("/v1/privacy/exportar-dados")
+@Tag(name = "Privacidade", description = "Exportação de dados do titular (LGPD)")
+@SecurityRequirement(name = "bearerAuth")
+public class ExportacaoTitularController {
+
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final ExportacaoTitularService exportacaoTitular;
+    private final NoExportacaoClient noExportacao;
+
+    public ExportacaoTitularController(ExportacaoTitularService exportacaoTitular, NoExportacaoClient noExportacao) {
+        this.exportacaoTitular = exportacaoTitular;
+        this.noExportacao = noExportacao;
+    }
+
+    /**
+     * Solicita a exportação dos eventos de um titular
+     */
+    @PostMapping
+    @PreAuthorize("hasAuthority('SCOPE_privacy.write') or hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Solicitar exportação de dados", description = "Job em segundo plano; devolve o job já ativo do mesmo titular")
+    public Mono<ResponseEntity<Map<String, Object>>> solicitar(@RequestBody Map<String, String> request,
+                                                               Authentication authentication) {
+        String solicitante = authentication != null ? authentication.getName() : null;
+        return exportacaoTitular.solicitar(request.get("usuarioId"), request.get("cpf"), solicitante)
+                .map(job -> ResponseEntity.status(HttpStatus.ACCEPTED).body(job))
+                .onErrorResume(IllegalArgumentException.class,
+                    _ -> Mono.just(ResponseEntity.badRequest().build()))
+                .onErrorResume(IllegalStateException.class,
+                    _ -> Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build()));
+    }
+
+    /**
+     * Status de uma exportação
+     */
+    @GetMapping("/{solicitacaoId}")
+    @PreAuthorize("hasAuthority('SCOPE_privacy.read') or hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Status da exportação", description = "Status, eventos e bytes gravados")
+    public Mono<ResponseEntity<Map<String, Object>>> consultar(@PathVariable String solicitacaoId,
+                                                               Authentication authentication) {
+        return exportacaoTitular.consultar(solicitacaoId)
+                .map(ResponseEntity::ok)
+                .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()));
+    }
+
+    /**
+     * Download do arquivo; o suporte a Range vem do writer de Resource (ou do
+     * pod dono, quando o arquivo está nele)
+     */
+    @GetMapping("/{solicitacaoId}/arquivo")
+    @PreAuthorize("hasAuthority('SCOPE_privacy.read') or hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Baixar exportação", description = "NDJSON gzip; ETag = SHA-256 do arquivo, aceita Range")
+    public Mono<ResponseEntity<?>> baixar(@PathVariable String solicitacaoId,
+                                          ServerHttpRequest request,
+                                          Authentication authentication) {
+        return exportacaoTitular.arquivo(solicitacaoId)
+                .<ResponseEntity<?>>flatMap(arquivo -> arquivo.local()
+                    ? Mono.just(ResponseEntity.ok()
+                        .contentType(GZIP)
+                        .eTag(arquivo.hash())
+                        .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                        .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"dados-titular-" + solicitacaoId + ".ndjson.gz\"")
+                        .<Resource>body(new FileSystemResource(arquivo.caminho())))
+                    : noExportacao.baixar(arquivo.urlDono(), request.getPath().value(), request.getHeaders()))
+                .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()))
+                .onErrorResume(IllegalStateException.class,
+                    _ -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()));
+    }
+}
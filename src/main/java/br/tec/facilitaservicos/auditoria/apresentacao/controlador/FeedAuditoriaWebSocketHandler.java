@@ -0,0 +1,93 @@
+package br.tec.facilitaservicos.auditoria.apresentacao.controlador;
+
+import java.nio.charset.StandardCharsets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.tec.facilitaservicos.auditoria.aplicacao.servico.FeedEventosService;
+import br.tec.facilitaservicos.auditoria.dominio.enums.NivelSeveridade;
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.EventoPublicado;
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.FiltroAssinatura;
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.PoliticaOverflow;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ============================================================================
+ * 🔌 FEED DE AUDITORIA VIA WEBSOCKET
+ * ============================================================================
+ *
+ * Equivalente WebSocket do feed SSE ({@code /ws/auditoria/feed}). Filtros e
+ * retomada vão na query string: usuarioId, tipoEvento, categoria,
+ * severidadeMinima, politica e ultimoId. Cada mensagem de texto é um JSON
+ * {@code {"idStream": ..., "evento": {...}}}; pings mantêm a conexão viva.
+ */
+@Component
+public class FeedAuditoriaWebSocketHandler implements WebSocketHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedAuditoriaWebSocketHandler.class);
+
+    private static final byte[] PAYLOAD_PING = "hb".getBytes(StandardCharsets.UTF_8);
+
+    private final FeedEventosService feedEventosService;
+    private final ObjectMapper objectMapper;
+
+    public FeedAuditoriaWebSocketHandler(FeedEventosService feedEventosService, ObjectMapper objectMapper) {
+        this.feedEventosService = feedEventosService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+        MultiValueMap<String, String> parametros = UriComponentsBuilder
+            .fromUri(session.getHandshakeInfo().getUri())
+            .build()
+            .getQueryParams();
+
+        FiltroAssinatura filtro;
+        PoliticaOverflow politica;
+        try {
+            String severidade = parametros.getFirst("severidadeMinima");
+            String politicaInformada = parametros.getFirst("politica");
+            filtro = new FiltroAssinatura(
+                parametros.getFirst("usuarioId"),
+                parametros.getFirst("tipoEvento"),
+                parametros.getFirst("categoria"),
+                severidade != null ? NivelSeveridade.valueOf(severidade) : null);
+            politica = politicaInformada != null
+                ? PoliticaOverflow.valueOf(politicaInformada)
+                : PoliticaOverflow.DESCARTAR_MAIS_ANTIGO;
+        } catch (IllegalArgumentException e) {
+            return session.close(CloseStatus.BAD_DATA.withReason("Filtro inválido"));
+        }
+
+        Flux<WebSocketMessage> eventos = feedEventosService
+            .feed(filtro, politica, parametros.getFirst("ultimoId"))
+            .mapNotNull(publicado -> mensagem(session, publicado));
+
+        Flux<WebSocketMessage> pings = Flux.interval(feedEventosService.intervaloHeartbeat())
+            .map(_ -> session.pingMessage(fabrica -> fabrica.wrap(PAYLOAD_PING)));
+
+        return session.send(eventos.mergeWith(pings).takeUntilOther(session.closeStatus()));
+    }
+
+    private WebSocketMessage mensagem(WebSocketSession session, EventoPublicado publicado) {
+        try {
+            return session.textMessage(objectMapper.writeValueAsString(publicado));
+        } catch (JsonProcessingException e) {
+            logger.debug("Evento {} não serializado para o feed: {}", publicado.evento().id(), e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package br.tec.facilitaservicos.auditoria.apresentacao.controlador;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import br.tec.facilitaservicos.auditoria.aplicacao.servico.ConsentimentoService;
+import br.tec.facilitaservicos.auditoria.infraestrutura.privacidade.ContadoresPrivacidade;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import reactor.core.publisher.Mono;
+
+/**
+ * ============================================================================
+ * 📊 CONTROLLER DO PAINEL DE PRIVACIDADE
+ * ============================================================================
+ *
+ * Endpoints:
+ * - GET /v1/privacy/dashboard - Usuários com consentimento, exportações e
+ *   exclusões pendentes; servido dos contadores em memória (sem consulta)
+ */
+@RestController
+@RequestMapping("/v1/privacy")
+@Tag(name = "Privacidade", description = "Painel de privacidade")
+@SecurityRequirement(name = "bearerAuth")
+public class PainelPrivacidadeController {
+
+    private final ConsentimentoService consentimentoService;
+    private final ContadoresPrivacidade contadores;
+
+    public PainelPrivacidadeController(ConsentimentoService consentimentoService,
+                                       ContadoresPrivacidade contadores) {
+        this.consentimentoService = consentimentoService;
+        this.contadores = contadores;
+    }
+
+    @GetMapping("/dashboard")
+    @PreAuthorize("hasAuthority('SCOPE_privacy.read') or hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Dashboard de privacidade", description = "Contadores incrementais mantidos em memória")
+    public Mono<ResponseEntity<Map<String, Object>>> dashboard() {
+        Map<String, Object> painel = new LinkedHashMap<>();
+        painel.put("usuariosComConsentimento", consentimentoService.usuariosComConsentimento());
+        painel.put("exportacoesPendentes", contadores.exportacoesPendentes());
+        painel.put("exclusoesPendentes", contadores.exclusoesPendentes());
+        painel.put("consentimentosCarregados", consentimentoService.isPronto());
+        return Mono.just(ResponseEntity.ok(painel));
+    }
+}
@@ -0,0 +1,282 @@
+package br.tec.facilitaservicos.auditoria.apresentacao.controlador;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import br.tec.facilitaservicos.auditoria.aplicacao.servico.FeedEventosService;
+import br.tec.facilitaservicos.auditoria.aplicacao.servico.ReplayEventosService;
+import br.tec.facilitaservicos.auditoria.aplicacao.servico.ReplayEventosService.SessaoReplay;
+import br.tec.facilitaservicos.auditoria.aplicacao.servico.TrabalhosReprocessamentoService;
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+import br.tec.facilitaservicos.auditoria.dominio.enums.NivelSeveridade;
+import br.tec.facilitaservicos.auditoria.infraestrutura.reprocessamento.FilaReprocessamento;
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.FiltroAssinatura;
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.PoliticaOverflow;
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.RedriveDlqService;
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.RedriveDlqService.ResultadoRedrive;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ============================================================================
+ * 🌊 CONTROLLER DE OPERAÇÃO DO STREAMING DE AUDITORIA
+ * ============================================================================
+ *
+ * Feed em tempo real e endpoints administrativos do pipeline de streaming:
+ * - GET /rest/v1/auditoria/streaming/feed - Feed SSE com filtros e retomada
+ *   (WebSocket equivalente em /ws/auditoria/feed)
+ * - GET /rest/v1/auditoria/streaming/replay - Replay forense (SSE) no ritmo original
+ * - GET/POST /rest/v1/auditoria/streaming/replay/{sessaoId}/... - Estado, pausa,
+ *   retomada, seek e velocidade da sessão de replay
+ * - GET /rest/v1/auditoria/streaming/dlq - Profundidade e idade da DLQ
+ * - POST /rest/v1/auditoria/streaming/dlq/redrive - Reenviar entradas da DLQ
+ * - GET /rest/v1/auditoria/streaming/reprocessamento - Fila de reprocessamento
+ * - POST /rest/v1/auditoria/streaming/reprocessamento/falhas - Job de reprocessamento
+ *   em lote dos eventos com falha (GET .../falhas/{jobId} para o progresso)
+ */
+@RestController
+@RequestMapping("/rest/v1/auditoria/streaming")
+@Tag(name = "Streaming", description = "Operação do streaming de eventos de auditoria")
+@SecurityRequirement(name = "bearerAuth")
+public class StreamingController {
+
+    private final RedriveDlqService redriveDlqService;
+    private final FeedEventosService feedEventosService;
+    private final ReplayEventosService replayEventosService;
+    private final FilaReprocessamento filaReprocessamento;
+    private final TrabalhosReprocessamentoService trabalhosReprocessamento;
+
+    public StreamingController(RedriveDlqService redriveDlqService,
+                               FeedEventosService feedEventosService,
+                               ReplayEventosService replayEventosService,
+                               FilaReprocessamento filaReprocessamento,
+                               TrabalhosReprocessamentoService trabalhosReprocessamento) {
+        this.redriveDlqService = redriveDlqService;
+        this.feedEventosService = feedEventosService;
+        this.replayEventosService = replayEventosService;
+        this.filaReprocessamento = filaReprocessamento;
+        this.trabalhosReprocessamento = trabalhosReprocessamento;
+    }
+
+    /**
+     * Feed de eventos em tempo real via Server-Sent Events
+     * 
+     * O id de cada evento SSE é o id da entrada no stream de auditoria; ao
+     * reconectar, o navegador envia Last-Event-ID e o feed retoma dali.
+     */
+    @GetMapping(value = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAuthority('SCOPE_audit_read') or hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Feed em tempo real", description = "Eventos de auditoria ao vivo (SSE) com filtros no servidor e retomada por Last-Event-ID")
+    public Flux<ServerSentEvent<EventoAuditoriaDto>> feed(
+            @RequestParam(required = false) String usuarioId,
+            @RequestParam(required = false) String tipoEvento,
+            @RequestParam(required = false) String categoria,
+            @RequestParam(required = false) NivelSeveridade severidadeMinima,
+            @RequestParam(defaultValue = "DESCARTAR_MAIS_ANTIGO") PoliticaOverflow politica,
+            @RequestParam(required = false) String ultimoId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            Authentication authentication) {
+
+        FiltroAssinatura filtro = new FiltroAssinatura(usuarioId, tipoEvento, categoria, severidadeMinima);
+        Flux<ServerSentEvent<EventoAuditoriaDto>> eventos = feedEventosService
+                .feed(filtro, politica, lastEventId != null ? lastEventId : ultimoId)
+                .map(publicado -> ServerSentEvent.builder(publicado.evento())
+                    .id(publicado.idStream())
+                    .event(publicado.evento().tipoEvento())
+                    .build());
+
+        Flux<ServerSentEvent<EventoAuditoriaDto>> heartbeat = Flux.interval(feedEventosService.intervaloHeartbeat())
+                .map(_ -> ServerSentEvent.<EventoAuditoriaDto>builder().comment("heartbeat").build());
+
+        return eventos.mergeWith(heartbeat);
+    }
+
+    /**
+     * Replay forense de um período via Server-Sent Events
+     * 
+     * O primeiro evento SSE ("sessao") traz o id usado nos comandos de
+     * controle; os demais ("replay") têm como id o id do evento de auditoria.
+     */
+    @GetMapping(value = "/replay", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAuthority('SCOPE_audit_read') or hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Replay forense", description = "Reproduz eventos do período no ritmo original escalado pela velocidade (<= 0 = máxima)")
+    public Flux<ServerSentEvent<Object>> replay(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dataInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dataFim,
+            @RequestParam(defaultValue = "1.0") double velocidade,
+            @RequestParam(required = false) Long intervaloMaximoMs,
+            @RequestParam(required = false) String usuarioId,
+            @RequestParam(required = false) String tipoEvento,
+            @RequestParam(required = false) String categoria,
+            @RequestParam(required = false) NivelSeveridade severidadeMinima,
+            Authentication authentication) {
+
+        SessaoReplay sessao;
+        try {
+            sessao = replayEventosService.abrirSessao(dataInicio, dataFim, velocidade,
+                intervaloMaximoMs != null ? Duration.ofMillis(intervaloMaximoMs) : null,
+                new FiltroAssinatura(usuarioId, tipoEvento, categoria, severidadeMinima));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+        }
+
+        ServerSentEvent<Object> abertura = ServerSentEvent.<Object>builder(sessao.estado())
+                .event("sessao")
+                .build();
+
+        return Flux.just(abertura).concatWith(replayEventosService.reproduzir(sessao)
+                .map(evento -> ServerSentEvent.<Object>builder(evento)
+                    .id(evento.id())
+                    .event("replay")
+                    .build()));
+    }
+
+    /**
+     * Estado de uma sessão de replay
+     */
+    @GetMapping("/replay/{sessaoId}")
+    @PreAuthorize("hasAuthority('SCOPE_audit_read') or hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Estado do replay", description = "Posição, velocidade e pausa da sessão de replay")
+    public Mono<ResponseEntity<Map<String, Object>>> estadoReplay(@PathVariable String sessaoId,
+                                                                  Authentication authentication) {
+        return controlarReplay(sessaoId, _ -> { });
+    }
+
+    @PostMapping("/replay/{sessaoId}/pausar")
+    @PreAuthorize("hasAuthority('SCOPE_audit_read') or hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Pausar replay")
+    public Mono<ResponseEntity<Map<String, Object>>> pausarReplay(@PathVariable String sessaoId,
+                                                                  Authentication authentication) {
+        return controlarReplay(sessaoId, SessaoReplay::pausar);
+    }
+
+    @PostMapping("/replay/{sessaoId}/retomar")
+    @PreAuthorize("hasAuthority('SCOPE_audit_read') or hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Retomar replay")
+    public Mono<ResponseEntity<Map<String, Object>>> retomarReplay(@PathVariable String sessaoId,
+                                                                   Authentication authentication) {
+        return controlarReplay(sessaoId, SessaoReplay::retomar);
+    }
+
+    @PostMapping("/replay/{sessaoId}/posicionar")
+    @PreAuthorize("hasAuthority('SCOPE_audit_read') or hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Reposicionar replay", description = "Salta para o instante informado dentro do período")
+    public Mono<ResponseEntity<Map<String, Object>>> posicionarReplay(
+            @PathVariable String sessaoId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime instante,
+            Authentication authentication) {
+        return controlarReplay(sessaoId, sessao -> sessao.posicionar(instante));
+    }
+
+    @PostMapping("/replay/{sessaoId}/velocidade")
+    @PreAuthorize("hasAuthority('SCOPE_audit_read') or hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Alterar velocidade do replay", description = "Fator sobre o tempo original; <= 0 = máxima")
+    public Mono<ResponseEntity<Map<String, Object>>> velocidadeReplay(@PathVariable String sessaoId,
+                                                                      @RequestParam double fator,
+                                                                      Authentication authentication) {
+        return controlarReplay(sessaoId, sessao -> sessao.alterarVelocidade(fator));
+    }
+
+    /**
+     * Resumo da Dead Letter Queue
+     */
+    @GetMapping("/dlq")
+    @PreAuthorize("hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Resumo da DLQ", description = "Profundidade da DLQ, falhas permanentes e idade da entrada mais antiga")
+    public Mono<ResponseEntity<Map<String, Object>>> obterResumoDlq(Authentication authentication) {
+        return redriveDlqService.resumo()
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Reenvia entradas da DLQ para o stream principal
+     */
+    @PostMapping("/dlq/redrive")
+    @PreAuthorize("hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Redrive da DLQ", description = "Reenvia entradas da DLQ com limite de taxa; dryRun apenas classifica")
+    public Mono<ResponseEntity<ResultadoRedrive>> redriveDlq(
+            @RequestParam(defaultValue = "1000") int limite,
+            @RequestParam(defaultValue = "0") double taxaPorSegundo,
+            @RequestParam(defaultValue = "false") boolean dryRun,
+            Authentication authentication) {
+
+        return redriveDlqService.redrive(limite, taxaPorSegundo, dryRun)
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalStateException.class,
+                    _ -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()));
+    }
+
+    /**
+     * Resumo da fila de reprocessamento
+     */
+    @GetMapping("/reprocessamento")
+    @PreAuthorize("hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Fila de reprocessamento", description = "Itens agendados, em andamento e em falha, atraso e ocupação dos trabalhadores")
+    public Mono<ResponseEntity<Map<String, Object>>> obterResumoReprocessamento(Authentication authentication) {
+        return filaReprocessamento.resumo()
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Inicia o reprocessamento em lote dos eventos com falha
+     */
+    @PostMapping("/reprocessamento/falhas")
+    @PreAuthorize("hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Reprocessar falhas", description = "Job em segundo plano: FALHA → REPROCESSO em lotes e republicação no stream")
+    public Mono<ResponseEntity<Map<String, Object>>> reprocessarFalhas(Authentication authentication) {
+        return Mono.fromSupplier(() -> ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(trabalhosReprocessamento.iniciar().snapshot()))
+                .onErrorResume(IllegalStateException.class,
+                    _ -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()));
+    }
+
+    /**
+     * Progresso de um job de reprocessamento de falhas
+     */
+    @GetMapping("/reprocessamento/falhas/{jobId}")
+    @PreAuthorize("hasAuthority('SCOPE_admin')")
+    @Operation(summary = "Progresso do reprocessamento", description = "Lotes, lidos, transicionados, republicados e vazão do job")
+    public Mono<ResponseEntity<Map<String, Object>>> progressoReprocessamento(@PathVariable String jobId,
+                                                                              Authentication authentication) {
+        return Mono.just(trabalhosReprocessamento.consultar(jobId)
+                .map(progresso -> ResponseEntity.ok(progresso.snapshot()))
+                .orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+
+    private Mono<ResponseEntity<Map<String, Object>>> controlarReplay(String sessaoId,
+                                                                      Consumer<SessaoReplay> comando) {
+        return Mono.fromSupplier(() -> replayEventosService.sessao(sessaoId)
+                .map(sessao -> {
+                    try {
+                        comando.accept(sessao);
+                        return ResponseEntity.ok(sessao.estado());
+                    } catch (IllegalArgumentException e) {
+                        return ResponseEntity.badRequest().<Map<String, Object>>build();
+                    }
+                })
+                .orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+}
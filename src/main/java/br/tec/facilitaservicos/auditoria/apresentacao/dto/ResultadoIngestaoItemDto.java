@@ -0,0 +1,37 @@
+package br.tec.facilitaservicos.auditoria.apresentacao.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Resultado de um item da ingestão em lote, na posição em que foi enviado
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@Schema(description = "Resultado de um evento da ingestão em lote")
+public record ResultadoIngestaoItemDto(
+    @Schema(description = "Posição do evento no corpo da requisição (a partir de 0)", example = "0")
+    long indice,
+    @Schema(description = "ID atribuído ao evento (ausente se rejeitado)", example = "evt_123")
+    String id,
+    @Schema(description = "GRAVADO, ACEITO (no diário local, gravado depois), REJEITADO ou FALHA", example = "GRAVADO")
+    String status,
+    @Schema(description = "Motivos da rejeição ou da falha")
+    List<String> erros
+) {
+
+    public static final String GRAVADO = "GRAVADO";
+    public static final String ACEITO = "ACEITO";
+    public static final String REJEITADO = "REJEITADO";
+    public static final String FALHA = "FALHA";
+
+    public static ResultadoIngestaoItemDto rejeitado(long indice, List<String> erros) {
+        return new ResultadoIngestaoItemDto(indice, null, REJEITADO, erros);
+    }
+
+    public static ResultadoIngestaoItemDto falha(long indice, String erro) {
+        return new ResultadoIngestaoItemDto(indice, null, FALHA, List.of(erro));
+    }
+}
@@ -14,7 +14,7 @@ import org.springframework.transaction.ReactiveTransactionManager;
 import java.time.Duration;
 
 @Configuration
-@EnableR2dbcRepositories(basePackages = "br.tec.facilitaservicos.auditoria.repository")
+@EnableR2dbcRepositories(basePackages = "br.tec.facilitaservicos.auditoria.dominio.repositorio")
 public class R2dbcConfig extends AbstractR2dbcConfiguration {
 
     @Value("${spring.r2dbc.url}")
@@ -9,20 +9,24 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import br.tec.facilitaservicos.auditoria.configuracao.RedisCacheMetrics;
+
 @Configuration
 public class RedisConfig {
 
     @Bean
-    public ReactiveRedisTemplate<String, Object> reactiveRedisTemplate(ReactiveRedisConnectionFactory factory) {
+    public ReactiveRedisTemplate<String, Object> reactiveRedisTemplate(ReactiveRedisConnectionFactory factory,
+                                                                       RedisCacheMetrics cacheMetrics) {
         StringRedisSerializer keySerializer = new StringRedisSerializer();
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.findAndRegisterModules(); // Register JSR310 module for LocalDateTime
         Jackson2JsonRedisSerializer<Object> valueSerializer = new Jackson2JsonRedisSerializer<>(objectMapper, Object.class);
 
+        // Serializador instrumentado mede o tamanho real dos payloads lidos/escritos
         RedisSerializationContext<String, Object> serializationContext = RedisSerializationContext.<String, Object>newSerializationContext(keySerializer)
-                .value(valueSerializer)
+                .value(cacheMetrics.instrumentarSerializador(valueSerializer))
                 .build();
 
         return new ReactiveRedisTemplate<>(factory, serializationContext);
     }
-}
\ No newline at end of file
+}
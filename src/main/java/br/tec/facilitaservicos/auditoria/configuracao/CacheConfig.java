@@ -1,17 +1,13 @@
 package br.tec.facilitaservicos.auditoria.configuracao;
 
+import br.tec.facilitaservicos.auditoria.infraestrutura.cache.ReactiveCacheManager;
+import br.tec.facilitaservicos.auditoria.infraestrutura.cache.ReactiveRedisTemplateInstrumentado;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.redis.cache.RedisCacheConfiguration;
-import org.springframework.data.redis.cache.RedisCacheManager;
-import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
-import org.springframework.data.redis.serializer.RedisSerializationContext;
-import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 
 import java.time.Duration;
 import java.util.HashMap;
@@ -19,13 +15,14 @@ import java.util.Map;
 
 /**
  * Configuração de cache Redis otimizada para microserviço de auditoria e compliance.
+ * 100% reativa: o cache é aplicado por operadores ({@link ReactiveCacheManager}) sobre
+ * a conexão reativa do Lettuce, sem RedisCacheManager/@Cacheable bloqueantes.
  * TTLs conservadores para dados críticos de auditoria:
  * - Eventos: 6 horas (dados críticos com persistência longa)
  * - Relatórios: 2 horas (dados agregados)
  * - Metadados: 1 hora (configurações e definições)
  */
 @Configuration
-@EnableCaching
 public class CacheConfig {
 
     @Value("${spring.application.name:auditoria-compliance}")
@@ -40,55 +37,33 @@ public class CacheConfig {
     public static final String SESSOES_AUDITORIA_CACHE = "audit:sessoes-auditoria";
 
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory, MeterRegistry meterRegistry) {
-        // Configuração base com serialização otimizada e segurança
-        RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofHours(1)) // TTL padrão conservador para auditoria
-                .computePrefixWith(cacheName -> applicationName + ":" + cacheName + ":")
-                .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()));
+    public RedisCacheMetrics redisCacheMetrics(MeterRegistry meterRegistry,
+                                               ReactiveStringRedisTemplate stringRedisTemplate,
+                                               @Value("${auditoria.cache.metricas.limite-amostragem-scan:10000}") int limiteAmostragemScan) {
+        return new RedisCacheMetrics(meterRegistry, stringRedisTemplate, applicationName, limiteAmostragemScan);
+    }
 
+    @Bean
+    public ReactiveCacheManager reactiveCacheManager(ReactiveRedisTemplateInstrumentado redisTemplate,
+                                                     ObjectMapper objectMapper) {
         // TTLs diferenciados por criticidade e requisitos de compliance
-        Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
+        Map<String, Duration> ttlPorCache = new HashMap<>();
         
         // Eventos de auditoria - TTL longo para dados críticos
-        cacheConfigurations.put(EVENTOS_CACHE, defaultConfig.entryTtl(Duration.ofHours(6)));
+        ttlPorCache.put(EVENTOS_CACHE, Duration.ofHours(6));
         
         // Relatórios - TTL moderado para dados agregados
-        cacheConfigurations.put(RELATORIOS_CACHE, defaultConfig.entryTtl(Duration.ofHours(2)));
+        ttlPorCache.put(RELATORIOS_CACHE, Duration.ofHours(2));
         
         // Metadados e configurações - TTL padrão
-        cacheConfigurations.put(METADADOS_CACHE, defaultConfig.entryTtl(Duration.ofHours(1)));
-        cacheConfigurations.put(CONFIGURACOES_COMPLIANCE_CACHE, defaultConfig.entryTtl(Duration.ofHours(2)));
+        ttlPorCache.put(METADADOS_CACHE, Duration.ofHours(1));
+        ttlPorCache.put(CONFIGURACOES_COMPLIANCE_CACHE, Duration.ofHours(2));
         
         // Dados de sessão - TTL curto para segurança
-        cacheConfigurations.put(USUARIOS_AUDITORIA_CACHE, defaultConfig.entryTtl(Duration.ofMinutes(30)));
-        cacheConfigurations.put(SESSOES_AUDITORIA_CACHE, defaultConfig.entryTtl(Duration.ofMinutes(15)));
-
-        RedisCacheManager cacheManager = RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(defaultConfig)
-                .withInitialCacheConfigurations(cacheConfigurations)
-                .transactionAware()
-                .build();
-
-        // Registrar métricas de cache personalizadas
-        return new RedisCacheMetrics(cacheManager, meterRegistry, applicationName).instrumentedCacheManager();
-    }
+        ttlPorCache.put(USUARIOS_AUDITORIA_CACHE, Duration.ofMinutes(30));
+        ttlPorCache.put(SESSOES_AUDITORIA_CACHE, Duration.ofMinutes(15));
 
-    @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
-        RedisTemplate<String, Object> template = new RedisTemplate<>();
-        template.setConnectionFactory(connectionFactory);
-        
-        // Serialização otimizada para performance e compatibilidade
-        template.setKeySerializer(new StringRedisSerializer());
-        template.setHashKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
-        template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
-        
-        template.setDefaultSerializer(new GenericJackson2JsonRedisSerializer());
-        template.afterPropertiesSet();
-        
-        return template;
+        // TTL padrão conservador para auditoria
+        return new ReactiveCacheManager(redisTemplate, objectMapper, applicationName + ":", Duration.ofHours(1), ttlPorCache);
     }
-}
\ No newline at end of file
+}
@@ -1,116 +1,202 @@
 package br.tec.facilitaservicos.auditoria.configuracao;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.Gauge;
-import org.springframework.data.redis.cache.RedisCacheManager;
-import org.springframework.data.redis.connection.ReturnType;
-import org.springframework.data.redis.core.RedisCallback;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Métricas customizadas para monitoramento do cache Redis.
  * Específico para padrões de acesso de auditoria e compliance.
+ *
+ * Alimentado pelos caminhos reativos de cache (ReactiveRedisTemplateInstrumentado):
+ * - Latência por operação e família de chave (p50/p99/p999)
+ * - Distribuição de tamanho de payload lido/escrito
+ * - Hits/misses por família de chave
+ * - Contagem amostrada de chaves via SCAN e TTL restante por família
  */
 public class RedisCacheMetrics {
 
-    private final RedisCacheManager cacheManager;
+    private static final Logger logger = LoggerFactory.getLogger(RedisCacheMetrics.class);
+
+    // Famílias conhecidas - qualquer outra vira "outros" para manter cardinalidade das tags limitada
+    private static final List<String> FAMILIAS = List.of(
+            "evento", "timeline", "stats", "user",
+            "eventos", "relatorios", "metadados", "configuracoes-compliance",
+            "usuarios-auditoria", "sessoes-auditoria");
+    private static final String FAMILIA_OUTROS = "outros";
+    private static final String MARCADOR_AUDITORIA = "audit:";
+    private static final String PADRAO_SCAN = "*" + MARCADOR_AUDITORIA + "*";
+    private static final int AMOSTRAS_TTL_POR_FAMILIA = 20;
+
     private final MeterRegistry meterRegistry;
+    private final ReactiveStringRedisTemplate stringRedisTemplate;
     private final String applicationName;
-    
-    // Contadores para métricas de auditoria
-    private final Counter cacheHitCounter;
-    private final Counter cacheMissCounter;
-    private final Counter cacheEvictionCounter;
-    private final Timer cacheAccessTimer;
+    private final int limiteAmostragemScan;
+
+    // Meters por família/operação, cacheados para não pagar lookup no registry a cada acesso
+    private final Map<String, Counter> hitsPorFamilia = new ConcurrentHashMap<>();
+    private final Map<String, Counter> missesPorFamilia = new ConcurrentHashMap<>();
+    private final Map<String, Counter> evictionsPorFamilia = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timersPorOperacao = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> ttlPorFamilia = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> chavesPorFamilia = new ConcurrentHashMap<>();
+    private final DistributionSummary payloadLeitura;
+    private final DistributionSummary payloadEscrita;
+
     private final AtomicLong totalAuditEvents;
     private final AtomicLong totalReportsInCache;
     private final AtomicLong complianceViolations;
     private final AtomicLong activeAuditSessions;
+    private final AtomicLong amostragemTruncada;
+    private final AtomicBoolean amostragemEmAndamento = new AtomicBoolean(false);
 
-    public RedisCacheMetrics(RedisCacheManager cacheManager, MeterRegistry meterRegistry, String applicationName) {
-        this.cacheManager = cacheManager;
+    public RedisCacheMetrics(MeterRegistry meterRegistry, ReactiveStringRedisTemplate stringRedisTemplate,
+                             String applicationName, int limiteAmostragemScan) {
         this.meterRegistry = meterRegistry;
+        this.stringRedisTemplate = stringRedisTemplate;
         this.applicationName = applicationName;
-        
-        // Inicializar contadores específicos de auditoria
-        this.cacheHitCounter = Counter.builder("redis.cache.hit")
-                .description("Número de cache hits")
-                .tag("service", applicationName)
-                .tag("type", "audit")
-                .register(meterRegistry);
-                
-        this.cacheMissCounter = Counter.builder("redis.cache.miss")
-                .description("Número de cache misses")
-                .tag("service", applicationName)
-                .tag("type", "audit")
-                .register(meterRegistry);
-                
-        this.cacheEvictionCounter = Counter.builder("redis.cache.eviction")
-                .description("Número de evictions do cache")
+        this.limiteAmostragemScan = limiteAmostragemScan;
+
+        this.payloadLeitura = DistributionSummary.builder("redis.cache.payload")
+                .description("Tamanho dos payloads trafegados no cache")
+                .baseUnit("bytes")
                 .tag("service", applicationName)
-                .tag("type", "audit")
+                .tag("direcao", "leitura")
+                .publishPercentiles(0.5, 0.99, 0.999)
                 .register(meterRegistry);
-                
-        this.cacheAccessTimer = Timer.builder("redis.cache.access")
-                .description("Tempo de acesso ao cache")
+
+        this.payloadEscrita = DistributionSummary.builder("redis.cache.payload")
+                .description("Tamanho dos payloads trafegados no cache")
+                .baseUnit("bytes")
                 .tag("service", applicationName)
-                .tag("type", "audit")
+                .tag("direcao", "escrita")
+                .publishPercentiles(0.5, 0.99, 0.999)
                 .register(meterRegistry);
 
         this.totalAuditEvents = new AtomicLong(0);
         this.totalReportsInCache = new AtomicLong(0);
         this.complianceViolations = new AtomicLong(0);
         this.activeAuditSessions = new AtomicLong(0);
-        
+        this.amostragemTruncada = new AtomicLong(0);
+
         // Gauges para métricas em tempo real específicas de auditoria
         Gauge.builder("audit.events.cached", totalAuditEvents, AtomicLong::doubleValue)
                 .description("Total de eventos de auditoria em cache")
                 .tag("service", applicationName)
                 .register(meterRegistry);
-                
+
         Gauge.builder("audit.reports.cached", totalReportsInCache, AtomicLong::doubleValue)
                 .description("Total de relatórios em cache")
                 .tag("service", applicationName)
                 .register(meterRegistry);
-                
+
         Gauge.builder("compliance.violations", complianceViolations, AtomicLong::doubleValue)
                 .description("Violações de compliance detectadas")
                 .tag("service", applicationName)
                 .register(meterRegistry);
-                
+
         Gauge.builder("audit.sessions.active", activeAuditSessions, AtomicLong::doubleValue)
                 .description("Sessões de auditoria ativas")
                 .tag("service", applicationName)
                 .register(meterRegistry);
-    }
 
-    public RedisCacheManager instrumentedCacheManager() {
-        return cacheManager;
+        Gauge.builder("redis.cache.keys.amostragem.truncada", amostragemTruncada, AtomicLong::doubleValue)
+                .description("1 quando a última amostragem SCAN atingiu o limite (contagens são limite inferior)")
+                .tag("service", applicationName)
+                .register(meterRegistry);
+
+        for (String familia : FAMILIAS) {
+            registrarGaugeChaves(familia);
+        }
+        registrarGaugeChaves(FAMILIA_OUTROS);
     }
 
-    public void recordCacheHit(String cacheName) {
-        cacheHitCounter.increment();
+    // ========== ACESSOS ==========
+
+    public void recordCacheHit(String chave) {
+        hitsPorFamilia.computeIfAbsent(familia(chave), f -> contador("redis.cache.hit", "Número de cache hits", f))
+                .increment();
     }
 
-    public void recordCacheMiss(String cacheName) {
-        cacheMissCounter.increment();
+    public void recordCacheMiss(String chave) {
+        missesPorFamilia.computeIfAbsent(familia(chave), f -> contador("redis.cache.miss", "Número de cache misses", f))
+                .increment();
     }
 
-    public void recordCacheEviction(String cacheName) {
-        cacheEvictionCounter.increment();
+    public void recordCacheEviction(String chave, long quantidade) {
+        evictionsPorFamilia.computeIfAbsent(familia(chave), f -> contador("redis.cache.eviction", "Número de evictions do cache", f))
+                .increment(quantidade);
     }
 
     public Timer.Sample startCacheAccess() {
         return Timer.start(meterRegistry);
     }
 
-    public void recordCacheAccess(Timer.Sample sample) {
-        sample.stop(cacheAccessTimer);
+    public void recordCacheAccess(Timer.Sample sample, String operacao, String chave) {
+        sample.stop(timer(operacao, familia(chave)));
+    }
+
+    /**
+     * Mede a latência de uma operação reativa no cache, do subscribe ao término/cancelamento
+     */
+    public <T> Mono<T> medir(String operacao, String chave, Mono<T> operacaoRedis) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = startCacheAccess();
+            return operacaoRedis.doFinally(_ -> recordCacheAccess(sample, operacao, chave));
+        });
+    }
+
+    /**
+     * Mede a latência de uma operação reativa multi-valor no cache
+     */
+    public <T> Flux<T> medirFlux(String operacao, String chave, Flux<T> operacaoRedis) {
+        return Flux.defer(() -> {
+            Timer.Sample sample = startCacheAccess();
+            return operacaoRedis.doFinally(_ -> recordCacheAccess(sample, operacao, chave));
+        });
+    }
+
+    /**
+     * Envolve o serializador de valores para medir o tamanho real dos payloads
+     * sem serializar duas vezes
+     */
+    public RedisSerializer<Object> instrumentarSerializador(RedisSerializer<Object> delegate) {
+        return new RedisSerializer<>() {
+            @Override
+            public byte[] serialize(Object valor) throws SerializationException {
+                byte[] bytes = delegate.serialize(valor);
+                if (bytes != null) {
+                    payloadEscrita.record(bytes.length);
+                }
+                return bytes;
+            }
+
+            @Override
+            public Object deserialize(byte[] bytes) throws SerializationException {
+                if (bytes != null) {
+                    payloadLeitura.record(bytes.length);
+                }
+                return delegate.deserialize(bytes);
+            }
+        };
     }
 
     public void updateTotalAuditEvents(long count) {
@@ -129,39 +215,115 @@ public class RedisCacheMetrics {
         activeAuditSessions.set(count);
     }
 
+    // ========== AMOSTRAGEM DE CHAVES ==========
+
     /**
-     * Coleta métricas específicas do Redis para auditoria
+     * Amostra o keyspace de auditoria via SCAN (não bloqueia o Redis como KEYS),
+     * contando chaves por família e registrando o TTL restante de algumas delas.
+     * Varre no máximo {@code limiteAmostragemScan} chaves por ciclo.
      */
-    public void collectAuditSpecificMetrics(RedisTemplate<String, Object> redisTemplate) {
-        try {
-            // Contagem de chaves específicas de auditoria
-            Long auditEventKeys = redisTemplate.execute((RedisCallback<Long>) connection -> 
-                connection.eval("return #redis.call('keys', ARGV[1])".getBytes(StandardCharsets.UTF_8), ReturnType.INTEGER, 0, (applicationName + ":audit:eventos:*").getBytes(StandardCharsets.UTF_8))
-            );
-            
-            Long reportKeys = redisTemplate.execute((RedisCallback<Long>) connection -> 
-                connection.eval("return #redis.call('keys', ARGV[1])".getBytes(StandardCharsets.UTF_8), ReturnType.INTEGER, 0, (applicationName + ":audit:relatorios:*").getBytes(StandardCharsets.UTF_8))
-            );
-            
-            Long sessionKeys = redisTemplate.execute((RedisCallback<Long>) connection -> 
-                connection.eval("return #redis.call('keys', ARGV[1])".getBytes(StandardCharsets.UTF_8), ReturnType.INTEGER, 0, (applicationName + ":audit:sessoes-auditoria:*").getBytes(StandardCharsets.UTF_8))
-            );
-            
-            if (auditEventKeys != null) {
-                updateTotalAuditEvents(auditEventKeys);
-            }
-            
-            if (reportKeys != null) {
-                updateTotalReportsInCache(reportKeys);
-            }
-            
-            if (sessionKeys != null) {
-                updateActiveAuditSessions(sessionKeys);
-            }
-            
-        } catch (Exception e) {
-            // Log do erro sem quebrar a aplicação
-            System.err.println("Erro ao coletar métricas do Redis para auditoria: " + e.getMessage());
+    @Scheduled(fixedDelayString = "${auditoria.cache.metricas.intervalo-amostragem-ms:60000}",
+               initialDelayString = "${auditoria.cache.metricas.atraso-inicial-ms:30000}")
+    public void collectAuditSpecificMetrics() {
+        if (!amostragemEmAndamento.compareAndSet(false, true)) {
+            return;
+        }
+
+        Map<String, Long> contagens = new ConcurrentHashMap<>();
+        ScanOptions opcoes = ScanOptions.scanOptions().match(PADRAO_SCAN).count(1000).build();
+
+        stringRedisTemplate.scan(opcoes)
+                .take(limiteAmostragemScan)
+                .concatMap(chave -> {
+                    String familia = familia(chave);
+                    long vistas = contagens.merge(familia, 1L, Long::sum);
+                    return vistas <= AMOSTRAS_TTL_POR_FAMILIA
+                            ? amostrarTtl(familia, chave)
+                            : Mono.<Void>empty();
+                }, 64)
+                .then(Mono.fromRunnable(() -> publicarContagens(contagens)))
+                .timeout(Duration.ofSeconds(30))
+                .doOnError(e -> logger.warn("Erro ao coletar métricas do Redis para auditoria: {}", e.getMessage()))
+                .onErrorComplete()
+                .doFinally(_ -> amostragemEmAndamento.set(false))
+                .subscribe();
+    }
+
+    private Mono<Void> amostrarTtl(String familia, String chave) {
+        return stringRedisTemplate.getExpire(chave)
+                .filter(ttl -> !ttl.isNegative() && !ttl.isZero())
+                .doOnNext(ttl -> ttlPorFamilia.computeIfAbsent(familia, this::resumoTtl).record(ttl.toSeconds()))
+                .onErrorComplete()
+                .then();
+    }
+
+    private void publicarContagens(Map<String, Long> contagens) {
+        long totalVisto = contagens.values().stream().mapToLong(Long::longValue).sum();
+        amostragemTruncada.set(totalVisto >= limiteAmostragemScan ? 1 : 0);
+
+        chavesPorFamilia.forEach((familia, gauge) -> gauge.set(contagens.getOrDefault(familia, 0L)));
+
+        updateTotalAuditEvents(contagens.getOrDefault("evento", 0L) + contagens.getOrDefault("eventos", 0L));
+        updateTotalReportsInCache(contagens.getOrDefault("relatorios", 0L));
+        updateActiveAuditSessions(contagens.getOrDefault("sessoes-auditoria", 0L));
+    }
+
+    // ========== AUXILIARES ==========
+
+    /**
+     * Família da chave: segmento logo após "audit:" (ex.: "audit:evento:123" e
+     * "app:audit:eventos:123" resultam em "evento" e "eventos")
+     */
+    static String familia(String chave) {
+        if (chave == null) {
+            return FAMILIA_OUTROS;
         }
+        int inicio = chave.indexOf(MARCADOR_AUDITORIA);
+        if (inicio < 0) {
+            return FAMILIA_OUTROS;
+        }
+        inicio += MARCADOR_AUDITORIA.length();
+        int fim = chave.indexOf(':', inicio);
+        String familia = fim < 0 ? chave.substring(inicio) : chave.substring(inicio, fim);
+        return FAMILIAS.contains(familia) ? familia : FAMILIA_OUTROS;
+    }
+
+    private void registrarGaugeChaves(String familia) {
+        AtomicLong valor = chavesPorFamilia.computeIfAbsent(familia, _ -> new AtomicLong(0));
+        Gauge.builder("redis.cache.keys", valor, AtomicLong::doubleValue)
+                .description("Chaves de auditoria por família (amostradas via SCAN)")
+                .tag("service", applicationName)
+                .tag("familia", familia)
+                .register(meterRegistry);
+    }
+
+    private Counter contador(String nome, String descricao, String familia) {
+        return Counter.builder(nome)
+                .description(descricao)
+                .tag("service", applicationName)
+                .tag("type", "audit")
+                .tag("familia", familia)
+                .register(meterRegistry);
+    }
+
+    private Timer timer(String operacao, String familia) {
+        return timersPorOperacao.computeIfAbsent(operacao + '|' + familia, _ -> Timer.builder("redis.cache.access")
+                .description("Tempo de acesso ao cache")
+                .tag("service", applicationName)
+                .tag("type", "audit")
+                .tag("operacao", operacao)
+                .tag("familia", familia)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry));
+    }
+
+    private DistributionSummary resumoTtl(String familia) {
+        return DistributionSummary.builder("redis.cache.ttl.restante")
+                .description("TTL restante das chaves amostradas")
+                .baseUnit("seconds")
+                .tag("service", applicationName)
+                .tag("familia", familia)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
     }
-}
\ No newline at end of file
+}
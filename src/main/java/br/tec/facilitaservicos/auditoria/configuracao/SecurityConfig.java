@@ -164,7 +164,11 @@ public class SecurityConfig {
                     
                 .pathMatchers("/rest/v1/audit/compliance/**")
                     .hasAnyAuthority("SCOPE_compliance", "SCOPE_admin")
-                
+
+                // Direitos do titular (LGPD) - escopos de privacidade
+                .pathMatchers("/v1/privacy/**")
+                    .hasAnyAuthority("SCOPE_privacy.read", "SCOPE_privacy.write", "SCOPE_admin")
+
                 // Endpoints administrativos críticos
                 .pathMatchers("/actuator/**").hasAuthority("SCOPE_admin")
                 
@@ -0,0 +1,22 @@
+package br.tec.facilitaservicos.auditoria.configuracao;
+
+import java.util.Map;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
+
+import br.tec.facilitaservicos.auditoria.apresentacao.controlador.FeedAuditoriaWebSocketHandler;
+
+/**
+ * Rotas WebSocket; a autorização segue o SecurityConfig (audit_read ou admin).
+ */
+@Configuration
+public class WebSocketConfig {
+
+    @Bean
+    public HandlerMapping webSocketHandlerMapping(FeedAuditoriaWebSocketHandler feedHandler) {
+        return new SimpleUrlHandlerMapping(Map.of("/ws/auditoria/feed", feedHandler), -1);
+    }
+}
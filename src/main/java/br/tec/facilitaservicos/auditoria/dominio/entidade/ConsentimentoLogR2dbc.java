@@ -0,0 +1,85 @@
+package br.tec.facilitaservicos.auditoria.dominio.entidade;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * ============================================================================
+ * ✅ ENTIDADE LOG DE CONSENTIMENTOS
+ * ============================================================================
+ *
+ * Uma mudança de consentimento, append-only. O seq auto-incremento é a
+ * versão da mudança: o estado atual de cada (usuário, finalidade) é a
+ * entrada de maior seq, e o índice em memória segue o log por seq.
+ */
+@Table("consentimentos_log")
+public class ConsentimentoLogR2dbc {
+
+    @Id
+    @Column("seq")
+    private Long seq;
+
+    @Column("usuario_id")
+    private String usuarioId;
+
+    @Column("finalidade")
+    private String finalidade;
+
+    @Column("concedido")
+    private boolean concedido;
+
+    @Column("origem")
+    private String origem;
+
+    @Column("registrado_em")
+    private LocalDateTime registradoEm;
+
+    public ConsentimentoLogR2dbc() {
+    }
+
+    /**
+     * Cria entrada nova (seq atribuído pelo banco no INSERT)
+     */
+    public static ConsentimentoLogR2dbc mudanca(String usuarioId, String finalidade, boolean concedido, String origem) {
+        ConsentimentoLogR2dbc log = new ConsentimentoLogR2dbc();
+        log.usuarioId = usuarioId;
+        log.finalidade = finalidade;
+        log.concedido = concedido;
+        log.origem = origem;
+        log.registradoEm = LocalDateTime.now();
+        return log;
+    }
+
+    // Getters e Setters
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+
+    public String getUsuarioId() {
+        return usuarioId;
+    }
+
+    public String getFinalidade() {
+        return finalidade;
+    }
+
+    public boolean isConcedido() {
+        return concedido;
+    }
+
+    public String getOrigem() {
+        return origem;
+    }
+
+    public LocalDateTime getRegistradoEm() {
+        return registradoEm;
+    }
+}
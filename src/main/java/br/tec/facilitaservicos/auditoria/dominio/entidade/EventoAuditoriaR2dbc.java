@@ -5,6 +5,8 @@ import java.util.Map;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.domain.Persistable;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -45,11 +47,16 @@ import br.tec.facilitaservicos.auditoria.dominio.enums.NivelSeveridade;
  * @since 2024
  */
 @Table("eventos_auditoria")
-public class EventoAuditoriaR2dbc {
+public class EventoAuditoriaR2dbc implements Persistable<String> {
 
     @Id
     private String id;
 
+    // ID é atribuído na aplicação; sem isso o save() tentaria UPDATE
+    @Transient
+    @JsonIgnore
+    private boolean novo;
+
     // Identificação do evento
     @Column("tipo_evento")
     private TipoEvento tipoEvento;
@@ -241,6 +248,7 @@ public class EventoAuditoriaR2dbc {
         }
 
         public EventoAuditoriaR2dbc build() {
+            evento.novo = true;
             return evento;
         }
     }
@@ -318,10 +326,20 @@ public class EventoAuditoriaR2dbc {
 
     // Getters e Setters
 
+    @Override
     public String getId() {
         return id;
     }
 
+    /**
+     * Eventos criados pelo builder ainda não existem no banco (INSERT)
+     */
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return novo || id == null;
+    }
+
     public void setId(String id) {
         this.id = id;
     }
@@ -0,0 +1,173 @@
+package br.tec.facilitaservicos.auditoria.dominio.entidade;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * ============================================================================
+ * 🧹 ENTIDADE PEDIDO DE EXCLUSÃO DE DADOS DO TITULAR (LGPD)
+ * ============================================================================
+ *
+ * Um pedido de anonimização dos eventos de um titular (usuário e/ou CPF
+ * citado nos metadados), executado em lotes. O cursor (data_evento, id) e
+ * eventos_anonimizados são o último lote confirmado; eventos_estimados é a
+ * contagem feita ao iniciar, para o percentual de progresso. prazo_legal é
+ * o limite para atender o titular.
+ *
+ * Status:
+ * - PENDENTE: aguardando vaga no executor
+ * - EM_ANDAMENTO: anonimizando (retomado do cursor se o pod reiniciar)
+ * - CONCLUIDO: todos os eventos do titular anonimizados
+ * - FALHOU: erro na anonimização (ver erro)
+ */
+@Table("exclusoes_titular")
+public class ExclusaoTitularR2dbc implements Persistable<String> {
+
+    public static final String STATUS_PENDENTE = "PENDENTE";
+    public static final String STATUS_EM_ANDAMENTO = "EM_ANDAMENTO";
+    public static final String STATUS_CONCLUIDO = "CONCLUIDO";
+    public static final String STATUS_FALHOU = "FALHOU";
+
+    @Id
+    private String id;
+
+    // ID é atribuído na aplicação; sem isso o save() tentaria UPDATE
+    @Transient
+    private boolean novo;
+
+    @Column("usuario_id")
+    private String usuarioId;
+
+    @Column("cpf")
+    private String cpf;
+
+    @Column("status")
+    private String status;
+
+    @Column("no_execucao")
+    private String noExecucao;
+
+    @Column("cursor_data")
+    private LocalDateTime cursorData;
+
+    @Column("cursor_id")
+    private String cursorId;
+
+    @Column("eventos_estimados")
+    private Long eventosEstimados;
+
+    @Column("eventos_anonimizados")
+    private long eventosAnonimizados;
+
+    @Column("prazo_legal")
+    private LocalDateTime prazoLegal;
+
+    @Column("erro")
+    private String erro;
+
+    @Column("solicitado_por")
+    private String solicitadoPor;
+
+    @Column("criado_em")
+    private LocalDateTime criadoEm;
+
+    @Column("atualizado_em")
+    private LocalDateTime atualizadoEm;
+
+    @Column("concluido_em")
+    private LocalDateTime concluidoEm;
+
+    public ExclusaoTitularR2dbc() {
+        this.status = STATUS_PENDENTE;
+    }
+
+    /**
+     * Cria pedido pendente (INSERT no próximo save)
+     */
+    public static ExclusaoTitularR2dbc pendente(String id, String usuarioId, String cpf, String noExecucao,
+                                                LocalDateTime prazoLegal, String solicitadoPor) {
+        ExclusaoTitularR2dbc exclusao = new ExclusaoTitularR2dbc();
+        exclusao.id = id;
+        exclusao.novo = true;
+        exclusao.usuarioId = usuarioId;
+        exclusao.cpf = cpf;
+        exclusao.noExecucao = noExecucao;
+        exclusao.prazoLegal = prazoLegal;
+        exclusao.solicitadoPor = solicitadoPor;
+        exclusao.criadoEm = LocalDateTime.now();
+        return exclusao;
+    }
+
+    // Getters
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isNew() {
+        return novo;
+    }
+
+    public String getUsuarioId() {
+        return usuarioId;
+    }
+
+    public String getCpf() {
+        return cpf;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getNoExecucao() {
+        return noExecucao;
+    }
+
+    public LocalDateTime getCursorData() {
+        return cursorData;
+    }
+
+    public String getCursorId() {
+        return cursorId;
+    }
+
+    public Long getEventosEstimados() {
+        return eventosEstimados;
+    }
+
+    public long getEventosAnonimizados() {
+        return eventosAnonimizados;
+    }
+
+    public LocalDateTime getPrazoLegal() {
+        return prazoLegal;
+    }
+
+    public String getErro() {
+        return erro;
+    }
+
+    public String getSolicitadoPor() {
+        return solicitadoPor;
+    }
+
+    public LocalDateTime getCriadoEm() {
+        return criadoEm;
+    }
+
+    public LocalDateTime getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
+    public LocalDateTime getConcluidoEm() {
+        return concluidoEm;
+    }
+}
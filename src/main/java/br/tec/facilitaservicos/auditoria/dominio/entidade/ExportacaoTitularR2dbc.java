@@ -0,0 +1,179 @@
+package br.tec.facilitaservicos.auditoria.dominio.entidade;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * ============================================================================
+ * 🔐 ENTIDADE JOB DE EXPORTAÇÃO DE DADOS DO TITULAR (LGPD)
+ * ============================================================================
+ *
+ * Um pedido de exportação dos eventos de um titular para um arquivo gzip no
+ * disco local do pod que executa o job (no_execucao). O cursor (data_evento,
+ * id), as linhas e os bytes gravados são o último ponto confirmado: tudo o
+ * que está no arquivo até bytes_gravados corresponde aos eventos até o cursor.
+ *
+ * Status:
+ * - PENDENTE: aguardando vaga no executor
+ * - EM_ANDAMENTO: gravando (retomado do cursor se o pod reiniciar)
+ * - CONCLUIDO: arquivo completo, hash_arquivo calculado
+ * - FALHOU: erro na exportação (ver erro)
+ */
+@Table("exportacoes_titular")
+public class ExportacaoTitularR2dbc implements Persistable<String> {
+
+    public static final String STATUS_PENDENTE = "PENDENTE";
+    public static final String STATUS_EM_ANDAMENTO = "EM_ANDAMENTO";
+    public static final String STATUS_CONCLUIDO = "CONCLUIDO";
+    public static final String STATUS_FALHOU = "FALHOU";
+
+    @Id
+    private String id;
+
+    // ID é atribuído na aplicação; sem isso o save() tentaria UPDATE
+    @Transient
+    private boolean novo;
+
+    @Column("usuario_id")
+    private String usuarioId;
+
+    @Column("cpf")
+    private String cpf;
+
+    @Column("status")
+    private String status;
+
+    @Column("no_execucao")
+    private String noExecucao;
+
+    @Column("arquivo")
+    private String arquivo;
+
+    @Column("cursor_data")
+    private LocalDateTime cursorData;
+
+    @Column("cursor_id")
+    private String cursorId;
+
+    @Column("linhas")
+    private long linhas;
+
+    @Column("bytes_gravados")
+    private long bytesGravados;
+
+    @Column("hash_arquivo")
+    private String hashArquivo;
+
+    @Column("erro")
+    private String erro;
+
+    @Column("solicitado_por")
+    private String solicitadoPor;
+
+    @Column("criado_em")
+    private LocalDateTime criadoEm;
+
+    @Column("atualizado_em")
+    private LocalDateTime atualizadoEm;
+
+    @Column("concluido_em")
+    private LocalDateTime concluidoEm;
+
+    public ExportacaoTitularR2dbc() {
+        this.status = STATUS_PENDENTE;
+    }
+
+    /**
+     * Cria job pendente (INSERT no próximo save)
+     */
+    public static ExportacaoTitularR2dbc pendente(String id, String usuarioId, String cpf, String noExecucao,
+                                                  String arquivo, String solicitadoPor) {
+        ExportacaoTitularR2dbc exportacao = new ExportacaoTitularR2dbc();
+        exportacao.id = id;
+        exportacao.novo = true;
+        exportacao.usuarioId = usuarioId;
+        exportacao.cpf = cpf;
+        exportacao.noExecucao = noExecucao;
+        exportacao.arquivo = arquivo;
+        exportacao.solicitadoPor = solicitadoPor;
+        exportacao.criadoEm = LocalDateTime.now();
+        return exportacao;
+    }
+
+    // Getters
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isNew() {
+        return novo;
+    }
+
+    public String getUsuarioId() {
+        return usuarioId;
+    }
+
+    public String getCpf() {
+        return cpf;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getNoExecucao() {
+        return noExecucao;
+    }
+
+    public String getArquivo() {
+        return arquivo;
+    }
+
+    public LocalDateTime getCursorData() {
+        return cursorData;
+    }
+
+    public String getCursorId() {
+        return cursorId;
+    }
+
+    public long getLinhas() {
+        return linhas;
+    }
+
+    public long getBytesGravados() {
+        return bytesGravados;
+    }
+
+    public String getHashArquivo() {
+        return hashArquivo;
+    }
+
+    public String getErro() {
+        return erro;
+    }
+
+    public String getSolicitadoPor() {
+        return solicitadoPor;
+    }
+
+    public LocalDateTime getCriadoEm() {
+        return criadoEm;
+    }
+
+    public LocalDateTime getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
+    public LocalDateTime getConcluidoEm() {
+        return concluidoEm;
+    }
+}
@@ -0,0 +1,147 @@
+package br.tec.facilitaservicos.auditoria.dominio.entidade;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * ============================================================================
+ * 📤 ENTIDADE OUTBOX DE EVENTOS DE AUDITORIA
+ * ============================================================================
+ *
+ * Linha do outbox transacional: gravada na mesma transação do evento e
+ * publicada no Redis Stream pelo relay. O id auto-incremento define a ordem
+ * de publicação.
+ *
+ * Status:
+ * - PENDENTE: aguardando publicação
+ * - PUBLICADO: entregue ao stream (removida após o período de retenção)
+ * - FALHA: payload inválido, não será publicado
+ */
+@Table("outbox_eventos_auditoria")
+public class OutboxEventoR2dbc {
+
+    public static final String STATUS_PENDENTE = "PENDENTE";
+    public static final String STATUS_PUBLICADO = "PUBLICADO";
+    public static final String STATUS_FALHA = "FALHA";
+
+    @Id
+    private Long id;
+
+    @Column("evento_id")
+    private String eventoId;
+
+    @Column("stream")
+    private String stream;
+
+    @Column("payload")
+    private String payload; // JSON do EventoAuditoriaDto
+
+    @Column("status")
+    private String status;
+
+    @Column("tentativas")
+    private Integer tentativas;
+
+    @Column("ultimo_erro")
+    private String ultimoErro;
+
+    @Column("criado_em")
+    private LocalDateTime criadoEm;
+
+    @Column("publicado_em")
+    private LocalDateTime publicadoEm;
+
+    public OutboxEventoR2dbc() {
+        this.status = STATUS_PENDENTE;
+        this.tentativas = 0;
+    }
+
+    /**
+     * Cria linha pendente para o stream informado
+     */
+    public static OutboxEventoR2dbc pendente(String eventoId, String stream, String payload) {
+        OutboxEventoR2dbc outbox = new OutboxEventoR2dbc();
+        outbox.eventoId = eventoId;
+        outbox.stream = stream;
+        outbox.payload = payload;
+        outbox.criadoEm = LocalDateTime.now();
+        return outbox;
+    }
+
+    // Getters e Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEventoId() {
+        return eventoId;
+    }
+
+    public void setEventoId(String eventoId) {
+        this.eventoId = eventoId;
+    }
+
+    public String getStream() {
+        return stream;
+    }
+
+    public void setStream(String stream) {
+        this.stream = stream;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getTentativas() {
+        return tentativas;
+    }
+
+    public void setTentativas(Integer tentativas) {
+        this.tentativas = tentativas;
+    }
+
+    public String getUltimoErro() {
+        return ultimoErro;
+    }
+
+    public void setUltimoErro(String ultimoErro) {
+        this.ultimoErro = ultimoErro;
+    }
+
+    public LocalDateTime getCriadoEm() {
+        return criadoEm;
+    }
+
+    public void setCriadoEm(LocalDateTime criadoEm) {
+        this.criadoEm = criadoEm;
+    }
+
+    public LocalDateTime getPublicadoEm() {
+        return publicadoEm;
+    }
+
+    public void setPublicadoEm(LocalDateTime publicadoEm) {
+        this.publicadoEm = publicadoEm;
+    }
+}
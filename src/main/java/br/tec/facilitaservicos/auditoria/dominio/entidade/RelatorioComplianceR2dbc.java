@@ -0,0 +1,173 @@
+package br.tec.facilitaservicos.auditoria.dominio.entidade;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * ============================================================================
+ * 📑 ENTIDADE JOB/RESULTADO DE RELATÓRIO DE COMPLIANCE
+ * ============================================================================
+ *
+ * Um job de geração e, depois de concluído, o relatório em JSON. A chave
+ * (SHA-256 de tipo + período) identifica relatórios idênticos; o hash do
+ * conteúdo endereça o resultado no cache e serve de ETag.
+ *
+ * Status:
+ * - PENDENTE: aguardando vaga no executor
+ * - EM_ANDAMENTO: em geração
+ * - CONCLUIDO: resultado disponível
+ * - FALHOU: erro na geração (ver erro)
+ */
+@Table("relatorios_compliance")
+public class RelatorioComplianceR2dbc implements Persistable<String> {
+
+    public static final String STATUS_PENDENTE = "PENDENTE";
+    public static final String STATUS_EM_ANDAMENTO = "EM_ANDAMENTO";
+    public static final String STATUS_CONCLUIDO = "CONCLUIDO";
+    public static final String STATUS_FALHOU = "FALHOU";
+
+    @Id
+    private String id;
+
+    // ID é atribuído na aplicação; sem isso o save() tentaria UPDATE
+    @Transient
+    private boolean novo;
+
+    @Column("chave")
+    private String chave;
+
+    @Column("tipo_relatorio")
+    private String tipoRelatorio;
+
+    @Column("periodo_inicio")
+    private LocalDateTime periodoInicio;
+
+    @Column("periodo_fim")
+    private LocalDateTime periodoFim;
+
+    @Column("status")
+    private String status;
+
+    @Column("resultado")
+    private String resultado; // JSON do RelatorioComplianceDto
+
+    @Column("hash_conteudo")
+    private String hashConteudo;
+
+    @Column("tamanho_bytes")
+    private Long tamanhoBytes;
+
+    @Column("erro")
+    private String erro;
+
+    @Column("solicitado_por")
+    private String solicitadoPor;
+
+    @Column("no_execucao")
+    private String noExecucao;
+
+    @Column("criado_em")
+    private LocalDateTime criadoEm;
+
+    @Column("iniciado_em")
+    private LocalDateTime iniciadoEm;
+
+    @Column("concluido_em")
+    private LocalDateTime concluidoEm;
+
+    public RelatorioComplianceR2dbc() {
+        this.status = STATUS_PENDENTE;
+    }
+
+    /**
+     * Cria job pendente (INSERT no próximo save)
+     */
+    public static RelatorioComplianceR2dbc pendente(String id, String chave, String tipoRelatorio,
+                                                    LocalDateTime periodoInicio, LocalDateTime periodoFim,
+                                                    String solicitadoPor, String noExecucao) {
+        RelatorioComplianceR2dbc relatorio = new RelatorioComplianceR2dbc();
+        relatorio.id = id;
+        relatorio.novo = true;
+        relatorio.chave = chave;
+        relatorio.tipoRelatorio = tipoRelatorio;
+        relatorio.periodoInicio = periodoInicio;
+        relatorio.periodoFim = periodoFim;
+        relatorio.solicitadoPor = solicitadoPor;
+        relatorio.noExecucao = noExecucao;
+        relatorio.criadoEm = LocalDateTime.now();
+        return relatorio;
+    }
+
+    // Getters e Setters
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isNew() {
+        return novo;
+    }
+
+    public String getChave() {
+        return chave;
+    }
+
+    public String getTipoRelatorio() {
+        return tipoRelatorio;
+    }
+
+    public LocalDateTime getPeriodoInicio() {
+        return periodoInicio;
+    }
+
+    public LocalDateTime getPeriodoFim() {
+        return periodoFim;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getResultado() {
+        return resultado;
+    }
+
+    public String getHashConteudo() {
+        return hashConteudo;
+    }
+
+    public Long getTamanhoBytes() {
+        return tamanhoBytes;
+    }
+
+    public String getErro() {
+        return erro;
+    }
+
+    public String getSolicitadoPor() {
+        return solicitadoPor;
+    }
+
+    public String getNoExecucao() {
+        return noExecucao;
+    }
+
+    public LocalDateTime getCriadoEm() {
+        return criadoEm;
+    }
+
+    public LocalDateTime getIniciadoEm() {
+        return iniciadoEm;
+    }
+
+    public LocalDateTime getConcluidoEm() {
+        return concluidoEm;
+    }
+}
@@ -0,0 +1,82 @@
+package br.tec.facilitaservicos.auditoria.dominio.enums;
+
+import java.util.Locale;
+
+/**
+ * ============================================================================
+ * ✅ FINALIDADES DE TRATAMENTO SUJEITAS A CONSENTIMENTO (LGPD)
+ * ============================================================================
+ *
+ * Cada finalidade ocupa um bit (ordinal) no índice de consentimentos em
+ * memória; novas finalidades entram sempre no fim da lista, até 64.
+ */
+public enum FinalidadeConsentimento {
+
+    /**
+     * Notificações transacionais e de conta
+     */
+    NOTIFICACOES("notificacoes", "Notificações da conta"),
+
+    /**
+     * Comunicações de marketing e ofertas
+     */
+    MARKETING("marketing", "Comunicações de marketing"),
+
+    /**
+     * Métricas de uso e analytics
+     */
+    ANALYTICS("analytics", "Métricas de uso"),
+
+    /**
+     * Personalização de conteúdo e recomendações
+     */
+    PERSONALIZACAO("personalizacao", "Personalização de conteúdo"),
+
+    /**
+     * Compartilhamento com parceiros
+     */
+    COMPARTILHAMENTO_TERCEIROS("compartilhamento_terceiros", "Compartilhamento com terceiros"),
+
+    /**
+     * Pesquisas de satisfação
+     */
+    PESQUISA("pesquisa", "Pesquisas de satisfação");
+
+    private final String codigo;
+    private final String descricao;
+
+    FinalidadeConsentimento(String codigo, String descricao) {
+        this.codigo = codigo;
+        this.descricao = descricao;
+    }
+
+    public String getCodigo() {
+        return codigo;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    /**
+     * Bit da finalidade no índice
+     */
+    public long bit() {
+        return 1L << ordinal();
+    }
+
+    /**
+     * Busca finalidade pelo nome ou código, sem diferenciar maiúsculas
+     */
+    public static FinalidadeConsentimento de(String valor) {
+        if (valor != null) {
+            String normalizado = valor.trim().toLowerCase(Locale.ROOT);
+            for (FinalidadeConsentimento finalidade : values()) {
+                if (finalidade.codigo.equals(normalizado)) {
+                    return finalidade;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Finalidade de consentimento não encontrada: " + valor);
+    }
+}
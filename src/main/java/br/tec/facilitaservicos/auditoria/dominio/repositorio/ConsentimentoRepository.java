@@ -0,0 +1,76 @@
+package br.tec.facilitaservicos.auditoria.dominio.repositorio;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import br.tec.facilitaservicos.auditoria.dominio.entidade.ConsentimentoLogR2dbc;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ============================================================================
+ * ✅ REPOSITÓRIO REATIVO DE CONSENTIMENTOS
+ * ============================================================================
+ *
+ * save() anexa ao log; o estado atual (tabela consentimentos) é atualizado
+ * na mesma transação por {@link #aplicarEstado}. As leituras do estado atual
+ * devolvem a entidade do log com o seq da última mudança de cada par.
+ */
+@Repository
+public interface ConsentimentoRepository extends ReactiveCrudRepository<ConsentimentoLogR2dbc, Long> {
+
+    /**
+     * Upsert do estado atual; só substitui se o seq for mais novo
+     */
+    @Modifying
+    @Query("""
+        INSERT INTO consentimentos (usuario_id, finalidade, concedido, seq_log, atualizado_em)
+        VALUES (:usuarioId, :finalidade, :concedido, :seq, :agora)
+        ON DUPLICATE KEY UPDATE
+            concedido = IF(VALUES(seq_log) > seq_log, VALUES(concedido), concedido),
+            atualizado_em = IF(VALUES(seq_log) > seq_log, VALUES(atualizado_em), atualizado_em),
+            seq_log = GREATEST(seq_log, VALUES(seq_log))
+        """)
+    Mono<Integer> aplicarEstado(@Param("usuarioId") String usuarioId, @Param("finalidade") String finalidade,
+                                @Param("concedido") boolean concedido, @Param("seq") long seq,
+                                @Param("agora") LocalDateTime agora);
+
+    /**
+     * Página do estado atual por keyset da PK (usuario_id, finalidade)
+     */
+    @Query("""
+        SELECT seq_log AS seq, usuario_id, finalidade, concedido, NULL AS origem, atualizado_em AS registrado_em
+        FROM consentimentos
+        WHERE usuario_id > :ultimoUsuario OR (usuario_id = :ultimoUsuario AND finalidade > :ultimaFinalidade)
+        ORDER BY usuario_id ASC, finalidade ASC
+        LIMIT :limite
+        """)
+    Flux<ConsentimentoLogR2dbc> findPaginaEstado(@Param("ultimoUsuario") String ultimoUsuario,
+                                                 @Param("ultimaFinalidade") String ultimaFinalidade,
+                                                 @Param("limite") int limite);
+
+    /**
+     * Mudanças do log depois do seq informado, em ordem
+     */
+    @Query("SELECT * FROM consentimentos_log WHERE seq > :seq ORDER BY seq ASC LIMIT :limite")
+    Flux<ConsentimentoLogR2dbc> findLogApos(@Param("seq") long seq, @Param("limite") int limite);
+
+    @Query("SELECT COALESCE(MAX(seq), 0) FROM consentimentos_log")
+    Mono<Long> findUltimoSeq();
+
+    /**
+     * Histórico de um usuário, mais recente primeiro
+     */
+    @Query("""
+        SELECT * FROM consentimentos_log
+        WHERE usuario_id = :usuarioId
+        ORDER BY seq DESC
+        LIMIT :limite
+        """)
+    Flux<ConsentimentoLogR2dbc> findHistorico(@Param("usuarioId") String usuarioId, @Param("limite") int limite);
+}
@@ -1,9 +1,11 @@
 package br.tec.facilitaservicos.auditoria.dominio.repositorio;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Map;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.data.repository.query.Param;
@@ -73,6 +75,40 @@ public interface EventoAuditoriaRepository extends ReactiveCrudRepository<Evento
      */
     Flux<EventoAuditoriaR2dbc> findBySeveridade(NivelSeveridade severidade, Pageable pageable);
 
+    /**
+     * Reserva a página por status em ordem de id (keyset; ultimoId = "" na
+     * primeira página), travando as linhas até o fim da transação; linhas
+     * travadas por outro processo são puladas
+     */
+    @Query("""
+        SELECT * FROM eventos_auditoria
+        WHERE status_evento = :status AND id > :ultimoId
+        ORDER BY id ASC
+        LIMIT :limite
+        FOR UPDATE SKIP LOCKED
+        """)
+    Flux<EventoAuditoriaR2dbc> reservarPaginaPorStatus(
+        @Param("status") String status,
+        @Param("ultimoId") String ultimoId,
+        @Param("limite") int limite
+    );
+
+    /**
+     * Transição de status em lote; só altera as linhas que ainda estão no
+     * status de origem (as demais foram tratadas por outro processo)
+     */
+    @Modifying
+    @Query("""
+        UPDATE eventos_auditoria
+        SET status_evento = :novoStatus
+        WHERE id IN (:ids) AND status_evento = :statusAtual
+        """)
+    Mono<Integer> transicionarStatusEmLote(
+        @Param("ids") Collection<String> ids,
+        @Param("statusAtual") String statusAtual,
+        @Param("novoStatus") String novoStatus
+    );
+
     // === CONSULTAS POR PERÍODO ===
 
     /**
@@ -89,6 +125,57 @@ public interface EventoAuditoriaRepository extends ReactiveCrudRepository<Evento
         Pageable pageable
     );
 
+    /**
+     * Página de replay por keyset (data_evento, id), em ordem cronológica.
+     * Retoma estritamente depois do cursor informado; para a primeira página
+     * use ultimaData = início do período e ultimoId = "". O índice de
+     * data_evento já carrega a PK no InnoDB, então a busca não faz filesort.
+     */
+    @Query("""
+        SELECT * FROM eventos_auditoria
+        WHERE (data_evento > :ultimaData OR (data_evento = :ultimaData AND id > :ultimoId))
+          AND data_evento <= :dataFim
+          AND (:usuarioId IS NULL OR usuario_id = :usuarioId)
+          AND (:tipoEvento IS NULL OR tipo_evento = :tipoEvento)
+        ORDER BY data_evento ASC, id ASC
+        LIMIT :limite
+        """)
+    Flux<EventoAuditoriaR2dbc> findPaginaReplay(
+        @Param("ultimaData") LocalDateTime ultimaData,
+        @Param("ultimoId") String ultimoId,
+        @Param("dataFim") LocalDateTime dataFim,
+        @Param("usuarioId") String usuarioId,
+        @Param("tipoEvento") String tipoEvento,
+        @Param("limite") int limite
+    );
+
+    /**
+     * Página do relatório de compliance por keyset (data_evento, id), só com
+     * as colunas que o relatório avalia; os JSONs de dados, metadados e
+     * assinatura não são lidos (as propriedades ficam nulas na entidade).
+     * Filtros opcionais por categoria e por dados pessoais.
+     */
+    @Query("""
+        SELECT id, tipo_evento, status_evento, severidade, usuario_id, ip_origem,
+               entidade_tipo, entidade_id, hash_evento, categoria_compliance,
+               dados_pessoais, retencao_ate, anonimizado, data_evento
+        FROM eventos_auditoria
+        WHERE (data_evento > :ultimaData OR (data_evento = :ultimaData AND id > :ultimoId))
+          AND data_evento <= :dataFim
+          AND (:categoria IS NULL OR categoria_compliance = :categoria)
+          AND (:somenteDadosPessoais = false OR dados_pessoais = true)
+        ORDER BY data_evento ASC, id ASC
+        LIMIT :limite
+        """)
+    Flux<EventoAuditoriaR2dbc> findPaginaCompliance(
+        @Param("ultimaData") LocalDateTime ultimaData,
+        @Param("ultimoId") String ultimoId,
+        @Param("dataFim") LocalDateTime dataFim,
+        @Param("categoria") String categoria,
+        @Param("somenteDadosPessoais") boolean somenteDadosPessoais,
+        @Param("limite") int limite
+    );
+
     /**
      * Busca eventos recentes (últimas N horas)
      */
@@ -131,12 +218,13 @@ public interface EventoAuditoriaRepository extends ReactiveCrudRepository<Evento
     // === CONSULTAS DE COMPLIANCE ===
 
     /**
-     * Busca eventos que contêm dados pessoais de um usuário (LGPD)
+     * Busca eventos que contêm dados pessoais de um usuário (LGPD).
+     * O CPF vem da coluna gerada cpf_titular (metadados.cpf), indexada.
      */
     @Query("""
         SELECT * FROM eventos_auditoria 
         WHERE dados_pessoais = true 
-        AND (usuario_id = :usuarioId OR JSON_CONTAINS(metadados, JSON_OBJECT('cpf', :cpf))) 
+        AND (usuario_id = :usuarioId OR cpf_titular = :cpf) 
         ORDER BY data_evento DESC
         """)
     Flux<EventoAuditoriaR2dbc> findDadosPessoaisUsuario(
@@ -144,6 +232,97 @@ public interface EventoAuditoriaRepository extends ReactiveCrudRepository<Evento
         @Param("cpf") String cpf
     );
 
+    /**
+     * Página dos eventos de um titular por keyset (data_evento, id), em ordem
+     * cronológica: os do usuário e os que citam o CPF em metadados. Cada
+     * ramo usa o próprio índice (usuario_id / cpf_titular, data_evento, id);
+     * um evento que case com os dois aparece duas vezes, em linhas
+     * consecutivas, e a deduplicação fica com quem lê.
+     */
+    @Query("""
+        SELECT * FROM (
+            (SELECT * FROM eventos_auditoria
+             WHERE usuario_id = :usuarioId
+               AND (data_evento > :ultimaData OR (data_evento = :ultimaData AND id > :ultimoId))
+             ORDER BY data_evento ASC, id ASC
+             LIMIT :limite)
+            UNION ALL
+            (SELECT * FROM eventos_auditoria
+             WHERE :cpf IS NOT NULL AND cpf_titular = :cpf
+               AND (data_evento > :ultimaData OR (data_evento = :ultimaData AND id > :ultimoId))
+             ORDER BY data_evento ASC, id ASC
+             LIMIT :limite)
+        ) titular
+        ORDER BY data_evento ASC, id ASC
+        LIMIT :limite
+        """)
+    Flux<EventoAuditoriaR2dbc> findPaginaTitular(
+        @Param("usuarioId") String usuarioId,
+        @Param("cpf") String cpf,
+        @Param("ultimaData") LocalDateTime ultimaData,
+        @Param("ultimoId") String ultimoId,
+        @Param("limite") int limite
+    );
+
+    /**
+     * Chaves (id, data_evento) da próxima página de eventos do titular com
+     * dados pessoais ainda não anonimizados, por keyset; mesma estrutura de
+     * {@link #findPaginaTitular}. Eventos sem dados pessoais (segurança,
+     * consentimento, a própria exclusão) ficam fora, como em
+     * {@link #findDadosPessoaisUsuario}
+     */
+    @Query("""
+        SELECT id, data_evento FROM (
+            (SELECT id, data_evento FROM eventos_auditoria
+             WHERE usuario_id = :usuarioId AND dados_pessoais = true AND anonimizado = false
+               AND (data_evento > :ultimaData OR (data_evento = :ultimaData AND id > :ultimoId))
+             ORDER BY data_evento ASC, id ASC
+             LIMIT :limite)
+            UNION
+            (SELECT id, data_evento FROM eventos_auditoria
+             WHERE :cpf IS NOT NULL AND cpf_titular = :cpf AND dados_pessoais = true AND anonimizado = false
+               AND (data_evento > :ultimaData OR (data_evento = :ultimaData AND id > :ultimoId))
+             ORDER BY data_evento ASC, id ASC
+             LIMIT :limite)
+        ) titular
+        ORDER BY data_evento ASC, id ASC
+        LIMIT :limite
+        """)
+    Flux<EventoAuditoriaR2dbc> findChavesTitularNaoAnonimizadas(
+        @Param("usuarioId") String usuarioId,
+        @Param("cpf") String cpf,
+        @Param("ultimaData") LocalDateTime ultimaData,
+        @Param("ultimoId") String ultimoId,
+        @Param("limite") int limite
+    );
+
+    /**
+     * Quantidade de eventos do titular com dados pessoais ainda não anonimizados
+     */
+    @Query("""
+        SELECT COUNT(*) FROM eventos_auditoria
+        WHERE (usuario_id = :usuarioId OR (:cpf IS NOT NULL AND cpf_titular = :cpf))
+          AND dados_pessoais = true
+          AND anonimizado = false
+        """)
+    Mono<Long> countTitularNaoAnonimizados(@Param("usuarioId") String usuarioId, @Param("cpf") String cpf);
+
+    /**
+     * Anonimiza um lote por id (mesmos campos de {@link EventoAuditoriaR2dbc#anonimizar()});
+     * só eventos com dados pessoais. O status só passa a ANONIMIZADO de onde a
+     * transição é permitida (PROCESSADO, ver {@link StatusEvento#podeTransicionarPara});
+     * nos demais os dados são mascarados e o status fica
+     */
+    @Modifying
+    @Query("""
+        UPDATE eventos_auditoria
+        SET anonimizado = true, usuario_nome = 'ANONIMIZADO', ip_origem = 'MASKED', user_agent = 'MASKED',
+            dados_antes = NULL, dados_depois = NULL, metadados = '{}',
+            status_evento = CASE WHEN status_evento = 'PROCESSADO' THEN 'ANONIMIZADO' ELSE status_evento END
+        WHERE id IN (:ids) AND dados_pessoais = true AND anonimizado = false
+        """)
+    Mono<Integer> anonimizarEmLote(@Param("ids") Collection<String> ids);
+
     /**
      * Busca eventos expirados para política de retenção
      */
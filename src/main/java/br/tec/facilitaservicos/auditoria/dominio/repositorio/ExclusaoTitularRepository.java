@@ -0,0 +1,119 @@
+package br.tec.facilitaservicos.auditoria.dominio.repositorio;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import br.tec.facilitaservicos.auditoria.dominio.entidade.ExclusaoTitularR2dbc;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ============================================================================
+ * 🧹 REPOSITÓRIO REATIVO DOS PEDIDOS DE EXCLUSÃO DO TITULAR
+ * ============================================================================
+ *
+ * Um pedido é executado pelo pod que o assumiu (no_execucao); outro pod só
+ * o assume se ele ficar parado além do limite de abandono. O avanço e a
+ * conclusão são condicionados ao pod dono, então quem perdeu o pedido para
+ * outro pod para no lote seguinte.
+ */
+@Repository
+public interface ExclusaoTitularRepository extends ReactiveCrudRepository<ExclusaoTitularR2dbc, String> {
+
+    /**
+     * Pedidos deste pod e pedidos abandonados por outros, por prazo legal
+     */
+    @Query("""
+        SELECT * FROM exclusoes_titular
+        WHERE status IN ('PENDENTE', 'EM_ANDAMENTO')
+          AND (no_execucao = :no OR COALESCE(atualizado_em, criado_em) < :limiteAbandono)
+        ORDER BY prazo_legal ASC
+        LIMIT :lote
+        """)
+    Flux<ExclusaoTitularR2dbc> findRetomaveis(@Param("no") String no,
+                                              @Param("limiteAbandono") LocalDateTime limiteAbandono,
+                                              @Param("lote") int lote);
+
+    /**
+     * Pedido ativo do mesmo titular, para não duplicar pedidos
+     */
+    @Query("""
+        SELECT * FROM exclusoes_titular
+        WHERE usuario_id = :usuarioId AND status IN ('PENDENTE', 'EM_ANDAMENTO')
+        ORDER BY criado_em DESC
+        LIMIT 1
+        """)
+    Mono<ExclusaoTitularR2dbc> findAtivoPorUsuario(@Param("usuarioId") String usuarioId);
+
+    /**
+     * Pedidos não encerrados de todos os pods (painel de privacidade)
+     */
+    @Query("SELECT COUNT(*) FROM exclusoes_titular WHERE status IN ('PENDENTE', 'EM_ANDAMENTO')")
+    Mono<Long> countAbertas();
+
+    /**
+     * Pedidos não encerrados com o prazo legal já vencido
+     */
+    @Query("""
+        SELECT COUNT(*) FROM exclusoes_titular
+        WHERE status IN ('PENDENTE', 'EM_ANDAMENTO') AND prazo_legal < :agora
+        """)
+    Mono<Long> countVencidas(@Param("agora") LocalDateTime agora);
+
+    /**
+     * Assume o pedido para este pod (se é dele ou se foi abandonado)
+     */
+    @Modifying
+    @Query("""
+        UPDATE exclusoes_titular
+        SET status = 'EM_ANDAMENTO', no_execucao = :no, atualizado_em = :agora
+        WHERE id = :id AND status IN ('PENDENTE', 'EM_ANDAMENTO')
+          AND (no_execucao = :no OR COALESCE(atualizado_em, criado_em) < :limiteAbandono)
+        """)
+    Mono<Integer> assumir(@Param("id") String id, @Param("no") String no, @Param("agora") LocalDateTime agora,
+                          @Param("limiteAbandono") LocalDateTime limiteAbandono);
+
+    @Modifying
+    @Query("""
+        UPDATE exclusoes_titular
+        SET eventos_estimados = :estimados
+        WHERE id = :id AND eventos_estimados IS NULL
+        """)
+    Mono<Integer> registrarEstimativa(@Param("id") String id, @Param("estimados") long estimados);
+
+    /**
+     * Ponto de retomada: lote até o cursor já anonimizado
+     */
+    @Modifying
+    @Query("""
+        UPDATE exclusoes_titular
+        SET cursor_data = :cursorData, cursor_id = :cursorId, eventos_anonimizados = :anonimizados,
+            atualizado_em = :agora
+        WHERE id = :id AND no_execucao = :no AND status = 'EM_ANDAMENTO'
+        """)
+    Mono<Integer> registrarAvanco(@Param("id") String id, @Param("no") String no,
+                                  @Param("cursorData") LocalDateTime cursorData, @Param("cursorId") String cursorId,
+                                  @Param("anonimizados") long anonimizados, @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query("""
+        UPDATE exclusoes_titular
+        SET status = 'CONCLUIDO', concluido_em = :agora, atualizado_em = :agora
+        WHERE id = :id AND no_execucao = :no AND status = 'EM_ANDAMENTO'
+        """)
+    Mono<Integer> marcarConcluido(@Param("id") String id, @Param("no") String no, @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query("""
+        UPDATE exclusoes_titular
+        SET status = 'FALHOU', erro = :erro, concluido_em = :agora, atualizado_em = :agora
+        WHERE id = :id AND no_execucao = :no AND status IN ('PENDENTE', 'EM_ANDAMENTO')
+        """)
+    Mono<Integer> marcarFalha(@Param("id") String id, @Param("no") String no, @Param("erro") String erro,
+                              @Param("agora") LocalDateTime agora);
+}
@@ -0,0 +1,131 @@
+package br.tec.facilitaservicos.auditoria.dominio.repositorio;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import br.tec.facilitaservicos.auditoria.dominio.entidade.ExportacaoTitularR2dbc;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ============================================================================
+ * 🔐 REPOSITÓRIO REATIVO DOS JOBS DE EXPORTAÇÃO DO TITULAR
+ * ============================================================================
+ *
+ * O avanço é gravado depois de cada bloco confirmado em disco; as
+ * transições são UPDATEs condicionados ao status atual.
+ *
+ * Um job é executado pelo pod que o assumiu (no_execucao); outro pod o
+ * assume se ele ficar parado além do limite de abandono, recomeçando do
+ * zero porque o arquivo parcial está no disco do dono anterior. O avanço e
+ * a conclusão são condicionados ao pod dono.
+ */
+@Repository
+public interface ExportacaoTitularRepository extends ReactiveCrudRepository<ExportacaoTitularR2dbc, String> {
+
+    /**
+     * Jobs deste pod e jobs abandonados por outros, por ordem de chegada
+     */
+    @Query("""
+        SELECT * FROM exportacoes_titular
+        WHERE status IN ('PENDENTE', 'EM_ANDAMENTO')
+          AND (no_execucao = :no OR COALESCE(atualizado_em, criado_em) < :limiteAbandono)
+        ORDER BY criado_em ASC
+        LIMIT :lote
+        """)
+    Flux<ExportacaoTitularR2dbc> findRetomaveis(@Param("no") String no,
+                                                @Param("limiteAbandono") LocalDateTime limiteAbandono,
+                                                @Param("lote") int lote);
+
+    /**
+     * Job ativo do mesmo titular, para não duplicar pedidos
+     */
+    @Query("""
+        SELECT * FROM exportacoes_titular
+        WHERE usuario_id = :usuarioId AND status IN ('PENDENTE', 'EM_ANDAMENTO')
+        ORDER BY criado_em DESC
+        LIMIT 1
+        """)
+    Mono<ExportacaoTitularR2dbc> findAtivoPorUsuario(@Param("usuarioId") String usuarioId);
+
+    /**
+     * Jobs não encerrados de todos os pods (painel de privacidade)
+     */
+    @Query("SELECT COUNT(*) FROM exportacoes_titular WHERE status IN ('PENDENTE', 'EM_ANDAMENTO')")
+    Mono<Long> countAbertas();
+
+    /**
+     * Assume o job para este pod (se é dele ou se foi abandonado). Vindo de
+     * outro pod, cursor e offset voltam ao início e o arquivo passa a
+     * {@code arquivo} (sem disputar o do dono anterior num volume
+     * compartilhado). no_execucao é atribuído por último porque o MySQL
+     * avalia o SET da esquerda para a direita
+     */
+    @Modifying
+    @Query("""
+        UPDATE exportacoes_titular
+        SET status = 'EM_ANDAMENTO', atualizado_em = :agora,
+            cursor_data = IF(no_execucao = :no, cursor_data, NULL),
+            cursor_id = IF(no_execucao = :no, cursor_id, NULL),
+            linhas = IF(no_execucao = :no, linhas, 0),
+            bytes_gravados = IF(no_execucao = :no, bytes_gravados, 0),
+            arquivo = IF(no_execucao = :no, arquivo, :arquivo),
+            no_execucao = :no
+        WHERE id = :id AND status IN ('PENDENTE', 'EM_ANDAMENTO')
+          AND (no_execucao = :no OR COALESCE(atualizado_em, criado_em) < :limiteAbandono)
+        """)
+    Mono<Integer> assumir(@Param("id") String id, @Param("no") String no, @Param("arquivo") String arquivo,
+                          @Param("agora") LocalDateTime agora, @Param("limiteAbandono") LocalDateTime limiteAbandono);
+
+    /**
+     * Ponto de retomada: bloco até o cursor gravado e sincronizado em disco
+     */
+    @Modifying
+    @Query("""
+        UPDATE exportacoes_titular
+        SET cursor_data = :cursorData, cursor_id = :cursorId, linhas = :linhas,
+            bytes_gravados = :bytes, atualizado_em = :agora
+        WHERE id = :id AND no_execucao = :no AND status = 'EM_ANDAMENTO'
+        """)
+    Mono<Integer> registrarAvanco(@Param("id") String id, @Param("no") String no, @Param("cursorData") LocalDateTime cursorData,
+                                  @Param("cursorId") String cursorId, @Param("linhas") long linhas,
+                                  @Param("bytes") long bytes, @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query("""
+        UPDATE exportacoes_titular
+        SET status = 'CONCLUIDO', hash_arquivo = :hash, bytes_gravados = :bytes, concluido_em = :agora
+        WHERE id = :id AND no_execucao = :no AND status = 'EM_ANDAMENTO'
+        """)
+    Mono<Integer> marcarConcluido(@Param("id") String id, @Param("no") String no, @Param("hash") String hash,
+                                  @Param("bytes") long bytes, @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query("""
+        UPDATE exportacoes_titular
+        SET status = 'FALHOU', erro = :erro, concluido_em = :agora
+        WHERE id = :id AND no_execucao = :no AND status IN ('PENDENTE', 'EM_ANDAMENTO')
+        """)
+    Mono<Integer> marcarFalha(@Param("id") String id, @Param("no") String no, @Param("erro") String erro,
+                              @Param("agora") LocalDateTime agora);
+
+    /**
+     * Jobs encerrados antes do limite (os arquivos são removidos junto); os
+     * de outros pods só depois de {@code limiteOutrosNos}, dando ao dono a
+     * chance de apagar o arquivo do seu disco
+     */
+    @Query("""
+        SELECT * FROM exportacoes_titular
+        WHERE status IN ('CONCLUIDO', 'FALHOU')
+          AND ((no_execucao = :no AND criado_em < :limite) OR criado_em < :limiteOutrosNos)
+        LIMIT :lote
+        """)
+    Flux<ExportacaoTitularR2dbc> findExpirados(@Param("no") String no, @Param("limite") LocalDateTime limite,
+                                               @Param("limiteOutrosNos") LocalDateTime limiteOutrosNos,
+                                               @Param("lote") int lote);
+}
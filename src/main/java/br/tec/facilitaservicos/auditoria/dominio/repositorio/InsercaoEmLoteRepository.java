@@ -0,0 +1,121 @@
+package br.tec.facilitaservicos.auditoria.dominio.repositorio;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.core.ReactiveDataAccessStrategy;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ============================================================================
+ * 📦 INSERÇÃO EM LOTE (INSERT MULTI-LINHA)
+ * ============================================================================
+ *
+ * Grava várias entidades novas com um único {@code INSERT ... VALUES (...), (...)}
+ * em vez de um round-trip por linha como o {@code save} dos repositórios.
+ * As linhas saem do mesmo conversor do R2DBC (nomes de coluna e tipos
+ * iguais aos do {@code save}); coluna sem valor numa linha vai como
+ * {@code DEFAULT}, como o {@code save} faria ao omiti-la.
+ *
+ * Participa da transação reativa corrente. Lotes que passariam do limite de
+ * parâmetros do MySQL são divididos em várias instruções, na ordem da lista.
+ * Com {@link #inserir(List, String)} a instrução leva um
+ * {@code ON DUPLICATE KEY UPDATE}, para reativar linhas que já existem.
+ */
+@Repository
+public class InsercaoEmLoteRepository {
+
+    // Abaixo do limite de 65.535 parâmetros por instrução preparada do MySQL
+    private static final int MAXIMO_PARAMETROS = 60_000;
+
+    private final DatabaseClient databaseClient;
+    private final ReactiveDataAccessStrategy dataAccessStrategy;
+
+    public InsercaoEmLoteRepository(R2dbcEntityTemplate template) {
+        this.databaseClient = template.getDatabaseClient();
+        this.dataAccessStrategy = template.getDataAccessStrategy();
+    }
+
+    /**
+     * Insere as entidades (todas da mesma classe) na ordem da lista
+     *
+     * @return quantidade de linhas inseridas
+     */
+    public Mono<Long> inserir(List<?> entidades) {
+        return inserir(entidades, null);
+    }
+
+    /**
+     * Insere as entidades aplicando {@code aoDuplicar} (corpo do
+     * {@code ON DUPLICATE KEY UPDATE}) às que colidirem com uma chave única
+     *
+     * @return linhas afetadas como o MySQL as conta (1 inserida, 2 atualizada)
+     */
+    public Mono<Long> inserir(List<?> entidades, String aoDuplicar) {
+        if (entidades.isEmpty()) {
+            return Mono.just(0L);
+        }
+        String tabela = dataAccessStrategy.getTableName(entidades.getFirst().getClass()).getReference();
+        List<OutboundRow> linhas = entidades.stream()
+            .map(dataAccessStrategy::getOutboundRow)
+            .toList();
+        List<SqlIdentifier> colunas = linhas.stream()
+            .flatMap(linha -> linha.entrySet().stream())
+            .filter(coluna -> coluna.getValue().hasValue())
+            .map(Map.Entry::getKey)
+            .distinct()
+            .toList();
+
+        int porInstrucao = Math.max(1, MAXIMO_PARAMETROS / colunas.size());
+        return Flux.range(0, (linhas.size() + porInstrucao - 1) / porInstrucao)
+            .concatMap(parte -> executar(tabela, colunas,
+                linhas.subList(parte * porInstrucao, Math.min(linhas.size(), (parte + 1) * porInstrucao)), aoDuplicar))
+            .reduce(0L, Long::sum);
+    }
+
+    private Mono<Long> executar(String tabela, List<SqlIdentifier> colunas, List<OutboundRow> linhas,
+                                String aoDuplicar) {
+        StringBuilder sql = new StringBuilder(64 + linhas.size() * colunas.size() * 8)
+            .append("INSERT INTO ").append(tabela).append(" (")
+            .append(colunas.stream().map(SqlIdentifier::getReference).collect(Collectors.joining(", ")))
+            .append(") VALUES ");
+        Map<String, Parameter> parametros = new LinkedHashMap<>();
+
+        for (int i = 0; i < linhas.size(); i++) {
+            sql.append(i == 0 ? "(" : ", (");
+            for (int j = 0; j < colunas.size(); j++) {
+                if (j > 0) {
+                    sql.append(", ");
+                }
+                Parameter valor = linhas.get(i).get(colunas.get(j));
+                if (valor == null || !valor.hasValue()) {
+                    sql.append("DEFAULT");
+                    continue;
+                }
+                String nome = "p" + i + "_" + j;
+                sql.append(':').append(nome);
+                parametros.put(nome, valor);
+            }
+            sql.append(')');
+        }
+        if (aoDuplicar != null) {
+            sql.append(" ON DUPLICATE KEY UPDATE ").append(aoDuplicar);
+        }
+
+        DatabaseClient.GenericExecuteSpec instrucao = databaseClient.sql(sql.toString());
+        for (Map.Entry<String, Parameter> parametro : parametros.entrySet()) {
+            instrucao = instrucao.bind(parametro.getKey(), parametro.getValue());
+        }
+        return instrucao.fetch().rowsUpdated();
+    }
+}
@@ -0,0 +1,100 @@
+package br.tec.facilitaservicos.auditoria.dominio.repositorio;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import br.tec.facilitaservicos.auditoria.dominio.entidade.OutboxEventoR2dbc;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ============================================================================
+ * 📤 REPOSITÓRIO REATIVO DO OUTBOX DE EVENTOS
+ * ============================================================================
+ *
+ * Consultas usadas pelo relay do outbox. A reserva usa
+ * FOR UPDATE SKIP LOCKED para que várias instâncias dividam as linhas
+ * pendentes sem publicar a mesma linha duas vezes.
+ */
+@Repository
+public interface OutboxEventoRepository extends ReactiveCrudRepository<OutboxEventoR2dbc, Long> {
+
+    /**
+     * Reserva o próximo lote pendente em ordem de inserção (exige transação)
+     */
+    @Query("""
+        SELECT * FROM outbox_eventos_auditoria
+        WHERE status = 'PENDENTE'
+        ORDER BY id
+        LIMIT :limite
+        FOR UPDATE SKIP LOCKED
+        """)
+    Flux<OutboxEventoR2dbc> reservarPendentes(@Param("limite") int limite);
+
+    /**
+     * Marca lote como publicado
+     */
+    @Modifying
+    @Query("""
+        UPDATE outbox_eventos_auditoria
+        SET status = 'PUBLICADO', publicado_em = :publicadoEm
+        WHERE id IN (:ids)
+        """)
+    Mono<Integer> marcarPublicados(@Param("ids") Collection<Long> ids, @Param("publicadoEm") LocalDateTime publicadoEm);
+
+    /**
+     * Registra falha de publicação mantendo a linha pendente
+     */
+    @Modifying
+    @Query("""
+        UPDATE outbox_eventos_auditoria
+        SET tentativas = tentativas + 1, ultimo_erro = :erro
+        WHERE id = :id
+        """)
+    Mono<Integer> registrarFalha(@Param("id") Long id, @Param("erro") String erro);
+
+    /**
+     * Marca linha com payload inválido como falha permanente
+     */
+    @Modifying
+    @Query("""
+        UPDATE outbox_eventos_auditoria
+        SET status = 'FALHA', tentativas = tentativas + 1, ultimo_erro = :erro
+        WHERE id = :id
+        """)
+    Mono<Integer> marcarFalhaPermanente(@Param("id") Long id, @Param("erro") String erro);
+
+    /**
+     * Total de linhas aguardando publicação
+     */
+    @Query("SELECT COUNT(*) FROM outbox_eventos_auditoria WHERE status = 'PENDENTE'")
+    Mono<Long> countPendentes();
+
+    /**
+     * Criação da linha pendente mais antiga (base do lag)
+     */
+    @Query("""
+        SELECT criado_em FROM outbox_eventos_auditoria
+        WHERE status = 'PENDENTE'
+        ORDER BY id
+        LIMIT 1
+        """)
+    Mono<LocalDateTime> findCriadoEmPendenteMaisAntigo();
+
+    /**
+     * Remove linhas já publicadas antes do limite, em lotes
+     */
+    @Modifying
+    @Query("""
+        DELETE FROM outbox_eventos_auditoria
+        WHERE status = 'PUBLICADO' AND publicado_em < :limite
+        LIMIT :lote
+        """)
+    Mono<Integer> removerPublicadosAntesDe(@Param("limite") LocalDateTime limite, @Param("lote") int lote);
+}
@@ -0,0 +1,123 @@
+package br.tec.facilitaservicos.auditoria.dominio.repositorio;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import br.tec.facilitaservicos.auditoria.dominio.entidade.RelatorioComplianceR2dbc;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ============================================================================
+ * 📑 REPOSITÓRIO REATIVO DOS JOBS DE RELATÓRIO DE COMPLIANCE
+ * ============================================================================
+ *
+ * As transições de status são UPDATEs condicionados ao status atual e ao
+ * pod dono (no_execucao); outro pod só assume um job parado além do limite
+ * de abandono. As consultas de status não leem a coluna do resultado.
+ */
+@Repository
+public interface RelatorioComplianceRepository extends ReactiveCrudRepository<RelatorioComplianceR2dbc, String> {
+
+    /**
+     * Relatório reaproveitável: mesma chave, concluído depois do fim do período
+     * (os dados do período já estavam fechados quando foi gerado)
+     */
+    @Query("""
+        SELECT id, chave, tipo_relatorio, periodo_inicio, periodo_fim, status, hash_conteudo,
+               tamanho_bytes, erro, solicitado_por, no_execucao, criado_em, iniciado_em, concluido_em
+        FROM relatorios_compliance
+        WHERE chave = :chave AND status = 'CONCLUIDO' AND concluido_em > periodo_fim
+        ORDER BY concluido_em DESC
+        LIMIT 1
+        """)
+    Mono<RelatorioComplianceR2dbc> findConcluidoPorChave(@Param("chave") String chave);
+
+    /**
+     * Job da mesma chave ainda ativo (único pelo índice de chave_ativa)
+     */
+    @Query("""
+        SELECT id, chave, tipo_relatorio, periodo_inicio, periodo_fim, status, hash_conteudo,
+               tamanho_bytes, erro, solicitado_por, no_execucao, criado_em, iniciado_em, concluido_em
+        FROM relatorios_compliance
+        WHERE chave_ativa = :chave
+        """)
+    Mono<RelatorioComplianceR2dbc> findAtivoPorChave(@Param("chave") String chave);
+
+    /**
+     * Jobs deste pod e jobs abandonados por outros, na ordem de criação
+     */
+    @Query("""
+        SELECT id, chave, tipo_relatorio, periodo_inicio, periodo_fim, status, hash_conteudo,
+               tamanho_bytes, erro, solicitado_por, no_execucao, criado_em, iniciado_em, concluido_em
+        FROM relatorios_compliance
+        WHERE status IN ('PENDENTE', 'EM_ANDAMENTO')
+          AND (no_execucao = :no OR COALESCE(iniciado_em, criado_em) < :limiteAbandono)
+        ORDER BY criado_em ASC
+        LIMIT :lote
+        """)
+    Flux<RelatorioComplianceR2dbc> findRetomaveis(@Param("no") String no,
+                                                  @Param("limiteAbandono") LocalDateTime limiteAbandono,
+                                                  @Param("lote") int lote);
+
+    /**
+     * Status do job, sem o resultado
+     */
+    @Query("""
+        SELECT id, chave, tipo_relatorio, periodo_inicio, periodo_fim, status, hash_conteudo,
+               tamanho_bytes, erro, solicitado_por, no_execucao, criado_em, iniciado_em, concluido_em
+        FROM relatorios_compliance
+        WHERE id = :id
+        """)
+    Mono<RelatorioComplianceR2dbc> findStatus(@Param("id") String id);
+
+    /**
+     * Resultado pelo hash do conteúdo
+     */
+    @Query("SELECT resultado FROM relatorios_compliance WHERE hash_conteudo = :hash AND status = 'CONCLUIDO' LIMIT 1")
+    Mono<String> findResultadoPorHash(@Param("hash") String hash);
+
+    @Modifying
+    @Query("""
+        UPDATE relatorios_compliance
+        SET status = 'EM_ANDAMENTO', no_execucao = :no, iniciado_em = :agora
+        WHERE id = :id
+          AND (status = 'PENDENTE'
+               OR (status = 'EM_ANDAMENTO' AND (no_execucao = :no OR iniciado_em < :limiteAbandono)))
+        """)
+    Mono<Integer> marcarEmAndamento(@Param("id") String id, @Param("no") String no,
+                                    @Param("agora") LocalDateTime agora,
+                                    @Param("limiteAbandono") LocalDateTime limiteAbandono);
+
+    @Modifying
+    @Query("""
+        UPDATE relatorios_compliance
+        SET status = 'CONCLUIDO', resultado = :resultado, hash_conteudo = :hash,
+            tamanho_bytes = :tamanho, concluido_em = :agora
+        WHERE id = :id AND status = 'EM_ANDAMENTO' AND no_execucao = :no
+        """)
+    Mono<Integer> marcarConcluido(@Param("id") String id, @Param("no") String no, @Param("resultado") String resultado,
+                                  @Param("hash") String hash, @Param("tamanho") long tamanho,
+                                  @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query("""
+        UPDATE relatorios_compliance
+        SET status = 'FALHOU', erro = :erro, concluido_em = :agora
+        WHERE id = :id AND status IN ('PENDENTE', 'EM_ANDAMENTO') AND no_execucao = :no
+        """)
+    Mono<Integer> marcarFalha(@Param("id") String id, @Param("no") String no, @Param("erro") String erro,
+                              @Param("agora") LocalDateTime agora);
+
+    /**
+     * Remove jobs antigos em lotes
+     */
+    @Modifying
+    @Query("DELETE FROM relatorios_compliance WHERE criado_em < :limite LIMIT :lote")
+    Mono<Integer> removerCriadosAntesDe(@Param("limite") LocalDateTime limite, @Param("lote") int lote);
+}
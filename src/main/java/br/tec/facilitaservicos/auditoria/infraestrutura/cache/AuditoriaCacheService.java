@@ -6,8 +6,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
-import org.springframework.data.redis.core.ReactiveRedisTemplate;
-import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.stereotype.Service;
 
 import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
@@ -52,14 +50,11 @@ public class AuditoriaCacheService {
     private static final Duration TTL_TIMELINE = Duration.ofMinutes(10);
     private static final Duration TTL_ESTATISTICAS = Duration.ofMinutes(5);
     
-    private final ReactiveRedisTemplate<String, Object> redisTemplate;
-    private final ReactiveStringRedisTemplate stringRedisTemplate;
+    private final ReactiveRedisTemplateInstrumentado redisTemplate;
     private final Map<String, Long> cacheStats = new ConcurrentHashMap<>();
     
-    public AuditoriaCacheService(ReactiveRedisTemplate<String, Object> redisTemplate,
-                                ReactiveStringRedisTemplate stringRedisTemplate) {
+    public AuditoriaCacheService(ReactiveRedisTemplateInstrumentado redisTemplate) {
         this.redisTemplate = redisTemplate;
-        this.stringRedisTemplate = stringRedisTemplate;
         
         // Inicializar estatísticas
         cacheStats.put("hits", 0L);
@@ -73,9 +68,7 @@ public class AuditoriaCacheService {
     public Mono<EventoAuditoriaDto> buscarEventoCache(String eventoId) {
         String cacheKey = PREFIX_EVENTO + eventoId;
         
-        return redisTemplate.opsForValue()
-            .get(cacheKey)
-            .cast(EventoAuditoriaDto.class)
+        return redisTemplate.get(cacheKey, EventoAuditoriaDto.class)
             .doOnNext(evento -> incrementarStat("hits"))
             .switchIfEmpty(Mono.fromRunnable(() -> incrementarStat("misses")));
     }
@@ -86,9 +79,7 @@ public class AuditoriaCacheService {
     public Flux<EventoAuditoriaDto> buscarTimelineCache(String cacheKey) {
         String timelineKey = PREFIX_TIMELINE + cacheKey;
         
-        return redisTemplate.opsForList()
-            .range(timelineKey, 0, -1)
-            .cast(EventoAuditoriaDto.class)
+        return redisTemplate.range(timelineKey, EventoAuditoriaDto.class)
             .doOnComplete(() -> incrementarStat("hits"))
             .switchIfEmpty(Flux.<EventoAuditoriaDto>empty()
                 .doOnComplete(() -> incrementarStat("misses")));
@@ -104,9 +95,7 @@ public class AuditoriaCacheService {
             return Mono.empty();
         }
         
-        return redisTemplate.opsForList()
-            .rightPushAll(timelineKey, eventos.toArray())
-            .then(redisTemplate.expire(timelineKey, TTL_TIMELINE))
+        return redisTemplate.rightPushAll(timelineKey, TTL_TIMELINE, eventos.toArray())
             .then();
     }
     
@@ -121,8 +110,7 @@ public class AuditoriaCacheService {
             ? TTL_EVENTO_RECENTE 
             : TTL_EVENTO_ANTIGO;
             
-        return redisTemplate.opsForValue()
-            .set(cacheKey, evento, ttl)
+        return redisTemplate.set(cacheKey, evento, ttl)
             .then();
     }
     
@@ -130,11 +118,8 @@ public class AuditoriaCacheService {
      * Invalidar todos os caches relacionados a um usuário
      */
     public Mono<Void> invalidarCachesUsuario(String userId) {
-        return stringRedisTemplate.keys(PREFIX_USER_EVENTS + userId + "*")
-            .flatMap(stringRedisTemplate::delete)
-            .then(stringRedisTemplate.keys(PREFIX_TIMELINE + "*:" + userId)
-                .flatMap(stringRedisTemplate::delete)
-                .then())
+        return redisTemplate.deletarPorPadrao(PREFIX_USER_EVENTS + userId + "*")
+            .then(redisTemplate.deletarPorPadrao(PREFIX_TIMELINE + "*:" + userId))
             .then(Mono.fromRunnable(() -> incrementarStat("evictions")))
             .then();
     }
@@ -145,15 +130,12 @@ public class AuditoriaCacheService {
     public Mono<Map<String, Object>> obterEstatisticasCache() {
         String statsKey = PREFIX_STATS + "performance";
         
-        return redisTemplate.opsForValue()
-            .get(statsKey)
-            .cast(Map.class)
+        return redisTemplate.get(statsKey, Map.class)
             .map(map -> (Map<String, Object>) map)
             .switchIfEmpty(
                 gerarEstatisticasCache()
                     .doOnNext(stats -> 
-                        redisTemplate.opsForValue()
-                            .set(statsKey, stats, TTL_ESTATISTICAS)
+                        redisTemplate.set(statsKey, stats, TTL_ESTATISTICAS)
                             .subscribe()
                     )
             );
@@ -163,8 +145,7 @@ public class AuditoriaCacheService {
      * Limpar todo o cache de auditoria
      */
     public Mono<Void> limparTodoCache() {
-        return stringRedisTemplate.keys("audit:*")
-            .flatMap(stringRedisTemplate::delete)
+        return redisTemplate.deletarPorPadrao("audit:*")
             .then(Mono.fromRunnable(() -> {
                 cacheStats.put("hits", 0L);
                 cacheStats.put("misses", 0L);
@@ -0,0 +1,143 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ============================================================================
+ * ⚡ CACHE MANAGER REATIVO - AUDITORIA & COMPLIANCE
+ * ============================================================================
+ *
+ * Substitui o RedisCacheManager bloqueante por caching baseado em operadores
+ * para {@link Mono}/{@link Flux}, usando apenas a conexão reativa do Lettuce:
+ * - TTL por cache (definidos em CacheConfig)
+ * - Deduplicação de cargas concorrentes da mesma chave
+ * - Falhas do Redis não quebram o fluxo (cai direto na origem)
+ * - Resultados vazios não são cacheados
+ *
+ * Uso:
+ * <pre>
+ * cacheManager.cacheMono(CacheConfig.RELATORIOS_CACHE, chave, tipo,
+ *     () -> repository.consultaCara(...));
+ * </pre>
+ */
+public class ReactiveCacheManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveCacheManager.class);
+
+    private final ReactiveRedisTemplateInstrumentado redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final String prefixo;
+    private final Duration ttlPadrao;
+    private final Map<String, Duration> ttlPorCache;
+    private final Map<String, Mono<Object>> cargasEmAndamento = new ConcurrentHashMap<>();
+
+    public ReactiveCacheManager(ReactiveRedisTemplateInstrumentado redisTemplate,
+                                ObjectMapper objectMapper,
+                                String prefixo,
+                                Duration ttlPadrao,
+                                Map<String, Duration> ttlPorCache) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.prefixo = prefixo;
+        this.ttlPadrao = ttlPadrao;
+        this.ttlPorCache = Map.copyOf(ttlPorCache);
+    }
+
+    /**
+     * Cache-aside para Mono com tipo simples
+     */
+    public <T> Mono<T> cacheMono(String cache, String chave, Class<T> tipo, Supplier<Mono<T>> origem) {
+        return cacheMono(cache, chave, objectMapper.constructType(tipo), origem);
+    }
+
+    /**
+     * Cache-aside para Mono com tipo genérico (ex.: Map&lt;String, Object&gt;)
+     */
+    public <T> Mono<T> cacheMono(String cache, String chave, TypeReference<T> tipo, Supplier<Mono<T>> origem) {
+        return cacheMono(cache, chave, objectMapper.constructType(tipo), origem);
+    }
+
+    /**
+     * Cache-aside para Flux: a sequência é armazenada como uma lista única
+     */
+    public <T> Flux<T> cacheFlux(String cache, String chave, Class<T> tipoElemento, Supplier<Flux<T>> origem) {
+        JavaType tipoLista = objectMapper.getTypeFactory().constructCollectionType(List.class, tipoElemento);
+        Mono<List<T>> lista = cacheMono(cache, chave, tipoLista, () -> origem.get().collectList()
+            .filter(elementos -> !elementos.isEmpty()));
+        return lista.flatMapIterable(elementos -> elementos);
+    }
+
+    /**
+     * Remove uma entrada do cache
+     */
+    public Mono<Long> evict(String cache, String chave) {
+        return redisTemplate.deletar(chaveRedis(cache, chave));
+    }
+
+    /**
+     * Remove todas as entradas de um cache
+     */
+    public Mono<Long> limpar(String cache) {
+        return redisTemplate.deletarPorPadrao(prefixo + cache + ":*");
+    }
+
+    /**
+     * TTL configurado para o cache
+     */
+    public Duration ttl(String cache) {
+        return ttlPorCache.getOrDefault(cache, ttlPadrao);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Mono<T> cacheMono(String cache, String chave, JavaType tipo, Supplier<Mono<T>> origem) {
+        String chaveRedis = chaveRedis(cache, chave);
+
+        return Mono.defer(() -> cargasEmAndamento.computeIfAbsent(chaveRedis, _ -> {
+                AtomicReference<Mono<Object>> propria = new AtomicReference<>();
+                Mono<Object> carga = ler(chaveRedis, tipo)
+                    .switchIfEmpty(Mono.defer(() -> origem.get()
+                        .flatMap(valor -> gravar(chaveRedis, valor, ttl(cache)).thenReturn(valor))))
+                    .doFinally(_ -> cargasEmAndamento.remove(chaveRedis, propria.get()))
+                    .cache();
+                propria.set(carga);
+                return carga;
+            }))
+            .map(valor -> (T) valor);
+    }
+
+    private Mono<Object> ler(String chaveRedis, JavaType tipo) {
+        return redisTemplate.get(chaveRedis, Object.class)
+            .<Object>map(valor -> objectMapper.convertValue(valor, tipo))
+            .onErrorResume(error -> {
+                logger.warn("Falha ao ler cache {}, consultando origem: {}", chaveRedis, error.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    private Mono<Boolean> gravar(String chaveRedis, Object valor, Duration ttl) {
+        return redisTemplate.set(chaveRedis, valor, ttl)
+            .onErrorResume(error -> {
+                logger.warn("Falha ao gravar cache {}: {}", chaveRedis, error.getMessage());
+                return Mono.just(false);
+            });
+    }
+
+    private String chaveRedis(String cache, String chave) {
+        return prefixo + cache + ":" + chave;
+    }
+}
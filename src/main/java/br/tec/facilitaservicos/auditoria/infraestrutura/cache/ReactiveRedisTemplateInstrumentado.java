@@ -0,0 +1,120 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.cache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.tec.facilitaservicos.auditoria.configuracao.RedisCacheMetrics;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ============================================================================
+ * 📊 DECORATOR INSTRUMENTADO DO REACTIVE REDIS TEMPLATE
+ * ============================================================================
+ *
+ * Envolve o {@link ReactiveRedisTemplate} usado pelos caches de auditoria e
+ * registra em {@link RedisCacheMetrics}:
+ * - Latência por operação e família de chave
+ * - Hits/misses por família de chave
+ * - Evictions por família de chave
+ *
+ * Também converte valores lidos para o tipo esperado: o serializador JSON
+ * genérico devolve mapas, e um cast direto falharia.
+ */
+@Component
+public class ReactiveRedisTemplateInstrumentado {
+
+    private static final int LOTE_DELECAO = 500;
+
+    private final ReactiveRedisTemplate<String, Object> redisTemplate;
+    private final ReactiveStringRedisTemplate stringRedisTemplate;
+    private final RedisCacheMetrics metrics;
+    private final ObjectMapper objectMapper;
+
+    public ReactiveRedisTemplateInstrumentado(ReactiveRedisTemplate<String, Object> redisTemplate,
+                                             ReactiveStringRedisTemplate stringRedisTemplate,
+                                             RedisCacheMetrics metrics,
+                                             ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.metrics = metrics;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * GET com registro de hit/miss
+     */
+    public <T> Mono<T> get(String chave, Class<T> tipo) {
+        return metrics.medir("get", chave, redisTemplate.opsForValue().get(chave))
+            .map(valor -> converter(valor, tipo))
+            .doOnNext(_ -> metrics.recordCacheHit(chave))
+            .switchIfEmpty(Mono.fromRunnable(() -> metrics.recordCacheMiss(chave)));
+    }
+
+    /**
+     * SET com TTL
+     */
+    public Mono<Boolean> set(String chave, Object valor, Duration ttl) {
+        return metrics.medir("set", chave, redisTemplate.opsForValue().set(chave, valor, ttl));
+    }
+
+    /**
+     * LRANGE completo com registro de hit/miss (lista vazia conta como miss)
+     */
+    public <T> Flux<T> range(String chave, Class<T> tipo) {
+        return Flux.defer(() -> {
+            AtomicBoolean encontrou = new AtomicBoolean(false);
+            return metrics.medirFlux("range", chave, redisTemplate.opsForList().range(chave, 0, -1))
+                .doOnNext(_ -> encontrou.set(true))
+                .doOnComplete(() -> {
+                    if (encontrou.get()) {
+                        metrics.recordCacheHit(chave);
+                    } else {
+                        metrics.recordCacheMiss(chave);
+                    }
+                })
+                .map(valor -> converter(valor, tipo));
+        });
+    }
+
+    /**
+     * RPUSH de vários valores seguido de EXPIRE
+     */
+    public Mono<Boolean> rightPushAll(String chave, Duration ttl, Object... valores) {
+        return metrics.medir("rpush", chave, redisTemplate.opsForList().rightPushAll(chave, valores))
+            .then(metrics.medir("expire", chave, redisTemplate.expire(chave, ttl)));
+    }
+
+    /**
+     * DEL de uma chave
+     */
+    public Mono<Long> deletar(String chave) {
+        return metrics.medir("del", chave, redisTemplate.delete(chave))
+            .doOnNext(removidas -> metrics.recordCacheEviction(chave, removidas));
+    }
+
+    /**
+     * Remove chaves por padrão usando SCAN em lotes (KEYS bloquearia o Redis)
+     */
+    public Mono<Long> deletarPorPadrao(String padrao) {
+        ScanOptions opcoes = ScanOptions.scanOptions().match(padrao).count(LOTE_DELECAO).build();
+
+        return stringRedisTemplate.scan(opcoes)
+            .buffer(LOTE_DELECAO)
+            .concatMap(chaves -> metrics.medir("del", chaves.get(0),
+                    stringRedisTemplate.delete(chaves.toArray(String[]::new)))
+                .doOnNext(removidas -> metrics.recordCacheEviction(chaves.get(0), removidas)))
+            .reduce(0L, Long::sum);
+    }
+
+    private <T> T converter(Object valor, Class<T> tipo) {
+        return tipo.isInstance(valor) ? tipo.cast(valor) : objectMapper.convertValue(valor, tipo);
+    }
+}
@@ -0,0 +1,361 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.carga;
+
+import java.net.ConnectException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import br.tec.facilitaservicos.auditoria.dominio.enums.NivelSeveridade;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import io.r2dbc.spi.R2dbcTransientResourceException;
+import jakarta.annotation.PostConstruct;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * ============================================================================
+ * 🚦 CONTROLE DE ADMISSÃO DA INGESTÃO
+ * ============================================================================
+ *
+ * Fica na frente da gravação de eventos (registrarEvento) e protege o banco:
+ * - Limite de concorrência adaptativo ({@link LimitadorConcorrenciaAdaptativo}),
+ *   ajustado pela latência de cada gravação; timeouts e falhas de conexão
+ *   contam como sobrecarga
+ * - Prioridade por severidade: cada nível só usa uma fração do limite
+ *   (DEBUG 50%, INFO 75%, WARN 90%, ERROR 95%, CRITICAL 100%), então os
+ *   menos severos param de entrar primeiro
+ * - Quem não entra vai para a espera da sua severidade (limitada em
+ *   tamanho e em tempo) e é admitido quando uma vaga abre, dos mais severos
+ *   para os menos. Espera cheia ou tempo esgotado: o evento é recusado com
+ *   {@link IngestaoSobrecarregadaException}
+ *
+ * DEBUG e INFO esperam no máximo {@code espera.maxima-ms}; os demais,
+ * {@code espera.maxima-prioritaria-ms}. Adiados e recusas são publicados por
+ * severidade.
+ */
+@Component
+public class ControleAdmissaoIngestao {
+
+    private static final NivelSeveridade[] POR_PRIORIDADE = {
+        NivelSeveridade.CRITICAL, NivelSeveridade.ERROR, NivelSeveridade.WARN,
+        NivelSeveridade.INFO, NivelSeveridade.DEBUG
+    };
+
+    private static final String MOTIVO_ESPERA_CHEIA = "espera_cheia";
+    private static final String MOTIVO_ESPERA_ESGOTADA = "espera_esgotada";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<NivelSeveridade, Espera> esperas = new EnumMap<>(NivelSeveridade.class);
+    private final Map<NivelSeveridade, Counter> adiados = new EnumMap<>(NivelSeveridade.class);
+    private final Map<NivelSeveridade, Counter> recusasEsperaCheia = new EnumMap<>(NivelSeveridade.class);
+    private final Map<NivelSeveridade, Counter> recusasEsperaEsgotada = new EnumMap<>(NivelSeveridade.class);
+    private final AtomicInteger drenando = new AtomicInteger();
+    private volatile LimitadorConcorrenciaAdaptativo limitador;
+
+    @Value("${auditoria.ingestao.admissao.habilitada:true}")
+    private boolean habilitada;
+
+    @Value("${auditoria.ingestao.admissao.limite-inicial:32}")
+    private int limiteInicial;
+
+    @Value("${auditoria.ingestao.admissao.limite-minimo:4}")
+    private int limiteMinimo;
+
+    @Value("${auditoria.ingestao.admissao.limite-maximo:256}")
+    private int limiteMaximo;
+
+    @Value("${auditoria.ingestao.admissao.fator-reducao:0.9}")
+    private double fatorReducao;
+
+    @Value("${auditoria.ingestao.admissao.latencia-limite-ms:100}")
+    private long latenciaLimiteMs;
+
+    @Value("${auditoria.ingestao.admissao.espera.capacidade:5000}")
+    private int capacidadeEspera;
+
+    @Value("${auditoria.ingestao.admissao.espera.maxima-ms:2000}")
+    private long esperaMaximaMs;
+
+    @Value("${auditoria.ingestao.admissao.espera.maxima-prioritaria-ms:10000}")
+    private long esperaMaximaPrioritariaMs;
+
+    public ControleAdmissaoIngestao(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (NivelSeveridade severidade : NivelSeveridade.values()) {
+            String nivel = severidade.getCodigo();
+            adiados.put(severidade, Counter.builder("audit.ingestao.admissao.adiados")
+                .description("Eventos que esperaram vaga no limite de concorrência")
+                .tag("severidade", nivel)
+                .register(meterRegistry));
+            recusasEsperaCheia.put(severidade, Counter.builder("audit.ingestao.admissao.recusas")
+                .description("Eventos recusados por sobrecarga da ingestão")
+                .tag("severidade", nivel)
+                .tag("motivo", MOTIVO_ESPERA_CHEIA)
+                .register(meterRegistry));
+            recusasEsperaEsgotada.put(severidade, Counter.builder("audit.ingestao.admissao.recusas")
+                .description("Eventos recusados por sobrecarga da ingestão")
+                .tag("severidade", nivel)
+                .tag("motivo", MOTIVO_ESPERA_ESGOTADA)
+                .register(meterRegistry));
+        }
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        limitador = new LimitadorConcorrenciaAdaptativo(limiteInicial, limiteMinimo, limiteMaximo,
+            fatorReducao, TimeUnit.MILLISECONDS.toNanos(latenciaLimiteMs));
+        for (NivelSeveridade severidade : NivelSeveridade.values()) {
+            Espera espera = new Espera(capacidadeEspera);
+            esperas.put(severidade, espera);
+            Gauge.builder("audit.ingestao.admissao.espera", espera.tamanho, AtomicInteger::doubleValue)
+                .description("Eventos aguardando vaga no limite de concorrência")
+                .tag("severidade", severidade.getCodigo())
+                .register(meterRegistry);
+        }
+        Gauge.builder("audit.ingestao.admissao.limite", limitador, LimitadorConcorrenciaAdaptativo::limite)
+            .description("Limite atual de gravações simultâneas")
+            .register(meterRegistry);
+        Gauge.builder("audit.ingestao.admissao.em.voo", limitador, LimitadorConcorrenciaAdaptativo::emVoo)
+            .description("Gravações de eventos em andamento")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Executa a gravação dentro do limite, esperando vaga se necessário
+     *
+     * @return erro {@link IngestaoSobrecarregadaException} se o evento for recusado
+     */
+    public <T> Mono<T> executar(NivelSeveridade severidade, Supplier<Mono<T>> gravacao) {
+        if (!habilitada) {
+            return Mono.defer(gravacao);
+        }
+        return Mono.defer(() -> limitador.tentarAdquirir(fracao(severidade))
+            ? medir(gravacao)
+            : aguardar(severidade, gravacao));
+    }
+
+    public int limite() {
+        return limitador.limite();
+    }
+
+    public int emVoo() {
+        return limitador.emVoo();
+    }
+
+    /**
+     * Fração do limite que cada severidade pode ocupar
+     */
+    static double fracao(NivelSeveridade severidade) {
+        return switch (severidade) {
+            case CRITICAL -> 1.0;
+            case ERROR -> 0.95;
+            case WARN -> 0.9;
+            case INFO -> 0.75;
+            case DEBUG -> 0.5;
+        };
+    }
+
+    // ========== EXECUÇÃO ==========
+
+    /**
+     * Executa com a vaga já adquirida, devolvendo-a com a latência medida
+     */
+    private <T> Mono<T> medir(Supplier<Mono<T>> gravacao) {
+        return Mono.defer(() -> {
+            long inicio = System.nanoTime();
+            Throwable[] erro = new Throwable[1];
+            return Mono.defer(gravacao)
+                .doOnError(e -> erro[0] = e)
+                .doFinally(sinal -> {
+                    if (sinal == SignalType.CANCEL || erro[0] instanceof IllegalArgumentException) {
+                        // Cancelada ou recusada antes do banco: não diz nada sobre a carga
+                        limitador.liberarSemAmostra();
+                    } else {
+                        limitador.liberar(System.nanoTime() - inicio, erro[0] != null && sobrecarga(erro[0]));
+                    }
+                    drenar();
+                });
+        });
+    }
+
+    private <T> Mono<T> aguardar(NivelSeveridade severidade, Supplier<Mono<T>> gravacao) {
+        Espera espera = esperas.get(severidade);
+        if (!espera.reservar()) {
+            recusasEsperaCheia.get(severidade).increment();
+            return Mono.error(new IngestaoSobrecarregadaException(severidade, "espera cheia"));
+        }
+        adiados.get(severidade).increment();
+        long esperaMs = severidade.isMaisSeveroQue(NivelSeveridade.INFO) ? esperaMaximaPrioritariaMs : esperaMaximaMs;
+
+        return Mono.<T>create(sink -> {
+            Pendente<T> pendente = new Pendente<>(gravacao, sink);
+            espera.fila.offer(pendente);
+            pendente.expiracao = Schedulers.parallel().schedule(() -> {
+                if (pendente.encerrar()) {
+                    espera.tamanho.decrementAndGet();
+                    recusasEsperaEsgotada.get(severidade).increment();
+                    sink.error(new IngestaoSobrecarregadaException(severidade, "espera esgotada"));
+                    drenar();
+                }
+            }, esperaMs, TimeUnit.MILLISECONDS);
+            sink.onCancel(() -> {
+                if (pendente.encerrar()) {
+                    espera.tamanho.decrementAndGet();
+                    pendente.expiracao.dispose();
+                } else {
+                    Disposable execucao = pendente.execucao;
+                    if (execucao != null) {
+                        execucao.dispose();
+                    }
+                }
+            });
+            // A vaga pode ter aberto entre a recusa e a entrada na espera
+            drenar();
+        });
+    }
+
+    /**
+     * Admite os que esperam enquanto houver vaga, dos mais severos para os
+     * menos; um único thread drena por vez, os demais só sinalizam
+     */
+    private void drenar() {
+        if (drenando.getAndIncrement() != 0) {
+            return;
+        }
+        int faltam = 1;
+        do {
+            for (Espera espera : esperas.values()) {
+                espera.descartarEncerrados();
+            }
+            admitirEnquantoHouverVaga();
+            faltam = drenando.addAndGet(-faltam);
+        } while (faltam != 0);
+    }
+
+    private void admitirEnquantoHouverVaga() {
+        for (NivelSeveridade severidade : POR_PRIORIDADE) {
+            Espera espera = esperas.get(severidade);
+            Pendente<?> pendente;
+            while ((pendente = espera.fila.peek()) != null) {
+                // As frações crescem com a severidade: se esta não cabe, as menores também não
+                if (!limitador.tentarAdquirir(fracao(severidade))) {
+                    return;
+                }
+                espera.fila.poll();
+                if (pendente.encerrar()) {
+                    espera.tamanho.decrementAndGet();
+                    pendente.iniciar();
+                } else {
+                    limitador.liberarSemAmostra();
+                }
+            }
+        }
+    }
+
+    /**
+     * Falha de esgotamento ou indisponibilidade do banco (timeout, pool,
+     * conexão recusada), em qualquer nível da cadeia de causas
+     */
+    public static boolean sobrecarga(Throwable erro) {
+        for (Throwable causa = erro; causa != null; causa = causa.getCause()) {
+            if (causa instanceof TimeoutException
+                    || causa instanceof R2dbcTimeoutException
+                    || causa instanceof R2dbcTransientResourceException
+                    || causa instanceof R2dbcNonTransientResourceException
+                    || causa instanceof TransientDataAccessException
+                    || causa instanceof DataAccessResourceFailureException
+                    || causa instanceof CannotCreateTransactionException
+                    || causa instanceof ConnectException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Espera de uma severidade; o tamanho conta só os que ainda aguardam
+     */
+    private static final class Espera {
+
+        final Queue<Pendente<?>> fila = new ConcurrentLinkedQueue<>();
+        final AtomicInteger tamanho = new AtomicInteger();
+        final int capacidade;
+
+        Espera(int capacidade) {
+            this.capacidade = capacidade;
+        }
+
+        boolean reservar() {
+            int atual;
+            do {
+                atual = tamanho.get();
+                if (atual >= capacidade) {
+                    return false;
+                }
+            } while (!tamanho.compareAndSet(atual, atual + 1));
+            return true;
+        }
+
+        /**
+         * Remove do início os que expiraram ou foram cancelados
+         */
+        void descartarEncerrados() {
+            Pendente<?> pendente;
+            while ((pendente = fila.peek()) != null && pendente.encerrado()) {
+                fila.poll();
+            }
+        }
+    }
+
+    /**
+     * Gravação aguardando vaga; sai da espera uma única vez (admitida,
+     * expirada ou cancelada)
+     */
+    private final class Pendente<T> {
+
+        private final Supplier<Mono<T>> gravacao;
+        private final MonoSink<T> sink;
+        private final AtomicInteger estado = new AtomicInteger();
+        private volatile Disposable expiracao;
+        private volatile Disposable execucao;
+
+        Pendente(Supplier<Mono<T>> gravacao, MonoSink<T> sink) {
+            this.gravacao = gravacao;
+            this.sink = sink;
+        }
+
+        boolean encerrar() {
+            return estado.compareAndSet(0, 1);
+        }
+
+        boolean encerrado() {
+            return estado.get() != 0;
+        }
+
+        void iniciar() {
+            Disposable agendada = expiracao;
+            if (agendada != null) {
+                agendada.dispose();
+            }
+            execucao = medir(gravacao).subscribe(sink::success, sink::error, sink::success);
+        }
+    }
+}
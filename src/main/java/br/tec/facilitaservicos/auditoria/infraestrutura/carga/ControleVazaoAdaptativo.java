@@ -0,0 +1,85 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.carga;
+
+import java.time.Duration;
+
+/**
+ * ============================================================================
+ * 🚦 CONTROLE DE VAZÃO ADAPTATIVO (AIMD)
+ * ============================================================================
+ *
+ * Tamanho do próximo lote de escrita e a pausa antes dele, ajustados a cada
+ * passo pelos sinais de carga do banco:
+ * - Congestionado (utilização do pool ou p99 da ingestão acima do limite):
+ *   o lote cai multiplicativamente e a pausa dobra, até os limites
+ * - Saudável: o lote cresce de forma aditiva e a pausa volta pela metade
+ *   até a base
+ *
+ * Começa no lote mínimo; um sinal indisponível (utilização negativa) é
+ * ignorado. Seguro para uso entre threads.
+ */
+public final class ControleVazaoAdaptativo {
+
+    private final int loteMinimo;
+    private final int loteMaximo;
+    private final int incremento;
+    private final double fatorReducao;
+    private final long pausaBaseMs;
+    private final long pausaMaximaMs;
+    private final double utilizacaoLimite;
+    private final double p99LimiteMs;
+
+    private int lote;
+    private long pausaMs;
+
+    public ControleVazaoAdaptativo(int loteMinimo, int loteMaximo, int incremento, double fatorReducao,
+                                   long pausaBaseMs, long pausaMaximaMs,
+                                   double utilizacaoLimite, double p99LimiteMs) {
+        if (loteMinimo < 1 || loteMaximo < loteMinimo) {
+            throw new IllegalArgumentException("Limites de lote inválidos: " + loteMinimo + ".." + loteMaximo);
+        }
+        if (fatorReducao <= 0 || fatorReducao >= 1) {
+            throw new IllegalArgumentException("Fator de redução deve estar em (0, 1): " + fatorReducao);
+        }
+        this.loteMinimo = loteMinimo;
+        this.loteMaximo = loteMaximo;
+        this.incremento = Math.max(1, incremento);
+        this.fatorReducao = fatorReducao;
+        this.pausaBaseMs = Math.max(1, pausaBaseMs);
+        this.pausaMaximaMs = Math.max(this.pausaBaseMs, pausaMaximaMs);
+        this.utilizacaoLimite = utilizacaoLimite;
+        this.p99LimiteMs = p99LimiteMs;
+        this.lote = loteMinimo;
+        this.pausaMs = this.pausaBaseMs;
+    }
+
+    /**
+     * Ajusta pelo estado atual do banco e devolve o próximo passo
+     *
+     * @param utilizacaoPool fração do pool em uso (0..1), negativa se indisponível
+     * @param p99Ms p99 recente da ingestão em ms
+     */
+    public synchronized Passo proximo(double utilizacaoPool, double p99Ms) {
+        boolean congestionado = (utilizacaoPool >= 0 && utilizacaoPool > utilizacaoLimite) || p99Ms > p99LimiteMs;
+        if (congestionado) {
+            lote = Math.max(loteMinimo, (int) (lote * fatorReducao));
+            pausaMs = Math.min(pausaMaximaMs, pausaMs * 2);
+        } else {
+            lote = Math.min(loteMaximo, lote + incremento);
+            pausaMs = Math.max(pausaBaseMs, pausaMs / 2);
+        }
+        return new Passo(lote, Duration.ofMillis(pausaMs), congestionado);
+    }
+
+    public synchronized int lote() {
+        return lote;
+    }
+
+    public synchronized long pausaMs() {
+        return pausaMs;
+    }
+
+    /**
+     * Lote a escrever depois da pausa
+     */
+    public record Passo(int lote, Duration pausa, boolean congestionado) {}
+}
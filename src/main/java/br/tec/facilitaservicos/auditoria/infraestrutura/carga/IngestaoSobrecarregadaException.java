@@ -0,0 +1,22 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.carga;
+
+import br.tec.facilitaservicos.auditoria.dominio.enums.NivelSeveridade;
+
+/**
+ * Sinaliza que a ingestão recusou o evento por sobrecarga: sem vaga no
+ * limite de concorrência e sem espaço (ou sem tempo) na espera da sua
+ * severidade. O chamador deve reduzir o ritmo antes de tentar novamente.
+ */
+public class IngestaoSobrecarregadaException extends IllegalStateException {
+
+    private final NivelSeveridade severidade;
+
+    public IngestaoSobrecarregadaException(NivelSeveridade severidade, String motivo) {
+        super("Ingestão sobrecarregada, evento " + severidade + " recusado: " + motivo);
+        this.severidade = severidade;
+    }
+
+    public NivelSeveridade getSeveridade() {
+        return severidade;
+    }
+}
@@ -0,0 +1,88 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.carga;
+
+/**
+ * ============================================================================
+ * 🚦 LIMITE DE CONCORRÊNCIA ADAPTATIVO (AIMD)
+ * ============================================================================
+ *
+ * Quantas gravações podem estar em voo ao mesmo tempo, no modelo do AIMDLimit
+ * do concurrency-limits da Netflix, medido pela latência de cada gravação:
+ * - Gravação acima da latência limite, ou que falhou por sobrecarga: o
+ *   limite cai multiplicativamente (fator de redução)
+ * - Gravação dentro da latência com o limite em uso (ao menos metade em
+ *   voo): o limite sobe uma unidade; com folga ele não cresce à toa
+ *
+ * Cada aquisição informa a fração do limite que pode usar: as prioridades
+ * mais baixas param de entrar antes, deixando o restante para as mais altas.
+ * Seguro para uso entre threads.
+ */
+public final class LimitadorConcorrenciaAdaptativo {
+
+    private final int limiteMinimo;
+    private final int limiteMaximo;
+    private final double fatorReducao;
+    private final long latenciaLimiteNanos;
+
+    private double limite;
+    private int emVoo;
+
+    public LimitadorConcorrenciaAdaptativo(int limiteInicial, int limiteMinimo, int limiteMaximo,
+                                           double fatorReducao, long latenciaLimiteNanos) {
+        if (limiteMinimo < 1 || limiteMaximo < limiteMinimo) {
+            throw new IllegalArgumentException("Limites de concorrência inválidos: " + limiteMinimo + ".." + limiteMaximo);
+        }
+        if (fatorReducao <= 0 || fatorReducao >= 1) {
+            throw new IllegalArgumentException("Fator de redução deve estar em (0, 1): " + fatorReducao);
+        }
+        this.limiteMinimo = limiteMinimo;
+        this.limiteMaximo = limiteMaximo;
+        this.fatorReducao = fatorReducao;
+        this.latenciaLimiteNanos = latenciaLimiteNanos;
+        this.limite = Math.min(limiteMaximo, Math.max(limiteMinimo, limiteInicial));
+    }
+
+    /**
+     * Ocupa uma vaga se houver espaço na fração do limite
+     *
+     * @param fracao parte do limite disponível para quem pede (0..1]
+     */
+    public synchronized boolean tentarAdquirir(double fracao) {
+        int disponivel = Math.max(1, (int) (limite * fracao));
+        if (emVoo >= disponivel) {
+            return false;
+        }
+        emVoo++;
+        return true;
+    }
+
+    /**
+     * Devolve a vaga e ajusta o limite pela amostra
+     *
+     * @param latenciaNanos duração da gravação
+     * @param sobrecarga a gravação falhou por esgotamento (timeout, pool)
+     */
+    public synchronized void liberar(long latenciaNanos, boolean sobrecarga) {
+        int emVooNaAmostra = emVoo;
+        emVoo = Math.max(0, emVoo - 1);
+        if (sobrecarga || latenciaNanos > latenciaLimiteNanos) {
+            limite = Math.max(limiteMinimo, limite * fatorReducao);
+        } else if (emVooNaAmostra * 2 >= limite) {
+            limite = Math.min(limiteMaximo, limite + 1);
+        }
+    }
+
+    /**
+     * Devolve a vaga sem amostra (a gravação não chegou ao banco)
+     */
+    public synchronized void liberarSemAmostra() {
+        emVoo = Math.max(0, emVoo - 1);
+    }
+
+    public synchronized int limite() {
+        return (int) limite;
+    }
+
+    public synchronized int emVoo() {
+        return emVoo;
+    }
+}
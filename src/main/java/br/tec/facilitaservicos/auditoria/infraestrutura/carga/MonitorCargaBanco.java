@@ -0,0 +1,87 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.carga;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.ConnectionFactory;
+
+/**
+ * ============================================================================
+ * 📈 MONITOR DE CARGA DO BANCO
+ * ============================================================================
+ *
+ * Sinais de carga que os trabalhos em segundo plano consultam antes de
+ * escrever no banco:
+ * - p99 da gravação de eventos (registrarEvento, da transação ao commit),
+ *   em uma janela rotativa de {@code JANELA} (o Timer do Micrometer
+ *   mantém o histograma; a leitura é um snapshot)
+ * - Utilização do pool de conexões (adquiridas / máximo), quando a
+ *   ConnectionFactory é um {@link ConnectionPool}; sem pool o sinal fica
+ *   indisponível (-1) e só a latência é considerada
+ */
+@Component
+public class MonitorCargaBanco {
+
+    private static final Duration JANELA = Duration.ofSeconds(30);
+    private static final double PERCENTIL = 0.99;
+
+    private final Timer insercao;
+    private final PoolMetrics metricasPool;
+
+    public MonitorCargaBanco(ConnectionFactory connectionFactory, MeterRegistry meterRegistry) {
+        this.insercao = Timer.builder("audit.ingestao.insercao")
+            .description("Duração da gravação de um evento (transação com outbox)")
+            .publishPercentiles(PERCENTIL)
+            .distributionStatisticExpiry(JANELA)
+            .distributionStatisticBufferLength(3)
+            .register(meterRegistry);
+        this.metricasPool = connectionFactory instanceof ConnectionPool pool
+            ? pool.getMetrics().orElse(null)
+            : null;
+        if (metricasPool != null) {
+            meterRegistry.gauge("audit.banco.pool.utilizacao", this, MonitorCargaBanco::utilizacaoPool);
+        }
+    }
+
+    public void registrarInsercao(long nanos) {
+        insercao.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * p99 recente da gravação de eventos em ms; 0 sem amostras na janela
+     */
+    public double p99InsercaoMs() {
+        for (ValueAtPercentile valor : insercao.takeSnapshot().percentileValues()) {
+            if (valor.percentile() == PERCENTIL) {
+                double ms = valor.value(TimeUnit.MILLISECONDS);
+                return Double.isNaN(ms) ? 0 : ms;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Fração das conexões do pool em uso (0..1); -1 sem pool instrumentado
+     */
+    public double utilizacaoPool() {
+        if (metricasPool == null) {
+            return -1;
+        }
+        int maximo = metricasPool.getMaxAllocatedSize();
+        return maximo > 0 ? (double) metricasPool.acquiredSize() / maximo : -1;
+    }
+
+    /**
+     * Aquisições de conexão esperando vaga no pool; 0 sem pool instrumentado
+     */
+    public int aquisicoesPendentes() {
+        return metricasPool != null ? metricasPool.pendingAcquireSize() : 0;
+    }
+}
@@ -0,0 +1,71 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.cliente;
+
+import java.util.List;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ============================================================================
+ * 🔀 CLIENTE ENTRE PODS - DOWNLOAD DE EXPORTAÇÕES
+ * ============================================================================
+ *
+ * Repassa o download de uma exportação de titular ao pod que gravou o
+ * arquivo no disco local. A resposta do dono (200, 206, 304, 404...) volta
+ * como veio, em streaming, sem carregar o arquivo em memória.
+ *
+ * Só os cabeçalhos de autenticação, Range e validação seguem para o dono, e
+ * só os de conteúdo voltam dele; os de conexão ficam de fora.
+ */
+@Component
+public class NoExportacaoClient {
+
+    private static final List<String> REPASSADOS_IDA = List.of(
+        HttpHeaders.AUTHORIZATION, HttpHeaders.RANGE, HttpHeaders.IF_RANGE, HttpHeaders.IF_NONE_MATCH);
+
+    private static final List<String> REPASSADOS_VOLTA = List.of(
+        HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_LENGTH, HttpHeaders.CONTENT_RANGE,
+        HttpHeaders.ACCEPT_RANGES, HttpHeaders.ETAG, HttpHeaders.CONTENT_DISPOSITION);
+
+    private final WebClient webClient;
+
+    public NoExportacaoClient(WebClient.Builder webClientBuilder) {
+        this.webClient = webClientBuilder.build();
+    }
+
+    /**
+     * GET em {@code urlNo + caminho} com os cabeçalhos da requisição original
+     */
+    public Mono<ResponseEntity<Flux<DataBuffer>>> baixar(String urlNo, String caminho, HttpHeaders requisicao) {
+        return webClient.get()
+            .uri(urlNo + caminho)
+            .headers(cabecalhos -> copiar(requisicao, cabecalhos, REPASSADOS_IDA))
+            .retrieve()
+            // Erros do dono (404, 409...) voltam ao cliente como vieram
+            .onStatus(HttpStatusCode::isError, _ -> Mono.empty())
+            .toEntityFlux(DataBuffer.class)
+            .map(resposta -> {
+                HttpHeaders cabecalhos = new HttpHeaders();
+                copiar(resposta.getHeaders(), cabecalhos, REPASSADOS_VOLTA);
+                return ResponseEntity.status(resposta.getStatusCode())
+                    .headers(cabecalhos)
+                    .body(resposta.getBody());
+            });
+    }
+
+    private static void copiar(HttpHeaders origem, HttpHeaders destino, List<String> nomes) {
+        for (String nome : nomes) {
+            List<String> valores = origem.get(nome);
+            if (valores != null) {
+                destino.put(nome, valores);
+            }
+        }
+    }
+}
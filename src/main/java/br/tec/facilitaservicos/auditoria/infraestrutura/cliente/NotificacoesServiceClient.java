@@ -1,17 +1,25 @@
 package br.tec.facilitaservicos.auditoria.infraestrutura.cliente;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
 
+import br.tec.facilitaservicos.auditoria.dominio.enums.NivelSeveridade;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 /**
  * ============================================================================
@@ -22,11 +30,19 @@ import reactor.core.publisher.Mono;
  * Usado para enviar notificações quando eventos críticos de auditoria ocorrem.
  * 
  * Funcionalidades:
- * - Envio de notificações de eventos críticos de auditoria
+ * - Envio de notificações de eventos críticos de auditoria, em lote (o
+ *   agrupamento e a retentativa ficam no DespachanteNotificacoesCriticas).
+ *   O serviço de notificações só expõe {@code /rest/v1/notificacoes/enviar},
+ *   uma notificação por requisição: por padrão cada item do lote vai nele,
+ *   em paralelo limitado sobre o pool HTTP/2. Se o serviço ganhar um endpoint
+ *   de lote, basta apontar {@code services.notificacoes.caminho-lote} para
+ *   ele (corpo {@code {"notificacoes": [...]}}) e o lote vira um único POST
  * - Alertas de compliance e violações de segurança
  * - Circuit Breaker para resiliência
  * - Retry automático com backoff exponencial
  * - Timeouts configuráveis
+ * - Pool de conexões dedicado com HTTP/2 (h2c em http, ALPN em https) e
+ *   fallback para HTTP/1.1
  * 
  * @author Sistema de Auditoria Reativo
  * @version 1.0
@@ -35,64 +51,142 @@ import reactor.core.publisher.Mono;
 @Component
 public class NotificacoesServiceClient {
     
+    private static final Logger logger = LoggerFactory.getLogger(NotificacoesServiceClient.class);
+
+    private static final String DESTINATARIO_CRITICO = "admin@conexaodesorte.com.br";
+    private static final String CAMINHO_ENVIO = "/rest/v1/notificacoes/enviar";
+
     private final WebClient webClient;
     private final String notificacoesBaseUrl;
+    private final String caminhoLote;
+    private final int envioConcorrencia;
     
     public NotificacoesServiceClient(@Value("${services.notificacoes.url:http://conexao-de-sorte-backend-notificacoes:8084}") String notificacoesBaseUrl,
+                                   @Value("${services.notificacoes.caminho-lote:}") String caminhoLote,
+                                   @Value("${services.notificacoes.envio-concorrencia:8}") int envioConcorrencia,
+                                   @Value("${services.notificacoes.pool.max-conexoes:50}") int maxConexoes,
+                                   @Value("${services.notificacoes.pool.max-pendentes:500}") int maxPendentes,
                                    WebClient.Builder webClientBuilder) {
         this.notificacoesBaseUrl = notificacoesBaseUrl;
+        this.caminhoLote = caminhoLote;
+        this.envioConcorrencia = envioConcorrencia;
+
+        ConnectionProvider pool = ConnectionProvider.builder("notificacoes")
+            .maxConnections(maxConexoes)
+            .pendingAcquireMaxCount(maxPendentes)
+            .pendingAcquireTimeout(Duration.ofSeconds(5))
+            .maxIdleTime(Duration.ofSeconds(30))
+            .evictInBackground(Duration.ofSeconds(60))
+            .build();
+        HttpClient httpClient = HttpClient.create(pool)
+            .protocol(notificacoesBaseUrl.startsWith("https")
+                ? new HttpProtocol[] {HttpProtocol.H2, HttpProtocol.HTTP11}
+                : new HttpProtocol[] {HttpProtocol.H2C, HttpProtocol.HTTP11})
+            .responseTimeout(Duration.ofSeconds(10));
+
         this.webClient = webClientBuilder
             .baseUrl(notificacoesBaseUrl)
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
             .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(1024 * 1024)) // 1MB
             .build();
     }
     
     /**
-     * Enviar notificação de evento crítico de auditoria
+     * Enviar lote de notificações: um POST no endpoint de lote, se configurado,
+     * ou um POST por notificação no endpoint de envio. O erro é propagado
+     * (depois de tentar todas) para que o chamador agende a retentativa
      */
-    @CircuitBreaker(name = "notificacoes-service", fallbackMethod = "fallbackNotificarEventoCritico")
-    @Retry(name = "notificacoes-service") 
-    @TimeLimiter(name = "notificacoes-service")
-    public Mono<String> notificarEventoCritico(String eventoId, String tipoEvento, String usuarioId, String descricao) {
-        var notificacao = Map.of(
-            "tipo", "EVENTO_CRITICO_AUDITORIA",
-            "destinatario", "admin@conexaodesorte.com.br",
-            "assunto", "🚨 Evento Crítico de Auditoria: " + tipoEvento,
+    @CircuitBreaker(name = "notificacoes-service")
+    public Mono<Void> enviarLote(List<Map<String, Object>> notificacoes) {
+        if (caminhoLote.isBlank()) {
+            return Flux.fromIterable(notificacoes)
+                .flatMapDelayError(notificacao -> enviar(CAMINHO_ENVIO, notificacao, "notificação"),
+                    envioConcorrencia, 1)
+                .then()
+                .doOnSuccess(_ -> logger.debug("{} notificações enviadas uma a uma", notificacoes.size()));
+        }
+        return enviar(caminhoLote, Map.of("notificacoes", notificacoes), "lote de notificações")
+            .doOnSuccess(_ -> logger.debug("Lote de {} notificações enviado", notificacoes.size()));
+    }
+
+    private Mono<Void> enviar(String caminho, Object corpo, String descricao) {
+        return webClient.post()
+            .uri(caminho)
+            .bodyValue(corpo)
+            .retrieve()
+            .onStatus(status -> status.isError(), response -> 
+                response.bodyToMono(String.class)
+                    .defaultIfEmpty("")
+                    .flatMap(body -> Mono.error(new IllegalStateException(
+                        "Erro " + response.statusCode().value() + " ao enviar " + descricao + ": " + body)))
+            )
+            .toBodilessEntity()
+            .timeout(Duration.ofSeconds(10))
+            .then();
+    }
+
+    /**
+     * Notificação de um evento de auditoria pelo canal da severidade
+     * ({@link NivelSeveridade#getCanalNotificacao()})
+     */
+    public Map<String, Object> notificacaoEvento(String eventoId, String tipoEvento, String usuarioId,
+                                                 String descricao, NivelSeveridade severidade) {
+        return Map.of(
+            "tipo", severidade.isRequerAcaoImediata() ? "EVENTO_CRITICO_AUDITORIA" : "ALERTA_AUDITORIA",
+            "destinatario", DESTINATARIO_CRITICO,
+            "assunto", severidade.getEmoji() + " " + severidade.getDescricao() + " de Auditoria: " + tipoEvento,
             "conteudo", String.format("""
-                                      Evento cr\u00edtico detectado:
+                                      Evento de auditoria que requer aten\u00e7\u00e3o:
                                       
                                       ID do Evento: %s
                                       Tipo: %s
+                                      Severidade: %s
                                       Usu\u00e1rio: %s
                                       Descri\u00e7\u00e3o: %s
                                       
-                                      Verifique imediatamente no painel de auditoria.""",
-                eventoId, tipoEvento, usuarioId, descricao
+                                      Verifique no painel de auditoria.""",
+                eventoId, tipoEvento, severidade.name(), usuarioId, descricao
             ),
-            "prioridade", "ALTA",
+            "prioridade", prioridade(severidade),
+            "canal", severidade.getCanalNotificacao(),
             "contexto", Map.of(
                 "eventoId", eventoId,
+                "severidade", severidade.name(),
                 "origem", "AUDITORIA_SERVICE"
             )
         );
-        
-        return webClient.post()
-            .uri("/rest/v1/notificacoes/enviar")
-            .bodyValue(notificacao)
-            .retrieve()
-            .onStatus(status -> status.isError(), response -> 
-                response.bodyToMono(String.class)
-                    .flatMap(body -> Mono.error(new RuntimeException("Erro ao enviar notificação: " + body)))
-            )
-            .bodyToMono(String.class)
-            .timeout(Duration.ofSeconds(10))
-            .doOnNext(result -> 
-                System.out.println("✅ Notificação de evento crítico enviada: " + eventoId)
+    }
+
+    /**
+     * Resumo dos eventos agregados em uma janela (mesmo tipo e origem)
+     */
+    public Map<String, Object> notificacaoResumo(String tipoEvento, String origem, long quantidade,
+                                                 Duration janela, NivelSeveridade severidade) {
+        return Map.of(
+            "tipo", "RESUMO_EVENTOS_AUDITORIA",
+            "destinatario", DESTINATARIO_CRITICO,
+            "assunto", severidade.getEmoji() + " " + quantidade + " eventos adicionais: " + tipoEvento,
+            "conteudo", String.format("""
+                                      Eventos agregados:
+                                      
+                                      Tipo: %s
+                                      Severidade: %s
+                                      Origem: %s
+                                      Ocorr\u00eancias adicionais: %d
+                                      Janela: %d s
+                                      
+                                      Verifique no painel de auditoria.""",
+                tipoEvento, severidade.name(), origem, quantidade, janela.toSeconds()
+            ),
+            "prioridade", prioridade(severidade),
+            "canal", severidade.getCanalNotificacao(),
+            "contexto", Map.of(
+                "tipoEvento", tipoEvento,
+                "origemEventos", origem,
+                "quantidade", quantidade,
+                "origem", "AUDITORIA_SERVICE"
             )
-            .onErrorResume(WebClientResponseException.class, ex -> {
-                System.err.println("❌ Erro HTTP ao notificar evento crítico: " + ex.getStatusCode());
-                return Mono.just("ERRO_HTTP_" + ex.getStatusCode().value());
-            });
+        );
     }
     
     /**
@@ -125,7 +219,7 @@ public class NotificacoesServiceClient {
         );
         
         return webClient.post()
-            .uri("/rest/v1/notificacoes/enviar")
+            .uri(CAMINHO_ENVIO)
             .bodyValue(notificacao)
             .retrieve()
             .bodyToMono(String.class)
@@ -151,21 +245,16 @@ public class NotificacoesServiceClient {
             );
     }
     
-    // ========== FALLBACK METHODS ==========
-    
-    /**
-     * Fallback para notificação de evento crítico
-     */
-    private Mono<String> fallbackNotificarEventoCritico(String eventoId, String tipoEvento, String usuarioId, String descricao, Exception ex) {
-        System.err.println("🔄 Fallback ativado para notificação crítica - Evento: " + eventoId + " - Erro: " + ex.getMessage());
-        
-        // Em produção, aqui poderia:
-        // 1. Salvar em fila de retry
-        // 2. Enviar por canal alternativo (SMS, Slack)
-        // 3. Log em sistema de alertas
-        
-        return Mono.just("FALLBACK_CRITICO_" + eventoId);
+    private static String prioridade(NivelSeveridade severidade) {
+        return switch (severidade) {
+            case CRITICAL -> "CRITICA";
+            case ERROR -> "ALTA";
+            case WARN -> "MEDIA";
+            default -> "BAIXA";
+        };
     }
+
+    // ========== FALLBACK METHODS ==========
     
     /**
      * Fallback para notificação de violação de compliance
@@ -0,0 +1,109 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.deteccao;
+
+import java.util.List;
+
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+import br.tec.facilitaservicos.auditoria.infraestrutura.deteccao.MotorDeteccao.Deteccao;
+import br.tec.facilitaservicos.auditoria.infraestrutura.deteccao.MotorDeteccao.Ocorrencia;
+import reactor.core.publisher.Mono;
+
+/**
+ * Janelas deslizantes e carências das regras de detecção no Redis, para que
+ * a contagem valha para todos os consumidores do grupo.
+ *
+ * Cada janela é um sorted set (membro = id do evento ou usuário, score =
+ * instante): registrar, expirar o que saiu da janela, contar e tomar a
+ * carência são um único script, atômico. Como o membro é o id do evento,
+ * a reentrega de um evento já contado não soma de novo; se o alerta não
+ * foi emitido, {@link #liberar} solta a carência e a reentrega dispara
+ * outra vez. As duas chaves de uma janela compartilham a hash tag
+ * {@code {regra|chave}}, ficando no mesmo slot em cluster.
+ */
+@Component
+public class JanelasDeteccaoRedis {
+
+    private static final String PREFIXO = "audit:deteccao:";
+
+    // Limita a memória de uma janela sob rajada; a contagem satura aqui
+    private static final int FATOR_MAXIMO_MEMBROS = 4;
+
+    /**
+     * 0 = não disparou; n > 0 = disparou com n ocorrências na janela.
+     * ARGV: agora, janela ms, limite, membro, carência ms, atualizar score
+     * (usuários distintos), id do gatilho, máximo de membros
+     */
+    private static final RedisScript<Long> SCRIPT_REGISTRAR = RedisScript.of("""
+        redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', tonumber(ARGV[1]) - tonumber(ARGV[2]))
+        if ARGV[6] == '1' then
+            redis.call('ZADD', KEYS[1], ARGV[1], ARGV[4])
+        else
+            redis.call('ZADD', KEYS[1], 'NX', ARGV[1], ARGV[4])
+        end
+        local n = redis.call('ZCARD', KEYS[1])
+        local maximo = tonumber(ARGV[8])
+        if n > maximo then
+            redis.call('ZREMRANGEBYRANK', KEYS[1], 0, n - maximo - 1)
+            n = maximo
+        end
+        redis.call('PEXPIRE', KEYS[1], ARGV[2])
+        if n < tonumber(ARGV[3]) then return 0 end
+        if not redis.call('SET', KEYS[2], ARGV[7], 'NX', 'PX', ARGV[5]) then return 0 end
+        return n
+        """, Long.class);
+
+    /**
+     * Solta a carência só se ainda for a desta detecção
+     */
+    private static final RedisScript<Long> SCRIPT_LIBERAR = RedisScript.of("""
+        if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end
+        return 0
+        """, Long.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    public JanelasDeteccaoRedis(ReactiveStringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Conta a ocorrência na janela da regra; emite a detecção se o limite foi
+     * atingido e a carência da chave estava livre
+     */
+    public Mono<Deteccao> registrar(Ocorrencia ocorrencia, EventoAuditoriaDto gatilho) {
+        RegraDeteccao regra = ocorrencia.regra();
+        String base = base(regra, ocorrencia.chave());
+        return redisTemplate.execute(SCRIPT_REGISTRAR,
+                List.of(base + ":janela", base + ":carencia"),
+                List.of(
+                    String.valueOf(System.currentTimeMillis()),
+                    String.valueOf(regra.janela().toMillis()),
+                    String.valueOf(regra.limite()),
+                    ocorrencia.membro(),
+                    String.valueOf(Math.max(1, regra.carencia().toMillis())),
+                    regra.usuariosDistintos() ? "1" : "0",
+                    String.valueOf(gatilho.id()),
+                    String.valueOf(regra.limite() * FATOR_MAXIMO_MEMBROS)))
+            .next()
+            .filter(contagem -> contagem > 0)
+            .map(contagem -> new Deteccao(regra, ocorrencia.chave(), contagem.intValue(), gatilho));
+    }
+
+    /**
+     * Libera a carência de uma detecção cujo alerta não foi emitido, para
+     * que a reentrega do evento possa disparar de novo
+     */
+    public Mono<Void> liberar(Deteccao deteccao) {
+        return redisTemplate.execute(SCRIPT_LIBERAR,
+                List.of(base(deteccao.regra(), deteccao.chave()) + ":carencia"),
+                List.of(String.valueOf(deteccao.gatilho().id())))
+            .then();
+    }
+
+    private static String base(RegraDeteccao regra, String chave) {
+        return PREFIXO + '{' + regra.nome() + '|' + chave + '}';
+    }
+}
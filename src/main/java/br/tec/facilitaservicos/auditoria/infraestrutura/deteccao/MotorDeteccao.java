@@ -0,0 +1,71 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.deteccao;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+
+/**
+ * Decide em quais janelas deslizantes um evento conta.
+ *
+ * As regras são indexadas pelo tipo observado, então cada evento só toca as
+ * regras do seu tipo. Para cada regra sai uma {@link Ocorrencia}: a chave da
+ * janela (IP ou usuário) e o membro que entra nela - o id do evento, para
+ * que uma reentrega não conte duas vezes, ou o usuário, nas regras de
+ * usuários distintos. A contagem e a carência ficam em
+ * {@link JanelasDeteccaoRedis}, compartilhadas entre os pods.
+ *
+ * Sem dependências de Spring.
+ */
+public class MotorDeteccao {
+
+    private final Map<String, List<RegraDeteccao>> regrasPorTipo = new HashMap<>();
+
+    public MotorDeteccao(List<RegraDeteccao> regras) {
+        for (RegraDeteccao regra : regras) {
+            regrasPorTipo.computeIfAbsent(regra.tipoObservado().name(), _ -> new ArrayList<>()).add(regra);
+        }
+    }
+
+    /**
+     * Registro do evento na janela de uma regra
+     */
+    public record Ocorrencia(RegraDeteccao regra, String chave, String membro) {}
+
+    /**
+     * Resultado de uma regra que disparou
+     */
+    public record Deteccao(RegraDeteccao regra, String chave, int contagem, EventoAuditoriaDto gatilho) {}
+
+    /**
+     * Ocorrências do evento nas regras do seu tipo; eventos sem chave (ou sem
+     * usuário, nas regras de usuários distintos) não contam
+     */
+    public List<Ocorrencia> ocorrencias(EventoAuditoriaDto evento) {
+        List<RegraDeteccao> regras = regrasDoTipo(evento.tipoEvento());
+        if (regras.isEmpty()) {
+            return List.of();
+        }
+
+        List<Ocorrencia> ocorrencias = new ArrayList<>(regras.size());
+        for (RegraDeteccao regra : regras) {
+            String chave = regra.chave() == RegraDeteccao.Chave.IP ? evento.ipOrigem() : evento.usuarioId();
+            String membro = regra.usuariosDistintos() ? evento.usuarioId() : evento.id();
+            if (chave == null || chave.isBlank() || membro == null || membro.isBlank()) {
+                continue;
+            }
+            ocorrencias.add(new Ocorrencia(regra, chave, membro));
+        }
+        return ocorrencias;
+    }
+
+    public boolean observa(String tipoEvento) {
+        return !regrasDoTipo(tipoEvento).isEmpty();
+    }
+
+    private List<RegraDeteccao> regrasDoTipo(String tipoEvento) {
+        return tipoEvento == null ? List.of() : regrasPorTipo.getOrDefault(tipoEvento, List.of());
+    }
+}
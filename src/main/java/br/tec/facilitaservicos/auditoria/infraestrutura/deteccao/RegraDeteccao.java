@@ -0,0 +1,38 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.deteccao;
+
+import java.time.Duration;
+
+import br.tec.facilitaservicos.auditoria.dominio.enums.NivelSeveridade;
+import br.tec.facilitaservicos.auditoria.dominio.enums.TipoEvento;
+
+/**
+ * Regra de detecção em janela deslizante: dispara quando a chave (IP ou
+ * usuário) acumula {@code limite} ocorrências de {@code tipoObservado} em
+ * {@code janela}. Com {@code usuariosDistintos}, conta usuários diferentes
+ * por chave em vez de eventos (ex.: credential stuffing a partir de um IP).
+ *
+ * Depois de disparar, a mesma chave só volta a disparar após {@code carencia}.
+ */
+public record RegraDeteccao(
+    String nome,
+    TipoEvento tipoObservado,
+    Chave chave,
+    int limite,
+    Duration janela,
+    boolean usuariosDistintos,
+    TipoEvento tipoEmitido,
+    NivelSeveridade severidade,
+    Duration carencia
+) {
+
+    public enum Chave { IP, USUARIO }
+
+    public RegraDeteccao {
+        if (limite < 1) {
+            throw new IllegalArgumentException("Limite da regra " + nome + " deve ser positivo");
+        }
+        if (janela.isNegative() || janela.isZero()) {
+            throw new IllegalArgumentException("Janela da regra " + nome + " deve ser positiva");
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.diario;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * ============================================================================
+ * 📒 DIÁRIO LOCAL DE INGESTÃO (APPEND-ONLY, MAPEADO EM MEMÓRIA)
+ * ============================================================================
+ *
+ * Registros gravados em segmentos de tamanho fixo ({@code segmento-N.diario})
+ * mapeados em memória, um atrás do outro:
+ *
+ * <pre>
+ * [int tamanho][int crc32c][long seq][long criadoEm][payload]
+ * </pre>
+ *
+ * O CRC cobre seq, criadoEm e payload; tamanho zero marca o fim dos dados do
+ * segmento (arquivos novos nascem zerados). Quem grava não força o disco:
+ * {@link #sincronizar()} faz o msync e devolve a última seq coberta, para o
+ * chamador agrupar vários registros num único fsync.
+ *
+ * Um único leitor consome a partir do cursor confirmado ({@code cursor}),
+ * persistido por troca atômica de arquivo, e só enxerga registros já cobertos
+ * por um {@link #sincronizar()} bem-sucedido; segmentos inteiramente
+ * consumidos são apagados. Na abertura os registros após o cursor são revalidados: um
+ * registro rasgado no fim do último segmento (queda no meio da escrita) é
+ * descartado e a área é zerada antes de voltar a gravar.
+ *
+ * Gravação segura entre threads; leitura e confirmação são de um único
+ * consumidor.
+ */
+public final class DiarioIngestao implements Closeable {
+
+    static final int CABECALHO = 24;
+
+    private static final String PREFIXO = "segmento-";
+    private static final String SUFIXO = ".diario";
+    private static final String CURSOR = "cursor";
+    private static final int TAMANHO_CURSOR = 24;
+
+    private final Path diretorio;
+    private final int tamanhoSegmento;
+    private final ConcurrentSkipListMap<Long, Segmento> segmentos = new ConcurrentSkipListMap<>();
+
+    // Escrita (sob o monitor da instância)
+    private Segmento atual;
+    private int posicaoEscrita;
+    private volatile long ultimaSeq;
+    private volatile long seqSincronizada;
+
+    // Cursor confirmado (único consumidor)
+    private volatile Cursor confirmado;
+
+    public DiarioIngestao(Path diretorio, int tamanhoSegmento) {
+        if (tamanhoSegmento < 4096) {
+            throw new IllegalArgumentException("Segmento do diário muito pequeno: " + tamanhoSegmento);
+        }
+        this.diretorio = diretorio;
+        this.tamanhoSegmento = tamanhoSegmento;
+        try {
+            Files.createDirectories(diretorio);
+            recuperar();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao abrir o diário de ingestão em " + diretorio, e);
+        }
+    }
+
+    // ========== ESCRITA ==========
+
+    /**
+     * Anexa um registro (sem forçar o disco)
+     *
+     * @return seq atribuída ao registro
+     */
+    public synchronized long anexar(byte[] payload, long criadoEm) {
+        int total = CABECALHO + payload.length;
+        if (total > tamanhoSegmento) {
+            throw new IllegalArgumentException("Registro maior que o segmento do diário: " + payload.length + " bytes");
+        }
+        if (posicaoEscrita + total > tamanhoSegmento) {
+            rolar();
+        }
+
+        long seq = ultimaSeq + 1;
+        MappedByteBuffer buffer = atual.buffer;
+        int posicao = posicaoEscrita;
+        buffer.putInt(posicao + 4, crc(seq, criadoEm, payload));
+        buffer.putLong(posicao + 8, seq);
+        buffer.putLong(posicao + 16, criadoEm);
+        buffer.put(posicao + CABECALHO, payload);
+        // Tamanho por último: um registro sem tamanho ainda não existe
+        buffer.putInt(posicao, payload.length);
+
+        posicaoEscrita = posicao + total;
+        atual.limite = posicaoEscrita;
+        ultimaSeq = seq;
+        return seq;
+    }
+
+    /**
+     * Força no disco tudo o que já foi anexado
+     *
+     * @return última seq garantida em disco
+     */
+    public long sincronizar() {
+        Segmento segmento;
+        long seq;
+        synchronized (this) {
+            segmento = atual;
+            seq = ultimaSeq;
+        }
+        // Ao rolar, o segmento anterior já é forçado; aqui basta o corrente
+        segmento.buffer.force();
+        if (seq > seqSincronizada) {
+            seqSincronizada = seq;
+        }
+        return seq;
+    }
+
+    private void rolar() {
+        atual.buffer.force();
+        atual.selado = true;
+        atual = criarSegmento(atual.numero + 1);
+        posicaoEscrita = 0;
+    }
+
+    // ========== LEITURA ==========
+
+    /**
+     * Lê, a partir do cursor confirmado, até {@code maximo} registros já
+     * garantidos em disco (seq até a do último fsync)
+     */
+    public List<Registro> ler(int maximo) {
+        List<Registro> registros = new ArrayList<>();
+        long sincronizada = seqSincronizada;
+        Cursor cursor = confirmado;
+        long numero = cursor.segmento();
+        int posicao = cursor.posicao();
+
+        while (registros.size() < maximo) {
+            Segmento segmento = segmentos.get(numero);
+            if (segmento == null) {
+                break;
+            }
+            // Selado lido antes do limite: depois de selado, o limite é final
+            boolean selado = segmento.selado;
+            if (posicao >= segmento.limite) {
+                Map.Entry<Long, Segmento> proximo = segmentos.higherEntry(numero);
+                if (!selado || proximo == null) {
+                    break;
+                }
+                numero = proximo.getKey();
+                posicao = 0;
+                continue;
+            }
+            ByteBuffer buffer = segmento.buffer;
+            long seq = buffer.getLong(posicao + 8);
+            if (seq > sincronizada) {
+                break;
+            }
+            int tamanho = buffer.getInt(posicao);
+            long criadoEm = buffer.getLong(posicao + 16);
+            byte[] payload = new byte[tamanho];
+            buffer.get(posicao + CABECALHO, payload);
+            posicao += CABECALHO + tamanho;
+            registros.add(new Registro(seq, criadoEm, payload, numero, posicao));
+        }
+        return registros;
+    }
+
+    /**
+     * Avança o cursor até o registro informado (inclusive) e apaga os
+     * segmentos já consumidos
+     */
+    public void confirmar(Registro ultimo) {
+        Cursor cursor = new Cursor(ultimo.segmento(), ultimo.proximaPosicao(), ultimo.seq());
+        gravarCursor(cursor);
+        confirmado = cursor;
+
+        for (Long numero : segmentos.headMap(ultimo.segmento()).keySet()) {
+            Segmento consumido = segmentos.remove(numero);
+            try {
+                Files.deleteIfExists(consumido.arquivo);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Falha ao apagar segmento consumido " + consumido.arquivo, e);
+            }
+        }
+    }
+
+    // ========== ESTADO ==========
+
+    public long pendentes() {
+        return ultimaSeq - confirmado.seq();
+    }
+
+    public long ultimaSeq() {
+        return ultimaSeq;
+    }
+
+    public long seqSincronizada() {
+        return seqSincronizada;
+    }
+
+    /**
+     * Bytes gravados e ainda não confirmados
+     */
+    public long bytesPendentes() {
+        Cursor cursor = confirmado;
+        long bytes = 0;
+        for (Segmento segmento : segmentos.tailMap(cursor.segmento(), true).values()) {
+            bytes += segmento.limite - (segmento.numero == cursor.segmento() ? cursor.posicao() : 0);
+        }
+        return bytes;
+    }
+
+    /**
+     * Instante (epoch ms) do registro pendente mais antigo, ou -1 sem pendentes
+     */
+    public long criadoEmMaisAntigo() {
+        if (pendentes() == 0) {
+            return -1;
+        }
+        List<Registro> proximo = ler(1);
+        return proximo.isEmpty() ? -1 : proximo.getFirst().criadoEm();
+    }
+
+    public int tamanhoSegmento() {
+        return tamanhoSegmento;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (atual != null) {
+            atual.buffer.force();
+        }
+    }
+
+    // ========== RECUPERAÇÃO ==========
+
+    private void recuperar() throws IOException {
+        List<Long> numeros;
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            numeros = arquivos
+                .map(arquivo -> arquivo.getFileName().toString())
+                .filter(nome -> nome.startsWith(PREFIXO) && nome.endsWith(SUFIXO))
+                .map(nome -> Long.parseLong(nome.substring(PREFIXO.length(), nome.length() - SUFIXO.length())))
+                .sorted()
+                .toList();
+        }
+
+        Cursor cursor = lerCursor();
+        boolean reconstruido = cursor == null || !numeros.contains(cursor.segmento());
+        if (reconstruido) {
+            // Sem cursor (ou segmento já apagado): começa do primeiro que restou
+            long seq = cursor != null ? cursor.seq() : 0;
+            long numero = numeros.isEmpty() ? (cursor != null ? cursor.segmento() : 0) : numeros.getFirst();
+            cursor = new Cursor(numero, 0, seq);
+        }
+        confirmado = cursor;
+        ultimaSeq = cursor.seq();
+
+        for (Long numero : numeros) {
+            if (numero < cursor.segmento()) {
+                // Consumido, mas a queda veio antes de apagá-lo
+                Files.deleteIfExists(arquivoSegmento(numero));
+                continue;
+            }
+            Segmento segmento = mapear(numero);
+            segmentos.put(numero, segmento);
+            boolean primeiro = numero == cursor.segmento();
+            segmento.limite = varrer(segmento, primeiro ? cursor.posicao() : 0, primeiro && reconstruido);
+            segmento.selado = true;
+        }
+
+        // O que sobreviveu à reabertura já está em disco
+        seqSincronizada = ultimaSeq;
+
+        if (segmentos.isEmpty()) {
+            atual = criarSegmento(cursor.segmento());
+            posicaoEscrita = 0;
+        } else {
+            atual = segmentos.lastEntry().getValue();
+            atual.selado = false;
+            posicaoEscrita = atual.limite;
+            zerarCauda(atual, posicaoEscrita);
+        }
+    }
+
+    /**
+     * Valida os registros a partir de {@code inicio} e devolve onde terminam
+     * os íntegros; a seq precisa continuar a última conhecida (exceto no
+     * primeiro registro quando o cursor foi reconstruído)
+     */
+    private int varrer(Segmento segmento, int inicio, boolean aceitarQualquerSeq) {
+        ByteBuffer buffer = segmento.buffer;
+        int posicao = inicio;
+        while (posicao + CABECALHO <= tamanhoSegmento) {
+            int tamanho = buffer.getInt(posicao);
+            if (tamanho <= 0 || posicao + CABECALHO + tamanho > tamanhoSegmento) {
+                break;
+            }
+            int crc = buffer.getInt(posicao + 4);
+            long seq = buffer.getLong(posicao + 8);
+            long criadoEm = buffer.getLong(posicao + 16);
+            byte[] payload = new byte[tamanho];
+            buffer.get(posicao + CABECALHO, payload);
+            if (crc != crc(seq, criadoEm, payload) || (!aceitarQualquerSeq && seq != ultimaSeq + 1)) {
+                break;
+            }
+            if (aceitarQualquerSeq) {
+                confirmado = new Cursor(confirmado.segmento(), confirmado.posicao(), seq - 1);
+                aceitarQualquerSeq = false;
+            }
+            ultimaSeq = seq;
+            posicao += CABECALHO + tamanho;
+        }
+        return posicao;
+    }
+
+    /**
+     * Zera o que sobrou de um registro rasgado para que não seja relido como
+     * continuação
+     */
+    private void zerarCauda(Segmento segmento, int posicao) {
+        if (posicao + 4 > tamanhoSegmento || segmento.buffer.getInt(posicao) == 0) {
+            return;
+        }
+        byte[] zeros = new byte[8192];
+        for (int p = posicao; p < tamanhoSegmento; p += zeros.length) {
+            segmento.buffer.put(p, zeros, 0, Math.min(zeros.length, tamanhoSegmento - p));
+        }
+        segmento.buffer.force();
+    }
+
+    // ========== ARQUIVOS ==========
+
+    private Segmento criarSegmento(long numero) {
+        try {
+            Segmento segmento = mapear(numero);
+            segmentos.put(numero, segmento);
+            return segmento;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao criar segmento do diário " + numero, e);
+        }
+    }
+
+    private Segmento mapear(long numero) throws IOException {
+        Path arquivo = arquivoSegmento(numero);
+        try (FileChannel canal = FileChannel.open(arquivo,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // O mapeamento continua válido depois de fechar o canal
+            return new Segmento(numero, arquivo, canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoSegmento));
+        }
+    }
+
+    private Path arquivoSegmento(long numero) {
+        return diretorio.resolve(String.format("%s%016d%s", PREFIXO, numero, SUFIXO));
+    }
+
+    private void gravarCursor(Cursor cursor) {
+        ByteBuffer conteudo = ByteBuffer.allocate(TAMANHO_CURSOR);
+        conteudo.putLong(cursor.segmento()).putInt(cursor.posicao()).putLong(cursor.seq());
+        CRC32C crc = new CRC32C();
+        crc.update(conteudo.array(), 0, 20);
+        conteudo.putInt((int) crc.getValue());
+        conteudo.flip();
+
+        Path temporario = diretorio.resolve(CURSOR + ".tmp");
+        try {
+            try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (conteudo.hasRemaining()) {
+                    canal.write(conteudo);
+                }
+                canal.force(true);
+            }
+            Files.move(temporario, diretorio.resolve(CURSOR),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar o cursor do diário", e);
+        }
+    }
+
+    /**
+     * Cursor persistido, ou null se ausente/inválido
+     */
+    private Cursor lerCursor() throws IOException {
+        Path arquivo = diretorio.resolve(CURSOR);
+        if (!Files.exists(arquivo)) {
+            return null;
+        }
+        byte[] bytes = Files.readAllBytes(arquivo);
+        if (bytes.length != TAMANHO_CURSOR) {
+            return null;
+        }
+        ByteBuffer conteudo = ByteBuffer.wrap(bytes);
+        long segmento = conteudo.getLong();
+        int posicao = conteudo.getInt();
+        long seq = conteudo.getLong();
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, 20);
+        return conteudo.getInt() == (int) crc.getValue() ? new Cursor(segmento, posicao, seq) : null;
+    }
+
+    private static int crc(long seq, long criadoEm, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        ByteBuffer cabecalho = ByteBuffer.allocate(16).putLong(seq).putLong(criadoEm);
+        crc.update(cabecalho.array());
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Registro lido; {@code segmento}/{@code proximaPosicao} apontam para
+     * depois dele, onde o cursor fica ao confirmá-lo
+     */
+    public record Registro(long seq, long criadoEm, byte[] payload, long segmento, int proximaPosicao) {
+    }
+
+    /**
+     * Posição logo após o último registro confirmado
+     */
+    private record Cursor(long segmento, int posicao, long seq) {
+    }
+
+    private static final class Segmento {
+
+        final long numero;
+        final Path arquivo;
+        final MappedByteBuffer buffer;
+        volatile int limite;
+        volatile boolean selado;
+
+        Segmento(long numero, Path arquivo, MappedByteBuffer buffer) {
+            this.numero = numero;
+            this.arquivo = arquivo;
+            this.buffer = buffer;
+        }
+    }
+}
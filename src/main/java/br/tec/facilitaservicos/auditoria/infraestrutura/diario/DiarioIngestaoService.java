@@ -0,0 +1,311 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.diario;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.tec.facilitaservicos.auditoria.aplicacao.dto.CriarEventoDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * ============================================================================
+ * 📒 DIÁRIO DE INGESTÃO (DESVIO QUANDO O BANCO NÃO ACEITA)
+ * ============================================================================
+ *
+ * Guarda em disco local ({@link DiarioIngestao}) os eventos que o banco não
+ * pôde receber - MySQL fora do ar, timeouts ou espera da admissão cheia -
+ * para que o {@link DrenadorDiarioIngestao} os grave quando ele voltar.
+ *
+ * O evento só é aceito depois do fsync: um agendador único força o diário a
+ * cada {@code fsync-intervalo-ms} e libera de uma vez todos os que esperavam
+ * (group commit), então o custo do fsync é dividido pela rajada. A drenagem
+ * só lê registros já cobertos por fsync; os que receberam erro num fsync que
+ * falhou são pulados por ela (o chamador vai reenviá-los com outro id).
+ *
+ * Registros que o banco recusa de forma permanente (violação de restrição,
+ * dado inválido) vão para o diário de quarentena, em
+ * {@code <diretorio>/quarentena}, com o motivo, e a drenagem segue adiante;
+ * de lá só saem por recuperação manual.
+ *
+ * Métricas:
+ * - audit.ingestao.diario.registros / .bytes: o que falta drenar
+ * - audit.ingestao.diario.idade: idade do registro mais antigo não drenado
+ * - audit.ingestao.diario.anexados / .drenados: taxa de entrada e de drenagem
+ * - audit.ingestao.diario.fsync: duração de cada fsync agrupado
+ * - audit.ingestao.diario.quarentena: registros recusados pelo banco
+ */
+@Component
+public class DiarioIngestaoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiarioIngestaoService.class);
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Queue<Aguardando> aguardandoFsync = new ConcurrentLinkedQueue<>();
+    private final Set<Long> recusadosNoFsync = ConcurrentHashMap.newKeySet();
+    private final Counter anexados;
+    private final Counter drenados;
+    private final Counter descartados;
+    private final Counter quarentenados;
+    private final Timer duracaoFsync;
+
+    private volatile DiarioIngestao diario;
+    private DiarioIngestao quarentena;
+    private Scheduler sincronizador;
+    private Disposable sincronizacao;
+
+    @Value("${auditoria.ingestao.diario.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${auditoria.ingestao.diario.diretorio:dados/diario-ingestao}")
+    private String diretorio;
+
+    @Value("${auditoria.ingestao.diario.tamanho-segmento-mb:64}")
+    private int tamanhoSegmentoMb;
+
+    @Value("${auditoria.ingestao.diario.capacidade-mb:2048}")
+    private long capacidadeMb;
+
+    @Value("${auditoria.ingestao.diario.fsync-intervalo-ms:5}")
+    private long fsyncIntervaloMs;
+
+    public DiarioIngestaoService(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+
+        this.anexados = Counter.builder("audit.ingestao.diario.anexados")
+            .description("Eventos desviados para o diário local")
+            .register(meterRegistry);
+        this.drenados = Counter.builder("audit.ingestao.diario.drenados")
+            .description("Eventos do diário gravados no banco")
+            .register(meterRegistry);
+        this.descartados = Counter.builder("audit.ingestao.diario.descartados")
+            .description("Registros do diário que não puderam ser lidos")
+            .register(meterRegistry);
+        this.quarentenados = Counter.builder("audit.ingestao.diario.quarentena")
+            .description("Registros do diário recusados pelo banco e postos em quarentena")
+            .register(meterRegistry);
+        this.duracaoFsync = Timer.builder("audit.ingestao.diario.fsync")
+            .description("Duração do fsync agrupado do diário")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        if (!habilitado) {
+            return;
+        }
+        diario = new DiarioIngestao(Path.of(diretorio), tamanhoSegmentoMb * 1024 * 1024);
+        quarentena = new DiarioIngestao(Path.of(diretorio, "quarentena"), tamanhoSegmentoMb * 1024 * 1024);
+        sincronizador = Schedulers.newSingle("diario-ingestao-fsync");
+        sincronizacao = sincronizador.schedulePeriodically(this::sincronizar,
+            fsyncIntervaloMs, fsyncIntervaloMs, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("audit.ingestao.diario.registros", diario, DiarioIngestao::pendentes)
+            .description("Eventos no diário aguardando drenagem")
+            .register(meterRegistry);
+        Gauge.builder("audit.ingestao.diario.bytes", diario, DiarioIngestao::bytesPendentes)
+            .description("Bytes do diário aguardando drenagem")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        TimeGauge.builder("audit.ingestao.diario.idade", this, TimeUnit.MILLISECONDS, DiarioIngestaoService::idadeMaisAntigaMs)
+            .description("Idade do evento mais antigo não drenado")
+            .register(meterRegistry);
+
+        if (diario.pendentes() > 0) {
+            logger.warn("Diário de ingestão reaberto com {} eventos pendentes em {}", diario.pendentes(), diretorio);
+        }
+    }
+
+    @PreDestroy
+    public void parar() {
+        if (sincronizacao != null) {
+            sincronizacao.dispose();
+            sincronizar();
+            sincronizador.dispose();
+        }
+        if (diario != null) {
+            diario.close();
+        }
+        if (quarentena != null) {
+            quarentena.close();
+        }
+    }
+
+    public boolean habilitado() {
+        return diario != null;
+    }
+
+    /**
+     * Há eventos desviados ainda não drenados: os novos devem entrar atrás
+     * deles para não inverter a cadeia
+     */
+    public boolean temPendentes() {
+        DiarioIngestao atual = diario;
+        return atual != null && atual.pendentes() > 0;
+    }
+
+    /**
+     * Anexa o evento ao diário; completa depois do fsync que o cobre
+     *
+     * @return erro IllegalStateException com o diário desabilitado ou cheio
+     */
+    public Mono<Void> anexar(String id, Instant recebidoEm, CriarEventoDto evento) {
+        return Mono.defer(() -> {
+            DiarioIngestao atual = diario;
+            if (atual == null) {
+                return Mono.error(new IllegalStateException("Diário de ingestão desabilitado"));
+            }
+            if (atual.bytesPendentes() >= capacidadeMb * 1024 * 1024) {
+                return Mono.error(new IllegalStateException("Diário de ingestão cheio"));
+            }
+            byte[] payload;
+            try {
+                payload = objectMapper.writeValueAsBytes(new Entrada(id, recebidoEm.toEpochMilli(), evento));
+            } catch (JsonProcessingException e) {
+                return Mono.error(new IllegalArgumentException("Erro ao serializar evento para o diário", e));
+            }
+            return Mono.<Void>create(sink -> {
+                long seq = atual.anexar(payload, recebidoEm.toEpochMilli());
+                aguardandoFsync.offer(new Aguardando(seq, sink));
+                anexados.increment();
+            });
+        });
+    }
+
+    /**
+     * Próximos eventos a drenar, na ordem em que foram anexados
+     */
+    public Lote lerLote(int maximo) {
+        List<DiarioIngestao.Registro> registros = diario.ler(maximo);
+        List<Entrada> entradas = new ArrayList<>(registros.size());
+        for (DiarioIngestao.Registro registro : registros) {
+            if (recusadosNoFsync.contains(registro.seq())) {
+                // O chamador recebeu erro e vai reenviar: gravar este duplicaria o evento
+                descartados.increment();
+                continue;
+            }
+            try {
+                entradas.add(objectMapper.readValue(registro.payload(), Entrada.class));
+            } catch (IOException e) {
+                // Íntegro pelo CRC mas ilegível: fica no log para recuperação manual
+                descartados.increment();
+                logger.error("Registro {} do diário ilegível, descartado: {}",
+                    registro.seq(), new String(registro.payload(), StandardCharsets.UTF_8), e);
+            }
+        }
+        return new Lote(entradas, registros.isEmpty() ? null : registros.getLast());
+    }
+
+    /**
+     * Marca o lote como gravado no banco
+     */
+    public void confirmar(Lote lote) {
+        if (lote.ultimo() != null) {
+            diario.confirmar(lote.ultimo());
+            recusadosNoFsync.removeIf(seq -> seq <= lote.ultimo().seq());
+            drenados.increment(lote.entradas().size());
+        }
+    }
+
+    /**
+     * Tira do caminho da drenagem um registro que o banco recusou de forma
+     * permanente; ele continua no lote e é confirmado junto com os demais
+     */
+    public void quarentenar(Entrada entrada, Throwable motivo) {
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(
+                new Quarentenado(entrada, String.valueOf(motivo), System.currentTimeMillis()));
+            synchronized (quarentena) {
+                quarentena.anexar(payload, entrada.recebidoEm());
+                quarentena.sincronizar();
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Erro ao serializar registro para a quarentena", e);
+        }
+        quarentenados.increment();
+        logger.error("Evento {} do diário recusado pelo banco, posto em quarentena: {}", entrada.id(), motivo.getMessage());
+    }
+
+    private void sincronizar() {
+        if (aguardandoFsync.isEmpty()) {
+            return;
+        }
+        try {
+            long coberta = duracaoFsync.recordCallable(diario::sincronizar);
+            aguardandoFsync.removeIf(aguardando -> {
+                if (aguardando.seq() > coberta) {
+                    return false;
+                }
+                aguardando.sink().success();
+                return true;
+            });
+        } catch (Exception e) {
+            logger.error("Falha no fsync do diário de ingestão: {}", e.getMessage(), e);
+            Aguardando aguardando;
+            while ((aguardando = aguardandoFsync.poll()) != null) {
+                recusadosNoFsync.add(aguardando.seq());
+                aguardando.sink().error(e);
+            }
+        }
+    }
+
+    private double idadeMaisAntigaMs() {
+        DiarioIngestao atual = diario;
+        long criadoEm = atual != null ? atual.criadoEmMaisAntigo() : -1;
+        return criadoEm < 0 ? 0 : Math.max(0, System.currentTimeMillis() - criadoEm);
+    }
+
+    /**
+     * Evento como guardado no diário; {@code recebidoEm} em epoch ms
+     */
+    public record Entrada(String id, long recebidoEm, CriarEventoDto evento) {
+    }
+
+    /**
+     * Entradas lidas e o registro até onde confirmar
+     */
+    public record Lote(List<Entrada> entradas, DiarioIngestao.Registro ultimo) {
+
+        public boolean vazio() {
+            return ultimo == null;
+        }
+    }
+
+    /**
+     * Registro do diário de quarentena; {@code em} em epoch ms
+     */
+    public record Quarentenado(Entrada entrada, String motivo, long em) {
+    }
+
+    private record Aguardando(long seq, MonoSink<Void> sink) {
+    }
+}
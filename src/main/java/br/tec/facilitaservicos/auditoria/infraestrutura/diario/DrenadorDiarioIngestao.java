@@ -0,0 +1,159 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.diario;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import br.tec.facilitaservicos.auditoria.aplicacao.servico.EventoAuditoriaService;
+import br.tec.facilitaservicos.auditoria.infraestrutura.carga.ControleAdmissaoIngestao;
+import io.r2dbc.spi.R2dbcNonTransientException;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * ============================================================================
+ * 🚰 DRENAGEM DO DIÁRIO DE INGESTÃO
+ * ============================================================================
+ *
+ * Um único laço lê o diário em lotes, na ordem de chegada, e os grava no banco
+ * pelo caminho em lote do {@link EventoAuditoriaService} (uma transação, hash
+ * encadeado na ordem do diário). O cursor só avança depois do commit; se o
+ * processo cair entre os dois, o lote é relido e os ids já gravados são
+ * ignorados.
+ *
+ * Se o lote falha por um erro permanente (violação de restrição, dado
+ * inválido), os registros são regravados um a um e os que o banco recusar
+ * vão para a quarentena do diário, para que um registro envenenado não
+ * bloqueie a drenagem - e, com ela, todo evento novo, que entra atrás do
+ * diário. Erros transitórios ou desconhecidos não avançam o cursor.
+ *
+ * Com o banco ainda indisponível a espera entre tentativas dobra até
+ * {@code espera-maxima-ms}; ocioso, o laço consulta o diário a cada
+ * {@code espera-ociosa-ms}.
+ */
+@Component
+public class DrenadorDiarioIngestao {
+
+    private static final Logger logger = LoggerFactory.getLogger(DrenadorDiarioIngestao.class);
+
+    private final DiarioIngestaoService diario;
+    private final EventoAuditoriaService eventoService;
+    private final AtomicBoolean ativo = new AtomicBoolean();
+    private volatile Disposable drenagem;
+
+    @Value("${auditoria.ingestao.diario.drenagem.lote:500}")
+    private int tamanhoLote;
+
+    @Value("${auditoria.ingestao.diario.drenagem.espera-ociosa-ms:200}")
+    private long esperaOciosaMs;
+
+    @Value("${auditoria.ingestao.diario.drenagem.espera-maxima-ms:30000}")
+    private long esperaMaximaMs;
+
+    public DrenadorDiarioIngestao(DiarioIngestaoService diario, EventoAuditoriaService eventoService) {
+        this.diario = diario;
+        this.eventoService = eventoService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (!diario.habilitado() || !ativo.compareAndSet(false, true)) {
+            return;
+        }
+
+        AtomicLong esperaFalha = new AtomicLong(esperaOciosaMs);
+        drenagem = Mono.defer(this::drenarLote)
+            .flatMap(quantidade -> {
+                esperaFalha.set(esperaOciosaMs);
+                return quantidade > 0
+                    ? Mono.just(quantidade)
+                    : Mono.delay(Duration.ofMillis(esperaOciosaMs)).thenReturn(quantidade);
+            })
+            .onErrorResume(error -> {
+                long espera = esperaFalha.getAndUpdate(valor -> Math.min(valor * 2, esperaMaximaMs));
+                logger.warn("Falha ao drenar o diário de ingestão (nova tentativa em {} ms): {}", espera, error.getMessage());
+                return Mono.delay(Duration.ofMillis(espera)).thenReturn(0);
+            })
+            .repeat(ativo::get)
+            .subscribe();
+
+        logger.info("Drenagem do diário de ingestão iniciada (lote={})", tamanhoLote);
+    }
+
+    @PreDestroy
+    public void parar() {
+        ativo.set(false);
+        Disposable atual = drenagem;
+        if (atual != null) {
+            atual.dispose();
+        }
+    }
+
+    /**
+     * Grava o próximo lote e avança o cursor
+     *
+     * @return quantidade de registros consumidos do diário
+     */
+    private Mono<Integer> drenarLote() {
+        if (!diario.temPendentes()) {
+            return Mono.just(0);
+        }
+        return Mono.fromCallable(() -> diario.lerLote(tamanhoLote))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(lote -> {
+                if (lote.vazio()) {
+                    return Mono.just(0);
+                }
+                return eventoService.gravarDoDiario(lote.entradas())
+                    .onErrorResume(DrenadorDiarioIngestao::permanente, error -> {
+                        logger.warn("Lote do diário recusado pelo banco, regravando um a um: {}", error.getMessage());
+                        return gravarUmAUm(lote.entradas());
+                    })
+                    .then(Mono.fromRunnable(() -> diario.confirmar(lote)).subscribeOn(Schedulers.boundedElastic()))
+                    .thenReturn(lote.entradas().size());
+            });
+    }
+
+    /**
+     * Grava as entradas separadamente, em ordem, pondo em quarentena as
+     * recusadas de forma permanente
+     */
+    private Mono<Integer> gravarUmAUm(List<DiarioIngestaoService.Entrada> entradas) {
+        return Flux.fromIterable(entradas)
+            .concatMap(entrada -> eventoService.gravarDoDiario(List.of(entrada))
+                .onErrorResume(DrenadorDiarioIngestao::permanente, error -> Mono.fromCallable(() -> {
+                    diario.quarentenar(entrada, error);
+                    return 0;
+                }).subscribeOn(Schedulers.boundedElastic())))
+            .reduce(0, Integer::sum);
+    }
+
+    /**
+     * Erro que se repetiria em qualquer nova tentativa do mesmo registro
+     */
+    static boolean permanente(Throwable erro) {
+        if (ControleAdmissaoIngestao.sobrecarga(erro)) {
+            return false;
+        }
+        for (Throwable causa = erro; causa != null; causa = causa.getCause()) {
+            if (causa instanceof NonTransientDataAccessException
+                    || causa instanceof R2dbcNonTransientException
+                    || causa instanceof IllegalArgumentException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
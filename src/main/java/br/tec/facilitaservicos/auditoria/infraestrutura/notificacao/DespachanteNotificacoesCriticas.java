@@ -0,0 +1,394 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.notificacao;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+import br.tec.facilitaservicos.auditoria.dominio.enums.NivelSeveridade;
+import br.tec.facilitaservicos.auditoria.infraestrutura.cliente.NotificacoesServiceClient;
+import br.tec.facilitaservicos.auditoria.infraestrutura.reprocessamento.FilaReprocessamento;
+import br.tec.facilitaservicos.auditoria.infraestrutura.reprocessamento.TratadorReprocessamento;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+/**
+ * ============================================================================
+ * 🚨 DESPACHANTE DE NOTIFICAÇÕES DE EVENTOS CRÍTICOS
+ * ============================================================================
+ *
+ * Recebe os eventos já priorizados pelo {@link PipelineAlertasSeveridade}
+ * e envia cada notificação pelo canal da severidade.
+ *
+ * Evita uma notificação por evento durante rajadas (ex.: TENTATIVA_INTRUSION
+ * ou LOGIN_BLOQUEADO em massa):
+ * - Agregação por severidade + tipo + origem (IP, ou usuário sem IP) em janelas de
+ *   {@code auditoria.notificacoes.janela-ms}: o primeiro evento da janela
+ *   notifica na hora; os demais só incrementam um contador e, no fim da
+ *   janela, saem em um único resumo
+ * - Contador, aviso imediato e deduplicação por id de evento ficam no
+ *   Redis, então a janela vale para todos os pods e reentregas do stream
+ *   não notificam duas vezes
+ * - O fim de cada janela fica num sorted set do Redis; qualquer pod envia
+ *   os resumos vencidos na varredura periódica, então um restart não os perde
+ * - Envio em lote pelo WebClient com pool HTTP/2 (um POST por lote se
+ *   {@code services.notificacoes.caminho-lote} estiver configurado; senão,
+ *   um POST por notificação no endpoint de envio); a primeira notificação
+ *   CRITICAL da janela sai sozinha, sem esperar o lote
+ * - Falha no envio ou fila local cheia: a notificação é gravada no Redis e
+ *   agendada na {@link FilaReprocessamento}, com backoff e tentativas
+ * - {@link #registrar} só completa quando a notificação foi enviada ou
+ *   agendada; se nem isso foi possível, falha e desfaz o registro do
+ *   evento (deduplicação, contagem e aviso imediato), para que a reentrega
+ *   do stream notifique de novo
+ */
+@Component
+public class DespachanteNotificacoesCriticas implements TratadorReprocessamento {
+
+    private static final Logger logger = LoggerFactory.getLogger(DespachanteNotificacoesCriticas.class);
+
+    public static final String TIPO = "notificacao";
+
+    private static final String PREFIXO = "audit:notificacoes:";
+    // Hash (contagem + aviso imediato); prefixo novo para não colidir com as janelas antigas (string)
+    private static final String PREFIXO_JANELA = PREFIXO + "janelas:";
+    private static final String PREFIXO_VISTO = PREFIXO + "visto:";
+    private static final String PREFIXO_PENDENTE = PREFIXO + "pendente:";
+    private static final String CHAVE_RESUMOS = PREFIXO + "resumos";
+
+    private static final int LOTE_RESUMOS = 100;
+
+    private static final Duration RETENCAO_PENDENTE = Duration.ofDays(2);
+    private static final TypeReference<Map<String, Object>> TIPO_NOTIFICACAO = new TypeReference<>() {};
+
+    /**
+     * 0 = evento já visto; 1 = notifica na hora (primeiro da janela, ou o
+     * aviso anterior foi desfeito); 2 = agregado na janela
+     */
+    private static final RedisScript<Long> SCRIPT_REGISTRAR = RedisScript.of("""
+        if not redis.call('SET', KEYS[2], '1', 'NX', 'PX', ARGV[2]) then return 0 end
+        if redis.call('HINCRBY', KEYS[1], 'n', 1) == 1 then redis.call('PEXPIRE', KEYS[1], ARGV[1] * 2) end
+        if redis.call('HSETNX', KEYS[1], 'aviso', ARGV[3]) == 1 then return 1 end
+        return 2
+        """, Long.class);
+
+    /**
+     * Desfaz o registro de um evento cujo envio falhou: solta a deduplicação,
+     * devolve a contagem e, se o aviso imediato era dele, libera o aviso
+     */
+    private static final RedisScript<Long> SCRIPT_DESFAZER = RedisScript.of("""
+        redis.call('DEL', KEYS[2])
+        if redis.call('HGET', KEYS[1], 'aviso') == ARGV[1] then redis.call('HDEL', KEYS[1], 'aviso') end
+        if redis.call('HINCRBY', KEYS[1], 'n', -1) <= 0 then redis.call('DEL', KEYS[1]) end
+        return 1
+        """, Long.class);
+
+    private static final RedisScript<Long> SCRIPT_AGENDAR_RESUMO = RedisScript.of(
+        "return redis.call('ZADD', KEYS[1], 'NX', ARGV[1], ARGV[2])", Long.class);
+
+    private static final RedisScript<Long> SCRIPT_FECHAR_JANELA = RedisScript.of("""
+        local n = redis.call('HGET', KEYS[1], 'n')
+        redis.call('DEL', KEYS[1])
+        return tonumber(n) or 0
+        """, Long.class);
+
+    private final NotificacoesServiceClient notificacoesClient;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final FilaReprocessamento filaReprocessamento;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Counter> contadores = new ConcurrentHashMap<>();
+    private final DistributionSummary tamanhoLote;
+    private final AtomicInteger pendentes = new AtomicInteger();
+
+    private final Sinks.Many<Pendente> saida = Sinks.many().unicast()
+        .onBackpressureBuffer(Queues.<Pendente>unboundedMultiproducer().get());
+    private volatile Disposable envio;
+
+    @Value("${auditoria.notificacoes.janela-ms:60000}")
+    private long janelaMs;
+
+    @Value("${auditoria.notificacoes.deduplicacao-ms:600000}")
+    private long deduplicacaoMs;
+
+    @Value("${auditoria.notificacoes.lote.tamanho:50}")
+    private int tamanhoMaximoLote;
+
+    @Value("${auditoria.notificacoes.lote.espera-ms:1000}")
+    private long esperaLoteMs;
+
+    @Value("${auditoria.notificacoes.fila.capacidade:1024}")
+    private int capacidadeFila;
+
+    public DespachanteNotificacoesCriticas(NotificacoesServiceClient notificacoesClient,
+                                           ReactiveStringRedisTemplate redisTemplate,
+                                           FilaReprocessamento filaReprocessamento,
+                                           ObjectMapper objectMapper,
+                                           MeterRegistry meterRegistry) {
+        this.notificacoesClient = notificacoesClient;
+        this.redisTemplate = redisTemplate;
+        this.filaReprocessamento = filaReprocessamento;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+
+        this.tamanhoLote = DistributionSummary.builder("audit.notificacoes.criticas.lote")
+            .description("Notificações por requisição ao serviço de notificações")
+            .register(meterRegistry);
+        meterRegistry.gauge("audit.notificacoes.criticas.fila", pendentes);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        envio = saida.asFlux()
+            .doOnNext(_ -> pendentes.decrementAndGet())
+            .bufferTimeout(tamanhoMaximoLote, Duration.ofMillis(esperaLoteMs), true)
+            .concatMap(this::enviarPendentes)
+            .subscribe();
+    }
+
+    @PreDestroy
+    public void parar() {
+        Disposable atual = envio;
+        if (atual != null) {
+            atual.dispose();
+        }
+    }
+
+    /**
+     * Registra um evento: notifica pelo canal da severidade, agrega na janela
+     * ou descarta se repetido; completa depois do envio ou do agendamento
+     */
+    public Mono<Void> registrar(EventoAuditoriaDto evento, NivelSeveridade severidade) {
+        String tipo = evento.tipoEvento() != null ? evento.tipoEvento() : "DESCONHECIDO";
+        String origem = origem(evento);
+        String chaveJanela = PREFIXO_JANELA + severidade.getCodigo() + ":" + tipo + ":" + origem;
+        List<String> chaves = List.of(chaveJanela, PREFIXO_VISTO + evento.id());
+
+        return redisTemplate.execute(SCRIPT_REGISTRAR, chaves,
+                List.of(String.valueOf(janelaMs), String.valueOf(deduplicacaoMs), evento.id()))
+            .next()
+            .flatMap(posicao -> {
+                if (posicao == 0L) {
+                    contador("duplicado").increment();
+                    return Mono.empty();
+                }
+                if (posicao > 1L) {
+                    contador("agregado").increment();
+                    return Mono.empty();
+                }
+                contador("imediato").increment();
+                Map<String, Object> notificacao = notificacoesClient.notificacaoEvento(
+                    evento.id(), tipo, evento.usuarioId(), evento.acaoRealizada(), severidade);
+                // Não espera a janela do lote: CRITICAL sai na hora, no ritmo dos trabalhadores do pipeline
+                Mono<Void> envio = severidade == NivelSeveridade.CRITICAL
+                    ? enviarLote(List.of(notificacao))
+                    : enfileirar(notificacao);
+                return agendarResumo(new ResumoJanela(chaveJanela, tipo, origem, severidade))
+                    .then(envio)
+                    .onErrorResume(error -> redisTemplate.execute(SCRIPT_DESFAZER, chaves, List.of(evento.id()))
+                        .onErrorResume(_ -> Mono.empty())
+                        .then(Mono.error(error)));
+            })
+            .then();
+    }
+
+    /**
+     * Envia os resumos das janelas encerradas, de qualquer pod; cada janela é
+     * tomada por um único pod (ZREM) antes de ser fechada
+     */
+    @Scheduled(fixedDelayString = "${auditoria.notificacoes.resumo.intervalo-ms:5000}")
+    public void enviarResumosVencidos() {
+        redisTemplate.opsForZSet()
+            .rangeByScore(CHAVE_RESUMOS, Range.closed(0d, (double) System.currentTimeMillis()),
+                Limit.limit().count(LOTE_RESUMOS))
+            .concatMap(membro -> redisTemplate.opsForZSet().remove(CHAVE_RESUMOS, membro)
+                .filter(removidos -> removidos > 0)
+                .flatMap(_ -> fecharJanela(membro)))
+            .subscribe(
+                _ -> {},
+                error -> logger.warn("Falha ao enviar resumos de notificações: {}", error.getMessage()));
+    }
+
+    // ========== RETENTATIVA (FilaReprocessamento) ==========
+
+    @Override
+    public String tipo() {
+        return TIPO;
+    }
+
+    /**
+     * Reenvia uma notificação gravada após falha
+     */
+    @Override
+    public Mono<Void> processar(String referencia) {
+        String chave = PREFIXO_PENDENTE + referencia;
+        return redisTemplate.opsForValue().get(chave)
+            .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Notificação pendente expirada: " + referencia)))
+            .map(this::lerNotificacao)
+            .flatMap(notificacao -> notificacoesClient.enviarLote(List.of(notificacao)))
+            .then(redisTemplate.delete(chave))
+            .doOnSuccess(_ -> contador("reenviado").increment())
+            .then();
+    }
+
+    @Override
+    public boolean falhaPermanente(Throwable erro) {
+        return erro instanceof IllegalArgumentException;
+    }
+
+    // ========== ENVIO ==========
+
+    /**
+     * Registra o fim da janela (idempotente: só a primeira abertura conta)
+     */
+    private Mono<Void> agendarResumo(ResumoJanela resumo) {
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(resumo))
+            .flatMap(membro -> redisTemplate.execute(SCRIPT_AGENDAR_RESUMO, List.of(CHAVE_RESUMOS),
+                    List.of(String.valueOf(System.currentTimeMillis() + janelaMs), membro))
+                .then());
+    }
+
+    private Mono<Void> fecharJanela(String membro) {
+        ResumoJanela resumo;
+        try {
+            resumo = objectMapper.readValue(membro, ResumoJanela.class);
+        } catch (JsonProcessingException e) {
+            logger.warn("Resumo de janela ilegível descartado: {}", e.getOriginalMessage());
+            return Mono.empty();
+        }
+        return redisTemplate.execute(SCRIPT_FECHAR_JANELA, List.of(resumo.janela()), List.of())
+            .next()
+            // O primeiro evento da janela já foi notificado na hora
+            .filter(total -> total > 1)
+            .flatMap(total -> {
+                contador("resumo").increment();
+                return enfileirar(notificacoesClient.notificacaoResumo(resumo.tipo(), resumo.origem(),
+                    total - 1, Duration.ofMillis(janelaMs), resumo.severidade()));
+            })
+            .onErrorResume(error -> {
+                logger.warn("Resumo da janela {} perdido: {}", resumo.janela(), error.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    /**
+     * Põe a notificação no próximo lote; completa quando o lote foi enviado
+     * ou agendado para retentativa
+     */
+    private Mono<Void> enfileirar(Map<String, Object> notificacao) {
+        if (pendentes.incrementAndGet() > capacidadeFila) {
+            pendentes.decrementAndGet();
+            // Fila local cheia: direto para a fila durável
+            contador("transbordo").increment();
+            return agendarRetentativa(notificacao, "Fila local de notificações cheia");
+        }
+        Sinks.One<Void> entregue = Sinks.one();
+        // Sink unicast serializa os emissores; a espera ocupada cobre a disputa entre threads
+        saida.emitNext(new Pendente(notificacao, entregue), Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+        return entregue.asMono();
+    }
+
+    private Mono<Void> enviarPendentes(List<Pendente> lote) {
+        return enviarLote(lote.stream().map(Pendente::notificacao).toList())
+            .doOnSuccess(_ -> lote.forEach(pendente -> pendente.entregue().tryEmitEmpty()))
+            .onErrorResume(error -> {
+                lote.forEach(pendente -> pendente.entregue().tryEmitError(error));
+                return Mono.empty();
+            });
+    }
+
+    /**
+     * Envia o lote; se falhar, agenda cada notificação para retentativa.
+     * Erro só se alguma não pôde nem ser agendada
+     */
+    private Mono<Void> enviarLote(List<Map<String, Object>> lote) {
+        tamanhoLote.record(lote.size());
+        return notificacoesClient.enviarLote(lote)
+            .doOnSuccess(_ -> contador("enviado").increment(lote.size()))
+            .onErrorResume(error -> {
+                logger.warn("Falha ao enviar lote de {} notificações críticas: {}", lote.size(), error.getMessage());
+                return Flux.fromIterable(lote)
+                    .flatMapDelayError(notificacao -> agendarRetentativa(notificacao, error.getMessage()),
+                        lote.size(), 1)
+                    .then();
+            });
+    }
+
+    private Mono<Void> agendarRetentativa(Map<String, Object> notificacao, String motivo) {
+        String referencia = UUID.randomUUID().toString();
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(notificacao);
+        } catch (JsonProcessingException e) {
+            logger.error("Notificação crítica descartada, não serializável: {}", e.getMessage());
+            return Mono.empty();
+        }
+
+        return redisTemplate.opsForValue().set(PREFIXO_PENDENTE + referencia, json, RETENCAO_PENDENTE)
+            .then(filaReprocessamento.agendar(TIPO, referencia, motivo))
+            .doOnSuccess(_ -> contador("reagendado").increment())
+            .doOnError(error -> {
+                contador("perdido").increment();
+                logger.error("Notificação crítica não agendada, Redis indisponível: {}", error.getMessage());
+            })
+            .then();
+    }
+
+    // ========== AUXILIARES ==========
+
+    private record Pendente(Map<String, Object> notificacao, Sinks.One<Void> entregue) {}
+
+    /**
+     * Janela aguardando o resumo (membro do sorted set {@value #CHAVE_RESUMOS})
+     */
+    private record ResumoJanela(String janela, String tipo, String origem, NivelSeveridade severidade) {}
+
+    private Map<String, Object> lerNotificacao(String json) {
+        try {
+            return objectMapper.readValue(json, TIPO_NOTIFICACAO);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Notificação pendente inválida: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private static String origem(EventoAuditoriaDto evento) {
+        if (evento.ipOrigem() != null && !evento.ipOrigem().isBlank()) {
+            return evento.ipOrigem();
+        }
+        return evento.usuarioId() != null && !evento.usuarioId().isBlank() ? evento.usuarioId() : "desconhecida";
+    }
+
+    private Counter contador(String resultado) {
+        return contadores.computeIfAbsent(resultado, chave -> Counter.builder("audit.notificacoes.criticas")
+            .description("Eventos críticos e notificações por resultado")
+            .tag("resultado", chave)
+            .register(meterRegistry));
+    }
+}
@@ -0,0 +1,228 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.notificacao;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+import br.tec.facilitaservicos.auditoria.dominio.enums.NivelSeveridade;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+/**
+ * ============================================================================
+ * 🚦 PIPELINE DE ALERTAS POR SEVERIDADE
+ * ============================================================================
+ *
+ * Estágio em processo, depois da persistência, que leva cada evento com
+ * {@link NivelSeveridade#isRequerNotificacao()} ao canal da sua severidade:
+ * - Uma fila limitada por severidade (WARN, ERROR, CRITICAL), cada uma com
+ *   seu dreno, para que um acúmulo de avisos nunca atrase um CRITICAL
+ * - CRITICAL e ERROR ({@link NivelSeveridade#isRequerAcaoImediata()}) têm
+ *   trabalhadores próprios e seguem evento a evento; CRITICAL com mais
+ *   concorrência, para não disputar vaga com as demais
+ * - Prioridades menores são drenadas em lotes, que o despachante agrupa em
+ *   um POST ao serviço de notificações
+ * - {@link #submeter} só completa depois que o despachante entregou o alerta
+ *   (ou o agendou na fila durável de reprocessamento), então a entrada do
+ *   stream só é confirmada (ACK) depois disso; se o despacho falha, ou a
+ *   fila está cheia, o estágio falha e a entrada fica pendente para reentrega
+ * - SLO de latência de fila por severidade
+ *   ({@code audit.alertas.fila.latencia}) e contagem de violações
+ */
+@Component
+public class PipelineAlertasSeveridade {
+
+    private static final Logger logger = LoggerFactory.getLogger(PipelineAlertasSeveridade.class);
+
+    private final DespachanteNotificacoesCriticas despachante;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<NivelSeveridade, FilaSeveridade> filas = new EnumMap<>(NivelSeveridade.class);
+    private final List<Disposable> drenos = new ArrayList<>();
+
+    @Value("${auditoria.alertas.fila.capacidade:2048}")
+    private int capacidade;
+
+    @Value("${auditoria.alertas.critical.trabalhadores:8}")
+    private int trabalhadoresCriticos;
+
+    @Value("${auditoria.alertas.error.trabalhadores:4}")
+    private int trabalhadoresErro;
+
+    @Value("${auditoria.alertas.lote.tamanho:100}")
+    private int tamanhoLote;
+
+    @Value("${auditoria.alertas.lote.espera-ms:2000}")
+    private long esperaLoteMs;
+
+    @Value("${auditoria.alertas.slo.critical-ms:1000}")
+    private long sloCriticoMs;
+
+    @Value("${auditoria.alertas.slo.error-ms:5000}")
+    private long sloErroMs;
+
+    @Value("${auditoria.alertas.slo.warn-ms:30000}")
+    private long sloAvisoMs;
+
+    public PipelineAlertasSeveridade(DespachanteNotificacoesCriticas despachante, MeterRegistry meterRegistry) {
+        this.despachante = despachante;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        FilaSeveridade critica = criarFila(NivelSeveridade.CRITICAL, Duration.ofMillis(sloCriticoMs));
+        FilaSeveridade erro = criarFila(NivelSeveridade.ERROR, Duration.ofMillis(sloErroMs));
+        FilaSeveridade aviso = criarFila(NivelSeveridade.WARN, Duration.ofMillis(sloAvisoMs));
+
+        drenos.add(drenarIndividual(critica, trabalhadoresCriticos));
+        drenos.add(drenarIndividual(erro, trabalhadoresErro));
+        drenos.add(drenarEmLote(aviso));
+
+        logger.info("Pipeline de alertas iniciado: capacidade {} por severidade, {} trabalhadores CRITICAL, {} ERROR, lotes de {} WARN",
+            capacidade, trabalhadoresCriticos, trabalhadoresErro, tamanhoLote);
+    }
+
+    @PreDestroy
+    public void parar() {
+        drenos.forEach(Disposable::dispose);
+    }
+
+    /**
+     * Enfileira o evento na fila da sua severidade; completa quando o alerta
+     * foi despachado
+     *
+     * @return erro {@link IllegalStateException} se a fila estiver cheia, ou o
+     *         erro do despacho
+     */
+    public Mono<Void> submeter(EventoAuditoriaDto evento, NivelSeveridade severidade) {
+        FilaSeveridade fila = filas.get(severidade);
+        if (fila == null) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> fila.oferecer(evento).asMono());
+    }
+
+    // ========== DRENAGEM ==========
+
+    private Disposable drenarIndividual(FilaSeveridade fila, int trabalhadores) {
+        return fila.sink.asFlux()
+            .flatMap(item -> {
+                fila.registrarRetirada(item);
+                return entregar(item, fila.severidade);
+            }, trabalhadores)
+            .subscribe(
+                _ -> {},
+                error -> logger.error("Dreno de alertas {} encerrado com erro", fila.severidade, error));
+    }
+
+    private Disposable drenarEmLote(FilaSeveridade fila) {
+        return fila.sink.asFlux()
+            .bufferTimeout(tamanhoLote, Duration.ofMillis(esperaLoteMs), true)
+            .concatMap(lote -> {
+                lote.forEach(fila::registrarRetirada);
+                return Flux.fromIterable(lote)
+                    .flatMap(item -> entregar(item, fila.severidade), lote.size())
+                    .then();
+            })
+            .subscribe(
+                _ -> {},
+                error -> logger.error("Dreno de alertas {} encerrado com erro", fila.severidade, error));
+    }
+
+    /**
+     * Despacha e devolve o resultado a quem submeteu; o dreno segue em frente
+     */
+    private Mono<Void> entregar(ItemAlerta item, NivelSeveridade severidade) {
+        return despachante.registrar(item.evento(), severidade)
+            .doOnSuccess(_ -> item.despachado().tryEmitEmpty())
+            .onErrorResume(error -> {
+                logger.warn("Falha ao registrar alerta {} do evento {}: {}", severidade, item.evento().id(), error.getMessage());
+                item.despachado().tryEmitError(error);
+                return Mono.empty();
+            });
+    }
+
+    // ========== FILAS ==========
+
+    private FilaSeveridade criarFila(NivelSeveridade severidade, Duration slo) {
+        FilaSeveridade fila = new FilaSeveridade(severidade, slo);
+        filas.put(severidade, fila);
+        return fila;
+    }
+
+    private record ItemAlerta(EventoAuditoriaDto evento, long enfileiradoNanos, Sinks.One<Void> despachado) {}
+
+    private final class FilaSeveridade {
+
+        final NivelSeveridade severidade;
+        final long sloNanos;
+        final AtomicInteger emEspera = new AtomicInteger();
+        final Sinks.Many<ItemAlerta> sink = Sinks.many().unicast()
+            .onBackpressureBuffer(Queues.<ItemAlerta>unboundedMultiproducer().get());
+        final Timer latencia;
+        final Counter violacoes;
+        final Counter rejeitados;
+
+        FilaSeveridade(NivelSeveridade severidade, Duration slo) {
+            this.severidade = severidade;
+            this.sloNanos = slo.toNanos();
+            this.latencia = Timer.builder("audit.alertas.fila.latencia")
+                .description("Tempo entre o enfileiramento do alerta e a retirada pelo trabalhador")
+                .tag("severidade", severidade.name())
+                .serviceLevelObjectives(slo)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+            this.violacoes = Counter.builder("audit.alertas.slo.violacoes")
+                .description("Alertas retirados da fila depois do SLO da severidade")
+                .tag("severidade", severidade.name())
+                .register(meterRegistry);
+            this.rejeitados = Counter.builder("audit.alertas.rejeitados")
+                .description("Alertas recusados por fila cheia")
+                .tag("severidade", severidade.name())
+                .register(meterRegistry);
+            meterRegistry.gauge("audit.alertas.fila", Tags.of("severidade", severidade.name()), emEspera);
+        }
+
+        Sinks.One<Void> oferecer(EventoAuditoriaDto evento) {
+            if (emEspera.incrementAndGet() > capacidade) {
+                emEspera.decrementAndGet();
+                rejeitados.increment();
+                throw new IllegalStateException("Fila de alertas " + severidade + " cheia (capacidade " + capacidade + ")");
+            }
+            Sinks.One<Void> despachado = Sinks.one();
+            // Sink unicast serializa os emissores; a espera ocupada cobre a disputa entre threads
+            sink.emitNext(new ItemAlerta(evento, System.nanoTime(), despachado),
+                Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+            return despachado;
+        }
+
+        void registrarRetirada(ItemAlerta item) {
+            emEspera.decrementAndGet();
+            long espera = System.nanoTime() - item.enfileiradoNanos();
+            latencia.record(espera, TimeUnit.NANOSECONDS);
+            if (espera > sloNanos) {
+                violacoes.increment();
+            }
+        }
+    }
+}
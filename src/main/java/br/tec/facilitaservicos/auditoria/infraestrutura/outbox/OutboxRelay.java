@@ -0,0 +1,321 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.outbox;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+import br.tec.facilitaservicos.auditoria.dominio.entidade.OutboxEventoR2dbc;
+import br.tec.facilitaservicos.auditoria.dominio.repositorio.OutboxEventoRepository;
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.EventStreamingService;
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.OuvinteEventoPublicado;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ============================================================================
+ * 🚚 RELAY DO OUTBOX PARA REDIS STREAMS
+ * ============================================================================
+ *
+ * Publica as linhas pendentes do outbox no stream de auditoria:
+ * - Lotes reservados com FOR UPDATE SKIP LOCKED (seguro com várias instâncias)
+ * - XADDs do lote disparados com concorrência limitada e na ordem do outbox
+ *   (flatMapSequential) e agrupados em pipeline pelo PublicadorLoteStream
+ * - Para de reservar linhas enquanto o publicador sinaliza saturação
+ * - Um único UPDATE marca o lote como publicado
+ * - Acordado a cada commit; sem novidades, faz polling com backoff
+ * - Cada XADD confirmado é repassado aos {@link OuvinteEventoPublicado}
+ *   (feed em tempo real) com o id da entrada no stream
+ * - Linha que falha continua pendente; esgotadas as tentativas o evento vai
+ *   para a DLQ e a linha fica em FALHA (payload ilegível vai direto a FALHA)
+ *
+ * Métricas: pendentes, lag (idade da linha pendente mais antiga), atraso
+ * entre gravação e publicação, publicados, falhas e enviados à DLQ.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final int TAMANHO_MAXIMO_ERRO = 500;
+    private static final int LOTE_LIMPEZA = 5000;
+
+    private final OutboxEventoRepository outboxRepository;
+    private final OutboxService outboxService;
+    private final EventStreamingService streamingService;
+    private final TransactionalOperator transactionalOperator;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<OuvinteEventoPublicado> ouvintes;
+    private volatile List<OuvinteEventoPublicado> ouvintesAtivos = List.of();
+
+    private final Counter publicados;
+    private final Counter falhas;
+    private final Counter enviadosDlq;
+    private final Timer atrasoPublicacao;
+    private final AtomicLong pendentes = new AtomicLong();
+    private final AtomicLong lagMs = new AtomicLong();
+
+    private final AtomicBoolean ativo = new AtomicBoolean(false);
+    private volatile Disposable relay;
+
+    @Value("${auditoria.outbox.relay.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${auditoria.outbox.relay.tamanho-lote:200}")
+    private int tamanhoLote;
+
+    @Value("${auditoria.outbox.relay.concorrencia:256}")
+    private int concorrencia;
+
+    @Value("${auditoria.outbox.relay.espera-ociosa-min-ms:20}")
+    private long esperaOciosaMinMs;
+
+    @Value("${auditoria.outbox.relay.espera-ociosa-max-ms:1000}")
+    private long esperaOciosaMaxMs;
+
+    @Value("${auditoria.outbox.relay.max-tentativas:10}")
+    private int maxTentativas;
+
+    @Value("${auditoria.outbox.retencao-publicados-horas:24}")
+    private long retencaoPublicadosHoras;
+
+    public OutboxRelay(OutboxEventoRepository outboxRepository,
+                       OutboxService outboxService,
+                       EventStreamingService streamingService,
+                       TransactionalOperator transactionalOperator,
+                       ObjectMapper objectMapper,
+                       ObjectProvider<OuvinteEventoPublicado> ouvintes,
+                       MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.outboxService = outboxService;
+        this.streamingService = streamingService;
+        this.transactionalOperator = transactionalOperator;
+        this.objectMapper = objectMapper;
+        this.ouvintes = ouvintes;
+
+        this.publicados = Counter.builder("audit.outbox.publicados")
+            .description("Linhas do outbox publicadas no stream")
+            .register(meterRegistry);
+        this.falhas = Counter.builder("audit.outbox.falhas")
+            .description("Falhas ao publicar linhas do outbox")
+            .register(meterRegistry);
+        this.enviadosDlq = Counter.builder("audit.outbox.dlq")
+            .description("Linhas do outbox movidas para a DLQ após esgotar as tentativas")
+            .register(meterRegistry);
+        this.atrasoPublicacao = Timer.builder("audit.outbox.atraso.publicacao")
+            .description("Tempo entre a gravação no outbox e a publicação no stream")
+            .publishPercentiles(0.5, 0.99, 0.999)
+            .register(meterRegistry);
+        meterRegistry.gauge("audit.outbox.pendentes", pendentes);
+        TimeGauge.builder("audit.outbox.lag", lagMs, TimeUnit.MILLISECONDS, AtomicLong::doubleValue)
+            .description("Idade da linha pendente mais antiga do outbox")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (!habilitado || !ativo.compareAndSet(false, true)) {
+            return;
+        }
+        ouvintesAtivos = ouvintes.orderedStream().toList();
+
+        AtomicLong espera = new AtomicLong(esperaOciosaMinMs);
+        relay = Mono.defer(this::publicarLote)
+            .flatMap(quantidade -> {
+                if (quantidade > 0) {
+                    espera.set(esperaOciosaMinMs);
+                    return Mono.just(quantidade);
+                }
+                long atual = espera.getAndUpdate(valor -> Math.min(valor * 2, esperaOciosaMaxMs));
+                return aguardarNovidades(Duration.ofMillis(atual), espera).thenReturn(quantidade);
+            })
+            .onErrorResume(error -> {
+                logger.warn("Falha no relay do outbox: {}", error.getMessage());
+                return Mono.delay(Duration.ofMillis(esperaOciosaMaxMs)).thenReturn(0);
+            })
+            .repeat(ativo::get)
+            .subscribe();
+
+        logger.info("Relay do outbox iniciado (lote={}, concorrência={})", tamanhoLote, concorrencia);
+    }
+
+    @PreDestroy
+    public void parar() {
+        ativo.set(false);
+        Disposable atual = relay;
+        if (atual != null) {
+            atual.dispose();
+        }
+    }
+
+    /**
+     * Atualizar métricas de lag do outbox
+     */
+    @Scheduled(fixedDelayString = "${auditoria.outbox.metricas.intervalo-ms:15000}")
+    public void atualizarMetricasLag() {
+        outboxRepository.countPendentes()
+            .doOnNext(pendentes::set)
+            .then(outboxRepository.findCriadoEmPendenteMaisAntigo()
+                .map(criadoEm -> Duration.between(criadoEm, LocalDateTime.now()).toMillis())
+                .defaultIfEmpty(0L))
+            .subscribe(
+                lagMs::set,
+                error -> logger.debug("Falha ao atualizar lag do outbox: {}", error.getMessage()));
+    }
+
+    /**
+     * Remover linhas publicadas após o período de retenção
+     */
+    @Scheduled(fixedDelayString = "${auditoria.outbox.limpeza.intervalo-ms:3600000}")
+    public void limparPublicados() {
+        LocalDateTime limite = LocalDateTime.now().minusHours(retencaoPublicadosHoras);
+
+        outboxRepository.removerPublicadosAntesDe(limite, LOTE_LIMPEZA)
+            .expand(removidas -> removidas == LOTE_LIMPEZA
+                ? outboxRepository.removerPublicadosAntesDe(limite, LOTE_LIMPEZA)
+                : Mono.empty())
+            .reduce(0, Integer::sum)
+            .subscribe(
+                total -> logger.debug("Outbox: {} linhas publicadas removidas", total),
+                error -> logger.warn("Falha na limpeza do outbox: {}", error.getMessage()));
+    }
+
+    // ========== PUBLICAÇÃO ==========
+
+    /**
+     * Reserva, publica e marca um lote; retorna quantas linhas foram publicadas
+     */
+    private Mono<Integer> publicarLote() {
+        // Publicador saturado: não reserva mais linhas, o loop entra em backoff
+        if (streamingService.publicacaoSaturada()) {
+            return Mono.just(0);
+        }
+
+        return outboxRepository.reservarPendentes(tamanhoLote)
+            .collectList()
+            .flatMap(lote -> lote.isEmpty() ? Mono.just(0) : publicar(lote))
+            .as(transactionalOperator::transactional);
+    }
+
+    private Mono<Integer> publicar(List<OutboxEventoR2dbc> lote) {
+        return Flux.fromIterable(lote)
+            .flatMapSequential(this::publicarLinha, concorrencia)
+            .collectList()
+            .flatMap(resultados -> {
+                List<Long> ids = resultados.stream()
+                    .filter(Resultado::sucesso)
+                    .map(resultado -> resultado.linha().getId())
+                    .toList();
+
+                Mono<Integer> marcar = ids.isEmpty()
+                    ? Mono.just(0)
+                    : outboxRepository.marcarPublicados(ids, LocalDateTime.now());
+
+                return marcar
+                    .thenMany(Flux.fromIterable(resultados)
+                        .filter(resultado -> !resultado.sucesso())
+                        .concatMap(this::registrarFalha))
+                    .then(Mono.just(ids.size()));
+            });
+    }
+
+    private Mono<Resultado> publicarLinha(OutboxEventoR2dbc linha) {
+        EventoAuditoriaDto evento;
+        try {
+            evento = objectMapper.readValue(linha.getPayload(), EventoAuditoriaDto.class);
+        } catch (Exception e) {
+            return Mono.just(new Resultado(linha, null, "Payload inválido: " + e.getMessage(), true));
+        }
+
+        return streamingService.publicar(evento)
+            .map(idStream -> {
+                publicados.increment();
+                if (linha.getCriadoEm() != null) {
+                    atrasoPublicacao.record(Duration.between(linha.getCriadoEm(), LocalDateTime.now()));
+                }
+                notificarOuvintes(idStream, evento);
+                return new Resultado(linha, evento, null, false);
+            })
+            .onErrorResume(error -> Mono.just(new Resultado(linha, evento,
+                error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName(), false)));
+    }
+
+    private Mono<Integer> registrarFalha(Resultado resultado) {
+        falhas.increment();
+        String erro = resultado.erro() == null ? "erro desconhecido" : resultado.erro();
+        if (erro.length() > TAMANHO_MAXIMO_ERRO) {
+            erro = erro.substring(0, TAMANHO_MAXIMO_ERRO);
+        }
+        OutboxEventoR2dbc linha = resultado.linha();
+        logger.warn("Falha ao publicar evento {} do outbox: {}", linha.getEventoId(), erro);
+
+        if (resultado.permanente()) {
+            return outboxRepository.marcarFalhaPermanente(linha.getId(), erro);
+        }
+        int tentativas = linha.getTentativas() == null ? 0 : linha.getTentativas();
+        if (tentativas + 1 < maxTentativas) {
+            return outboxRepository.registrarFalha(linha.getId(), erro);
+        }
+
+        // Tentativas esgotadas: o evento segue para a DLQ (de onde o redrive o
+        // devolve) e a linha sai da fila; sem a DLQ, continua pendente
+        String motivo = "Outbox: " + (tentativas + 1) + " tentativas - " + erro;
+        String erroFinal = erro;
+        return streamingService.enviarParaDLQ(resultado.evento(), motivo)
+            .doOnNext(_ -> enviadosDlq.increment())
+            .then(outboxRepository.marcarFalhaPermanente(linha.getId(), erroFinal))
+            .onErrorResume(error -> {
+                logger.warn("Falha ao mover evento {} do outbox para a DLQ: {}", linha.getEventoId(), error.getMessage());
+                return outboxRepository.registrarFalha(linha.getId(), erroFinal);
+            });
+    }
+
+    private void notificarOuvintes(String idStream, EventoAuditoriaDto evento) {
+        for (OuvinteEventoPublicado ouvinte : ouvintesAtivos) {
+            try {
+                ouvinte.eventoPublicado(idStream, evento);
+            } catch (RuntimeException e) {
+                logger.debug("Ouvinte {} falhou para o evento {}: {}",
+                    ouvinte.getClass().getSimpleName(), evento.id(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Espera o próximo commit ou o fim do backoff, o que vier primeiro
+     */
+    private Mono<Void> aguardarNovidades(Duration espera, AtomicLong esperaAtual) {
+        return Mono.firstWithSignal(
+            Mono.delay(espera).then(),
+            outboxService.commits().next()
+                .doOnNext(_ -> esperaAtual.set(esperaOciosaMinMs))
+                .then());
+    }
+
+    private record Resultado(OutboxEventoR2dbc linha, EventoAuditoriaDto evento, String erro, boolean permanente) {
+        boolean sucesso() {
+            return erro == null && !permanente;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.outbox;
+
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+import br.tec.facilitaservicos.auditoria.dominio.entidade.OutboxEventoR2dbc;
+import br.tec.facilitaservicos.auditoria.dominio.repositorio.InsercaoEmLoteRepository;
+import br.tec.facilitaservicos.auditoria.dominio.repositorio.OutboxEventoRepository;
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.EventStreamingService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * ============================================================================
+ * 📤 OUTBOX TRANSACIONAL - AUDITORIA & COMPLIANCE
+ * ============================================================================
+ *
+ * Grava a intenção de publicar um evento no stream dentro da mesma transação
+ * R2DBC do evento. A publicação efetiva fica a cargo do {@link OutboxRelay},
+ * que é acordado após cada commit via {@link #notificarCommit()}.
+ */
+@Service
+public class OutboxService {
+
+    private static final String REATIVAR_LINHA = """
+        status = 'PENDENTE', tentativas = 0, ultimo_erro = NULL, publicado_em = NULL,
+        payload = VALUES(payload), criado_em = VALUES(criado_em)""";
+
+    private final OutboxEventoRepository outboxRepository;
+    private final InsercaoEmLoteRepository insercaoEmLote;
+    private final ObjectMapper objectMapper;
+    private final Sinks.Many<Boolean> commits = Sinks.many().multicast().directBestEffort();
+
+    public OutboxService(OutboxEventoRepository outboxRepository, InsercaoEmLoteRepository insercaoEmLote,
+                         ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.insercaoEmLote = insercaoEmLote;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Enfileirar evento para o stream principal (deve rodar dentro da transação do evento)
+     */
+    public Mono<OutboxEventoR2dbc> enfileirar(EventoAuditoriaDto evento) {
+        return Mono.fromCallable(() -> OutboxEventoR2dbc.pendente(
+                evento.id(), EventStreamingService.AUDIT_STREAM, objectMapper.writeValueAsString(evento)))
+            .flatMap(outboxRepository::save);
+    }
+
+    /**
+     * Enfileirar vários eventos com um único INSERT, na ordem da lista (deve
+     * rodar dentro da transação dos eventos)
+     */
+    public Mono<Long> enfileirarLote(List<EventoAuditoriaDto> eventos) {
+        return linhasPendentes(eventos).flatMap(insercaoEmLote::inserir);
+    }
+
+    /**
+     * Enfileirar de novo eventos que podem já ter linha no outbox (publicada
+     * ou em FALHA): a linha existente volta a PENDENTE com o payload atual e
+     * as tentativas zeradas, em vez de violar a chave (evento_id, stream)
+     *
+     * @return linhas afetadas como o MySQL as conta (1 inserida, 2 reativada)
+     */
+    public Mono<Long> reenfileirarLote(List<EventoAuditoriaDto> eventos) {
+        return linhasPendentes(eventos).flatMap(linhas -> insercaoEmLote.inserir(linhas, REATIVAR_LINHA));
+    }
+
+    private Mono<List<OutboxEventoR2dbc>> linhasPendentes(List<EventoAuditoriaDto> eventos) {
+        return Flux.fromIterable(eventos)
+            .map(evento -> {
+                try {
+                    return OutboxEventoR2dbc.pendente(
+                        evento.id(), EventStreamingService.AUDIT_STREAM, objectMapper.writeValueAsString(evento));
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException("Erro ao serializar evento para o outbox", e);
+                }
+            })
+            .collectList();
+    }
+
+    /**
+     * Sinaliza que há linhas novas commitadas
+     */
+    public void notificarCommit() {
+        commits.tryEmitNext(Boolean.TRUE);
+    }
+
+    /**
+     * Sinais de commit consumidos pelo relay
+     */
+    Flux<Boolean> commits() {
+        return commits.asFlux();
+    }
+}
@@ -0,0 +1,67 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.privacidade;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * ============================================================================
+ * 📊 CONTADORES DO PAINEL DE PRIVACIDADE
+ * ============================================================================
+ *
+ * Pedidos de exportação e de exclusão ainda não encerrados, mantidos por
+ * incremento nas transições dos jobs (criação +1, conclusão/falha -1) e
+ * servidos da memória. Quem é dono da tabela reconcilia periodicamente com
+ * uma contagem no banco ({@link #reconciliarExportacoes}), o que também
+ * traz para este pod os pedidos criados e encerrados em outros.
+ */
+@Component
+public class ContadoresPrivacidade {
+
+    private final AtomicLong exportacoesPendentes = new AtomicLong();
+    private final AtomicLong exclusoesPendentes = new AtomicLong();
+
+    public ContadoresPrivacidade(MeterRegistry meterRegistry) {
+        Gauge.builder("audit.privacidade.exportacoes.pendentes", exportacoesPendentes, AtomicLong::doubleValue)
+            .description("Exportações de titular pendentes ou em andamento")
+            .register(meterRegistry);
+        Gauge.builder("audit.privacidade.exclusoes.pendentes", exclusoesPendentes, AtomicLong::doubleValue)
+            .description("Pedidos de exclusão pendentes ou em andamento")
+            .register(meterRegistry);
+    }
+
+    public void exportacaoAberta() {
+        exportacoesPendentes.incrementAndGet();
+    }
+
+    public void exportacaoEncerrada() {
+        exportacoesPendentes.updateAndGet(atual -> Math.max(0, atual - 1));
+    }
+
+    public void reconciliarExportacoes(long pendentes) {
+        exportacoesPendentes.set(pendentes);
+    }
+
+    public void exclusaoAberta() {
+        exclusoesPendentes.incrementAndGet();
+    }
+
+    public void exclusaoEncerrada() {
+        exclusoesPendentes.updateAndGet(atual -> Math.max(0, atual - 1));
+    }
+
+    public void reconciliarExclusoes(long pendentes) {
+        exclusoesPendentes.set(pendentes);
+    }
+
+    public long exportacoesPendentes() {
+        return exportacoesPendentes.get();
+    }
+
+    public long exclusoesPendentes() {
+        return exclusoesPendentes.get();
+    }
+}
@@ -0,0 +1,125 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.privacidade;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import br.tec.facilitaservicos.auditoria.dominio.enums.FinalidadeConsentimento;
+
+/**
+ * ============================================================================
+ * ✅ ÍNDICE DE CONSENTIMENTOS EM MEMÓRIA
+ * ============================================================================
+ *
+ * Estado atual por usuário em um bitset de finalidades (um long) mais o seq
+ * da última mudança de cada finalidade. A verificação é uma leitura no mapa
+ * e um teste de bit, sem alocação.
+ *
+ * Cada mudança traz o seq do log: só é aplicada se for mais nova que a que o
+ * índice tem para aquele (usuário, finalidade), então carga inicial, escrita
+ * local e leitura do log podem chegar em qualquer ordem e repetir entradas.
+ * O estado de um usuário é imutável e trocado por inteiro (compute), então
+ * quem lê nunca vê uma atualização pela metade. O total de usuários com
+ * alguma finalidade concedida é mantido na mesma troca, sem varrer o mapa.
+ */
+public final class IndiceConsentimentos {
+
+    private static final int FINALIDADES = FinalidadeConsentimento.values().length;
+
+    private final Map<String, Estado> porUsuario = new ConcurrentHashMap<>();
+    private final AtomicLong comConsentimento = new AtomicLong();
+
+    /**
+     * Aplica uma mudança se ela for mais nova que a conhecida
+     *
+     * @return true se o estado mudou de versão
+     */
+    public boolean aplicar(String usuarioId, FinalidadeConsentimento finalidade, boolean concedido, long seq) {
+        boolean[] aplicada = new boolean[1];
+        porUsuario.compute(usuarioId, (_, atual) -> {
+            Estado base = atual != null ? atual : Estado.VAZIO;
+            if (seq <= base.seqs[finalidade.ordinal()]) {
+                return atual;
+            }
+            aplicada[0] = true;
+            Estado novo = base.com(finalidade, concedido, seq);
+            if ((base.concedidos == 0) != (novo.concedidos == 0)) {
+                comConsentimento.addAndGet(novo.concedidos != 0 ? 1 : -1);
+            }
+            return novo;
+        });
+        return aplicada[0];
+    }
+
+    public boolean consentiu(String usuarioId, FinalidadeConsentimento finalidade) {
+        Estado estado = porUsuario.get(usuarioId);
+        return estado != null && (estado.concedidos & finalidade.bit()) != 0;
+    }
+
+    /**
+     * Verificação em lote de uma finalidade, na ordem recebida
+     */
+    public Map<String, Boolean> verificar(Collection<String> usuarios, FinalidadeConsentimento finalidade) {
+        Map<String, Boolean> resultado = new LinkedHashMap<>(Math.max(16, usuarios.size() * 4 / 3 + 1));
+        long bit = finalidade.bit();
+        for (String usuarioId : usuarios) {
+            Estado estado = porUsuario.get(usuarioId);
+            resultado.put(usuarioId, estado != null && (estado.concedidos & bit) != 0);
+        }
+        return resultado;
+    }
+
+    /**
+     * Finalidades de um usuário; as nunca registradas aparecem como não concedidas
+     */
+    public Map<FinalidadeConsentimento, Boolean> finalidades(String usuarioId) {
+        Estado estado = porUsuario.getOrDefault(usuarioId, Estado.VAZIO);
+        Map<FinalidadeConsentimento, Boolean> resultado = new EnumMap<>(FinalidadeConsentimento.class);
+        for (FinalidadeConsentimento finalidade : FinalidadeConsentimento.values()) {
+            resultado.put(finalidade, (estado.concedidos & finalidade.bit()) != 0);
+        }
+        return resultado;
+    }
+
+    public int usuarios() {
+        return porUsuario.size();
+    }
+
+    /**
+     * Usuários com ao menos uma finalidade concedida
+     */
+    public long usuariosComConsentimento() {
+        return comConsentimento.get();
+    }
+
+    public void limpar() {
+        porUsuario.clear();
+        comConsentimento.set(0);
+    }
+
+    /**
+     * Estado imutável de um usuário
+     */
+    private static final class Estado {
+
+        static final Estado VAZIO = new Estado(0L, new long[FINALIDADES]);
+
+        final long concedidos;
+        final long[] seqs;
+
+        Estado(long concedidos, long[] seqs) {
+            this.concedidos = concedidos;
+            this.seqs = seqs;
+        }
+
+        Estado com(FinalidadeConsentimento finalidade, boolean concedido, long seq) {
+            long[] novosSeqs = seqs.clone();
+            novosSeqs[finalidade.ordinal()] = seq;
+            long bits = concedido ? concedidos | finalidade.bit() : concedidos & ~finalidade.bit();
+            return new Estado(bits, novosSeqs);
+        }
+    }
+}
@@ -0,0 +1,487 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.reprocessamento;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ============================================================================
+ * 🔁 FILA DURÁVEL DE REPROCESSAMENTO
+ * ============================================================================
+ *
+ * Agenda itens para nova tentativa em Redis, com entrega ao menos uma vez:
+ * - {@code agendados}: sorted set pontuado pelo horário da próxima tentativa;
+ *   o backoff exponencial (com jitter) é só a pontuação
+ * - {@code em-andamento}: sorted set pontuado pelo fim da visibilidade; a
+ *   reivindicação move o item atomicamente (Lua) e conta a tentativa. Se o
+ *   pod cair, o item volta para agendados quando a visibilidade expira
+ * - {@code falhas}: itens que esgotaram as tentativas ou falharam de forma
+ *   permanente, pontuados pelo horário da falha e retidos por
+ *   {@code auditoria.reprocessamento.retencao-falhas-horas}
+ * - {@code tentativas}: hash membro → tentativas dos itens vivos; ao falhar
+ *   de vez, a contagem passa para o hash do item
+ * - {@code item:<membro>}: hash com motivo, criação e último erro
+ *
+ * Toda chave que um script toca é declarada em KEYS, e todas compartilham a
+ * hash tag {@code {reprocessamento}}, ficando no mesmo slot em cluster.
+ *
+ * Membros são {@code <tipo>:<referencia>}; cada tipo é atendido por um
+ * {@link TratadorReprocessamento}. O pool de trabalhadores é limitado e só
+ * reivindica o que tem capacidade de executar. Métricas: profundidade por
+ * estado, atraso do item vencido mais antigo, resultados e tentativas.
+ */
+@Component
+public class FilaReprocessamento {
+
+    private static final Logger logger = LoggerFactory.getLogger(FilaReprocessamento.class);
+
+    private static final String PREFIXO = "audit:{reprocessamento}:";
+    private static final String CHAVE_AGENDADOS = PREFIXO + "agendados";
+    private static final String CHAVE_EM_ANDAMENTO = PREFIXO + "em-andamento";
+    private static final String CHAVE_FALHAS = PREFIXO + "falhas";
+    private static final String CHAVE_TENTATIVAS = PREFIXO + "tentativas";
+    private static final String PREFIXO_ITEM = PREFIXO + "item:";
+
+    private static final int TAMANHO_MAXIMO_ERRO = 300;
+
+    private static final RedisScript<Long> SCRIPT_AGENDAR = RedisScript.of("""
+        if redis.call('ZSCORE', KEYS[2], ARGV[1]) then return 0 end
+        if redis.call('ZREM', KEYS[3], ARGV[1]) == 1 then
+            redis.call('HDEL', KEYS[4], 'tentativas')
+            redis.call('HSET', KEYS[5], ARGV[1], 0)
+        end
+        redis.call('HSETNX', KEYS[5], ARGV[1], 0)
+        redis.call('HSETNX', KEYS[4], 'criado_em', ARGV[4])
+        redis.call('HSET', KEYS[4], 'motivo', ARGV[3])
+        redis.call('PERSIST', KEYS[4])
+        return redis.call('ZADD', KEYS[1], 'NX', ARGV[2], ARGV[1])
+        """, Long.class);
+
+    // Resposta em uma linha por campo (expirados, membro, tentativas, ...): o
+    // retorno multi-bulk de EVAL chega elemento a elemento no template reativo
+    private static final RedisScript<String> SCRIPT_REIVINDICAR = RedisScript.of("""
+        local expirados = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', ARGV[1], 'LIMIT', 0, ARGV[3])
+        for _, membro in ipairs(expirados) do
+            redis.call('ZREM', KEYS[2], membro)
+            redis.call('ZADD', KEYS[1], ARGV[1], membro)
+        end
+        local saida = { tostring(#expirados) }
+        local prontos = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[3])
+        for _, membro in ipairs(prontos) do
+            redis.call('ZREM', KEYS[1], membro)
+            redis.call('ZADD', KEYS[2], ARGV[2], membro)
+            table.insert(saida, membro)
+            table.insert(saida, tostring(redis.call('HINCRBY', KEYS[3], membro, 1)))
+        end
+        return table.concat(saida, '\\n')
+        """, String.class);
+
+    private static final RedisScript<Long> SCRIPT_CONCLUIR = RedisScript.of("""
+        if redis.call('ZREM', KEYS[1], ARGV[1]) == 1 then
+            redis.call('DEL', KEYS[2])
+            redis.call('HDEL', KEYS[3], ARGV[1])
+            return 1
+        end
+        return 0
+        """, Long.class);
+
+    private static final RedisScript<Long> SCRIPT_FALHAR = RedisScript.of("""
+        if redis.call('ZREM', KEYS[1], ARGV[1]) == 0 then return 0 end
+        redis.call('HSET', KEYS[4], 'ultimo_erro', ARGV[4])
+        if ARGV[3] == '1' then
+            redis.call('ZADD', KEYS[3], ARGV[2], ARGV[1])
+            redis.call('HSET', KEYS[4], 'tentativas', redis.call('HGET', KEYS[5], ARGV[1]) or 0)
+            redis.call('HDEL', KEYS[5], ARGV[1])
+            redis.call('EXPIRE', KEYS[4], ARGV[5])
+        else
+            redis.call('ZADD', KEYS[2], ARGV[2], ARGV[1])
+        end
+        return 1
+        """, Long.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ObjectProvider<TratadorReprocessamento> provedorTratadores;
+    private volatile Map<String, TratadorReprocessamento> tratadores = Map.of();
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Counter> resultados = new ConcurrentHashMap<>();
+    private final DistributionSummary tentativasPorItem;
+    private final AtomicLong profundidadeAgendados = new AtomicLong();
+    private final AtomicLong profundidadeEmAndamento = new AtomicLong();
+    private final AtomicLong profundidadeFalhas = new AtomicLong();
+    private final AtomicLong atrasoMs = new AtomicLong();
+    private final AtomicInteger emVoo = new AtomicInteger();
+
+    private final AtomicBoolean ativo = new AtomicBoolean(false);
+    private volatile Disposable trabalhadoresAtivos;
+
+    @Value("${auditoria.reprocessamento.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${auditoria.reprocessamento.trabalhadores:8}")
+    private int trabalhadores;
+
+    @Value("${auditoria.reprocessamento.visibilidade-ms:60000}")
+    private long visibilidadeMs;
+
+    @Value("${auditoria.reprocessamento.timeout-ms:30000}")
+    private long timeoutMs;
+
+    @Value("${auditoria.reprocessamento.max-tentativas:5}")
+    private int maxTentativas;
+
+    @Value("${auditoria.reprocessamento.backoff-base-ms:2000}")
+    private long backoffBaseMs;
+
+    @Value("${auditoria.reprocessamento.backoff-max-ms:600000}")
+    private long backoffMaxMs;
+
+    @Value("${auditoria.reprocessamento.espera-ociosa-min-ms:100}")
+    private long esperaOciosaMinMs;
+
+    @Value("${auditoria.reprocessamento.espera-ociosa-max-ms:2000}")
+    private long esperaOciosaMaxMs;
+
+    @Value("${auditoria.reprocessamento.retencao-falhas-horas:168}")
+    private long retencaoFalhasHoras;
+
+    public FilaReprocessamento(ReactiveStringRedisTemplate redisTemplate,
+                               ObjectProvider<TratadorReprocessamento> tratadores,
+                               MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.provedorTratadores = tratadores;
+        this.meterRegistry = meterRegistry;
+
+        this.tentativasPorItem = DistributionSummary.builder("audit.reprocessamento.tentativas")
+            .description("Tentativas até a conclusão ou falha definitiva de um item")
+            .register(meterRegistry);
+        meterRegistry.gauge("audit.reprocessamento.fila", Tags.of("estado", "agendado"), profundidadeAgendados);
+        meterRegistry.gauge("audit.reprocessamento.fila", Tags.of("estado", "em_andamento"), profundidadeEmAndamento);
+        meterRegistry.gauge("audit.reprocessamento.fila", Tags.of("estado", "falha"), profundidadeFalhas);
+        meterRegistry.gauge("audit.reprocessamento.trabalhadores.ocupados", emVoo);
+        TimeGauge.builder("audit.reprocessamento.atraso", atrasoMs, TimeUnit.MILLISECONDS, AtomicLong::doubleValue)
+            .description("Há quanto tempo o item vencido mais antigo aguarda um trabalhador")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (!habilitado || !ativo.compareAndSet(false, true)) {
+            return;
+        }
+
+        // Resolvidos aqui: tratadores podem depender de serviços que agendam nesta fila
+        tratadores = provedorTratadores.stream()
+            .collect(Collectors.toMap(TratadorReprocessamento::tipo, Function.identity()));
+
+        logger.info("Iniciando fila de reprocessamento com {} trabalhadores para os tipos {}",
+            trabalhadores, tratadores.keySet());
+
+        AtomicLong espera = new AtomicLong(esperaOciosaMinMs);
+        trabalhadoresAtivos = Mono.defer(this::ciclo)
+            .flatMap(despachados -> {
+                if (despachados > 0) {
+                    espera.set(esperaOciosaMinMs);
+                    return Mono.just(despachados);
+                }
+                long atual = espera.getAndUpdate(valor -> Math.min(valor * 2, esperaOciosaMaxMs));
+                return Mono.delay(Duration.ofMillis(atual)).thenReturn(despachados);
+            })
+            .onErrorResume(error -> {
+                logger.warn("Erro ao reivindicar itens de reprocessamento: {}", error.getMessage());
+                return Mono.delay(Duration.ofMillis(esperaOciosaMaxMs)).thenReturn(0);
+            })
+            .repeat(ativo::get)
+            .subscribe();
+    }
+
+    @PreDestroy
+    public void parar() {
+        ativo.set(false);
+        Disposable atual = trabalhadoresAtivos;
+        if (atual != null) {
+            atual.dispose();
+        }
+    }
+
+    /**
+     * Agenda o item para daqui a {@code atraso}; não duplica item já agendado
+     * ou em andamento. Item em falha definitiva volta com as tentativas zeradas.
+     *
+     * @return true se o item entrou na fila
+     */
+    public Mono<Boolean> agendar(String tipo, String referencia, String motivo, Duration atraso) {
+        long agora = System.currentTimeMillis();
+        String membro = membro(tipo, referencia);
+        return redisTemplate.execute(SCRIPT_AGENDAR,
+                List.of(CHAVE_AGENDADOS, CHAVE_EM_ANDAMENTO, CHAVE_FALHAS, PREFIXO_ITEM + membro, CHAVE_TENTATIVAS),
+                List.of(membro, String.valueOf(agora + atraso.toMillis()),
+                    motivo != null ? motivo : "", String.valueOf(agora)))
+            .next()
+            .map(resultado -> resultado == 1L);
+    }
+
+    public Mono<Boolean> agendar(String tipo, String referencia, String motivo) {
+        return agendar(tipo, referencia, motivo, Duration.ZERO);
+    }
+
+    /**
+     * Situação de um item: estado, tentativas, próxima tentativa e último erro
+     */
+    public Mono<Map<String, Object>> situacao(String tipo, String referencia) {
+        String membro = membro(tipo, referencia);
+        return Mono.zip(
+                redisTemplate.opsForZSet().score(CHAVE_AGENDADOS, membro).defaultIfEmpty(-1.0),
+                redisTemplate.opsForZSet().score(CHAVE_EM_ANDAMENTO, membro).defaultIfEmpty(-1.0),
+                redisTemplate.opsForZSet().score(CHAVE_FALHAS, membro).defaultIfEmpty(-1.0),
+                redisTemplate.<String, String>opsForHash().entries(PREFIXO_ITEM + membro)
+                    .collectMap(Map.Entry::getKey, Map.Entry::getValue),
+                redisTemplate.<String, String>opsForHash().get(CHAVE_TENTATIVAS, membro).defaultIfEmpty(""))
+            .map(valores -> {
+                Map<String, Object> situacao = new LinkedHashMap<>();
+                situacao.put("tipo", tipo);
+                situacao.put("referencia", referencia);
+                if (valores.getT1() >= 0) {
+                    situacao.put("estado", "AGENDADO");
+                    situacao.put("proximaTentativa", Instant.ofEpochMilli(valores.getT1().longValue()));
+                } else if (valores.getT2() >= 0) {
+                    situacao.put("estado", "EM_ANDAMENTO");
+                    situacao.put("visivelAte", Instant.ofEpochMilli(valores.getT2().longValue()));
+                } else if (valores.getT3() >= 0) {
+                    situacao.put("estado", "FALHA");
+                    situacao.put("falhouEm", Instant.ofEpochMilli(valores.getT3().longValue()));
+                } else {
+                    situacao.put("estado", "CONCLUIDO_OU_INEXISTENTE");
+                }
+                situacao.putAll(valores.getT4());
+                if (!valores.getT5().isEmpty()) {
+                    situacao.put("tentativas", valores.getT5());
+                }
+                return situacao;
+            });
+    }
+
+    /**
+     * Itens em falha definitiva, mais recentes primeiro
+     */
+    public Flux<Map<String, Object>> falhas(int limite) {
+        return redisTemplate.opsForZSet()
+            .reverseRangeWithScores(CHAVE_FALHAS, Range.closed(0L, (long) limite - 1))
+            .concatMap(tupla -> redisTemplate.<String, String>opsForHash()
+                .entries(PREFIXO_ITEM + tupla.getValue())
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .map(campos -> {
+                    Map<String, Object> falha = new LinkedHashMap<>(campos);
+                    falha.put("item", tupla.getValue());
+                    falha.put("falhouEm", Instant.ofEpochMilli(tupla.getScore().longValue()));
+                    return falha;
+                }));
+    }
+
+    /**
+     * Profundidade por estado, atraso e ocupação dos trabalhadores
+     */
+    public Mono<Map<String, Object>> resumo() {
+        return Mono.zip(
+                redisTemplate.opsForZSet().size(CHAVE_AGENDADOS),
+                redisTemplate.opsForZSet().size(CHAVE_EM_ANDAMENTO),
+                redisTemplate.opsForZSet().size(CHAVE_FALHAS),
+                atrasoMaisAntigo())
+            .map(valores -> {
+                Map<String, Object> resumo = new LinkedHashMap<>();
+                resumo.put("agendados", valores.getT1());
+                resumo.put("emAndamento", valores.getT2());
+                resumo.put("falhas", valores.getT3());
+                resumo.put("atrasoMaisAntigoMs", valores.getT4());
+                resumo.put("trabalhadoresOcupados", emVoo.get());
+                resumo.put("trabalhadores", trabalhadores);
+                return resumo;
+            });
+    }
+
+    /**
+     * Atualizar gauges e expirar falhas antigas
+     */
+    @Scheduled(fixedDelayString = "${auditoria.reprocessamento.metricas.intervalo-ms:30000}")
+    public void atualizarMetricas() {
+        long limiteRetencao = System.currentTimeMillis() - Duration.ofHours(retencaoFalhasHoras).toMillis();
+        redisTemplate.opsForZSet()
+            .removeRangeByScore(CHAVE_FALHAS, Range.closed(Double.NEGATIVE_INFINITY, (double) limiteRetencao))
+            .then(resumo())
+            .subscribe(
+                resumo -> {
+                    profundidadeAgendados.set((Long) resumo.get("agendados"));
+                    profundidadeEmAndamento.set((Long) resumo.get("emAndamento"));
+                    profundidadeFalhas.set((Long) resumo.get("falhas"));
+                    atrasoMs.set((Long) resumo.get("atrasoMaisAntigoMs"));
+                },
+                error -> logger.debug("Falha ao atualizar métricas de reprocessamento: {}", error.getMessage()));
+    }
+
+    // ========== TRABALHADORES ==========
+
+    /**
+     * Reivindica até a capacidade livre do pool e despacha sem esperar a conclusão
+     */
+    private Mono<Integer> ciclo() {
+        int livres = trabalhadores - emVoo.get();
+        if (livres <= 0) {
+            return Mono.just(0);
+        }
+
+        long agora = System.currentTimeMillis();
+        return redisTemplate.execute(SCRIPT_REIVINDICAR,
+                List.of(CHAVE_AGENDADOS, CHAVE_EM_ANDAMENTO, CHAVE_TENTATIVAS),
+                List.of(String.valueOf(agora), String.valueOf(agora + visibilidadeMs),
+                    String.valueOf(livres)))
+            .next()
+            .map(resposta -> {
+                String[] valores = resposta.split("\n");
+                long expirados = Long.parseLong(valores[0]);
+                if (expirados > 0) {
+                    resultado("visibilidade_expirada").increment(expirados);
+                    logger.warn("{} itens de reprocessamento voltaram à fila após expirar a visibilidade", expirados);
+                }
+                List<ItemReivindicado> itens = new ArrayList<>();
+                for (int i = 1; i + 1 < valores.length; i += 2) {
+                    itens.add(new ItemReivindicado(valores[i], Integer.parseInt(valores[i + 1])));
+                }
+                itens.forEach(this::despachar);
+                return itens.size();
+            });
+    }
+
+    private void despachar(ItemReivindicado item) {
+        emVoo.incrementAndGet();
+        executar(item)
+            .doFinally(_ -> emVoo.decrementAndGet())
+            .subscribe(
+                _ -> {},
+                error -> logger.warn("Falha ao registrar resultado do item {}: {}", item.membro(), error.getMessage()));
+    }
+
+    private Mono<Void> executar(ItemReivindicado item) {
+        int separador = item.membro().indexOf(':');
+        String tipo = separador > 0 ? item.membro().substring(0, separador) : item.membro();
+        String referencia = separador > 0 ? item.membro().substring(separador + 1) : "";
+
+        TratadorReprocessamento tratador = tratadores.get(tipo);
+        if (tratador == null) {
+            return falhar(item, new IllegalStateException("Sem tratador para o tipo " + tipo), true);
+        }
+
+        return Mono.defer(() -> tratador.processar(referencia))
+            .timeout(Duration.ofMillis(timeoutMs))
+            .then(concluir(item))
+            .onErrorResume(error -> falhar(item, error,
+                tratador.falhaPermanente(error) || item.tentativas() >= maxTentativas));
+    }
+
+    private Mono<Void> concluir(ItemReivindicado item) {
+        return redisTemplate.execute(SCRIPT_CONCLUIR,
+                List.of(CHAVE_EM_ANDAMENTO, PREFIXO_ITEM + item.membro(), CHAVE_TENTATIVAS),
+                List.of(item.membro()))
+            .next()
+            .doOnNext(_ -> {
+                resultado("sucesso").increment();
+                tentativasPorItem.record(item.tentativas());
+            })
+            .then();
+    }
+
+    private Mono<Void> falhar(ItemReivindicado item, Throwable error, boolean definitiva) {
+        long agora = System.currentTimeMillis();
+        long pontuacao = definitiva ? agora : agora + backoff(item.tentativas());
+
+        return redisTemplate.execute(SCRIPT_FALHAR,
+                List.of(CHAVE_EM_ANDAMENTO, CHAVE_AGENDADOS, CHAVE_FALHAS, PREFIXO_ITEM + item.membro(),
+                    CHAVE_TENTATIVAS),
+                List.of(item.membro(), String.valueOf(pontuacao), definitiva ? "1" : "0", mensagem(error),
+                    String.valueOf(Duration.ofHours(retencaoFalhasHoras).toSeconds())))
+            .next()
+            .doOnNext(_ -> {
+                if (definitiva) {
+                    resultado("falha").increment();
+                    tentativasPorItem.record(item.tentativas());
+                    logger.warn("Item {} falhou definitivamente após {} tentativas: {}",
+                        item.membro(), item.tentativas(), error.getMessage());
+                } else {
+                    resultado("reagendado").increment();
+                    logger.debug("Item {} reagendado (tentativa {}): {}",
+                        item.membro(), item.tentativas(), error.getMessage());
+                }
+            })
+            .then();
+    }
+
+    // ========== AUXILIARES ==========
+
+    /**
+     * Backoff exponencial com jitter de ±20% para não sincronizar as retentativas
+     */
+    private long backoff(int tentativas) {
+        long base = Math.min(backoffMaxMs, backoffBaseMs << Math.min(tentativas - 1, 20));
+        double jitter = ThreadLocalRandom.current().nextDouble(0.8, 1.2);
+        return (long) (base * jitter);
+    }
+
+    private Mono<Long> atrasoMaisAntigo() {
+        return redisTemplate.opsForZSet()
+            .rangeWithScores(CHAVE_AGENDADOS, Range.closed(0L, 0L))
+            .next()
+            .map(tupla -> Math.max(0L, System.currentTimeMillis() - tupla.getScore().longValue()))
+            .defaultIfEmpty(0L);
+    }
+
+    private static String membro(String tipo, String referencia) {
+        return tipo + ":" + referencia;
+    }
+
+    private static String mensagem(Throwable error) {
+        String mensagem = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        return mensagem.length() > TAMANHO_MAXIMO_ERRO ? mensagem.substring(0, TAMANHO_MAXIMO_ERRO) : mensagem;
+    }
+
+    private Counter resultado(String resultado) {
+        return resultados.computeIfAbsent(resultado, chave -> Counter.builder("audit.reprocessamento.itens")
+            .description("Itens de reprocessamento por resultado")
+            .tag("resultado", chave)
+            .register(meterRegistry));
+    }
+
+    private record ItemReivindicado(String membro, int tentativas) {
+    }
+}
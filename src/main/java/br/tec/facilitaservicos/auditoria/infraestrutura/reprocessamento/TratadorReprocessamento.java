@@ -0,0 +1,31 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.reprocessamento;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Tratador plugável da {@link FilaReprocessamento}.
+ *
+ * Cada bean atende um tipo de item ({@link #tipo()}); a fila entrega a
+ * referência agendada e conclui o item quando o Mono termina sem erro. Um
+ * erro reagenda com backoff até o máximo de tentativas, portanto o
+ * processamento deve ser idempotente.
+ */
+public interface TratadorReprocessamento {
+
+    /**
+     * Tipo de item atendido (prefixo do membro na fila)
+     */
+    String tipo();
+
+    /**
+     * Reprocessar o item referenciado
+     */
+    Mono<Void> processar(String referencia);
+
+    /**
+     * Indica que o erro não se resolve com nova tentativa
+     */
+    default boolean falhaPermanente(Throwable erro) {
+        return false;
+    }
+}
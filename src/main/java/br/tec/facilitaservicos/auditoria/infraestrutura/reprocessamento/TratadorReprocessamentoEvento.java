@@ -0,0 +1,52 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.reprocessamento;
+
+import java.util.NoSuchElementException;
+
+import org.springframework.stereotype.Component;
+
+import br.tec.facilitaservicos.auditoria.aplicacao.mapper.EventoAuditoriaMapper;
+import br.tec.facilitaservicos.auditoria.dominio.repositorio.EventoAuditoriaRepository;
+import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.EventStreamingService;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reprocessa um evento de auditoria: relê do MySQL e republica no stream
+ * principal, de onde o grupo de consumidores executa os estágios de novo.
+ * Evento inexistente é falha definitiva.
+ */
+@Component
+public class TratadorReprocessamentoEvento implements TratadorReprocessamento {
+
+    public static final String TIPO = "evento";
+
+    private final EventoAuditoriaRepository repository;
+    private final EventoAuditoriaMapper mapper;
+    private final EventStreamingService streamingService;
+
+    public TratadorReprocessamentoEvento(EventoAuditoriaRepository repository,
+                                         EventoAuditoriaMapper mapper,
+                                         EventStreamingService streamingService) {
+        this.repository = repository;
+        this.mapper = mapper;
+        this.streamingService = streamingService;
+    }
+
+    @Override
+    public String tipo() {
+        return TIPO;
+    }
+
+    @Override
+    public Mono<Void> processar(String eventoId) {
+        return repository.findById(eventoId)
+            .switchIfEmpty(Mono.error(() -> new NoSuchElementException("Evento não encontrado: " + eventoId)))
+            .map(mapper::paraDto)
+            .flatMap(streamingService::publicar)
+            .then();
+    }
+
+    @Override
+    public boolean falhaPermanente(Throwable erro) {
+        return erro instanceof NoSuchElementException;
+    }
+}
@@ -0,0 +1,91 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.streaming;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+
+/**
+ * ============================================================================
+ * 🔤 CODEC DE EVENTOS PARA REDIS STREAMS
+ * ============================================================================
+ *
+ * Converte {@link EventoAuditoriaDto} em campos de uma entrada de stream e
+ * vice-versa. Os campos de cabeçalho (id, tipo, timestamp, usuário,
+ * severidade) ficam legíveis para inspeção via redis-cli; o evento completo
+ * vai serializado em {@value #CAMPO_PAYLOAD}.
+ */
+@Component
+public class CodecEventoStream {
+
+    public static final String CAMPO_ID = "id";
+    public static final String CAMPO_TIPO_EVENTO = "tipoEvento";
+    public static final String CAMPO_TIMESTAMP = "timestamp";
+    public static final String CAMPO_USUARIO_ID = "usuarioId";
+    public static final String CAMPO_USUARIO_NOME = "usuarioNome";
+    public static final String CAMPO_SEVERIDADE = "severidade";
+    public static final String CAMPO_PAYLOAD = "payload";
+
+    private final ObjectMapper objectMapper;
+
+    public CodecEventoStream(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Codificar evento em campos de stream
+     */
+    public Map<String, String> codificar(EventoAuditoriaDto evento) {
+        Map<String, String> campos = HashMap.newHashMap(7);
+        campos.put(CAMPO_ID, evento.id());
+        campos.put(CAMPO_TIPO_EVENTO, evento.tipoEvento());
+        campos.put(CAMPO_TIMESTAMP, evento.timestamp() != null ? evento.timestamp().toString() : "");
+        campos.put(CAMPO_USUARIO_ID, evento.usuarioId());
+        campos.put(CAMPO_USUARIO_NOME, evento.usuarioNome() != null ? evento.usuarioNome() : "");
+        campos.put(CAMPO_SEVERIDADE, evento.severidade() != null ? evento.severidade() : "");
+        try {
+            campos.put(CAMPO_PAYLOAD, objectMapper.writeValueAsString(evento));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar evento " + evento.id() + " para o stream", e);
+        }
+        return campos;
+    }
+
+    /**
+     * Codificar evento direto em buffers (caminho do publicador em lote)
+     */
+    public Map<ByteBuffer, ByteBuffer> codificarBinario(EventoAuditoriaDto evento) {
+        Map<String, String> campos = codificar(evento);
+        Map<ByteBuffer, ByteBuffer> binario = HashMap.newHashMap(campos.size());
+        campos.forEach((campo, valor) -> binario.put(buffer(campo), buffer(valor)));
+        return binario;
+    }
+
+    /**
+     * Decodificar campos de stream em evento
+     *
+     * @throws IllegalArgumentException se a entrada não tiver payload válido
+     */
+    public EventoAuditoriaDto decodificar(Map<String, String> campos) {
+        String payload = campos.get(CAMPO_PAYLOAD);
+        if (payload == null || payload.isBlank()) {
+            throw new IllegalArgumentException("Entrada de stream sem payload: " + campos.get(CAMPO_ID));
+        }
+        try {
+            return objectMapper.readValue(payload, EventoAuditoriaDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Payload inválido para evento " + campos.get(CAMPO_ID), e);
+        }
+    }
+
+    private static ByteBuffer buffer(String valor) {
+        return ByteBuffer.wrap((valor == null ? "" : valor).getBytes(StandardCharsets.UTF_8));
+    }
+}
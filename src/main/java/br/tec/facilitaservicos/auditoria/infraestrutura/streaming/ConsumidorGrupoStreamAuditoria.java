@@ -0,0 +1,450 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.streaming;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStreamCommands.XClaimOptions;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.ReactiveStreamOperations;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * ============================================================================
+ * 🧵 CONSUMER GROUP DO STREAM DE AUDITORIA
+ * ============================================================================
+ *
+ * Consome {@value EventStreamingService#AUDIT_STREAM} com XREADGROUP e repassa
+ * cada evento aos {@link EstagioProcessamentoEvento} registrados:
+ * - N consumidores paralelos por instância, leitura e XACK em lote
+ * - Leitura sem BLOCK (não prende a conexão reativa compartilhada), com
+ *   backoff exponencial quando o stream está vazio
+ * - Entradas ociosas de consumidores mortos são reclamadas com
+ *   XPENDING + XCLAIM e reprocessadas; após o máximo de entregas vão para a DLQ
+ * - Aparagem do stream só por MINID ~: o corte é o menor entre a retenção
+ *   e, em cada grupo do stream, a pendência mais antiga e a última entrega,
+ *   então nada ainda não entregue ou pendente em algum grupo é descartado.
+ *   O teto {@code stream.maxlen} não é aplicado aqui (passaria por cima
+ *   dessas entradas); acima dele a aparagem só avisa, e o teto efetivo é o
+ *   MAXLEN ~ do XADD no publicador
+ *
+ * XAUTOCLAIM não é exposto pelo Spring Data Redis; XPENDING + XCLAIM tem o
+ * mesmo efeito para o volume de pendências esperado.
+ */
+@Component
+public class ConsumidorGrupoStreamAuditoria {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConsumidorGrupoStreamAuditoria.class);
+
+    private static final RedisScript<Long> SCRIPT_CRIAR_GRUPO = RedisScript.of("""
+        local ok = redis.pcall('XGROUP', 'CREATE', KEYS[1], ARGV[1], '0', 'MKSTREAM')
+        if type(ok) == 'table' and ok.err then
+            if string.find(ok.err, 'BUSYGROUP') then return 0 end
+            return redis.error_reply(ok.err)
+        end
+        return 1
+        """, Long.class);
+
+    private static final RedisScript<Long> SCRIPT_XTRIM_MINID = RedisScript.of(
+        "return redis.call('XTRIM', KEYS[1], 'MINID', '~', ARGV[1])", Long.class);
+
+    private final ReactiveStringRedisTemplate stringRedisTemplate;
+    private final ReactiveStreamOperations<String, String, String> streamOps;
+    private final EventStreamingService streamingService;
+    private final CodecEventoStream codec;
+    private final List<EstagioProcessamentoEvento> estagios;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> timersEstagio = new ConcurrentHashMap<>();
+    private final Counter processadas;
+    private final Counter falhas;
+    private final Counter reclamadas;
+    private final Counter enviadasDlq;
+    private final Counter aparadas;
+    private final Timer timerLote;
+    private final AtomicLong pendentes = new AtomicLong();
+
+    private final AtomicBoolean ativo = new AtomicBoolean(false);
+    private final AtomicBoolean manutencaoEmAndamento = new AtomicBoolean(false);
+    private volatile Disposable consumidores;
+
+    @Value("${auditoria.streaming.consumidor.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${auditoria.streaming.consumidor.grupo:auditoria-processadores}")
+    private String grupo;
+
+    @Value("${auditoria.streaming.consumidor.instancias:2}")
+    private int instancias;
+
+    @Value("${auditoria.streaming.consumidor.tamanho-lote:100}")
+    private int tamanhoLote;
+
+    @Value("${auditoria.streaming.consumidor.concorrencia-lote:16}")
+    private int concorrenciaLote;
+
+    @Value("${auditoria.streaming.consumidor.espera-ociosa-min-ms:50}")
+    private long esperaOciosaMinMs;
+
+    @Value("${auditoria.streaming.consumidor.espera-ociosa-max-ms:2000}")
+    private long esperaOciosaMaxMs;
+
+    @Value("${auditoria.streaming.consumidor.min-ocioso-reclamacao-ms:60000}")
+    private long minOciosoReclamacaoMs;
+
+    @Value("${auditoria.streaming.consumidor.max-entregas:5}")
+    private long maxEntregas;
+
+    @Value("${auditoria.streaming.stream.maxlen:1000000}")
+    private long maxLen;
+
+    @Value("${auditoria.streaming.stream.retencao-horas:168}")
+    private long retencaoHoras;
+
+    @Value("${HOSTNAME:}")
+    private String hostname;
+
+    public ConsumidorGrupoStreamAuditoria(ReactiveStringRedisTemplate stringRedisTemplate,
+                                          EventStreamingService streamingService,
+                                          CodecEventoStream codec,
+                                          ObjectProvider<EstagioProcessamentoEvento> estagios,
+                                          MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.streamOps = stringRedisTemplate.opsForStream();
+        this.streamingService = streamingService;
+        this.codec = codec;
+        this.estagios = estagios.stream()
+            .sorted(Comparator.comparingInt(EstagioProcessamentoEvento::ordem))
+            .toList();
+        this.meterRegistry = meterRegistry;
+
+        this.processadas = contador("processada");
+        this.falhas = contador("falha");
+        this.reclamadas = contador("reclamada");
+        this.enviadasDlq = contador("dlq");
+        this.aparadas = Counter.builder("audit.stream.aparadas")
+            .description("Entradas removidas do stream por MAXLEN/MINID")
+            .register(meterRegistry);
+        this.timerLote = Timer.builder("audit.stream.lote")
+            .description("Tempo de processamento de um lote lido do stream")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        meterRegistry.gauge("audit.stream.pendentes", pendentes);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (!habilitado || !ativo.compareAndSet(false, true)) {
+            return;
+        }
+
+        String prefixo = (hostname == null || hostname.isBlank())
+            ? UUID.randomUUID().toString().substring(0, 8)
+            : hostname;
+
+        logger.info("Iniciando {} consumidores do grupo {} em {} com estágios {}",
+            instancias, grupo, EventStreamingService.AUDIT_STREAM,
+            estagios.stream().map(EstagioProcessamentoEvento::nome).toList());
+
+        consumidores = garantirGrupo()
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+            .thenMany(Flux.range(0, instancias)
+                .flatMap(i -> loopConsumidor(Consumer.from(grupo, prefixo + "-" + i)), instancias))
+            .subscribe(
+                _ -> {},
+                error -> logger.error("Consumidores do stream de auditoria encerrados com erro", error));
+    }
+
+    @PreDestroy
+    public void parar() {
+        ativo.set(false);
+        Disposable atual = consumidores;
+        if (atual != null) {
+            atual.dispose();
+        }
+    }
+
+    /**
+     * Reclamar pendências ociosas e aparar o stream
+     */
+    @Scheduled(fixedDelayString = "${auditoria.streaming.manutencao.intervalo-ms:30000}",
+               initialDelayString = "${auditoria.streaming.manutencao.atraso-inicial-ms:60000}")
+    public void executarManutencao() {
+        if (!ativo.get() || !manutencaoEmAndamento.compareAndSet(false, true)) {
+            return;
+        }
+
+        reclamarPendentes()
+            .then(aparar())
+            .doFinally(_ -> manutencaoEmAndamento.set(false))
+            .subscribe(
+                _ -> {},
+                error -> logger.warn("Falha na manutenção do stream de auditoria: {}", error.getMessage()));
+    }
+
+    // ========== CONSUMO ==========
+
+    private Flux<Integer> loopConsumidor(Consumer consumidor) {
+        AtomicLong espera = new AtomicLong(esperaOciosaMinMs);
+
+        return Mono.defer(() -> lerLote(consumidor))
+            .flatMap(lote -> processarLote(lote).thenReturn(lote.size()))
+            .flatMap(quantidade -> {
+                if (quantidade > 0) {
+                    espera.set(esperaOciosaMinMs);
+                    return Mono.just(quantidade);
+                }
+                long atual = espera.getAndUpdate(valor -> Math.min(valor * 2, esperaOciosaMaxMs));
+                return Mono.delay(Duration.ofMillis(atual)).thenReturn(quantidade);
+            })
+            .onErrorResume(error -> {
+                logger.warn("Erro no consumidor {}: {}", consumidor.getName(), error.getMessage());
+                Mono<Long> recriarGrupo = String.valueOf(error.getMessage()).contains("NOGROUP")
+                    ? garantirGrupo().onErrorResume(_ -> Mono.empty())
+                    : Mono.empty();
+                return recriarGrupo.then(Mono.delay(Duration.ofMillis(esperaOciosaMaxMs))).thenReturn(0);
+            })
+            .repeat(ativo::get);
+    }
+
+    private Mono<List<MapRecord<String, String, String>>> lerLote(Consumer consumidor) {
+        return streamOps.read(consumidor,
+                StreamReadOptions.empty().count(tamanhoLote),
+                StreamOffset.create(EventStreamingService.AUDIT_STREAM, ReadOffset.lastConsumed()))
+            .collectList();
+    }
+
+    /**
+     * Processa o lote e confirma com um único XACK as entradas concluídas
+     */
+    private Mono<Long> processarLote(List<MapRecord<String, String, String>> lote) {
+        if (lote.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return Flux.fromIterable(lote)
+            .flatMap(this::processarRegistro, concorrenciaLote)
+            .collectList()
+            .flatMap(this::confirmar)
+            .doFinally(_ -> sample.stop(timerLote));
+    }
+
+    /**
+     * Retorna o id para XACK, ou vazio se a entrada deve continuar pendente
+     */
+    private Mono<RecordId> processarRegistro(MapRecord<String, String, String> registro) {
+        EventoAuditoriaDto evento;
+        try {
+            evento = codec.decodificar(registro.getValue());
+        } catch (IllegalArgumentException e) {
+            // Erro permanente: não adianta reentregar
+            return moverParaDlq(registro, e.getMessage());
+        }
+
+        return Flux.fromIterable(estagios)
+            .filter(estagio -> estagio.aceita(evento))
+            .concatMap(estagio -> executarEstagio(estagio, evento))
+            .then(Mono.just(registro.getId()))
+            .doOnNext(_ -> processadas.increment())
+            .onErrorResume(error -> {
+                falhas.increment();
+                logger.warn("Falha ao processar evento {} (entrada {}): {}",
+                    evento.id(), registro.getId(), error.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    private Mono<Void> executarEstagio(EstagioProcessamentoEvento estagio, EventoAuditoriaDto evento) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return estagio.processar(evento)
+                .doFinally(_ -> sample.stop(timerEstagio(estagio.nome())));
+        });
+    }
+
+    private Mono<RecordId> moverParaDlq(MapRecord<String, String, String> registro, String motivo) {
+        return streamingService.enviarParaDLQ(registro.getValue(), motivo)
+            .doOnNext(_ -> enviadasDlq.increment())
+            .thenReturn(registro.getId())
+            .onErrorResume(error -> {
+                logger.warn("Falha ao mover entrada {} para DLQ: {}", registro.getId(), error.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    private Mono<Long> confirmar(List<RecordId> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return streamOps.acknowledge(EventStreamingService.AUDIT_STREAM, grupo, ids.toArray(RecordId[]::new));
+    }
+
+    // ========== MANUTENÇÃO ==========
+
+    private Mono<Long> garantirGrupo() {
+        return stringRedisTemplate.execute(SCRIPT_CRIAR_GRUPO,
+                List.of(EventStreamingService.AUDIT_STREAM), List.of(grupo))
+            .next()
+            .doOnNext(criado -> {
+                if (criado == 1L) {
+                    logger.info("Grupo {} criado em {}", grupo, EventStreamingService.AUDIT_STREAM);
+                }
+            });
+    }
+
+    /**
+     * XPENDING + XCLAIM das entradas ociosas; as que estouraram o limite de
+     * entregas vão para a DLQ, as demais são reprocessadas aqui mesmo
+     */
+    private Mono<Long> reclamarPendentes() {
+        Duration minOcioso = Duration.ofMillis(minOciosoReclamacaoMs);
+
+        return streamOps.pending(EventStreamingService.AUDIT_STREAM, grupo, Range.unbounded(), tamanhoLote)
+            .flatMapMany(Flux::fromIterable)
+            .filter(pendente -> pendente.getElapsedTimeSinceLastDelivery().compareTo(minOcioso) >= 0)
+            .collectMap(PendingMessage::getIdAsString, Function.identity())
+            .flatMap(ociosas -> {
+                if (ociosas.isEmpty()) {
+                    return Mono.just(0L);
+                }
+                String dono = grupo + "-manutencao";
+                RecordId[] ids = ociosas.values().stream().map(PendingMessage::getId).toArray(RecordId[]::new);
+                Set<String> naoRetornadas = new HashSet<>(ociosas.keySet());
+
+                return streamOps.claim(EventStreamingService.AUDIT_STREAM, grupo, dono,
+                        XClaimOptions.minIdle(minOcioso).ids(ids))
+                    .doOnNext(registro -> naoRetornadas.remove(registro.getId().getValue()))
+                    .collectList()
+                    .flatMap(registros -> {
+                        reclamadas.increment(registros.size());
+                        List<MapRecord<String, String, String>> reprocessar = new ArrayList<>();
+                        List<Mono<RecordId>> esgotadas = new ArrayList<>();
+                        for (MapRecord<String, String, String> registro : registros) {
+                            long entregas = ociosas.get(registro.getId().getValue()).getTotalDeliveryCount();
+                            if (entregas >= maxEntregas) {
+                                esgotadas.add(moverParaDlq(registro,
+                                    "Excedeu " + maxEntregas + " tentativas de processamento"));
+                            } else {
+                                reprocessar.add(registro);
+                            }
+                        }
+                        // Entradas já removidas do stream não voltam no XCLAIM; só resta confirmar
+                        List<RecordId> orfas = naoRetornadas.stream().map(RecordId::of).collect(Collectors.toList());
+
+                        return Flux.merge(esgotadas)
+                            .concatWith(Flux.fromIterable(orfas))
+                            .collectList()
+                            .flatMap(this::confirmar)
+                            .then(processarLote(reprocessar));
+                    });
+            });
+    }
+
+    /**
+     * MINID ~ no menor entre a retenção e o limite seguro de cada grupo
+     * (pendência mais antiga e última entrega, via XINFO GROUPS e XPENDING)
+     */
+    private Mono<Long> aparar() {
+        String corteRetencao = Instant.now().minus(Duration.ofHours(retencaoHoras)).toEpochMilli() + "-0";
+
+        Mono<String> limiteGrupos = streamOps.groups(EventStreamingService.AUDIT_STREAM)
+            .flatMap(info -> streamOps.pending(EventStreamingService.AUDIT_STREAM, info.groupName())
+                .doOnNext(resumo -> {
+                    if (grupo.equals(info.groupName())) {
+                        pendentes.set(resumo.getTotalPendingMessages());
+                    }
+                })
+                .map(resumo -> resumo.getTotalPendingMessages() > 0
+                    ? menorId(resumo.minRecordId().getValue(), info.lastDeliveredId())
+                    : info.lastDeliveredId()))
+            .reduce(ConsumidorGrupoStreamAuditoria::menorId)
+            // Sem grupo ainda ninguém leu nada: não apara
+            .defaultIfEmpty("0-0");
+
+        return limiteGrupos
+            .map(limite -> menorId(corteRetencao, limite))
+            .flatMap(id -> stringRedisTemplate.execute(SCRIPT_XTRIM_MINID,
+                    List.of(EventStreamingService.AUDIT_STREAM), List.of(id))
+                .next())
+            .defaultIfEmpty(0L)
+            .doOnNext(removidas -> {
+                if (removidas > 0) {
+                    aparadas.increment(removidas);
+                    logger.debug("Stream de auditoria aparado: {} entradas", removidas);
+                }
+            })
+            .flatMap(removidas -> streamOps.size(EventStreamingService.AUDIT_STREAM)
+                .doOnNext(tamanho -> {
+                    if (tamanho > maxLen) {
+                        logger.warn("Stream de auditoria com {} entradas, acima do teto de {}: há entradas "
+                            + "não entregues ou pendentes segurando a aparagem", tamanho, maxLen);
+                    }
+                })
+                .thenReturn(removidas));
+    }
+
+    // ========== AUXILIARES ==========
+
+    private static String menorId(String a, String b) {
+        RecordId idA = RecordId.of(a);
+        RecordId idB = RecordId.of(b);
+        int comparacao = Long.compare(idA.getTimestamp(), idB.getTimestamp());
+        if (comparacao == 0) {
+            comparacao = Long.compare(idA.getSequence(), idB.getSequence());
+        }
+        return comparacao <= 0 ? a : b;
+    }
+
+    private Timer timerEstagio(String nome) {
+        return timersEstagio.computeIfAbsent(nome, estagio -> Timer.builder("audit.stream.estagio")
+            .description("Tempo de execução de um estágio do pipeline do stream")
+            .tag("estagio", estagio)
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry));
+    }
+
+    private Counter contador(String resultado) {
+        return Counter.builder("audit.stream.mensagens")
+            .description("Entradas do stream de auditoria por resultado")
+            .tag("resultado", resultado)
+            .register(meterRegistry);
+    }
+}
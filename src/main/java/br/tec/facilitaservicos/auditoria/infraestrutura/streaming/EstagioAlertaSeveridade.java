@@ -0,0 +1,52 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.streaming;
+
+import org.springframework.stereotype.Component;
+
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+import br.tec.facilitaservicos.auditoria.dominio.enums.NivelSeveridade;
+import br.tec.facilitaservicos.auditoria.infraestrutura.notificacao.PipelineAlertasSeveridade;
+import reactor.core.publisher.Mono;
+
+/**
+ * Estágio do pipeline que encaminha ao {@link PipelineAlertasSeveridade} os
+ * eventos cuja severidade exige notificação (WARN, ERROR e CRITICAL). Só
+ * completa depois do despacho, então o ACK da entrada vem depois dele; com
+ * a fila da severidade cheia ou o despacho falhando, o estágio falha e a
+ * entrada do stream fica pendente para reentrega.
+ */
+@Component
+public class EstagioAlertaSeveridade implements EstagioProcessamentoEvento {
+
+    private final PipelineAlertasSeveridade pipeline;
+
+    public EstagioAlertaSeveridade(PipelineAlertasSeveridade pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    @Override
+    public String nome() {
+        return "alerta-severidade";
+    }
+
+    @Override
+    public boolean aceita(EventoAuditoriaDto evento) {
+        NivelSeveridade severidade = severidade(evento);
+        return severidade != null && severidade.isRequerNotificacao();
+    }
+
+    @Override
+    public Mono<Void> processar(EventoAuditoriaDto evento) {
+        return pipeline.submeter(evento, severidade(evento));
+    }
+
+    private static NivelSeveridade severidade(EventoAuditoriaDto evento) {
+        if (evento.severidade() == null) {
+            return null;
+        }
+        try {
+            return NivelSeveridade.valueOf(evento.severidade());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
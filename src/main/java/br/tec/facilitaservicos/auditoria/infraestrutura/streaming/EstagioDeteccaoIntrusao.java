@@ -0,0 +1,212 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.streaming;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import br.tec.facilitaservicos.auditoria.aplicacao.dto.CriarEventoDto;
+import br.tec.facilitaservicos.auditoria.aplicacao.servico.EventoAuditoriaService;
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+import br.tec.facilitaservicos.auditoria.dominio.enums.NivelSeveridade;
+import br.tec.facilitaservicos.auditoria.dominio.enums.TipoEvento;
+import br.tec.facilitaservicos.auditoria.infraestrutura.deteccao.JanelasDeteccaoRedis;
+import br.tec.facilitaservicos.auditoria.infraestrutura.deteccao.MotorDeteccao;
+import br.tec.facilitaservicos.auditoria.infraestrutura.deteccao.MotorDeteccao.Deteccao;
+import br.tec.facilitaservicos.auditoria.infraestrutura.deteccao.RegraDeteccao;
+import br.tec.facilitaservicos.auditoria.infraestrutura.deteccao.RegraDeteccao.Chave;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ============================================================================
+ * 🛡️ ESTÁGIO DE DETECÇÃO DE FORÇA BRUTA E INTRUSÃO
+ * ============================================================================
+ *
+ * Avalia continuamente, sobre o stream de ingestão, o que
+ * {@code findTentativasLoginPorIp} e {@code findEventosSuspeitos} só
+ * respondem sob demanda. Regras (limites e janelas configuráveis):
+ * - forca-bruta-ip: N LOGIN_FALHA do mesmo IP em M minutos
+ * - forca-bruta-usuario: N LOGIN_FALHA do mesmo usuário em M minutos
+ * - credential-stuffing: LOGIN_FALHA de N usuários distintos a partir do
+ *   mesmo IP em M minutos
+ * - varredura-acesso: N ACESSO_NEGADO do mesmo IP em M minutos
+ *
+ * Ao disparar, registra um evento LOGIN_BLOQUEADO ou TENTATIVA_INTRUSION
+ * (que segue para o pipeline de alertas pela severidade). A avaliação roda
+ * antes dos demais estágios: um script no Redis por regra do tipo.
+ *
+ * As janelas e carências ficam no Redis ({@link JanelasDeteccaoRedis}),
+ * então a contagem vale para todos os consumidores do grupo. A janela
+ * guarda o id do evento: uma reentrega não conta duas vezes, e se o
+ * alerta falhou a carência é liberada para que ela dispare de novo.
+ */
+@Component
+public class EstagioDeteccaoIntrusao implements EstagioProcessamentoEvento {
+
+    private static final Logger logger = LoggerFactory.getLogger(EstagioDeteccaoIntrusao.class);
+
+    private static final String ORIGEM_DETECTOR = "DETECTOR_INTRUSAO";
+
+    private final EventoAuditoriaService eventoAuditoriaService;
+    private final JanelasDeteccaoRedis janelas;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> disparos = new ConcurrentHashMap<>();
+    private final Timer avaliacao;
+
+    private MotorDeteccao motor;
+
+    @Value("${auditoria.deteccao.habilitada:true}")
+    private boolean habilitada;
+
+    @Value("${auditoria.deteccao.carencia-min:15}")
+    private long carenciaMin;
+
+    @Value("${auditoria.deteccao.forca-bruta-ip.limite:20}")
+    private int limiteForcaBrutaIp;
+
+    @Value("${auditoria.deteccao.forca-bruta-ip.janela-min:5}")
+    private long janelaForcaBrutaIpMin;
+
+    @Value("${auditoria.deteccao.forca-bruta-usuario.limite:5}")
+    private int limiteForcaBrutaUsuario;
+
+    @Value("${auditoria.deteccao.forca-bruta-usuario.janela-min:5}")
+    private long janelaForcaBrutaUsuarioMin;
+
+    @Value("${auditoria.deteccao.credential-stuffing.usuarios:10}")
+    private int limiteCredentialStuffing;
+
+    @Value("${auditoria.deteccao.credential-stuffing.janela-min:10}")
+    private long janelaCredentialStuffingMin;
+
+    @Value("${auditoria.deteccao.varredura-acesso.limite:30}")
+    private int limiteVarreduraAcesso;
+
+    @Value("${auditoria.deteccao.varredura-acesso.janela-min:5}")
+    private long janelaVarreduraAcessoMin;
+
+    public EstagioDeteccaoIntrusao(EventoAuditoriaService eventoAuditoriaService, JanelasDeteccaoRedis janelas,
+                                   MeterRegistry meterRegistry) {
+        this.eventoAuditoriaService = eventoAuditoriaService;
+        this.janelas = janelas;
+        this.meterRegistry = meterRegistry;
+        this.avaliacao = Timer.builder("audit.deteccao.avaliacao")
+            .description("Tempo de avaliação das regras por evento")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        Duration carencia = Duration.ofMinutes(carenciaMin);
+        List<RegraDeteccao> regras = List.of(
+            new RegraDeteccao("forca-bruta-ip", TipoEvento.LOGIN_FALHA, Chave.IP,
+                limiteForcaBrutaIp, Duration.ofMinutes(janelaForcaBrutaIpMin), false,
+                TipoEvento.LOGIN_BLOQUEADO, NivelSeveridade.ERROR, carencia),
+            new RegraDeteccao("forca-bruta-usuario", TipoEvento.LOGIN_FALHA, Chave.USUARIO,
+                limiteForcaBrutaUsuario, Duration.ofMinutes(janelaForcaBrutaUsuarioMin), false,
+                TipoEvento.LOGIN_BLOQUEADO, NivelSeveridade.ERROR, carencia),
+            new RegraDeteccao("credential-stuffing", TipoEvento.LOGIN_FALHA, Chave.IP,
+                limiteCredentialStuffing, Duration.ofMinutes(janelaCredentialStuffingMin), true,
+                TipoEvento.TENTATIVA_INTRUSION, NivelSeveridade.CRITICAL, carencia),
+            new RegraDeteccao("varredura-acesso", TipoEvento.ACESSO_NEGADO, Chave.IP,
+                limiteVarreduraAcesso, Duration.ofMinutes(janelaVarreduraAcessoMin), false,
+                TipoEvento.TENTATIVA_INTRUSION, NivelSeveridade.CRITICAL, carencia));
+
+        motor = new MotorDeteccao(regras);
+        logger.info("Detecção de intrusão {}: {} regras, janelas no Redis",
+            habilitada ? "ativa" : "desabilitada", regras.size());
+    }
+
+    @Override
+    public String nome() {
+        return "deteccao-intrusao";
+    }
+
+    @Override
+    public int ordem() {
+        return -10;
+    }
+
+    @Override
+    public boolean aceita(EventoAuditoriaDto evento) {
+        return habilitada && motor.observa(evento.tipoEvento());
+    }
+
+    @Override
+    public Mono<Void> processar(EventoAuditoriaDto evento) {
+        return Mono.defer(() -> {
+            long inicio = System.nanoTime();
+            return Flux.fromIterable(motor.ocorrencias(evento))
+                .concatMap(ocorrencia -> janelas.registrar(ocorrencia, evento))
+                .collectList()
+                .doOnSuccess(_ -> avaliacao.record(Duration.ofNanos(System.nanoTime() - inicio)))
+                .flatMapMany(Flux::fromIterable)
+                .concatMap(this::emitir)
+                .then();
+        });
+    }
+
+    /**
+     * Registra o evento de bloqueio/intrusão; se falhar, libera a carência e
+     * propaga o erro para que a reentrega dispare de novo
+     */
+    private Mono<Void> emitir(Deteccao deteccao) {
+        RegraDeteccao regra = deteccao.regra();
+        EventoAuditoriaDto gatilho = deteccao.gatilho();
+        contador(regra.nome()).increment();
+        logger.warn("Regra {} disparou para {} {}: {} ocorrências em {} min",
+            regra.nome(), regra.chave(), deteccao.chave(), deteccao.contagem(), regra.janela().toMinutes());
+
+        CriarEventoDto alerta = CriarEventoDto.builder()
+            .tipoEvento(regra.tipoEmitido())
+            .usuarioId(gatilho.usuarioId() != null ? gatilho.usuarioId() : "desconhecido")
+            .usuarioNome(gatilho.usuarioNome())
+            .ipOrigem(gatilho.ipOrigem())
+            .userAgent(gatilho.userAgent())
+            .entidadeTipo(regra.chave().name())
+            .entidadeId(deteccao.chave())
+            .acaoRealizada(String.format("Regra %s: %d %s em %d min (%s %s)",
+                regra.nome(), deteccao.contagem(), regra.usuariosDistintos() ? "usuários distintos" : regra.tipoObservado().name(),
+                regra.janela().toMinutes(), regra.chave().name(), deteccao.chave()))
+            .metadados(Map.of(
+                "origem", ORIGEM_DETECTOR,
+                "regra", regra.nome(),
+                "contagem", deteccao.contagem(),
+                "limite", regra.limite(),
+                "janelaSegundos", regra.janela().toSeconds(),
+                "eventoGatilho", gatilho.id()))
+            .severidade(regra.severidade())
+            .build();
+
+        return eventoAuditoriaService.registrarEvento(alerta)
+            .then()
+            .onErrorResume(error -> {
+                logger.error("Falha ao registrar {} da regra {}: {}", regra.tipoEmitido(), regra.nome(), error.getMessage());
+                return janelas.liberar(deteccao)
+                    .onErrorResume(falha -> {
+                        logger.warn("Carência da regra {} para {} não liberada: {}",
+                            regra.nome(), deteccao.chave(), falha.getMessage());
+                        return Mono.empty();
+                    })
+                    .then(Mono.error(error));
+            });
+    }
+
+    private Counter contador(String regra) {
+        return disparos.computeIfAbsent(regra, chave -> Counter.builder("audit.deteccao.disparos")
+            .description("Regras de detecção disparadas")
+            .tag("regra", chave)
+            .register(meterRegistry));
+    }
+}
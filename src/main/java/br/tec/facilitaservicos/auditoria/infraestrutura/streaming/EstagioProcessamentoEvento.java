@@ -0,0 +1,40 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.streaming;
+
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+import reactor.core.publisher.Mono;
+
+/**
+ * Estágio plugável do pipeline de consumo do stream de auditoria.
+ *
+ * Cada bean que implementa esta interface recebe os eventos lidos pelo
+ * {@link ConsumidorGrupoStreamAuditoria}. Os estágios de um evento rodam em
+ * sequência, na ordem de {@link #ordem()}; a entrada só é confirmada (XACK)
+ * quando todos terminam sem erro. Um erro mantém a entrada pendente para
+ * nova tentativa, portanto o processamento deve ser idempotente.
+ */
+public interface EstagioProcessamentoEvento {
+
+    /**
+     * Nome do estágio (usado em métricas e logs)
+     */
+    String nome();
+
+    /**
+     * Processar evento
+     */
+    Mono<Void> processar(EventoAuditoriaDto evento);
+
+    /**
+     * Indica se o estágio se interessa pelo evento
+     */
+    default boolean aceita(EventoAuditoriaDto evento) {
+        return true;
+    }
+
+    /**
+     * Ordem de execução (menor primeiro)
+     */
+    default int ordem() {
+        return 0;
+    }
+}
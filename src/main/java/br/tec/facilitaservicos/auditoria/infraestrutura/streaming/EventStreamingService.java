@@ -1,9 +1,11 @@
 package br.tec.facilitaservicos.auditoria.infraestrutura.streaming;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.stereotype.Service;
@@ -22,16 +24,29 @@ import reactor.core.publisher.Mono;
 @Service
 public class EventStreamingService {
     
-    private static final String AUDIT_STREAM = "audit:events:stream";
-    private static final String DLQ_STREAM = "audit:events:dlq";
+    private static final Logger logger = LoggerFactory.getLogger(EventStreamingService.class);
+    
+    public static final String AUDIT_STREAM = "audit:events:stream";
+    public static final String DLQ_STREAM = "audit:events:dlq";
+    public static final String DLQ_PERMANENTE_STREAM = "audit:events:dlq:permanente";
+    
+    public static final String CAMPO_DLQ_EVENTO_ORIGINAL = "original_event_id";
+    public static final String CAMPO_DLQ_TIMESTAMP = "dlq_timestamp";
+    public static final String CAMPO_DLQ_MOTIVO = "failure_reason";
     
     private final ReactiveRedisTemplate<String, Object> redisTemplate;
     private final ReactiveStringRedisTemplate stringRedisTemplate;
+    private final CodecEventoStream codec;
+    private final PublicadorLoteStream publicador;
     
     public EventStreamingService(ReactiveRedisTemplate<String, Object> redisTemplate,
-                                ReactiveStringRedisTemplate stringRedisTemplate) {
+                                ReactiveStringRedisTemplate stringRedisTemplate,
+                                CodecEventoStream codec,
+                                PublicadorLoteStream publicador) {
         this.redisTemplate = redisTemplate;
         this.stringRedisTemplate = stringRedisTemplate;
+        this.codec = codec;
+        this.publicador = publicador;
     }
     
     /**
@@ -42,40 +57,28 @@ public class EventStreamingService {
             return Mono.error(new IllegalArgumentException("Evento não pode ser nulo"));
         }
         
-        // Simplificar com HashMap para evitar erro de Map.of com muitos parâmetros
-        var eventoMap = new java.util.HashMap<String, String>();
-        eventoMap.put("id", evento.id());
-        eventoMap.put("tipoEvento", evento.tipoEvento());
-        eventoMap.put("timestamp", evento.timestamp().toString());
-        eventoMap.put("usuarioId", evento.usuarioId());
-        eventoMap.put("usuarioNome", evento.usuarioNome() != null ? evento.usuarioNome() : "");
-        
-        return stringRedisTemplate.opsForStream()
-            .add(AUDIT_STREAM, eventoMap)
-            .map(recordId -> recordId.getValue())
-            .doOnNext(messageId -> 
-                System.out.println("✅ Evento emitido: " + evento.id())
-            )
+        return publicar(evento)
             .onErrorResume(error -> {
-                System.err.println("❌ Erro ao emitir evento: " + error.getMessage());
+                logger.warn("Erro ao emitir evento {}: {}", evento.id(), error.getMessage());
                 return enviarParaDLQ(evento, "Erro na emissão: " + error.getMessage());
             });
     }
     
     /**
-     * Reprocessar evento que falhou anteriormente
+     * Publicar evento no stream principal propagando erros (usado pelo relay do outbox)
+     * 
+     * O XADD sai em lote com outros eventos da mesma micro-janela; com a fila
+     * cheia o Mono falha com {@link PublicadorSaturadoException}.
      */
-    public Mono<String> reprocessarEvento(EventoAuditoriaDto evento) {
-        if (evento == null) {
-            return Mono.error(new IllegalArgumentException("Evento não pode ser nulo"));
-        }
-        
-        // Implementação simplificada de reprocessamento
-        return Mono.delay(Duration.ofSeconds(1))
-            .then(emitirEvento(evento))
-            .doOnNext(messageId -> 
-                System.out.println("🔄 Evento reprocessado: " + evento.id())
-            );
+    public Mono<String> publicar(EventoAuditoriaDto evento) {
+        return publicador.publicar(evento);
+    }
+    
+    /**
+     * Indica se o publicador está saturado e a ingestão deve desacelerar
+     */
+    public boolean publicacaoSaturada() {
+        return publicador.saturado();
     }
     
     /**
@@ -90,23 +93,29 @@ public class EventStreamingService {
         ));
     }
     
-    // ========== MÉTODOS PRIVADOS ==========
-    
     /**
-     * Enviar evento para Dead Letter Queue
+     * Enviar entrada do stream para Dead Letter Queue preservando os campos originais
      */
-    private Mono<String> enviarParaDLQ(EventoAuditoriaDto evento, String motivo) {
-        var dlqEvent = Map.of(
-            "original_event_id", evento.id(),
-            "dlq_timestamp", LocalDateTime.now().toString(),
-            "failure_reason", motivo
-        );
+    public Mono<String> enviarParaDLQ(Map<String, String> camposOriginais, String motivo) {
+        var dlqEvent = new HashMap<>(camposOriginais);
+        dlqEvent.putIfAbsent(CAMPO_DLQ_EVENTO_ORIGINAL, camposOriginais.getOrDefault(CodecEventoStream.CAMPO_ID, ""));
+        dlqEvent.put(CAMPO_DLQ_TIMESTAMP, LocalDateTime.now().toString());
+        dlqEvent.put(CAMPO_DLQ_MOTIVO, motivo);
         
         return stringRedisTemplate.opsForStream()
             .add(DLQ_STREAM, dlqEvent)
             .map(recordId -> recordId.getValue())
             .doOnNext(messageId -> 
-                System.err.println("💀 Evento enviado para DLQ: " + evento.id())
+                logger.warn("Evento enviado para DLQ: {} ({})", dlqEvent.get(CAMPO_DLQ_EVENTO_ORIGINAL), motivo)
             );
     }
-}
\ No newline at end of file
+    
+    /**
+     * Enviar evento para Dead Letter Queue
+     */
+    public Mono<String> enviarParaDLQ(EventoAuditoriaDto evento, String motivo) {
+        return Mono.fromCallable(() -> codec.codificar(evento))
+            .onErrorResume(_ -> Mono.just(Map.of(CodecEventoStream.CAMPO_ID, evento.id())))
+            .flatMap(campos -> enviarParaDLQ(campos, motivo));
+    }
+}
@@ -0,0 +1,11 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.streaming;
+
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+
+/**
+ * Evento entregue ao feed em tempo real junto com o id da entrada no
+ * stream de auditoria (nulo quando o evento não passou pelo stream).
+ * O id do stream é o cursor usado para retomar o feed.
+ */
+public record EventoPublicado(String idStream, EventoAuditoriaDto evento) {
+}
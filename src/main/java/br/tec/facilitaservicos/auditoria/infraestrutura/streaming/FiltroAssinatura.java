@@ -0,0 +1,85 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.streaming;
+
+import java.util.Objects;
+
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+import br.tec.facilitaservicos.auditoria.dominio.enums.NivelSeveridade;
+
+/**
+ * Predicado de uma assinatura do {@link RoteadorAssinaturas}; campos nulos
+ * não filtram. Todos os critérios informados precisam casar.
+ *
+ * @param usuarioId         usuário exato
+ * @param tipoEvento        tipo exato
+ * @param categoria         categoria de compliance exata
+ * @param severidadeMinima  severidade mínima (inclusiva)
+ */
+public record FiltroAssinatura(String usuarioId,
+                               String tipoEvento,
+                               String categoria,
+                               NivelSeveridade severidadeMinima) {
+
+    private static final FiltroAssinatura TODOS = new FiltroAssinatura(null, null, null, null);
+
+    public static FiltroAssinatura todos() {
+        return TODOS;
+    }
+
+    public static FiltroAssinatura porUsuario(String usuarioId) {
+        return new FiltroAssinatura(usuarioId, null, null, null);
+    }
+
+    public static FiltroAssinatura porTipo(String tipoEvento) {
+        return new FiltroAssinatura(null, tipoEvento, null, null);
+    }
+
+    public static FiltroAssinatura porSeveridadeMinima(NivelSeveridade severidadeMinima) {
+        return new FiltroAssinatura(null, null, null, severidadeMinima);
+    }
+
+    public static FiltroAssinatura porCategoria(String categoria) {
+        return new FiltroAssinatura(null, null, categoria, null);
+    }
+
+    /**
+     * Avalia o filtro completo (o índice do roteador só pré-seleciona candidatos)
+     */
+    public boolean aceita(EventoAuditoriaDto evento) {
+        if (usuarioId != null && !usuarioId.equals(evento.usuarioId())) {
+            return false;
+        }
+        if (tipoEvento != null && !tipoEvento.equals(evento.tipoEvento())) {
+            return false;
+        }
+        if (categoria != null && !categoria.equals(evento.categoriaCompliance())) {
+            return false;
+        }
+        if (severidadeMinima != null) {
+            NivelSeveridade severidade = severidade(evento);
+            return severidade != null && severidade.getNivel() >= severidadeMinima.getNivel();
+        }
+        return true;
+    }
+
+    /**
+     * Severidade do evento, ou nulo se ausente/desconhecida
+     */
+    static NivelSeveridade severidade(EventoAuditoriaDto evento) {
+        if (evento.severidade() == null) {
+            return null;
+        }
+        try {
+            return NivelSeveridade.valueOf(evento.severidade());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FiltroAssinatura[usuario=" + Objects.toString(usuarioId, "*")
+            + ", tipo=" + Objects.toString(tipoEvento, "*")
+            + ", categoria=" + Objects.toString(categoria, "*")
+            + ", severidade>=" + Objects.toString(severidadeMinima, "*") + "]";
+    }
+}
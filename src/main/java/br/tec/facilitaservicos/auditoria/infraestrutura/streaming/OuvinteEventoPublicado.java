@@ -0,0 +1,12 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.streaming;
+
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+
+/**
+ * Notificado pelo relay do outbox logo após o XADD de cada evento no
+ * stream de auditoria. Chamado na thread do relay: não pode bloquear.
+ */
+public interface OuvinteEventoPublicado {
+
+    void eventoPublicado(String idStream, EventoAuditoriaDto evento);
+}
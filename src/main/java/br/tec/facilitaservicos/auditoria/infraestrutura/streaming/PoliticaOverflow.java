@@ -0,0 +1,28 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.streaming;
+
+import reactor.core.publisher.BufferOverflowStrategy;
+
+/**
+ * O que fazer quando o buffer de um assinante lento enche.
+ */
+public enum PoliticaOverflow {
+
+    /** Descarta o evento mais antigo do buffer (buffer circular) */
+    DESCARTAR_MAIS_ANTIGO(BufferOverflowStrategy.DROP_OLDEST),
+
+    /** Descarta o evento que acabou de chegar */
+    DESCARTAR_MAIS_RECENTE(BufferOverflowStrategy.DROP_LATEST),
+
+    /** Encerra a assinatura com erro de overflow */
+    DESCONECTAR(BufferOverflowStrategy.ERROR);
+
+    private final BufferOverflowStrategy estrategia;
+
+    PoliticaOverflow(BufferOverflowStrategy estrategia) {
+        this.estrategia = estrategia;
+    }
+
+    public BufferOverflowStrategy getEstrategia() {
+        return estrategia;
+    }
+}
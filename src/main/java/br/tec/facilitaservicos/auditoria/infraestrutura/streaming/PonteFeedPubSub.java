@@ -0,0 +1,330 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.streaming;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+import reactor.util.retry.Retry;
+
+/**
+ * ============================================================================
+ * 🌉 PONTE REDIS PUB/SUB DO FEED EM TEMPO REAL
+ * ============================================================================
+ *
+ * Leva os eventos do feed a todos os pods:
+ * - O pod de origem entrega no {@link RoteadorAssinaturas} local na hora e
+ *   publica uma única vez no canal {@value #CANAL}
+ * - Os demais pods recebem e entregam nos seus roteadores; mensagens do
+ *   próprio pod são ignoradas e cada evento é entregue uma vez por pod
+ *   (deduplicação por id em cache Caffeine com expiração)
+ * - Publicações agrupadas em micro-janela: com tráfego alto vários eventos
+ *   saem num único PUBLISH
+ * - Formato compacto: JSON posicional (arrays, sem nomes de campo) com
+ *   cabeçalho de 1 byte e deflate acima de um limiar
+ *
+ * O feed é best-effort: com a fila de publicação cheia o evento só chega
+ * aos observadores do pod de origem.
+ */
+@Component
+public class PonteFeedPubSub {
+
+    private static final Logger logger = LoggerFactory.getLogger(PonteFeedPubSub.class);
+
+    public static final String CANAL = "audit:feed";
+
+    private static final byte VERSAO = 1;
+    private static final byte FLAG_DEFLATE = (byte) 0x80;
+
+    private final RoteadorAssinaturas roteador;
+    private final ReactiveRedisTemplate<String, byte[]> pubSubTemplate;
+    private final ObjectMapper formatoCompacto;
+
+    private final Sinks.Many<EventoPublicado> fila = Sinks.many().unicast()
+        .onBackpressureBuffer(Queues.<EventoPublicado>unboundedMultiproducer().get());
+    private final AtomicInteger emEspera = new AtomicInteger();
+    private Cache<String, Boolean> entregues;
+
+    private final Counter publicados;
+    private final Counter recebidos;
+    private final Counter duplicados;
+    private final Counter descartados;
+    private final DistributionSummary tamanhoLote;
+    private final DistributionSummary bytesMensagem;
+
+    private String origem;
+    private Disposable publicacao;
+    private Disposable assinatura;
+
+    @Value("${auditoria.streaming.ponte.habilitada:true}")
+    private boolean habilitada;
+
+    @Value("${auditoria.streaming.ponte.capacidade:10000}")
+    private int capacidade;
+
+    @Value("${auditoria.streaming.ponte.tamanho-maximo-lote:200}")
+    private int tamanhoMaximoLote;
+
+    @Value("${auditoria.streaming.ponte.janela-ms:10}")
+    private long janelaMs;
+
+    @Value("${auditoria.streaming.ponte.limiar-compressao-bytes:1024}")
+    private int limiarCompressao;
+
+    @Value("${auditoria.streaming.ponte.dedup-ttl-segundos:120}")
+    private long dedupTtlSegundos;
+
+    @Value("${auditoria.streaming.ponte.dedup-maximo:200000}")
+    private long dedupMaximo;
+
+    @Value("${HOSTNAME:}")
+    private String hostname;
+
+    public PonteFeedPubSub(RoteadorAssinaturas roteador,
+                           ReactiveRedisConnectionFactory connectionFactory,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry) {
+        this.roteador = roteador;
+        this.pubSubTemplate = new ReactiveRedisTemplate<>(connectionFactory,
+            RedisSerializationContext.<String, byte[]>newSerializationContext(RedisSerializer.byteArray())
+                .key(RedisSerializer.string())
+                .hashKey(RedisSerializer.string())
+                .build());
+        this.formatoCompacto = objectMapper.copy()
+            .addMixIn(EventoAuditoriaDto.class, FormatoPosicional.class);
+
+        this.publicados = Counter.builder("audit.feed.ponte.publicados")
+            .description("Eventos do feed publicados no canal pub/sub")
+            .register(meterRegistry);
+        this.recebidos = Counter.builder("audit.feed.ponte.recebidos")
+            .description("Eventos do feed recebidos de outros pods")
+            .register(meterRegistry);
+        this.duplicados = Counter.builder("audit.feed.ponte.duplicados")
+            .description("Eventos do feed ignorados por já terem sido entregues")
+            .register(meterRegistry);
+        this.descartados = Counter.builder("audit.feed.ponte.descartados")
+            .description("Eventos não publicados por fila cheia ou erro")
+            .register(meterRegistry);
+        this.tamanhoLote = DistributionSummary.builder("audit.feed.ponte.lote")
+            .description("Eventos por mensagem publicada")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.bytesMensagem = DistributionSummary.builder("audit.feed.ponte.bytes")
+            .description("Tamanho das mensagens publicadas")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        meterRegistry.gauge("audit.feed.ponte.fila", emEspera);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        origem = (hostname == null || hostname.isBlank())
+            ? UUID.randomUUID().toString().substring(0, 8)
+            : hostname;
+        entregues = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(dedupTtlSegundos))
+            .maximumSize(dedupMaximo)
+            .build();
+
+        publicacao = fila.asFlux()
+            .bufferTimeout(tamanhoMaximoLote, Duration.ofMillis(janelaMs), true)
+            .concatMap(this::publicarLote)
+            .subscribe(
+                _ -> {},
+                error -> logger.error("Publicação da ponte do feed encerrada com erro", error));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void assinarCanal() {
+        if (!habilitada) {
+            return;
+        }
+        assinatura = pubSubTemplate.listenToChannel(CANAL)
+            .doOnSubscribe(_ -> logger.info("Ponte do feed assinando {} (origem {})", CANAL, origem))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+            .subscribe(
+                mensagem -> receber(mensagem.getMessage()),
+                error -> logger.error("Assinatura da ponte do feed encerrada com erro", error));
+    }
+
+    @PreDestroy
+    public void parar() {
+        fila.tryEmitComplete();
+        if (publicacao != null) {
+            publicacao.dispose();
+        }
+        if (assinatura != null) {
+            assinatura.dispose();
+        }
+    }
+
+    /**
+     * Entregar localmente e enfileirar para os demais pods
+     */
+    public void difundir(EventoPublicado publicado) {
+        if (!primeiraEntrega(publicado)) {
+            duplicados.increment();
+            return;
+        }
+        roteador.publicar(publicado);
+
+        if (!habilitada) {
+            return;
+        }
+        if (emEspera.incrementAndGet() > capacidade) {
+            emEspera.decrementAndGet();
+            descartados.increment();
+            return;
+        }
+        if (fila.tryEmitNext(publicado).isFailure()) {
+            emEspera.decrementAndGet();
+            descartados.increment();
+        }
+    }
+
+    // ========== PUBLICAÇÃO ==========
+
+    private Mono<Long> publicarLote(List<EventoPublicado> lote) {
+        emEspera.addAndGet(-lote.size());
+
+        byte[] mensagem;
+        try {
+            mensagem = codificar(lote);
+        } catch (RuntimeException e) {
+            logger.warn("Falha ao codificar lote de {} eventos do feed: {}", lote.size(), e.getMessage());
+            descartados.increment(lote.size());
+            return Mono.empty();
+        }
+
+        tamanhoLote.record(lote.size());
+        bytesMensagem.record(mensagem.length);
+        return pubSubTemplate.convertAndSend(CANAL, mensagem)
+            .doOnNext(_ -> publicados.increment(lote.size()))
+            .onErrorResume(error -> {
+                logger.debug("Falha ao publicar lote do feed: {}", error.getMessage());
+                descartados.increment(lote.size());
+                return Mono.empty();
+            });
+    }
+
+    private void receber(byte[] mensagem) {
+        LoteFeed lote;
+        try {
+            lote = decodificar(mensagem);
+        } catch (RuntimeException e) {
+            logger.debug("Mensagem inválida no canal do feed: {}", e.getMessage());
+            return;
+        }
+        if (origem.equals(lote.origem())) {
+            return;
+        }
+
+        for (ItemFeed item : lote.itens()) {
+            EventoPublicado publicado = new EventoPublicado(item.idStream(), item.evento());
+            recebidos.increment();
+            if (primeiraEntrega(publicado)) {
+                roteador.publicar(publicado);
+            } else {
+                duplicados.increment();
+            }
+        }
+    }
+
+    private boolean primeiraEntrega(EventoPublicado publicado) {
+        String id = publicado.evento().id();
+        return id == null || entregues.asMap().putIfAbsent(id, Boolean.TRUE) == null;
+    }
+
+    // ========== FORMATO ==========
+
+    /**
+     * [cabeçalho: versão | flag deflate][JSON posicional do lote]
+     */
+    byte[] codificar(List<EventoPublicado> lote) {
+        try {
+            List<ItemFeed> itens = lote.stream()
+                .map(publicado -> new ItemFeed(publicado.idStream(), publicado.evento()))
+                .toList();
+            byte[] json = formatoCompacto.writeValueAsBytes(new LoteFeed(origem, itens));
+
+            boolean comprimir = json.length > limiarCompressao;
+            ByteArrayOutputStream saida = new ByteArrayOutputStream(comprimir ? json.length / 3 : json.length + 1);
+            saida.write(comprimir ? VERSAO | FLAG_DEFLATE : VERSAO);
+            if (comprimir) {
+                try (DeflaterOutputStream deflate = new DeflaterOutputStream(saida)) {
+                    deflate.write(json);
+                }
+            } else {
+                saida.write(json);
+            }
+            return saida.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    LoteFeed decodificar(byte[] mensagem) {
+        if (mensagem == null || mensagem.length < 2 || (mensagem[0] & ~FLAG_DEFLATE) != VERSAO) {
+            throw new IllegalArgumentException("Versão de mensagem do feed não suportada");
+        }
+        try {
+            byte[] json = Arrays.copyOfRange(mensagem, 1, mensagem.length);
+            if ((mensagem[0] & FLAG_DEFLATE) != 0) {
+                try (InflaterInputStream inflate = new InflaterInputStream(new ByteArrayInputStream(json))) {
+                    json = inflate.readAllBytes();
+                }
+            }
+            return formatoCompacto.readValue(json, LoteFeed.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Mensagem do feed ilegível", e);
+        }
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    record LoteFeed(String origem, List<ItemFeed> itens) {
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    record ItemFeed(String idStream, EventoAuditoriaDto evento) {
+    }
+
+    /**
+     * Mixin: serializa o evento como array de valores na ordem dos componentes
+     */
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    abstract static class FormatoPosicional {
+    }
+}
@@ -0,0 +1,264 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.streaming;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReactiveRedisConnection;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.ReactiveStreamCommands.AddStreamRecord;
+import org.springframework.data.redis.connection.RedisConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.stereotype.Component;
+
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+/**
+ * ============================================================================
+ * 📦 PUBLICADOR EM LOTE PARA REDIS STREAMS
+ * ============================================================================
+ *
+ * Agrupa eventos numa micro-janela e envia cada lote como XADDs em pipeline:
+ * todos os comandos do lote são despachados de uma vez na conexão, sem
+ * esperar a resposta do anterior, e até {@code lotes-em-voo} lotes ficam
+ * pendentes ao mesmo tempo. A conexão entrega os comandos na ordem do
+ * despacho, então a ordem no stream é a da fila.
+ * - Conexão Lettuce dedicada, separada da usada por cache e consultas
+ * - Fila limitada; quando cheia, {@link #publicar} falha com
+ *   {@link PublicadorSaturadoException} e {@link #saturado()} avisa a ingestão
+ * - MAXLEN ~ aplicado no próprio XADD
+ * - Pedido que estoura {@code timeout-ms} é marcado como cancelado e não é
+ *   enviado se ainda estiver na fila
+ * - Histogramas de tamanho de lote e de latência de publicação
+ */
+@Component
+public class PublicadorLoteStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicadorLoteStream.class);
+
+    private static final ByteBuffer CHAVE_STREAM =
+        ByteBuffer.wrap(EventStreamingService.AUDIT_STREAM.getBytes(StandardCharsets.UTF_8));
+
+    private final ReactiveRedisConnectionFactory connectionFactory;
+    private final CodecEventoStream codec;
+
+    private final Sinks.Many<Pedido> fila = Sinks.many().unicast()
+        .onBackpressureBuffer(Queues.<Pedido>unboundedMultiproducer().get());
+    private final AtomicInteger emEspera = new AtomicInteger();
+
+    private final DistributionSummary tamanhoLote;
+    private final Timer latenciaPublicacao;
+    private final Counter rejeitados;
+    private final Counter cancelados;
+
+    private LettuceConnectionFactory conexaoDedicada;
+    private ReactiveRedisConnection conexao;
+    private Disposable pipeline;
+
+    @Value("${auditoria.streaming.publicador.capacidade:10000}")
+    private int capacidade;
+
+    @Value("${auditoria.streaming.publicador.limiar-saturacao:0.8}")
+    private double limiarSaturacao;
+
+    @Value("${auditoria.streaming.publicador.tamanho-maximo-lote:256}")
+    private int tamanhoMaximoLote;
+
+    @Value("${auditoria.streaming.publicador.janela-ms:5}")
+    private long janelaMs;
+
+    @Value("${auditoria.streaming.publicador.lotes-em-voo:4}")
+    private int lotesEmVoo;
+
+    @Value("${auditoria.streaming.publicador.timeout-ms:5000}")
+    private long timeoutMs;
+
+    @Value("${auditoria.streaming.stream.maxlen:1000000}")
+    private long maxLen;
+
+    public PublicadorLoteStream(ReactiveRedisConnectionFactory connectionFactory,
+                                CodecEventoStream codec,
+                                MeterRegistry meterRegistry) {
+        this.connectionFactory = connectionFactory;
+        this.codec = codec;
+
+        this.tamanhoLote = DistributionSummary.builder("audit.stream.publicacao.lote")
+            .description("Quantidade de XADDs por lote em pipeline")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.latenciaPublicacao = Timer.builder("audit.stream.publicacao.latencia")
+            .description("Tempo entre o enfileiramento e a confirmação do XADD")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.rejeitados = Counter.builder("audit.stream.publicacao.rejeitados")
+            .description("Eventos recusados por fila cheia")
+            .register(meterRegistry);
+        this.cancelados = Counter.builder("audit.stream.publicacao.cancelados")
+            .description("Eventos descartados da fila por timeout antes do envio")
+            .register(meterRegistry);
+        meterRegistry.gauge("audit.stream.publicacao.fila", emEspera);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        conexao = abrirConexaoDedicada().getReactiveConnection();
+
+        pipeline = fila.asFlux()
+            .bufferTimeout(tamanhoMaximoLote, Duration.ofMillis(janelaMs), true)
+            .flatMap(this::enviarLote, lotesEmVoo)
+            .subscribe(
+                _ -> {},
+                error -> logger.error("Pipeline do publicador de stream encerrado com erro", error));
+    }
+
+    @PreDestroy
+    public void parar() {
+        fila.tryEmitComplete();
+        if (pipeline != null) {
+            pipeline.dispose();
+        }
+        if (conexao != null) {
+            conexao.close();
+        }
+        if (conexaoDedicada != null) {
+            conexaoDedicada.destroy();
+        }
+    }
+
+    /**
+     * Enfileirar evento; completa com o id do registro após o XADD do lote
+     */
+    public Mono<String> publicar(EventoAuditoriaDto evento) {
+        return Mono.defer(() -> {
+            if (emEspera.incrementAndGet() > capacidade) {
+                emEspera.decrementAndGet();
+                rejeitados.increment();
+                return Mono.error(new PublicadorSaturadoException(capacidade));
+            }
+
+            Pedido pedido;
+            try {
+                pedido = new Pedido(codec.codificarBinario(evento), Sinks.one(), System.nanoTime(), new AtomicBoolean());
+            } catch (RuntimeException e) {
+                emEspera.decrementAndGet();
+                return Mono.error(e);
+            }
+
+            // Sink unicast serializa os emissores; a espera ocupada cobre a disputa entre threads
+            try {
+                fila.emitNext(pedido, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+            } catch (RuntimeException e) {
+                // Fila encerrada ou disputa além da espera: o pedido nunca entrou, devolve a vaga
+                emEspera.decrementAndGet();
+                return Mono.error(e);
+            }
+            return pedido.resultado().asMono()
+                .timeout(Duration.ofMillis(timeoutMs), Mono.defer(() -> {
+                    // Ainda na fila: enviarLote descarta em vez de publicar sem ninguém esperando
+                    pedido.cancelado().set(true);
+                    return Mono.error(new TimeoutException("XADD sem confirmação em " + timeoutMs + " ms"));
+                }))
+                .doOnCancel(() -> pedido.cancelado().set(true));
+        });
+    }
+
+    /**
+     * Fila acima do limiar: a ingestão deve desacelerar
+     */
+    public boolean saturado() {
+        return emEspera.get() >= capacidade * limiarSaturacao;
+    }
+
+    /**
+     * Ocupação atual da fila (0..1)
+     */
+    public double ocupacao() {
+        return (double) emEspera.get() / capacidade;
+    }
+
+    // ========== ENVIO ==========
+
+    private Mono<Void> enviarLote(List<Pedido> lote) {
+        emEspera.addAndGet(-lote.size());
+        List<Pedido> ativos = lote.stream()
+            .filter(pedido -> !pedido.cancelado().get())
+            .toList();
+        cancelados.increment(lote.size() - ativos.size());
+        if (ativos.isEmpty()) {
+            return Mono.empty();
+        }
+        tamanhoLote.record(ativos.size());
+
+        // Um XADD por assinatura, todas de imediato: a conexão escreve os comandos
+        // em sequência sem esperar as respostas (pipeline)
+        return Flux.fromIterable(ativos)
+            .flatMap(this::enviar, ativos.size())
+            .then();
+    }
+
+    private Mono<Void> enviar(Pedido pedido) {
+        AddStreamRecord comando = AddStreamRecord.of(StreamRecords.rawBuffer(pedido.campos()).withStreamKey(CHAVE_STREAM.duplicate()))
+            .maxlen(maxLen)
+            .approximateTrimming(true);
+
+        return conexao.streamCommands().xAdd(Mono.just(comando))
+            .next()
+            .doOnNext(resposta -> {
+                latenciaPublicacao.record(System.nanoTime() - pedido.enfileiradoEm(), TimeUnit.NANOSECONDS);
+                pedido.resultado().tryEmitValue(resposta.getOutput().getValue());
+            })
+            .switchIfEmpty(Mono.fromRunnable(() -> pedido.resultado().tryEmitError(new IllegalStateException("XADD sem resposta"))))
+            .onErrorResume(error -> {
+                logger.warn("Falha ao publicar evento no stream: {}", error.getMessage());
+                pedido.resultado().tryEmitError(error);
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    /**
+     * Abre uma fábrica Lettuce própria com a mesma configuração da principal;
+     * outros drivers reaproveitam a fábrica compartilhada
+     */
+    private ReactiveRedisConnectionFactory abrirConexaoDedicada() {
+        if (!(connectionFactory instanceof LettuceConnectionFactory principal)) {
+            return connectionFactory;
+        }
+
+        RedisConfiguration configuracao = principal.isClusterAware()
+            ? principal.getClusterConfiguration()
+            : principal.isRedisSentinelAware()
+                ? principal.getSentinelConfiguration()
+                : principal.getStandaloneConfiguration();
+
+        conexaoDedicada = new LettuceConnectionFactory(configuracao, principal.getClientConfiguration());
+        conexaoDedicada.afterPropertiesSet();
+        conexaoDedicada.start();
+        return conexaoDedicada;
+    }
+
+    private record Pedido(Map<ByteBuffer, ByteBuffer> campos, Sinks.One<String> resultado, long enfileiradoEm,
+                          AtomicBoolean cancelado) {
+    }
+}
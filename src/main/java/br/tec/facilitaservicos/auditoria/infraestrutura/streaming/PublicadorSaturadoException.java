@@ -0,0 +1,12 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.streaming;
+
+/**
+ * Sinaliza que a fila do {@link PublicadorLoteStream} está cheia e o chamador
+ * deve reduzir o ritmo antes de tentar novamente.
+ */
+public class PublicadorSaturadoException extends IllegalStateException {
+
+    public PublicadorSaturadoException(int capacidade) {
+        super("Publicador do stream saturado (capacidade " + capacidade + ")");
+    }
+}
@@ -0,0 +1,511 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.streaming;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Range.Bound;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.ReactiveStreamOperations;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import br.tec.facilitaservicos.auditoria.aplicacao.mapper.EventoAuditoriaMapper;
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+import br.tec.facilitaservicos.auditoria.dominio.entidade.EventoAuditoriaR2dbc;
+import br.tec.facilitaservicos.auditoria.dominio.repositorio.EventoAuditoriaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * ============================================================================
+ * ♻️ REDRIVE DA DEAD LETTER QUEUE DE AUDITORIA
+ * ============================================================================
+ *
+ * Devolve ao stream principal as entradas de {@value EventStreamingService#DLQ_STREAM}:
+ * - Leitura paginada com XRANGE até a última entrada existente no início
+ *   da execução (entradas reagendadas durante o redrive não são relidas)
+ * - Eventos reidratados do MySQL por id, em lote; o payload guardado na
+ *   entrada é usado quando o evento não está no banco
+ * - Falhas transitórias (publicador saturado, timeout, Redis indisponível)
+ *   são reagendadas na própria DLQ com backoff exponencial por entrada
+ * - Falhas permanentes (evento inexistente, tentativas esgotadas, dados
+ *   inválidos) vão para {@value EventStreamingService#DLQ_PERMANENTE_STREAM}
+ * - Tentativas contadas por evento: cada reenvio incrementa uma chave no
+ *   Redis ({@code audit:events:dlq:tentativas:<id>}), somada ao contador da
+ *   entrada; um evento que volta à DLQ depois de reenviado chega como
+ *   entrada nova, mas continua contando até {@code max-tentativas}
+ * - Mover uma entrada é XADD no destino + XDEL na DLQ; se o XDEL falhar a
+ *   cópia é desfeita e a entrada fica onde estava (nunca nas duas filas)
+ * - Taxa máxima de reenvio e modo dry-run (apenas classifica)
+ *
+ * Métricas: profundidade das filas, idade da entrada mais antiga e
+ * resultado de cada entrada processada.
+ */
+@Service
+public class RedriveDlqService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedriveDlqService.class);
+
+    public static final String CAMPO_TENTATIVAS = "redrive_tentativas";
+    public static final String CAMPO_PROXIMA_TENTATIVA = "redrive_proxima_tentativa";
+    public static final String CAMPO_ULTIMO_ERRO = "redrive_ultimo_erro";
+    public static final String CAMPO_MOTIVO_PERMANENTE = "permanent_reason";
+
+    private static final int TAMANHO_MAXIMO_ERRO = 300;
+    private static final String PREFIXO_TENTATIVAS = "audit:events:dlq:tentativas:";
+
+    private final ReactiveStringRedisTemplate stringRedisTemplate;
+    private final ReactiveStreamOperations<String, String, String> streamOps;
+    private final EventStreamingService streamingService;
+    private final CodecEventoStream codec;
+    private final EventoAuditoriaRepository repository;
+    private final EventoAuditoriaMapper mapper;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Counter> contadores = new ConcurrentHashMap<>();
+    private final AtomicLong profundidade = new AtomicLong();
+    private final AtomicLong profundidadePermanente = new AtomicLong();
+    private final AtomicLong idadeMs = new AtomicLong();
+    private final AtomicBoolean emAndamento = new AtomicBoolean(false);
+
+    @Value("${auditoria.streaming.dlq.redrive.tamanho-lote:100}")
+    private int tamanhoLote;
+
+    @Value("${auditoria.streaming.dlq.redrive.limite-maximo:10000}")
+    private int limiteMaximo;
+
+    @Value("${auditoria.streaming.dlq.redrive.taxa-padrao:50}")
+    private double taxaPadrao;
+
+    @Value("${auditoria.streaming.dlq.redrive.max-tentativas:8}")
+    private int maxTentativas;
+
+    @Value("${auditoria.streaming.dlq.redrive.backoff-base-ms:30000}")
+    private long backoffBaseMs;
+
+    @Value("${auditoria.streaming.dlq.redrive.backoff-max-ms:3600000}")
+    private long backoffMaxMs;
+
+    @Value("${auditoria.streaming.dlq.redrive.tentativas-ttl-horas:168}")
+    private long tentativasTtlHoras;
+
+    @Value("${auditoria.streaming.dlq.redrive.automatico:false}")
+    private boolean redriveAutomatico;
+
+    public RedriveDlqService(ReactiveStringRedisTemplate stringRedisTemplate,
+                             EventStreamingService streamingService,
+                             CodecEventoStream codec,
+                             EventoAuditoriaRepository repository,
+                             EventoAuditoriaMapper mapper,
+                             MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.streamOps = stringRedisTemplate.opsForStream();
+        this.streamingService = streamingService;
+        this.codec = codec;
+        this.repository = repository;
+        this.mapper = mapper;
+        this.meterRegistry = meterRegistry;
+
+        meterRegistry.gauge("audit.dlq.profundidade", Tags.of("fila", "dlq"), profundidade);
+        meterRegistry.gauge("audit.dlq.profundidade", Tags.of("fila", "permanente"), profundidadePermanente);
+        TimeGauge.builder("audit.dlq.idade", idadeMs, TimeUnit.MILLISECONDS, AtomicLong::doubleValue)
+            .description("Idade da entrada mais antiga da DLQ")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Reenviar até {@code limite} entradas da DLQ respeitando a taxa informada
+     *
+     * @param limite         máximo de entradas analisadas nesta execução
+     * @param taxaPorSegundo reenvios por segundo (0 ou negativo usa a taxa padrão)
+     * @param dryRun         apenas classifica, sem publicar nem alterar a DLQ
+     */
+    public Mono<ResultadoRedrive> redrive(int limite, double taxaPorSegundo, boolean dryRun) {
+        return Mono.defer(() -> {
+            if (!emAndamento.compareAndSet(false, true)) {
+                return Mono.error(new IllegalStateException("Redrive da DLQ já em andamento"));
+            }
+
+            Execucao execucao = new Execucao(
+                Math.clamp(limite, 1, limiteMaximo),
+                taxaPorSegundo > 0 ? taxaPorSegundo : taxaPadrao,
+                dryRun);
+
+            return ultimoId(EventStreamingService.DLQ_STREAM)
+                .flatMap(fim -> processarAPartirDe(null, fim, execucao))
+                .then(Mono.fromSupplier(execucao::resultado))
+                .doOnNext(resultado -> logger.info("Redrive da DLQ concluído: {}", resultado))
+                .doFinally(_ -> {
+                    emAndamento.set(false);
+                    atualizarMetricas();
+                });
+        });
+    }
+
+    /**
+     * Resumo das filas de DLQ
+     */
+    public Mono<Map<String, Object>> resumo() {
+        return Mono.zip(
+                streamOps.size(EventStreamingService.DLQ_STREAM),
+                streamOps.size(EventStreamingService.DLQ_PERMANENTE_STREAM),
+                idadeMaisAntiga())
+            .map(valores -> {
+                Map<String, Object> resumo = new LinkedHashMap<>();
+                resumo.put("profundidade", valores.getT1());
+                resumo.put("profundidadePermanente", valores.getT2());
+                resumo.put("idadeMaisAntigaMs", valores.getT3());
+                resumo.put("redriveEmAndamento", emAndamento.get());
+                return resumo;
+            });
+    }
+
+    /**
+     * Atualizar gauges de profundidade e idade
+     */
+    @Scheduled(fixedDelayString = "${auditoria.streaming.dlq.metricas.intervalo-ms:30000}")
+    public void atualizarMetricas() {
+        streamOps.size(EventStreamingService.DLQ_STREAM)
+            .doOnNext(profundidade::set)
+            .then(streamOps.size(EventStreamingService.DLQ_PERMANENTE_STREAM))
+            .doOnNext(profundidadePermanente::set)
+            .then(idadeMaisAntiga())
+            .subscribe(
+                idadeMs::set,
+                error -> logger.debug("Falha ao atualizar métricas da DLQ: {}", error.getMessage()));
+    }
+
+    /**
+     * Redrive periódico das entradas cujo backoff venceu (desligado por padrão)
+     */
+    @Scheduled(fixedDelayString = "${auditoria.streaming.dlq.redrive.intervalo-ms:60000}",
+               initialDelayString = "${auditoria.streaming.dlq.redrive.atraso-inicial-ms:120000}")
+    public void redrivePeriodico() {
+        if (!redriveAutomatico || emAndamento.get()) {
+            return;
+        }
+        redrive(limiteMaximo, taxaPadrao, false)
+            .subscribe(
+                _ -> {},
+                error -> logger.warn("Falha no redrive periódico da DLQ: {}", error.getMessage()));
+    }
+
+    // ========== PROCESSAMENTO ==========
+
+    /**
+     * Lê a próxima página (XRANGE inclusivo a partir da última entrada vista)
+     * e processa; repete até o fim capturado ou o limite da execução
+     */
+    private Mono<Void> processarAPartirDe(String inicio, String fim, Execucao execucao) {
+        int restante = execucao.limite - execucao.analisadas.get();
+        if (restante <= 0) {
+            return Mono.empty();
+        }
+
+        Range<String> range = Range.of(
+            inicio == null ? Bound.<String>unbounded() : Bound.inclusive(inicio),
+            Bound.inclusive(fim));
+        int quantidade = Math.min(tamanhoLote, restante) + (inicio == null ? 0 : 1);
+
+        return streamOps.range(EventStreamingService.DLQ_STREAM, range, Limit.limit().count(quantidade))
+            .filter(registro -> !registro.getId().getValue().equals(inicio))
+            .take(restante)
+            .collectList()
+            .flatMap(pagina -> {
+                if (pagina.isEmpty()) {
+                    return Mono.empty();
+                }
+                String ultimo = pagina.getLast().getId().getValue();
+                return processarPagina(pagina, execucao)
+                    .then(Mono.defer(() -> processarAPartirDe(ultimo, fim, execucao)));
+            });
+    }
+
+    private Mono<Void> processarPagina(List<MapRecord<String, String, String>> pagina, Execucao execucao) {
+        long agora = System.currentTimeMillis();
+        execucao.analisadas.addAndGet(pagina.size());
+
+        List<MapRecord<String, String, String>> devidas = pagina.stream()
+            .filter(registro -> {
+                boolean devida = inteiro(registro.getValue().get(CAMPO_PROXIMA_TENTATIVA)) <= agora;
+                if (!devida) {
+                    execucao.adiadas.incrementAndGet();
+                    contador("adiada").increment();
+                }
+                return devida;
+            })
+            .toList();
+
+        if (devidas.isEmpty()) {
+            return Mono.empty();
+        }
+
+        List<String> ids = devidas.stream()
+            .map(registro -> idOriginal(registro.getValue()))
+            .filter(id -> id != null && !id.isBlank())
+            .distinct()
+            .toList();
+
+        Duration intervalo = Duration.ofNanos((long) (1_000_000_000L / execucao.taxaPorSegundo));
+
+        return Mono.zip(
+                repository.findAllById(ids).collectMap(EventoAuditoriaR2dbc::getId, mapper::paraDto),
+                reenviosPorEvento(ids))
+            .flatMapMany(dados -> Flux.fromIterable(devidas)
+                .delayElements(intervalo)
+                .flatMap(registro -> processarEntrada(registro, dados.getT1(), dados.getT2(), execucao)
+                    .onErrorResume(error -> {
+                        // Movimento desfeito: a entrada continua na DLQ e volta na próxima execução
+                        logger.warn("Entrada {} da DLQ mantida: {}", registro.getId(), error.getMessage());
+                        contador("mantida").increment();
+                        return Mono.empty();
+                    }), tamanhoLote))
+            .then();
+    }
+
+    private Mono<Void> processarEntrada(MapRecord<String, String, String> registro,
+                                        Map<String, EventoAuditoriaDto> reidratados,
+                                        Map<String, Long> reenvios,
+                                        Execucao execucao) {
+        Map<String, String> campos = registro.getValue();
+        String eventoId = idOriginal(campos);
+        int tentativasEntrada = (int) inteiro(campos.get(CAMPO_TENTATIVAS));
+        int tentativas = tentativasEntrada + reenvios.getOrDefault(eventoId, 0L).intValue();
+
+        EventoAuditoriaDto evento = reidratados.get(idOriginal(campos));
+        if (evento == null) {
+            evento = decodificarPayload(campos);
+        }
+
+        String motivoPermanente = evento == null
+            ? "Evento original não encontrado"
+            : tentativas >= maxTentativas ? "Excedeu " + maxTentativas + " tentativas de redrive" : null;
+
+        if (motivoPermanente != null) {
+            execucao.permanentes.incrementAndGet();
+            return execucao.dryRun ? Mono.empty() : estacionar(registro, motivoPermanente);
+        }
+
+        if (execucao.dryRun) {
+            execucao.reenviadas.incrementAndGet();
+            return Mono.empty();
+        }
+
+        // Só a falha do próprio XADD reagenda; depois dele o evento já saiu
+        Mono<Void> aposReenvio = contarReenvio(eventoId)
+            .then(streamOps.delete(EventStreamingService.DLQ_STREAM, registro.getId())
+                .retryWhen(Retry.backoff(3, Duration.ofMillis(100))))
+            .doOnSuccess(_ -> {
+                execucao.reenviadas.incrementAndGet();
+                contador("reenviada").increment();
+            })
+            .then();
+
+        return streamingService.publicar(evento)
+            .onErrorResume(error -> {
+                String mensagem = mensagem(error);
+                if (transitoria(error)) {
+                    execucao.reagendadas.incrementAndGet();
+                    return reagendar(registro, tentativasEntrada + 1, mensagem).then(Mono.<String>empty());
+                }
+                execucao.permanentes.incrementAndGet();
+                return estacionar(registro, mensagem).then(Mono.<String>empty());
+            })
+            .flatMap(_ -> aposReenvio);
+    }
+
+    /**
+     * Reenvios já feitos de cada evento (chaves ausentes contam zero)
+     */
+    private Mono<Map<String, Long>> reenviosPorEvento(List<String> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return stringRedisTemplate.opsForValue()
+            .multiGet(ids.stream().map(id -> PREFIXO_TENTATIVAS + id).toList())
+            .map(valores -> {
+                Map<String, Long> reenvios = new HashMap<>();
+                for (int i = 0; i < ids.size(); i++) {
+                    reenvios.put(ids.get(i), inteiro(valores.get(i)));
+                }
+                return reenvios;
+            });
+    }
+
+    private Mono<Void> contarReenvio(String eventoId) {
+        if (eventoId == null || eventoId.isBlank()) {
+            return Mono.empty();
+        }
+        String chave = PREFIXO_TENTATIVAS + eventoId;
+        return stringRedisTemplate.opsForValue().increment(chave)
+            .then(stringRedisTemplate.expire(chave, Duration.ofHours(tentativasTtlHoras)))
+            .then();
+    }
+
+    /**
+     * Regrava a entrada no fim da DLQ com o contador e o próximo horário de tentativa
+     */
+    private Mono<Void> reagendar(MapRecord<String, String, String> registro, int tentativas, String erro) {
+        long atraso = Math.min(backoffMaxMs, backoffBaseMs << Math.min(tentativas - 1, 20));
+
+        Map<String, String> campos = new HashMap<>(registro.getValue());
+        campos.put(CAMPO_TENTATIVAS, String.valueOf(tentativas));
+        campos.put(CAMPO_PROXIMA_TENTATIVA, String.valueOf(System.currentTimeMillis() + atraso));
+        campos.put(CAMPO_ULTIMO_ERRO, erro);
+
+        return mover(registro, EventStreamingService.DLQ_STREAM, campos)
+            .doOnSuccess(_ -> contador("reagendada").increment());
+    }
+
+    /**
+     * Move a entrada para a fila de falhas permanentes
+     */
+    private Mono<Void> estacionar(MapRecord<String, String, String> registro, String motivo) {
+        Map<String, String> campos = new HashMap<>(registro.getValue());
+        campos.put(CAMPO_MOTIVO_PERMANENTE, motivo);
+
+        return mover(registro, EventStreamingService.DLQ_PERMANENTE_STREAM, campos)
+            .doOnSuccess(_ -> {
+                contador("permanente").increment();
+                logger.warn("Entrada {} da DLQ movida para falhas permanentes: {}", registro.getId(), motivo);
+            });
+    }
+
+    /**
+     * XADD no destino e XDEL na DLQ; sem o XDEL a cópia é removida e o erro
+     * segue adiante, para a entrada não ficar nas duas filas
+     */
+    private Mono<Void> mover(MapRecord<String, String, String> registro, String destino, Map<String, String> campos) {
+        return streamOps.add(destino, campos)
+            .flatMap(copia -> streamOps.delete(EventStreamingService.DLQ_STREAM, registro.getId())
+                .retryWhen(Retry.backoff(3, Duration.ofMillis(100)))
+                .onErrorResume(error -> streamOps.delete(destino, copia)
+                    .onErrorResume(falhaDesfazer -> {
+                        logger.error("Entrada {} da DLQ duplicada em {} ({}): {}",
+                            registro.getId(), destino, copia, falhaDesfazer.getMessage());
+                        return Mono.empty();
+                    })
+                    .then(Mono.error(error))))
+            .then();
+    }
+
+    // ========== AUXILIARES ==========
+
+    private Mono<String> ultimoId(String stream) {
+        return streamOps.reverseRange(stream, Range.unbounded(), Limit.limit().count(1))
+            .next()
+            .map(registro -> registro.getId().getValue());
+    }
+
+    private Mono<Long> idadeMaisAntiga() {
+        return streamOps.range(EventStreamingService.DLQ_STREAM, Range.unbounded(), Limit.limit().count(1))
+            .next()
+            .map(registro -> Math.max(0L, Instant.now().toEpochMilli() - registro.getId().getTimestamp()))
+            .defaultIfEmpty(0L);
+    }
+
+    private EventoAuditoriaDto decodificarPayload(Map<String, String> campos) {
+        try {
+            return codec.decodificar(campos);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String idOriginal(Map<String, String> campos) {
+        String id = campos.get(EventStreamingService.CAMPO_DLQ_EVENTO_ORIGINAL);
+        return id != null && !id.isBlank() ? id : campos.get(CodecEventoStream.CAMPO_ID);
+    }
+
+    /**
+     * Saturação, timeout e indisponibilidade de infraestrutura valem nova tentativa
+     */
+    private static boolean transitoria(Throwable error) {
+        for (Throwable atual = error; atual != null; atual = atual.getCause()) {
+            if (atual instanceof PublicadorSaturadoException
+                || atual instanceof TimeoutException
+                || atual instanceof TransientDataAccessException
+                || atual instanceof DataAccessResourceFailureException
+                || atual instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String mensagem(Throwable error) {
+        String mensagem = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        return mensagem.length() > TAMANHO_MAXIMO_ERRO ? mensagem.substring(0, TAMANHO_MAXIMO_ERRO) : mensagem;
+    }
+
+    private static long inteiro(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private Counter contador(String resultado) {
+        return contadores.computeIfAbsent(resultado, chave -> Counter.builder("audit.dlq.redrive")
+            .description("Entradas da DLQ processadas pelo redrive por resultado")
+            .tag("resultado", chave)
+            .register(meterRegistry));
+    }
+
+    /**
+     * Resultado de uma execução de redrive
+     */
+    public record ResultadoRedrive(int analisadas, int reenviadas, int reagendadas,
+                                   int permanentes, int adiadas, boolean dryRun) {
+    }
+
+    private static final class Execucao {
+        private final int limite;
+        private final double taxaPorSegundo;
+        private final boolean dryRun;
+        private final AtomicInteger analisadas = new AtomicInteger();
+        private final AtomicInteger reenviadas = new AtomicInteger();
+        private final AtomicInteger reagendadas = new AtomicInteger();
+        private final AtomicInteger permanentes = new AtomicInteger();
+        private final AtomicInteger adiadas = new AtomicInteger();
+
+        private Execucao(int limite, double taxaPorSegundo, boolean dryRun) {
+            this.limite = limite;
+            this.taxaPorSegundo = taxaPorSegundo;
+            this.dryRun = dryRun;
+        }
+
+        private ResultadoRedrive resultado() {
+            return new ResultadoRedrive(analisadas.get(), reenviadas.get(), reagendadas.get(),
+                permanentes.get(), adiadas.get(), dryRun);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package br.tec.facilitaservicos.auditoria.infraestrutura.streaming;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+import br.tec.facilitaservicos.auditoria.dominio.enums.NivelSeveridade;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+/**
+ * ============================================================================
+ * 🔀 ROTEADOR DE ASSINATURAS DE EVENTOS EM TEMPO REAL
+ * ============================================================================
+ *
+ * Distribui cada evento apenas aos assinantes cujo {@link FiltroAssinatura}
+ * casa, sem um sink por chave:
+ * - Cada assinatura fica em um único índice, pelo critério mais seletivo
+ *   (usuário, tipo, categoria, severidade mínima ou sem índice); a emissão
+ *   consulta só os buckets do evento e confirma o filtro completo
+ * - Registro limitado ({@code auditoria.streaming.assinaturas.maximo});
+ *   acima do limite a assinatura falha na hora
+ * - Buffer limitado por assinante com {@link PoliticaOverflow} explícita
+ * - A assinatura sai dos índices quando o assinante cancela, completa ou
+ *   é desconectado; buckets vazios são removidos
+ */
+@Component
+public class RoteadorAssinaturas {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoteadorAssinaturas.class);
+
+    private final Map<String, Set<Assinatura>> porUsuario = new ConcurrentHashMap<>();
+    private final Map<String, Set<Assinatura>> porTipo = new ConcurrentHashMap<>();
+    private final Map<String, Set<Assinatura>> porCategoria = new ConcurrentHashMap<>();
+    private final List<Set<Assinatura>> porSeveridade;
+    private final Set<Assinatura> semIndice = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger ativas = new AtomicInteger();
+    private final MeterRegistry meterRegistry;
+    private final Map<PoliticaOverflow, Counter> overflows = new ConcurrentHashMap<>();
+    private final Counter rejeitadas;
+    private final Counter entregues;
+
+    @Value("${auditoria.streaming.assinaturas.maximo:10000}")
+    private int maximoAssinaturas;
+
+    @Value("${auditoria.streaming.assinaturas.capacidade-buffer:256}")
+    private int capacidadePadrao;
+
+    public RoteadorAssinaturas(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+
+        List<Set<Assinatura>> niveis = new ArrayList<>();
+        for (int i = 0; i < NivelSeveridade.values().length; i++) {
+            niveis.add(ConcurrentHashMap.newKeySet());
+        }
+        this.porSeveridade = List.copyOf(niveis);
+
+        this.rejeitadas = Counter.builder("audit.streaming.assinaturas.rejeitadas")
+            .description("Assinaturas recusadas por limite do registro")
+            .register(meterRegistry);
+        this.entregues = Counter.builder("audit.streaming.entregues")
+            .description("Eventos entregues a assinantes em tempo real")
+            .register(meterRegistry);
+        meterRegistry.gauge("audit.streaming.assinaturas", ativas);
+    }
+
+    /**
+     * Assinar com a capacidade de buffer padrão
+     */
+    public Flux<EventoPublicado> assinar(FiltroAssinatura filtro, PoliticaOverflow politica) {
+        return assinar(filtro, politica, capacidadePadrao);
+    }
+
+    /**
+     * Assinar eventos que casem com o filtro
+     *
+     * @param capacidade tamanho do buffer do assinante antes de aplicar a política
+     */
+    public Flux<EventoPublicado> assinar(FiltroAssinatura filtro, PoliticaOverflow politica, int capacidade) {
+        return Flux.<EventoPublicado>create(sink -> {
+                if (ativas.incrementAndGet() > maximoAssinaturas) {
+                    ativas.decrementAndGet();
+                    rejeitadas.increment();
+                    sink.error(new IllegalStateException(
+                        "Limite de " + maximoAssinaturas + " assinaturas em tempo real atingido"));
+                    return;
+                }
+                Assinatura assinatura = new Assinatura(filtro, sink);
+                indexar(assinatura);
+                sink.onDispose(() -> remover(assinatura));
+            }, FluxSink.OverflowStrategy.IGNORE)
+            .onBackpressureBuffer(Math.max(1, capacidade),
+                _ -> overflow(politica).increment(),
+                politica.getEstrategia());
+    }
+
+    /**
+     * Entregar evento aos assinantes cujo filtro casa
+     */
+    public void publicar(EventoPublicado publicado) {
+        if (ativas.get() == 0) {
+            return;
+        }
+
+        EventoAuditoriaDto evento = publicado.evento();
+        if (evento.usuarioId() != null) {
+            entregar(porUsuario.get(evento.usuarioId()), publicado);
+        }
+        if (evento.tipoEvento() != null) {
+            entregar(porTipo.get(evento.tipoEvento()), publicado);
+        }
+        if (evento.categoriaCompliance() != null) {
+            entregar(porCategoria.get(evento.categoriaCompliance()), publicado);
+        }
+        NivelSeveridade severidade = FiltroAssinatura.severidade(evento);
+        if (severidade != null) {
+            // Assinaturas com mínimo até a severidade do evento
+            for (int i = 0; i <= severidade.ordinal(); i++) {
+                entregar(porSeveridade.get(i), publicado);
+            }
+        }
+        entregar(semIndice, publicado);
+    }
+
+    /**
+     * Remove assinaturas já encerradas que ainda estejam indexadas
+     * (salvaguarda; o caminho normal é a remoção no cancelamento)
+     */
+    public int removerEncerradas() {
+        List<Assinatura> encerradas = new ArrayList<>();
+        porUsuario.values().forEach(conjunto -> coletarEncerradas(conjunto, encerradas));
+        porTipo.values().forEach(conjunto -> coletarEncerradas(conjunto, encerradas));
+        porCategoria.values().forEach(conjunto -> coletarEncerradas(conjunto, encerradas));
+        porSeveridade.forEach(conjunto -> coletarEncerradas(conjunto, encerradas));
+        coletarEncerradas(semIndice, encerradas);
+
+        encerradas.forEach(this::remover);
+        if (!encerradas.isEmpty()) {
+            logger.debug("{} assinaturas encerradas removidas do roteador", encerradas.size());
+        }
+        return encerradas.size();
+    }
+
+    /**
+     * Quantidade de assinaturas por índice
+     */
+    public Map<String, Object> estatisticas() {
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        estatisticas.put("assinaturas_ativas", ativas.get());
+        estatisticas.put("usuarios_indexados", porUsuario.size());
+        estatisticas.put("tipos_indexados", porTipo.size());
+        estatisticas.put("categorias_indexadas", porCategoria.size());
+        estatisticas.put("assinaturas_por_severidade", porSeveridade.stream().mapToInt(Set::size).sum());
+        estatisticas.put("assinaturas_sem_indice", semIndice.size());
+        return estatisticas;
+    }
+
+    public int ativas() {
+        return ativas.get();
+    }
+
+    // ========== ÍNDICES ==========
+
+    private void indexar(Assinatura assinatura) {
+        FiltroAssinatura filtro = assinatura.filtro();
+        if (filtro.usuarioId() != null) {
+            adicionar(porUsuario, filtro.usuarioId(), assinatura);
+        } else if (filtro.tipoEvento() != null) {
+            adicionar(porTipo, filtro.tipoEvento(), assinatura);
+        } else if (filtro.categoria() != null) {
+            adicionar(porCategoria, filtro.categoria(), assinatura);
+        } else if (filtro.severidadeMinima() != null) {
+            porSeveridade.get(filtro.severidadeMinima().ordinal()).add(assinatura);
+        } else {
+            semIndice.add(assinatura);
+        }
+    }
+
+    private void remover(Assinatura assinatura) {
+        if (!assinatura.desindexar()) {
+            return;
+        }
+        ativas.decrementAndGet();
+
+        FiltroAssinatura filtro = assinatura.filtro();
+        if (filtro.usuarioId() != null) {
+            retirar(porUsuario, filtro.usuarioId(), assinatura);
+        } else if (filtro.tipoEvento() != null) {
+            retirar(porTipo, filtro.tipoEvento(), assinatura);
+        } else if (filtro.categoria() != null) {
+            retirar(porCategoria, filtro.categoria(), assinatura);
+        } else if (filtro.severidadeMinima() != null) {
+            porSeveridade.get(filtro.severidadeMinima().ordinal()).remove(assinatura);
+        } else {
+            semIndice.remove(assinatura);
+        }
+    }
+
+    private static void adicionar(Map<String, Set<Assinatura>> indice, String chave, Assinatura assinatura) {
+        indice.compute(chave, (_, conjunto) -> {
+            Set<Assinatura> atual = conjunto != null ? conjunto : ConcurrentHashMap.newKeySet();
+            atual.add(assinatura);
+            return atual;
+        });
+    }
+
+    private static void retirar(Map<String, Set<Assinatura>> indice, String chave, Assinatura assinatura) {
+        indice.computeIfPresent(chave, (_, conjunto) -> {
+            conjunto.remove(assinatura);
+            return conjunto.isEmpty() ? null : conjunto;
+        });
+    }
+
+    private static void coletarEncerradas(Set<Assinatura> conjunto, List<Assinatura> destino) {
+        for (Assinatura assinatura : conjunto) {
+            if (assinatura.sink().isCancelled()) {
+                destino.add(assinatura);
+            }
+        }
+    }
+
+    private void entregar(Set<Assinatura> candidatas, EventoPublicado publicado) {
+        if (candidatas == null || candidatas.isEmpty()) {
+            return;
+        }
+        for (Assinatura assinatura : candidatas) {
+            if (assinatura.filtro().aceita(publicado.evento())) {
+                assinatura.sink().next(publicado);
+                entregues.increment();
+            }
+        }
+    }
+
+    private Counter overflow(PoliticaOverflow politica) {
+        return overflows.computeIfAbsent(politica, chave -> Counter.builder("audit.streaming.assinaturas.overflow")
+            .description("Eventos descartados ou assinantes desconectados por buffer cheio")
+            .tag("politica", chave.name().toLowerCase())
+            .register(meterRegistry));
+    }
+
+    /**
+     * Assinatura registrada; identidade por instância
+     */
+    private static final class Assinatura {
+        private final FiltroAssinatura filtro;
+        private final FluxSink<EventoPublicado> sink;
+        private final AtomicBoolean indexada = new AtomicBoolean(true);
+
+        private Assinatura(FiltroAssinatura filtro, FluxSink<EventoPublicado> sink) {
+            this.filtro = filtro;
+            this.sink = sink;
+        }
+
+        private FiltroAssinatura filtro() {
+            return filtro;
+        }
+
+        private FluxSink<EventoPublicado> sink() {
+            return sink;
+        }
+
+        /**
+         * Garante que a contagem de ativas é decrementada uma única vez
+         */
+        private boolean desindexar() {
+            return indexada.compareAndSet(true, false);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+-- ============================================================================
+-- Outbox transacional dos eventos de auditoria
+-- Escrita na mesma transação do evento; o OutboxRelay publica no Redis Stream
+-- ============================================================================
+CREATE TABLE IF NOT EXISTS outbox_eventos_auditoria (
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    evento_id     VARCHAR(36)  NOT NULL,
+    stream        VARCHAR(100) NOT NULL,
+    payload       MEDIUMTEXT   NOT NULL,
+    status        VARCHAR(20)  NOT NULL DEFAULT 'PENDENTE',
+    tentativas    INT          NOT NULL DEFAULT 0,
+    ultimo_erro   VARCHAR(500) NULL,
+    criado_em     DATETIME(6)  NOT NULL,
+    publicado_em  DATETIME(6)  NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_outbox_evento_stream (evento_id, stream),
+    KEY idx_outbox_status_id (status, id),
+    KEY idx_outbox_publicado_em (status, publicado_em)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
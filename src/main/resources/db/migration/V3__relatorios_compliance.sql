@@ -0,0 +1,34 @@
+-- ============================================================================
+-- Jobs e resultados de relatórios de compliance
+-- chave = SHA-256 de (tipo, início, fim): reaproveita relatórios idênticos
+-- chave_ativa = chave enquanto o job está PENDENTE/EM_ANDAMENTO: o índice
+-- único garante um só job ativo por chave (NULLs não colidem, então o
+-- histórico de concluídos e falhos da mesma chave continua permitido)
+-- hash_conteudo = SHA-256 do corpo canônico do relatório, sem id, data de
+-- geração e duração (ETag do download; igual para relatórios idênticos)
+-- no_execucao = pod que assumiu o job, para retomá-lo depois de uma queda
+-- ============================================================================
+CREATE TABLE IF NOT EXISTS relatorios_compliance (
+    id              VARCHAR(36)  NOT NULL,
+    chave           CHAR(64)     NOT NULL,
+    tipo_relatorio  VARCHAR(50)  NOT NULL,
+    periodo_inicio  DATETIME(6)  NOT NULL,
+    periodo_fim     DATETIME(6)  NOT NULL,
+    status          VARCHAR(20)  NOT NULL DEFAULT 'PENDENTE',
+    resultado       MEDIUMTEXT   NULL,
+    hash_conteudo   CHAR(64)     NULL,
+    tamanho_bytes   BIGINT       NULL,
+    erro            VARCHAR(500) NULL,
+    solicitado_por  VARCHAR(100) NULL,
+    no_execucao     VARCHAR(100) NULL,
+    criado_em       DATETIME(6)  NOT NULL,
+    iniciado_em     DATETIME(6)  NULL,
+    concluido_em    DATETIME(6)  NULL,
+    chave_ativa     CHAR(64)
+        GENERATED ALWAYS AS (CASE WHEN status IN ('PENDENTE', 'EM_ANDAMENTO') THEN chave END) STORED,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_relatorios_chave_ativa (chave_ativa),
+    KEY idx_relatorios_chave_status (chave, status, concluido_em),
+    KEY idx_relatorios_status (status, criado_em),
+    KEY idx_relatorios_criado_em (criado_em)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,35 @@
+-- ============================================================================
+-- Exportação de dados do titular (LGPD art. 18)
+-- cpf_titular: coluna gerada a partir de metadados.cpf, indexada, para
+-- localizar os eventos do titular sem varrer o JSON (JSON_CONTAINS)
+-- exportacoes_titular: jobs com o cursor e o offset do arquivo já gravado,
+-- para retomar depois de uma queda sem reescrever o que foi confirmado
+-- ============================================================================
+ALTER TABLE eventos_auditoria
+    ADD COLUMN cpf_titular VARCHAR(20)
+        GENERATED ALWAYS AS (JSON_UNQUOTE(JSON_EXTRACT(metadados, '$.cpf'))) VIRTUAL,
+    ADD KEY idx_eventos_cpf_titular (cpf_titular, data_evento, id),
+    ADD KEY idx_eventos_usuario_data (usuario_id, data_evento, id);
+
+CREATE TABLE IF NOT EXISTS exportacoes_titular (
+    id              VARCHAR(36)  NOT NULL,
+    usuario_id      VARCHAR(100) NOT NULL,
+    cpf             VARCHAR(20)  NULL,
+    status          VARCHAR(20)  NOT NULL DEFAULT 'PENDENTE',
+    no_execucao     VARCHAR(100) NOT NULL,
+    arquivo         VARCHAR(500) NOT NULL,
+    cursor_data     DATETIME(6)  NULL,
+    cursor_id       VARCHAR(36)  NULL,
+    linhas          BIGINT       NOT NULL DEFAULT 0,
+    bytes_gravados  BIGINT       NOT NULL DEFAULT 0,
+    hash_arquivo    CHAR(64)     NULL,
+    erro            VARCHAR(500) NULL,
+    solicitado_por  VARCHAR(100) NULL,
+    criado_em       DATETIME(6)  NOT NULL,
+    atualizado_em   DATETIME(6)  NULL,
+    concluido_em    DATETIME(6)  NULL,
+    PRIMARY KEY (id),
+    KEY idx_exportacoes_no_status (no_execucao, status),
+    KEY idx_exportacoes_usuario (usuario_id, criado_em),
+    KEY idx_exportacoes_criado_em (criado_em)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,25 @@
+-- ============================================================================
+-- Registro de consentimentos (LGPD art. 7º e 8º)
+-- consentimentos_log: histórico append-only; seq é a versão global da mudança
+-- consentimentos: estado atual por (usuário, finalidade), com o seq da
+-- última mudança aplicada (só avança; mudanças fora de ordem são ignoradas)
+-- ============================================================================
+CREATE TABLE IF NOT EXISTS consentimentos_log (
+    seq             BIGINT       NOT NULL AUTO_INCREMENT,
+    usuario_id      VARCHAR(100) NOT NULL,
+    finalidade      VARCHAR(40)  NOT NULL,
+    concedido       BOOLEAN      NOT NULL,
+    origem          VARCHAR(100) NULL,
+    registrado_em   DATETIME(6)  NOT NULL,
+    PRIMARY KEY (seq),
+    KEY idx_consentimentos_log_usuario (usuario_id, seq)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE IF NOT EXISTS consentimentos (
+    usuario_id      VARCHAR(100) NOT NULL,
+    finalidade      VARCHAR(40)  NOT NULL,
+    concedido       BOOLEAN      NOT NULL,
+    seq_log         BIGINT       NOT NULL,
+    atualizado_em   DATETIME(6)  NOT NULL,
+    PRIMARY KEY (usuario_id, finalidade)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,28 @@
+-- ============================================================================
+-- Exclusão (anonimização) de dados do titular (LGPD art. 18, VI)
+-- exclusoes_titular: pedidos com o cursor (data_evento, id) do último lote
+-- anonimizado, para retomar sem refazer o que foi confirmado, e o prazo
+-- legal de atendimento. atualizado_em é renovado a cada lote: um pedido
+-- parado além do limite de abandono pode ser assumido por outro pod
+-- ============================================================================
+CREATE TABLE IF NOT EXISTS exclusoes_titular (
+    id                   VARCHAR(36)  NOT NULL,
+    usuario_id           VARCHAR(100) NOT NULL,
+    cpf                  VARCHAR(20)  NULL,
+    status               VARCHAR(20)  NOT NULL DEFAULT 'PENDENTE',
+    no_execucao          VARCHAR(100) NOT NULL,
+    cursor_data          DATETIME(6)  NULL,
+    cursor_id            VARCHAR(36)  NULL,
+    eventos_estimados    BIGINT       NULL,
+    eventos_anonimizados BIGINT       NOT NULL DEFAULT 0,
+    prazo_legal          DATETIME(6)  NOT NULL,
+    erro                 VARCHAR(500) NULL,
+    solicitado_por       VARCHAR(100) NULL,
+    criado_em            DATETIME(6)  NOT NULL,
+    atualizado_em        DATETIME(6)  NULL,
+    concluido_em         DATETIME(6)  NULL,
+    PRIMARY KEY (id),
+    KEY idx_exclusoes_status_prazo (status, prazo_legal),
+    KEY idx_exclusoes_usuario (usuario_id, criado_em),
+    KEY idx_exclusoes_criado_em (criado_em)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,84 @@
+package br.tec.facilitaservicos.auditoria;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import br.tec.facilitaservicos.auditoria.infraestrutura.carga.ControleVazaoAdaptativo;
+
+/**
+ * ============================================================================
+ * ✅ TESTES DO CONTROLE DE VAZÃO ADAPTATIVO (AIMD)
+ * ============================================================================
+ */
+@DisplayName("Controle de Vazão Adaptativo")
+class ControleVazaoAdaptativoTest {
+
+    private ControleVazaoAdaptativo controle;
+
+    @BeforeEach
+    void setUp() {
+        // lote 10..100 (+10), redução 0.5, pausa 20..160 ms, pool 70%, p99 50 ms
+        controle = new ControleVazaoAdaptativo(10, 100, 10, 0.5, 20, 160, 0.7, 50);
+    }
+
+    @Test
+    @DisplayName("Deve crescer de forma aditiva até o máximo com o banco saudável")
+    void deveCrescerAditivamente() {
+        ControleVazaoAdaptativo.Passo passo = controle.proximo(0.2, 10);
+        assertEquals(20, passo.lote());
+        assertEquals(Duration.ofMillis(20), passo.pausa());
+        assertFalse(passo.congestionado());
+
+        for (int i = 0; i < 20; i++) {
+            passo = controle.proximo(0.2, 10);
+        }
+        assertEquals(100, passo.lote());
+    }
+
+    @Test
+    @DisplayName("Deve reduzir o lote e dobrar a pausa com p99 alto, respeitando os limites")
+    void deveReduzirComLatenciaAlta() {
+        for (int i = 0; i < 9; i++) {
+            controle.proximo(0.2, 10);
+        }
+        assertEquals(100, controle.lote());
+
+        ControleVazaoAdaptativo.Passo passo = controle.proximo(0.2, 80);
+        assertTrue(passo.congestionado());
+        assertEquals(50, passo.lote());
+        assertEquals(Duration.ofMillis(40), passo.pausa());
+
+        for (int i = 0; i < 10; i++) {
+            passo = controle.proximo(0.2, 80);
+        }
+        assertEquals(10, passo.lote());
+        assertEquals(Duration.ofMillis(160), passo.pausa());
+
+        passo = controle.proximo(0.2, 10);
+        assertEquals(20, passo.lote());
+        assertEquals(Duration.ofMillis(80), passo.pausa());
+    }
+
+    @Test
+    @DisplayName("Deve reagir à utilização do pool e ignorar o sinal indisponível")
+    void deveConsiderarUtilizacaoDoPool() {
+        assertTrue(controle.proximo(0.9, 10).congestionado());
+        assertFalse(controle.proximo(-1, 10).congestionado());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar limites inválidos")
+    void deveRejeitarLimitesInvalidos() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new ControleVazaoAdaptativo(0, 10, 1, 0.5, 10, 100, 0.7, 50));
+        assertThrows(IllegalArgumentException.class,
+            () -> new ControleVazaoAdaptativo(10, 5, 1, 0.5, 10, 100, 0.7, 50));
+        assertThrows(IllegalArgumentException.class,
+            () -> new ControleVazaoAdaptativo(1, 10, 1, 1.0, 10, 100, 0.7, 50));
+    }
+}
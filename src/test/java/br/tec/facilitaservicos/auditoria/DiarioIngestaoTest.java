@@ -0,0 +1,131 @@
+package br.tec.facilitaservicos.auditoria;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import br.tec.facilitaservicos.auditoria.infraestrutura.diario.DiarioIngestao;
+
+/**
+ * ============================================================================
+ * ✅ TESTES DO DIÁRIO LOCAL DE INGESTÃO
+ * ============================================================================
+ */
+@DisplayName("Diário Local de Ingestão")
+class DiarioIngestaoTest {
+
+    private static final int SEGMENTO = 4096;
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    @DisplayName("Deve ler na ordem de gravação, atravessando segmentos")
+    void deveLerNaOrdem() {
+        DiarioIngestao diario = new DiarioIngestao(diretorio, SEGMENTO);
+        anexar(diario, 1, 300);
+        diario.sincronizar();
+
+        List<DiarioIngestao.Registro> registros = diario.ler(1000);
+        assertEquals(300, registros.size());
+        for (int i = 0; i < registros.size(); i++) {
+            assertEquals(i + 1, registros.get(i).seq());
+            assertEquals("evento-" + (i + 1), texto(registros.get(i)));
+        }
+        assertTrue(contarSegmentos() > 1);
+    }
+
+    @Test
+    @DisplayName("Deve retomar do cursor confirmado e apagar segmentos consumidos")
+    void deveRetomarDoCursor() throws IOException {
+        DiarioIngestao diario = new DiarioIngestao(diretorio, SEGMENTO);
+        anexar(diario, 1, 300);
+        diario.sincronizar();
+        long segmentosAntes = contarSegmentos();
+
+        diario.confirmar(diario.ler(200).getLast());
+        assertEquals(100, diario.pendentes());
+        assertTrue(contarSegmentos() < segmentosAntes);
+
+        DiarioIngestao reaberto = new DiarioIngestao(diretorio, SEGMENTO);
+        assertEquals(100, reaberto.pendentes());
+        assertEquals("evento-201", texto(reaberto.ler(1).getFirst()));
+        assertEquals(201, reaberto.criadoEmMaisAntigo());
+    }
+
+    @Test
+    @DisplayName("Deve descartar o registro rasgado no fim e continuar a sequência")
+    void deveDescartarRegistroRasgado() throws IOException {
+        DiarioIngestao diario = new DiarioIngestao(diretorio, SEGMENTO);
+        anexar(diario, 1, 10);
+        diario.sincronizar();
+
+        // Corrompe o payload do último registro, como numa queda no meio da escrita
+        Path segmento;
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            segmento = arquivos.filter(arquivo -> arquivo.toString().endsWith(".diario")).findFirst().orElseThrow();
+        }
+        long posicaoUltimo = 9L * (24 + "evento-1".length()) + 24 + 1;
+        try (RandomAccessFile arquivo = new RandomAccessFile(segmento.toFile(), "rw")) {
+            arquivo.seek(posicaoUltimo);
+            arquivo.write('X');
+        }
+
+        DiarioIngestao reaberto = new DiarioIngestao(diretorio, SEGMENTO);
+        assertEquals(9, reaberto.pendentes());
+
+        assertEquals(10, reaberto.anexar("novo".getBytes(StandardCharsets.UTF_8), 99));
+        reaberto.sincronizar();
+        List<DiarioIngestao.Registro> registros = reaberto.ler(100);
+        assertEquals(10, registros.size());
+        assertEquals("novo", texto(registros.getLast()));
+    }
+
+    @Test
+    @DisplayName("Não deve entregar registros ainda não cobertos por fsync")
+    void naoDeveLerAntesDoFsync() {
+        DiarioIngestao diario = new DiarioIngestao(diretorio, SEGMENTO);
+        anexar(diario, 1, 5);
+        assertTrue(diario.ler(100).isEmpty());
+        assertEquals(5, diario.pendentes());
+
+        diario.sincronizar();
+        anexar(diario, 6, 8);
+        assertEquals(5, diario.ler(100).size());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar registro maior que o segmento")
+    void deveRejeitarRegistroGrande() {
+        DiarioIngestao diario = new DiarioIngestao(diretorio, SEGMENTO);
+        assertThrows(IllegalArgumentException.class, () -> diario.anexar(new byte[SEGMENTO], 1));
+    }
+
+    private static void anexar(DiarioIngestao diario, int de, int ate) {
+        for (int i = de; i <= ate; i++) {
+            diario.anexar(("evento-" + i).getBytes(StandardCharsets.UTF_8), i);
+        }
+    }
+
+    private static String texto(DiarioIngestao.Registro registro) {
+        return new String(registro.payload(), StandardCharsets.UTF_8);
+    }
+
+    private long contarSegmentos() {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(arquivo -> arquivo.toString().endsWith(".diario")).count();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
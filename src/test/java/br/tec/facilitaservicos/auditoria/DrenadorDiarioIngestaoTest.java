@@ -0,0 +1,96 @@
+package br.tec.facilitaservicos.auditoria;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.tec.facilitaservicos.auditoria.aplicacao.dto.CriarEventoDto;
+import br.tec.facilitaservicos.auditoria.aplicacao.servico.EventoAuditoriaService;
+import br.tec.facilitaservicos.auditoria.infraestrutura.diario.DiarioIngestao;
+import br.tec.facilitaservicos.auditoria.infraestrutura.diario.DiarioIngestaoService;
+import br.tec.facilitaservicos.auditoria.infraestrutura.diario.DrenadorDiarioIngestao;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * ============================================================================
+ * ✅ TESTES DA DRENAGEM DO DIÁRIO DE INGESTÃO
+ * ============================================================================
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Drenagem do Diário de Ingestão")
+class DrenadorDiarioIngestaoTest {
+
+    @Mock
+    private DiarioIngestaoService diario;
+
+    @Mock
+    private EventoAuditoriaService eventoService;
+
+    @InjectMocks
+    private DrenadorDiarioIngestao drenador;
+
+    private final DiarioIngestaoService.Entrada primeira = entrada("evt_1");
+    private final DiarioIngestaoService.Entrada envenenada = entrada("evt_2");
+    private final DiarioIngestaoService.Entrada terceira = entrada("evt_3");
+    private final DiarioIngestaoService.Lote lote = new DiarioIngestaoService.Lote(
+        List.of(primeira, envenenada, terceira), new DiarioIngestao.Registro(3, 0, new byte[0], 0, 0));
+
+    @Test
+    @DisplayName("Deve pôr em quarentena o registro recusado e avançar o cursor")
+    void deveQuarentenarRegistroEnvenenado() {
+        DataIntegrityViolationException recusa = new DataIntegrityViolationException("Data too long for column 'acao'");
+        when(diario.temPendentes()).thenReturn(true);
+        when(diario.lerLote(anyInt())).thenReturn(lote);
+        when(eventoService.gravarDoDiario(lote.entradas())).thenReturn(Mono.error(recusa));
+        when(eventoService.gravarDoDiario(List.of(primeira))).thenReturn(Mono.just(1));
+        when(eventoService.gravarDoDiario(List.of(envenenada))).thenReturn(Mono.error(recusa));
+        when(eventoService.gravarDoDiario(List.of(terceira))).thenReturn(Mono.just(1));
+
+        StepVerifier.create(drenarLote())
+            .expectNext(3)
+            .verifyComplete();
+
+        verify(diario).quarentenar(envenenada, recusa);
+        verify(diario, never()).quarentenar(eq(primeira), any());
+        verify(diario, never()).quarentenar(eq(terceira), any());
+        verify(diario).confirmar(lote);
+    }
+
+    @Test
+    @DisplayName("Não deve avançar o cursor nem quarentenar em falha transitória")
+    void naoDeveAvancarEmFalhaTransitoria() {
+        when(diario.temPendentes()).thenReturn(true);
+        when(diario.lerLote(anyInt())).thenReturn(lote);
+        when(eventoService.gravarDoDiario(lote.entradas()))
+            .thenReturn(Mono.error(new DataAccessResourceFailureException("Connection refused")));
+
+        StepVerifier.create(drenarLote())
+            .expectError(DataAccessResourceFailureException.class)
+            .verify();
+
+        verify(eventoService, times(1)).gravarDoDiario(any());
+        verify(diario, never()).quarentenar(any(), any());
+        verify(diario, never()).confirmar(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Mono<Integer> drenarLote() {
+        return (Mono<Integer>) ReflectionTestUtils.invokeMethod(drenador, "drenarLote");
+    }
+
+    private static DiarioIngestaoService.Entrada entrada(String id) {
+        return new DiarioIngestaoService.Entrada(id, 0, new CriarEventoDto());
+    }
+}
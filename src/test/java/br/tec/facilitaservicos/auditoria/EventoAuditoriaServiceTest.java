@@ -5,8 +5,10 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -19,19 +21,29 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import br.tec.facilitaservicos.auditoria.aplicacao.dto.CriarEventoDto;
 import br.tec.facilitaservicos.auditoria.aplicacao.mapper.EventoAuditoriaMapper;
 import br.tec.facilitaservicos.auditoria.aplicacao.servico.EventoAuditoriaService;
+import br.tec.facilitaservicos.auditoria.aplicacao.servico.ProgressoReprocessamento;
 import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
 import br.tec.facilitaservicos.auditoria.dominio.entidade.EventoAuditoriaR2dbc;
+import br.tec.facilitaservicos.auditoria.dominio.entidade.OutboxEventoR2dbc;
 import br.tec.facilitaservicos.auditoria.dominio.enums.NivelSeveridade;
 import br.tec.facilitaservicos.auditoria.dominio.enums.StatusEvento;
 import br.tec.facilitaservicos.auditoria.dominio.enums.TipoEvento;
 import br.tec.facilitaservicos.auditoria.dominio.repositorio.EventoAuditoriaRepository;
+import br.tec.facilitaservicos.auditoria.dominio.repositorio.InsercaoEmLoteRepository;
 import br.tec.facilitaservicos.auditoria.infraestrutura.cache.AuditoriaCacheService;
+import br.tec.facilitaservicos.auditoria.infraestrutura.cache.ReactiveCacheManager;
+import br.tec.facilitaservicos.auditoria.infraestrutura.carga.ControleAdmissaoIngestao;
+import br.tec.facilitaservicos.auditoria.infraestrutura.carga.MonitorCargaBanco;
+import br.tec.facilitaservicos.auditoria.infraestrutura.diario.DiarioIngestaoService;
+import br.tec.facilitaservicos.auditoria.infraestrutura.outbox.OutboxService;
 import br.tec.facilitaservicos.auditoria.infraestrutura.seguranca.HashIntegridadeService;
 import br.tec.facilitaservicos.auditoria.infraestrutura.streaming.EventStreamingService;
 import reactor.core.publisher.Flux;
@@ -80,6 +92,27 @@ class EventoAuditoriaServiceTest {
     @Mock
     private ObjectMapper objectMapper;
     
+    @Mock
+    private ReactiveCacheManager cacheManager;
+    
+    @Mock
+    private OutboxService outboxService;
+    
+    @Mock
+    private TransactionalOperator transactionalOperator;
+    
+    @Mock
+    private MonitorCargaBanco monitorCarga;
+    
+    @Mock
+    private ControleAdmissaoIngestao controleAdmissao;
+    
+    @Mock
+    private DiarioIngestaoService diarioIngestao;
+    
+    @Mock
+    private InsercaoEmLoteRepository insercaoEmLote;
+    
     @InjectMocks
     private EventoAuditoriaService service;
     
@@ -98,6 +131,11 @@ class EventoAuditoriaServiceTest {
         ReflectionTestUtils.setField(service, "sistemaNome", "conexao-de-sorte");
         ReflectionTestUtils.setField(service, "sistemaVersao", "1.0.0");
         ReflectionTestUtils.setField(service, "streamingHabilitado", true);
+        ReflectionTestUtils.setField(service, "tamanhoLoteReprocessamento", 1000);
+        
+        // Admissão sempre livre: a gravação roda direto
+        lenient().when(controleAdmissao.executar(any(), any()))
+            .thenAnswer(invocation -> invocation.<Supplier<Mono<?>>>getArgument(1).get());
         
         // Criar DTOs de teste
         criarEventoDto = CriarEventoDto.builder()
@@ -159,6 +197,17 @@ class EventoAuditoriaServiceTest {
         );
     }
     
+    /**
+     * Transação transparente e outbox aceitando o evento
+     */
+    @SuppressWarnings("unchecked")
+    private void configurarOutbox() {
+        when(transactionalOperator.transactional(any(Mono.class)))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        when(outboxService.enfileirar(any()))
+            .thenReturn(Mono.just(new OutboxEventoR2dbc()));
+    }
+    
     @Nested
     @DisplayName("Criação de Eventos")
     class CriacaoEventos {
@@ -185,8 +234,7 @@ class EventoAuditoriaServiceTest {
                 .thenReturn(Mono.just(eventoEntity));
             when(mapper.paraDto(any(EventoAuditoriaR2dbc.class)))
                 .thenReturn(eventoDto);
-            when(streamingService.emitirEvento(any()))
-                .thenReturn(Mono.just("success"));
+            configurarOutbox();
             when(cacheService.cachearEvento(anyString(), any()))
                 .thenReturn(Mono.empty());
             
@@ -198,7 +246,8 @@ class EventoAuditoriaServiceTest {
             verify(repository).findUltimoEventoComHash();
             verify(repository).save(any(EventoAuditoriaR2dbc.class));
             verify(hashService).calcularHashEvento(any());
-            verify(streamingService).emitirEvento(any());
+            verify(outboxService).enfileirar(eventoDto);
+            verify(outboxService).notificarCommit();
             verify(cacheService).cachearEvento(anyString(), any());
         }
         
@@ -216,8 +265,7 @@ class EventoAuditoriaServiceTest {
                 .thenReturn(Mono.just(eventoEntity));
             when(mapper.paraDto(any(EventoAuditoriaR2dbc.class)))
                 .thenReturn(eventoDto);
-            when(streamingService.emitirEvento(any()))
-                .thenReturn(Mono.just("success"));
+            configurarOutbox();
             when(cacheService.cachearEvento(anyString(), any()))
                 .thenReturn(Mono.empty());
             
@@ -259,8 +307,7 @@ class EventoAuditoriaServiceTest {
                 .thenReturn(Mono.just(eventoEntity));
             when(mapper.paraDto(any(EventoAuditoriaR2dbc.class)))
                 .thenReturn(eventoDto);
-            when(streamingService.emitirEvento(any()))
-                .thenReturn(Mono.just("success"));
+            configurarOutbox();
             when(cacheService.cachearEvento(anyString(), any()))
                 .thenReturn(Mono.empty());
             
@@ -460,8 +507,7 @@ class EventoAuditoriaServiceTest {
                 .thenReturn(novoHash);
             when(mapper.paraDto(any(EventoAuditoriaR2dbc.class)))
                 .thenReturn(eventoDto);
-            when(streamingService.emitirEvento(any()))
-                .thenReturn(Mono.just("success"));
+            configurarOutbox();
             when(cacheService.cachearEvento(anyString(), any()))
                 .thenReturn(Mono.empty());
             when(cacheService.invalidarCachesUsuario(usuarioId))
@@ -491,8 +537,7 @@ class EventoAuditoriaServiceTest {
                 .thenReturn(Mono.just(eventoEntity));
             when(mapper.paraDto(any(EventoAuditoriaR2dbc.class)))
                 .thenReturn(eventoDto);
-            when(streamingService.emitirEvento(any()))
-                .thenReturn(Mono.just("success"));
+            configurarOutbox();
             when(cacheService.cachearEvento(anyString(), any()))
                 .thenReturn(Mono.empty());
             
@@ -523,8 +568,7 @@ class EventoAuditoriaServiceTest {
                 .thenReturn(Mono.just(eventoEntity));
             when(mapper.paraDto(any(EventoAuditoriaR2dbc.class)))
                 .thenReturn(eventoDto);
-            when(streamingService.emitirEvento(any()))
-                .thenReturn(Mono.just("success"));
+            configurarOutbox();
             when(cacheService.cachearEvento(anyString(), any()))
                 .thenReturn(Mono.empty());
             
@@ -550,8 +594,7 @@ class EventoAuditoriaServiceTest {
                 .thenReturn(Mono.just(eventoEntity));
             when(mapper.paraDto(any(EventoAuditoriaR2dbc.class)))
                 .thenReturn(eventoDto);
-            when(streamingService.emitirEvento(any()))
-                .thenReturn(Mono.just("success"));
+            configurarOutbox();
             when(cacheService.cachearEvento(anyString(), any()))
                 .thenReturn(Mono.empty());
             
@@ -563,6 +606,7 @@ class EventoAuditoriaServiceTest {
         
         @Test
         @DisplayName("Deve reprocessar eventos com falha")
+        @SuppressWarnings("unchecked")
         void deveReprocessarEventosComFalha() {
             // Given
             EventoAuditoriaR2dbc eventoComFalha = EventoAuditoriaR2dbc.builder()
@@ -581,22 +625,37 @@ class EventoAuditoriaServiceTest {
                 .build();
             eventoComFalha.setStatusEvento(StatusEvento.FALHA);
                 
-            when(repository.findByStatusEvento(StatusEvento.FALHA, Pageable.unpaged()))
+            when(streamingService.publicacaoSaturada()).thenReturn(false);
+            when(repository.reservarPaginaPorStatus("FALHA", "", 1000))
                 .thenReturn(Flux.just(eventoComFalha));
-            when(repository.save(any(EventoAuditoriaR2dbc.class)))
-                .thenReturn(Mono.just(eventoComFalha));
+            when(repository.reservarPaginaPorStatus("FALHA", eventoId, 1000))
+                .thenReturn(Flux.empty());
+            when(transactionalOperator.transactional(any(Mono.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+            when(outboxService.reenfileirarLote(anyList()))
+                .thenReturn(Mono.just(2L));
+            when(repository.transicionarStatusEmLote(List.of(eventoId), "FALHA", "REPROCESSO"))
+                .thenReturn(Mono.just(1));
             when(mapper.paraDto(any(EventoAuditoriaR2dbc.class)))
                 .thenReturn(eventoDto);
-            when(streamingService.reprocessarEvento(any()))
-                .thenReturn(Mono.just("reprocessed"));
+            
+            ProgressoReprocessamento progresso = new ProgressoReprocessamento();
             
             // When & Then
-            StepVerifier.create(service.reprocessarEventosComFalha())
+            StepVerifier.create(service.reprocessarEventosComFalha(progresso))
                 .expectNext(1L)
                 .verifyComplete();
                 
-            verify(repository).findByStatusEvento(StatusEvento.FALHA, Pageable.unpaged());
-            verify(streamingService).reprocessarEvento(any());
+            verify(repository).transicionarStatusEmLote(List.of(eventoId), "FALHA", "REPROCESSO");
+            verify(repository, never()).save(any(EventoAuditoriaR2dbc.class));
+            verify(outboxService).reenfileirarLote(List.of(eventoDto));
+            verify(outboxService, never()).enfileirar(any());
+            verify(outboxService).notificarCommit();
+            verify(streamingService, never()).publicar(any());
+            assertEquals(StatusEvento.REPROCESSO, eventoComFalha.getStatusEvento());
+            assertEquals(ProgressoReprocessamento.Situacao.CONCLUIDO, progresso.getSituacao());
+            assertEquals(1L, progresso.snapshot().get("republicados"));
+            assertEquals(1L, progresso.snapshot().get("lotes"));
         }
     }
     
@@ -661,6 +720,8 @@ class EventoAuditoriaServiceTest {
             
             when(repository.getResumoExecutivo(dataInicio))
                 .thenReturn(Mono.just(resumo));
+            when(cacheManager.cacheMono(anyString(), anyString(), any(TypeReference.class), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Mono<?>>>getArgument(3).get());
             
             // When & Then
             StepVerifier.create(service.obterResumoExecutivo(dataInicio))
@@ -719,8 +780,8 @@ class EventoAuditoriaServiceTest {
     class CenariosErro {
         
         @Test
-        @DisplayName("Deve lidar com erro no streaming sem falhar o fluxo principal")
-        void deveLidarComErroStreamingSemFalharFluxo() throws Exception {
+        @DisplayName("Deve falhar o registro quando o outbox falha (mesma transação)")
+        void deveFalharRegistroQuandoOutboxFalha() throws Exception {
             // Given
             when(repository.findUltimoEventoComHash())
                 .thenReturn(Mono.empty());
@@ -732,17 +793,18 @@ class EventoAuditoriaServiceTest {
                 .thenReturn(Mono.just(eventoEntity));
             when(mapper.paraDto(any(EventoAuditoriaR2dbc.class)))
                 .thenReturn(eventoDto);
-            when(streamingService.emitirEvento(any()))
-                .thenReturn(Mono.error(new RuntimeException("Erro no Kafka")));
-            when(cacheService.cachearEvento(anyString(), any()))
-                .thenReturn(Mono.empty());
+            when(transactionalOperator.transactional(any(Mono.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+            when(outboxService.enfileirar(any()))
+                .thenReturn(Mono.error(new RuntimeException("Erro no outbox")));
             
-            // When & Then - O evento deve ser criado mesmo com erro no streaming
+            // When & Then - Sem linha no outbox o evento não é confirmado
             StepVerifier.create(service.registrarEvento(criarEventoDto))
-                .expectNext(eventoDto)
-                .verifyComplete();
+                .expectError(RuntimeException.class)
+                .verify();
                 
-            verify(streamingService).emitirEvento(any());
+            verify(outboxService, never()).notificarCommit();
+            verifyNoInteractions(streamingService, cacheService);
         }
         
         @Test
@@ -759,8 +821,7 @@ class EventoAuditoriaServiceTest {
                 .thenReturn(Mono.just(eventoEntity));
             when(mapper.paraDto(any(EventoAuditoriaR2dbc.class)))
                 .thenReturn(eventoDto);
-            when(streamingService.emitirEvento(any()))
-                .thenReturn(Mono.just("success"));
+            configurarOutbox();
             when(cacheService.cachearEvento(anyString(), any()))
                 .thenReturn(Mono.error(new RuntimeException("Erro no Redis")));
             
@@ -784,5 +845,83 @@ class EventoAuditoriaServiceTest {
                 .expectError(RuntimeException.class)
                 .verify();
         }
+        
+        @Test
+        @DisplayName("Deve desviar para o diário local com o banco indisponível")
+        void deveDesviarParaDiarioComBancoIndisponivel() throws Exception {
+            // Given
+            when(repository.findUltimoEventoComHash())
+                .thenReturn(Mono.error(new org.springframework.dao.DataAccessResourceFailureException("Conexão recusada")));
+            when(diarioIngestao.habilitado()).thenReturn(true);
+            when(diarioIngestao.anexar(anyString(), any(), eq(criarEventoDto))).thenReturn(Mono.empty());
+            when(mapper.paraDto(any(EventoAuditoriaR2dbc.class))).thenReturn(eventoDto);
+            
+            // When & Then - Aceito como provisório, sem gravar no banco
+            StepVerifier.create(service.registrarEvento(criarEventoDto))
+                .expectNext(eventoDto)
+                .verifyComplete();
+            
+            verify(diarioIngestao).anexar(anyString(), any(), eq(criarEventoDto));
+            verify(repository, never()).save(any(EventoAuditoriaR2dbc.class));
+            verifyNoInteractions(outboxService);
+        }
+        
+        @Test
+        @DisplayName("Deve enfileirar no diário enquanto houver eventos pendentes nele")
+        void deveEnfileirarNoDiarioComPendentes() {
+            // Given
+            when(diarioIngestao.temPendentes()).thenReturn(true);
+            when(diarioIngestao.anexar(anyString(), any(), eq(criarEventoDto))).thenReturn(Mono.empty());
+            when(mapper.paraDto(any(EventoAuditoriaR2dbc.class))).thenReturn(eventoDto);
+            
+            // When & Then - Não passa na frente dos que estão no diário
+            StepVerifier.create(service.registrarEvento(criarEventoDto))
+                .expectNext(eventoDto)
+                .verifyComplete();
+            
+            verify(repository, never()).findUltimoEventoComHash();
+            verifyNoInteractions(controleAdmissao);
+        }
+        
+        @Test
+        @DisplayName("Deve gravar lote encadeando os hashes na ordem recebida")
+        @SuppressWarnings("unchecked")
+        void deveGravarLoteEncadeandoNaOrdem() {
+            // Given
+            EventoAuditoriaR2dbc ultimo = EventoAuditoriaR2dbc.builder().id("anterior").build();
+            ultimo.setHashEvento(hashAnterior);
+            when(repository.findUltimoEventoComHash())
+                .thenReturn(Mono.just(ultimo));
+            when(hashService.calcularHashEvento(any()))
+                .thenReturn("hash-1", "hash-2");
+            when(insercaoEmLote.inserir(anyList()))
+                .thenAnswer(invocation -> Mono.just((long) invocation.<List<?>>getArgument(0).size()));
+            when(mapper.paraDto(any(EventoAuditoriaR2dbc.class)))
+                .thenReturn(eventoDto);
+            when(transactionalOperator.transactional(any(Mono.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+            when(outboxService.enfileirarLote(anyList()))
+                .thenReturn(Mono.just(2L));
+            
+            // When & Then
+            StepVerifier.create(service.registrarLote(List.of(criarEventoDto, criarEventoDto)))
+                .assertNext(gravados -> assertEquals(2, gravados.size()))
+                .verifyComplete();
+            
+            verify(repository).findUltimoEventoComHash();
+            verify(repository, never()).save(any(EventoAuditoriaR2dbc.class));
+            verify(insercaoEmLote).inserir(argThat(lista -> {
+                List<EventoAuditoriaR2dbc> eventos = (List<EventoAuditoriaR2dbc>) lista;
+                return eventos.size() == 2
+                    && "hash-1".equals(eventos.get(0).getHashEvento())
+                    && hashAnterior.equals(eventos.get(0).getHashAnterior())
+                    && "hash-2".equals(eventos.get(1).getHashEvento())
+                    && "hash-1".equals(eventos.get(1).getHashAnterior())
+                    && eventos.get(0).getDataEvento().isBefore(eventos.get(1).getDataEvento());
+            }));
+            verify(outboxService).enfileirarLote(List.of(eventoDto, eventoDto));
+            verify(outboxService, never()).enfileirar(any());
+            verify(outboxService).notificarCommit();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+package br.tec.facilitaservicos.auditoria;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import br.tec.facilitaservicos.auditoria.dominio.enums.FinalidadeConsentimento;
+import br.tec.facilitaservicos.auditoria.infraestrutura.privacidade.IndiceConsentimentos;
+
+/**
+ * ============================================================================
+ * ✅ TESTES DO ÍNDICE DE CONSENTIMENTOS EM MEMÓRIA
+ * ============================================================================
+ */
+@DisplayName("Índice de Consentimentos")
+class IndiceConsentimentosTest {
+
+    private IndiceConsentimentos indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceConsentimentos();
+    }
+
+    @Test
+    @DisplayName("Deve refletir concessão e revogação por finalidade")
+    void deveRefletirConcessaoERevogacao() {
+        assertFalse(indice.consentiu("u1", FinalidadeConsentimento.MARKETING));
+
+        assertTrue(indice.aplicar("u1", FinalidadeConsentimento.MARKETING, true, 1));
+        assertTrue(indice.aplicar("u1", FinalidadeConsentimento.ANALYTICS, true, 2));
+        assertTrue(indice.consentiu("u1", FinalidadeConsentimento.MARKETING));
+        assertTrue(indice.consentiu("u1", FinalidadeConsentimento.ANALYTICS));
+
+        assertTrue(indice.aplicar("u1", FinalidadeConsentimento.MARKETING, false, 3));
+        assertFalse(indice.consentiu("u1", FinalidadeConsentimento.MARKETING));
+        assertTrue(indice.consentiu("u1", FinalidadeConsentimento.ANALYTICS));
+    }
+
+    @Test
+    @DisplayName("Deve ignorar mudanças antigas ou repetidas da mesma finalidade")
+    void deveIgnorarMudancasForaDeOrdem() {
+        indice.aplicar("u1", FinalidadeConsentimento.MARKETING, false, 10);
+
+        assertFalse(indice.aplicar("u1", FinalidadeConsentimento.MARKETING, true, 7));
+        assertFalse(indice.aplicar("u1", FinalidadeConsentimento.MARKETING, false, 10));
+        assertFalse(indice.consentiu("u1", FinalidadeConsentimento.MARKETING));
+    }
+
+    @Test
+    @DisplayName("Versões são independentes entre finalidades do mesmo usuário")
+    void deveVersionarPorFinalidade() {
+        indice.aplicar("u1", FinalidadeConsentimento.ANALYTICS, true, 11);
+
+        // seq 10 chegou depois do 11, mas é de outra finalidade
+        assertTrue(indice.aplicar("u1", FinalidadeConsentimento.MARKETING, true, 10));
+        assertTrue(indice.consentiu("u1", FinalidadeConsentimento.MARKETING));
+        assertTrue(indice.consentiu("u1", FinalidadeConsentimento.ANALYTICS));
+    }
+
+    @Test
+    @DisplayName("Deve verificar lote na ordem recebida, com desconhecidos como não concedidos")
+    void deveVerificarLote() {
+        indice.aplicar("u1", FinalidadeConsentimento.NOTIFICACOES, true, 1);
+        indice.aplicar("u3", FinalidadeConsentimento.NOTIFICACOES, true, 2);
+        indice.aplicar("u3", FinalidadeConsentimento.MARKETING, true, 3);
+
+        Map<String, Boolean> resultado = indice.verificar(List.of("u3", "u2", "u1"),
+            FinalidadeConsentimento.NOTIFICACOES);
+
+        assertEquals(List.of("u3", "u2", "u1"), List.copyOf(resultado.keySet()));
+        assertEquals(Map.of("u1", true, "u2", false, "u3", true), resultado);
+        assertEquals(2, indice.usuarios());
+    }
+
+    @Test
+    @DisplayName("Deve manter o total de usuários com alguma finalidade concedida")
+    void deveContarUsuariosComConsentimento() {
+        indice.aplicar("u1", FinalidadeConsentimento.MARKETING, true, 1);
+        indice.aplicar("u1", FinalidadeConsentimento.ANALYTICS, true, 2);
+        indice.aplicar("u2", FinalidadeConsentimento.MARKETING, false, 3);
+        assertEquals(1, indice.usuariosComConsentimento());
+
+        indice.aplicar("u2", FinalidadeConsentimento.PESQUISA, true, 4);
+        indice.aplicar("u1", FinalidadeConsentimento.MARKETING, false, 5);
+        assertEquals(2, indice.usuariosComConsentimento());
+
+        indice.aplicar("u1", FinalidadeConsentimento.ANALYTICS, false, 6);
+        assertEquals(1, indice.usuariosComConsentimento());
+        assertEquals(2, indice.usuarios());
+    }
+
+    @Test
+    @DisplayName("Deve aceitar finalidade por nome ou código")
+    void deveResolverFinalidade() {
+        assertEquals(FinalidadeConsentimento.COMPARTILHAMENTO_TERCEIROS,
+            FinalidadeConsentimento.de("compartilhamento_terceiros"));
+        assertEquals(FinalidadeConsentimento.MARKETING, FinalidadeConsentimento.de("MARKETING"));
+        assertThrows(IllegalArgumentException.class, () -> FinalidadeConsentimento.de("desconhecida"));
+    }
+}
@@ -0,0 +1,163 @@
+package br.tec.facilitaservicos.auditoria;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.tec.facilitaservicos.auditoria.aplicacao.dto.CriarEventoDto;
+import br.tec.facilitaservicos.auditoria.aplicacao.servico.EventoAuditoriaService;
+import br.tec.facilitaservicos.auditoria.aplicacao.servico.IngestaoLoteService;
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.ResultadoIngestaoItemDto;
+import br.tec.facilitaservicos.auditoria.dominio.enums.NivelSeveridade;
+import br.tec.facilitaservicos.auditoria.dominio.enums.TipoEvento;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * ============================================================================
+ * ✅ TESTES DA INGESTÃO DE EVENTOS EM LOTE
+ * ============================================================================
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Ingestão de Eventos em Lote")
+class IngestaoLoteServiceTest {
+
+    @Mock
+    private EventoAuditoriaService eventoService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private IngestaoLoteService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new IngestaoLoteService(eventoService,
+            Validation.buildDefaultValidatorFactory().getValidator(), meterRegistry);
+        ReflectionTestUtils.setField(service, "tamanhoLote", 2);
+        ReflectionTestUtils.setField(service, "maximoItens", 10_000L);
+    }
+
+    @Test
+    @DisplayName("Deve validar cada item e devolver os resultados na ordem do corpo")
+    void deveValidarEManterOrdem() {
+        CriarEventoDto primeiro = evento("user-1");
+        CriarEventoDto invalido = evento(null);
+        CriarEventoDto terceiro = evento("user-3");
+        CriarEventoDto quarto = evento("user-4");
+        when(eventoService.registrarLote(List.of(primeiro)))
+            .thenReturn(Mono.just(List.of(gravado("evt-1", "VALIDADO"))));
+        when(eventoService.registrarLote(List.of(terceiro, quarto)))
+            .thenReturn(Mono.just(List.of(gravado("evt-3", "VALIDADO"), gravado("evt-4", "CRIADO"))));
+
+        StepVerifier.create(service.ingerir(Flux.just(primeiro, invalido, terceiro, quarto)))
+            .expectNext(new ResultadoIngestaoItemDto(0, "evt-1", ResultadoIngestaoItemDto.GRAVADO, List.of()))
+            .assertNext(resultado -> {
+                assertEquals(1, resultado.indice());
+                assertEquals(ResultadoIngestaoItemDto.REJEITADO, resultado.status());
+                assertNull(resultado.id());
+                assertTrue(resultado.erros().getFirst().startsWith("usuarioId"));
+            })
+            .expectNext(new ResultadoIngestaoItemDto(2, "evt-3", ResultadoIngestaoItemDto.GRAVADO, List.of()))
+            .expectNext(new ResultadoIngestaoItemDto(3, "evt-4", ResultadoIngestaoItemDto.ACEITO, List.of()))
+            .verifyComplete();
+
+        InOrder ordem = inOrder(eventoService);
+        ordem.verify(eventoService).registrarLote(List.of(primeiro));
+        ordem.verify(eventoService).registrarLote(List.of(terceiro, quarto));
+        assertEquals(1.0, meterRegistry.get("audit.ingestao.lote.itens").tag("status", "rejeitado").counter().count());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar os itens além do máximo por requisição")
+    void deveRejeitarAlemDoMaximo() {
+        ReflectionTestUtils.setField(service, "maximoItens", 2L);
+        CriarEventoDto primeiro = evento("user-1");
+        CriarEventoDto segundo = evento("user-2");
+        when(eventoService.registrarLote(List.of(primeiro, segundo)))
+            .thenReturn(Mono.just(List.of(gravado("evt-1", "VALIDADO"), gravado("evt-2", "VALIDADO"))));
+        when(eventoService.registrarLote(List.of()))
+            .thenReturn(Mono.just(List.of()));
+
+        StepVerifier.create(service.ingerir(Flux.just(primeiro, segundo, evento("user-3"))))
+            .expectNextCount(2)
+            .assertNext(resultado -> {
+                assertEquals(2, resultado.indice());
+                assertEquals(ResultadoIngestaoItemDto.REJEITADO, resultado.status());
+                assertTrue(resultado.erros().getFirst().contains("Limite de 2"));
+            })
+            .verifyComplete();
+
+        verify(eventoService).registrarLote(List.of(primeiro, segundo));
+        verify(eventoService).registrarLote(List.of());
+    }
+
+    @Test
+    @DisplayName("Deve encerrar com FALHA na posição do corpo malformado")
+    void deveEncerrarEmCorpoMalformado() {
+        CriarEventoDto primeiro = evento("user-1");
+        when(eventoService.registrarLote(List.of(primeiro)))
+            .thenReturn(Mono.just(List.of(gravado("evt-1", "VALIDADO"))));
+
+        Flux<CriarEventoDto> corpo = Flux.just(primeiro)
+            .concatWith(Flux.error(new IllegalStateException("Unexpected character ('}' (code 125))")));
+
+        StepVerifier.create(service.ingerir(corpo))
+            .expectNext(new ResultadoIngestaoItemDto(0, "evt-1", ResultadoIngestaoItemDto.GRAVADO, List.of()))
+            .assertNext(resultado -> {
+                assertEquals(1, resultado.indice());
+                assertEquals(ResultadoIngestaoItemDto.FALHA, resultado.status());
+                assertTrue(resultado.erros().getFirst().startsWith("Corpo inválido"));
+            })
+            .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Deve marcar só os itens do lote que falhou e seguir com os demais")
+    void deveSeguirAposLoteComFalha() {
+        CriarEventoDto primeiro = evento("user-1");
+        CriarEventoDto segundo = evento("user-2");
+        CriarEventoDto terceiro = evento("user-3");
+        when(eventoService.registrarLote(List.of(primeiro, segundo)))
+            .thenReturn(Mono.error(new DataIntegrityViolationException("Duplicate entry")));
+        when(eventoService.registrarLote(List.of(terceiro)))
+            .thenReturn(Mono.just(List.of(gravado("evt-3", "VALIDADO"))));
+
+        StepVerifier.create(service.ingerir(Flux.just(primeiro, segundo, terceiro)))
+            .expectNext(ResultadoIngestaoItemDto.falha(0, "Duplicate entry"))
+            .expectNext(ResultadoIngestaoItemDto.falha(1, "Duplicate entry"))
+            .expectNext(new ResultadoIngestaoItemDto(2, "evt-3", ResultadoIngestaoItemDto.GRAVADO, List.of()))
+            .verifyComplete();
+
+        verify(eventoService, times(2)).registrarLote(anyList());
+    }
+
+    private static CriarEventoDto evento(String usuarioId) {
+        return CriarEventoDto.builder()
+            .tipoEvento(TipoEvento.LOGIN_SUCESSO)
+            .usuarioId(usuarioId)
+            .acaoRealizada("Login realizado com sucesso")
+            .severidade(NivelSeveridade.INFO)
+            .build();
+    }
+
+    private static EventoAuditoriaDto gravado(String id, String status) {
+        return new EventoAuditoriaDto(id, "LOGIN_SUCESSO", null, "user", null, "Login realizado com sucesso",
+            null, null, null, status, "INFO", null, null, null, null, null, false, "AUTENTICACAO", null, false, null);
+    }
+}
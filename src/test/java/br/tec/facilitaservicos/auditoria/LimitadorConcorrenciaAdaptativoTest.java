@@ -0,0 +1,86 @@
+package br.tec.facilitaservicos.auditoria;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import br.tec.facilitaservicos.auditoria.infraestrutura.carga.LimitadorConcorrenciaAdaptativo;
+
+/**
+ * ============================================================================
+ * ✅ TESTES DO LIMITE DE CONCORRÊNCIA ADAPTATIVO (AIMD)
+ * ============================================================================
+ */
+@DisplayName("Limite de Concorrência Adaptativo")
+class LimitadorConcorrenciaAdaptativoTest {
+
+    private static final long RAPIDA = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long LENTA = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private LimitadorConcorrenciaAdaptativo limitador;
+
+    @BeforeEach
+    void setUp() {
+        // limite 10 (2..20), redução 0.5, latência limite 100 ms
+        limitador = new LimitadorConcorrenciaAdaptativo(10, 2, 20, 0.5, TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    @DisplayName("Deve reservar parte do limite para as prioridades mais altas")
+    void deveRespeitarFracaoDoLimite() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limitador.tentarAdquirir(0.5));
+        }
+        assertFalse(limitador.tentarAdquirir(0.5));
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limitador.tentarAdquirir(1.0));
+        }
+        assertFalse(limitador.tentarAdquirir(1.0));
+        assertEquals(10, limitador.emVoo());
+    }
+
+    @Test
+    @DisplayName("Deve reduzir o limite com latência alta ou sobrecarga, até o mínimo")
+    void deveReduzirComLatenciaAlta() {
+        limitador.tentarAdquirir(1.0);
+        limitador.liberar(LENTA, false);
+        assertEquals(5, limitador.limite());
+
+        limitador.tentarAdquirir(1.0);
+        limitador.liberar(RAPIDA, true);
+        assertEquals(2, limitador.limite());
+
+        limitador.tentarAdquirir(1.0);
+        limitador.liberar(LENTA, false);
+        assertEquals(2, limitador.limite());
+        assertEquals(0, limitador.emVoo());
+    }
+
+    @Test
+    @DisplayName("Deve crescer só quando o limite está em uso")
+    void deveCrescerSoComLimiteEmUso() {
+        limitador.tentarAdquirir(1.0);
+        limitador.liberar(RAPIDA, false);
+        assertEquals(10, limitador.limite());
+
+        for (int i = 0; i < 6; i++) {
+            limitador.tentarAdquirir(1.0);
+        }
+        limitador.liberar(RAPIDA, false);
+        assertEquals(11, limitador.limite());
+    }
+
+    @Test
+    @DisplayName("Deve devolver a vaga sem ajustar o limite quando não há amostra")
+    void deveLiberarSemAmostra() {
+        limitador.tentarAdquirir(1.0);
+        limitador.liberarSemAmostra();
+        assertEquals(0, limitador.emVoo());
+        assertEquals(10, limitador.limite());
+    }
+}
@@ -0,0 +1,98 @@
+package br.tec.facilitaservicos.auditoria;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import br.tec.facilitaservicos.auditoria.apresentacao.dto.EventoAuditoriaDto;
+import br.tec.facilitaservicos.auditoria.dominio.enums.NivelSeveridade;
+import br.tec.facilitaservicos.auditoria.dominio.enums.TipoEvento;
+import br.tec.facilitaservicos.auditoria.infraestrutura.deteccao.MotorDeteccao;
+import br.tec.facilitaservicos.auditoria.infraestrutura.deteccao.MotorDeteccao.Ocorrencia;
+import br.tec.facilitaservicos.auditoria.infraestrutura.deteccao.RegraDeteccao;
+import br.tec.facilitaservicos.auditoria.infraestrutura.deteccao.RegraDeteccao.Chave;
+
+/**
+ * ============================================================================
+ * 🛡️ TESTES DO MOTOR DE DETECÇÃO (OCORRÊNCIAS POR REGRA)
+ * ============================================================================
+ */
+@DisplayName("Motor de Detecção")
+class MotorDeteccaoTest {
+
+    private static final Duration JANELA = Duration.ofMinutes(5);
+    private static final Duration CARENCIA = Duration.ofMinutes(15);
+
+    private MotorDeteccao motor;
+
+    @BeforeEach
+    void setUp() {
+        motor = new MotorDeteccao(List.of(
+            new RegraDeteccao("forca-bruta-ip", TipoEvento.LOGIN_FALHA, Chave.IP, 3, JANELA, false,
+                TipoEvento.LOGIN_BLOQUEADO, NivelSeveridade.ERROR, CARENCIA),
+            new RegraDeteccao("forca-bruta-usuario", TipoEvento.LOGIN_FALHA, Chave.USUARIO, 3, JANELA, false,
+                TipoEvento.LOGIN_BLOQUEADO, NivelSeveridade.ERROR, CARENCIA),
+            new RegraDeteccao("credential-stuffing", TipoEvento.LOGIN_FALHA, Chave.IP, 3, JANELA, true,
+                TipoEvento.TENTATIVA_INTRUSION, NivelSeveridade.CRITICAL, CARENCIA)
+        ));
+    }
+
+    @Test
+    @DisplayName("Deve contar o id do evento por chave, para que reentregas não somem duas vezes")
+    void deveUsarIdDoEventoComoMembro() {
+        EventoAuditoriaDto evento = falhaLogin("10.0.0.1", "user-1");
+
+        List<Ocorrencia> ocorrencias = motor.ocorrencias(evento);
+
+        assertEquals(3, ocorrencias.size());
+        Ocorrencia porIp = ocorrencias.get(0);
+        assertEquals("forca-bruta-ip", porIp.regra().nome());
+        assertEquals("10.0.0.1", porIp.chave());
+        assertEquals(evento.id(), porIp.membro());
+
+        Ocorrencia porUsuario = ocorrencias.get(1);
+        assertEquals("user-1", porUsuario.chave());
+        assertEquals(evento.id(), porUsuario.membro());
+        assertEquals(ocorrencias, motor.ocorrencias(evento));
+    }
+
+    @Test
+    @DisplayName("Deve contar usuários distintos por IP")
+    void deveContarUsuariosDistintos() {
+        Ocorrencia stuffing = motor.ocorrencias(falhaLogin("10.0.0.4", "user-2")).stream()
+            .filter(ocorrencia -> ocorrencia.regra().usuariosDistintos())
+            .findFirst()
+            .orElseThrow();
+
+        assertEquals("credential-stuffing", stuffing.regra().nome());
+        assertEquals("10.0.0.4", stuffing.chave());
+        assertEquals("user-2", stuffing.membro());
+    }
+
+    @Test
+    @DisplayName("Deve ignorar tipos sem regra e eventos sem chave")
+    void deveIgnorarEventosSemRegraOuChave() {
+        assertFalse(motor.observa("LOGIN_SUCESSO"));
+        assertTrue(motor.observa("LOGIN_FALHA"));
+
+        List<Ocorrencia> semIp = motor.ocorrencias(falhaLogin(null, "user-1"));
+        assertEquals(1, semIp.size());
+        assertEquals("forca-bruta-usuario", semIp.getFirst().regra().nome());
+
+        assertTrue(motor.ocorrencias(falhaLogin(" ", null)).isEmpty());
+    }
+
+    private static EventoAuditoriaDto falhaLogin(String ip, String usuarioId) {
+        return new EventoAuditoriaDto(
+            UUID.randomUUID().toString(), "LOGIN_FALHA", LocalDateTime.now(), usuarioId, null,
+            "Senha inválida", "USUARIO", usuarioId, null, "VALIDADO", "WARN", ip, null,
+            null, null, null, true, "AUTENTICACAO", null, false, LocalDateTime.now());
+    }
+}